@@ -0,0 +1,88 @@
+#!/usr/bin/env python3
+"""Сравнение результатов JMH (-rf json) с сохранённым baseline.
+
+Регрессия - результат хуже baseline больше чем на threshold процентов:
+для режима thrpt меньше, для avgt/sample/ss больше. Код выхода 1, если есть регрессии,
+если baseline пуст или если у результата нет записи в baseline (сравнить не с чем).
+
+    python3 benchmarks/compare.py benchmarks/baseline.json jmh-result.json --threshold 10
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        results = json.load(f)
+    by_key = {}
+    for result in results:
+        params = result.get("params") or {}
+        key = result["benchmark"] + "".join(f" {name}={params[name]}" for name in sorted(params))
+        by_key[key] = result
+    return by_key
+
+
+def change_percent(baseline, current):
+    base = baseline["primaryMetric"]["score"]
+    score = current["primaryMetric"]["score"]
+    if base == 0:
+        return 0.0
+    change = (score - base) / base * 100
+    # Для пропускной способности больше - лучше, для времени - хуже
+    return -change if current["mode"] == "thrpt" else change
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Flag JMH regressions against a stored baseline")
+    parser.add_argument("baseline", help="JMH JSON result used as the reference")
+    parser.add_argument("current", help="JMH JSON result of the run being checked")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="allowed slowdown in percent (default: 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+    if not baseline:
+        print(f"Baseline {args.baseline} is empty: record it with a -rf json run of the benchmarks jar")
+        return 1
+    regressions = 0
+    unmatched = 0
+
+    for key in sorted(current):
+        result = current[key]
+        unit = result["primaryMetric"]["scoreUnit"]
+        score = result["primaryMetric"]["score"]
+        if key not in baseline:
+            print(f"NEW        {key}: {score:.3f} {unit}")
+            unmatched += 1
+            continue
+        if baseline[key]["mode"] != result["mode"] or baseline[key]["primaryMetric"]["scoreUnit"] != unit:
+            print(f"SKIPPED    {key}: mode or unit differs from baseline")
+            unmatched += 1
+            continue
+        slowdown = change_percent(baseline[key], result)
+        base = baseline[key]["primaryMetric"]["score"]
+        if slowdown > args.threshold:
+            status = "REGRESSION"
+            regressions += 1
+        elif slowdown < -args.threshold:
+            status = "IMPROVED"
+        else:
+            status = "OK"
+        change = f"{slowdown:.1f}% slower" if slowdown >= 0 else f"{-slowdown:.1f}% faster"
+        print(f"{status:<10} {key}: {base:.3f} -> {score:.3f} {unit} ({change})")
+
+    for key in sorted(set(baseline) - set(current)):
+        print(f"MISSING    {key}")
+
+    if regressions:
+        print(f"{regressions} regression(s) above {args.threshold:g}%")
+    if unmatched:
+        print(f"{unmatched} result(s) without a comparable baseline entry: update {args.baseline}")
+    return 1 if regressions or unmatched else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,39 @@
+package com.casino.common.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT (HS256): проверка выполняется на каждом запросе к API,
+ * выпуск - при каждом входе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String username;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        username = "security.officer";
+        token = jwtUtils.generateToken(username);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(username);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+}
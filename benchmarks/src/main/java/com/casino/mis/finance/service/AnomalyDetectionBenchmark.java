@@ -0,0 +1,74 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выявление аномалий (UC12): прогон пачки операций через AnomalyDetectionEngine
+ * с порогами по умолчанию из application.yml. Около 2% операций крупные,
+ * часть касс получает всплески частых операций.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnomalyDetectionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int operations;
+
+    @Param({"10", "1000"})
+    private int desks;
+
+    private List<CashOperation> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        UUID[] deskIds = new UUID[desks];
+        for (int i = 0; i < desks; i++) {
+            deskIds[i] = new UUID(0, i);
+        }
+        OffsetDateTime time = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        batch = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            // Каждая десятая касса работает в 100 раз чаще остальных
+            int desk = random.nextInt(10) == 0 ? random.nextInt(Math.max(1, desks / 10)) : random.nextInt(desks);
+            time = time.plusSeconds(random.nextInt(30));
+            CashOperation op = new CashOperation();
+            op.setId(UUID.randomUUID());
+            op.setCashDeskId(deskIds[desk]);
+            op.setAmount(random.nextInt(50) == 0
+                    ? BigDecimal.valueOf(10_000 + random.nextInt(90_000))
+                    : BigDecimal.valueOf(10 + random.nextInt(5_000)));
+            op.setType(random.nextBoolean() ? OperationType.DEPOSIT : OperationType.WITHDRAWAL);
+            op.setOperatedAt(time);
+            batch.add(op);
+        }
+    }
+
+    @Benchmark
+    public int detect(Blackhole blackhole) {
+        AnomalyDetectionEngine engine = new AnomalyDetectionEngine(new BigDecimal("10000"), 10, 60);
+        int anomalies = 0;
+        for (CashOperation op : batch) {
+            List<?> found = engine.accept(op);
+            anomalies += found.size();
+            blackhole.consume(found);
+        }
+        return anomalies;
+    }
+}
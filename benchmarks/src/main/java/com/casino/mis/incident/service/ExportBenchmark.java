@@ -0,0 +1,104 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.Report;
+import com.casino.mis.incident.domain.ReportType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Экспорт отчёта (UC19): вёрстка PDF из HTML-фрагментов и потоковая запись Excel
+ * для регуляторного отчёта с rows строками детализации. Результат пишется в счётчик байт,
+ * поэтому в замер не попадает ни сеть, ни диск.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    private ExportService service;
+    private Report report;
+    private String reportData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new ExportService(null, new ObjectMapper(), null);
+        report = new Report();
+        report.setId(UUID.randomUUID());
+        report.setType(ReportType.REGULATORY);
+        report.setPeriodStart(OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        report.setPeriodEnd(OffsetDateTime.of(2025, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        reportData = regulatoryReportData(rows);
+    }
+
+    @Benchmark
+    public long pdf() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        service.writePdf(report, new StringReader(reportData), out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long excel() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        service.writeExcel(report, new StringReader(reportData), out);
+        return out.count;
+    }
+
+    // JSON в формате ReportService.regulatoryReportData: incidents (60%), complaints и violations (по 20%)
+    static String regulatoryReportData(int rows) {
+        int incidents = rows * 3 / 5;
+        int complaints = rows / 5;
+        StringBuilder json = new StringBuilder(rows * 200);
+        json.append("{\"periodStart\":\"2025-01-01T00:00Z\",\"periodEnd\":\"2025-02-01T00:00Z\",\"incidents\":[");
+        appendRows(json, 0, incidents, "THEFT");
+        json.append("],\"complaints\":[");
+        appendRows(json, incidents, incidents + complaints, "SERVICE_QUALITY");
+        json.append("],\"violations\":[");
+        appendRows(json, incidents + complaints, rows, "LATE");
+        json.append("]}");
+        return json.toString();
+    }
+
+    private static void appendRows(StringBuilder json, int from, int to, String type) {
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(new UUID(0, i))
+                    .append("\",\"type\":\"").append(type)
+                    .append("\",\"location\":\"Hall ").append(i % 12)
+                    .append("\",\"occurredAt\":\"2025-01-01T10:00:00Z\",\"status\":\"OPEN\"")
+                    .append(",\"description\":\"Generated row #").append(i)
+                    .append("\"}");
+        }
+    }
+
+    static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
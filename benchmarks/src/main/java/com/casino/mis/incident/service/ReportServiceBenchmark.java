@@ -0,0 +1,144 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.*;
+import com.casino.mis.incident.dto.ManagementReportRequest;
+import com.casino.mis.incident.dto.RegulatoryReportRequest;
+import com.casino.mis.incident.repository.ComplaintRepository;
+import com.casino.mis.incident.repository.DisciplinaryViolationRepository;
+import com.casino.mis.incident.repository.IncidentRepository;
+import com.casino.mis.incident.repository.ReportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Формирование отчётов (UC17, UC18) без базы: репозитории заменены заглушками с готовыми
+ * результатами запросов, поэтому замеряется только свёртка групп, построчная детализация
+ * и сериализация reportData в JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime END = START.plusMonths(1);
+
+    // Строк детализации в регуляторном отчёте; сотрудников с повторными нарушениями - десятая часть
+    @Param({"100", "10000", "100000"})
+    private int rows;
+
+    private ReportService service;
+    private ObjectMapper objectMapper;
+    private Map<String, Object> reportData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<IncidentRepository.IncidentRow> incidents = new ArrayList<>();
+        List<ComplaintRepository.ComplaintRow> complaints = new ArrayList<>();
+        List<DisciplinaryViolationRepository.ViolationRow> violations = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            UUID id = new UUID(0, i);
+            OffsetDateTime at = START.plusMinutes(random.nextInt(40_000));
+            switch (i % 5) {
+                case 0, 1, 2 -> incidents.add(row(IncidentRepository.IncidentRow.class, Map.of(
+                        "getId", id, "getType", pick(IncidentType.values(), random), "getLocation", "Hall " + i % 12,
+                        "getOccurredAt", at, "getStatus", pick(IncidentStatus.values(), random),
+                        "getDescription", "Generated incident #" + i)));
+                case 3 -> complaints.add(row(ComplaintRepository.ComplaintRow.class, Map.of(
+                        "getId", id, "getCategory", pick(ComplaintCategory.values(), random), "getReportedAt", at,
+                        "getStatus", pick(ComplaintStatus.values(), random), "getSource", pick(ComplaintSource.values(), random))));
+                default -> violations.add(row(DisciplinaryViolationRepository.ViolationRow.class, Map.of(
+                        "getId", id, "getEmployeeId", new UUID(1, i % 500), "getType", pick(ViolationType.values(), random),
+                        "getOccurredAt", at, "getStatus", pick(ViolationStatus.values(), random))));
+            }
+        }
+        List<Object[]> repeated = new ArrayList<>();
+        for (int i = 0; i < rows / 10; i++) {
+            repeated.add(new Object[]{new UUID(1, i), 3L + random.nextInt(10)});
+        }
+
+        IncidentRepository incidentRepository = repository(IncidentRepository.class, Map.of(
+                "countByTypeAndStatus", groups(IncidentType.values(), IncidentStatus.values(), random),
+                "findRowsByPeriod", incidents));
+        ComplaintRepository complaintRepository = repository(ComplaintRepository.class, Map.of(
+                "countByCategoryAndStatus", groups(ComplaintCategory.values(), ComplaintStatus.values(), random),
+                "findRowsByPeriod", complaints));
+        DisciplinaryViolationRepository violationRepository = repository(DisciplinaryViolationRepository.class, Map.of(
+                "countByTypeAndStatus", groups(ViolationType.values(), ViolationStatus.values(), random),
+                "findEmployeesWithRepeatedViolations", repeated,
+                "findRowsByPeriod", violations));
+        ReportRepository reportRepository = repository(ReportRepository.class, Map.of());
+
+        objectMapper = new ObjectMapper();
+        service = new ReportService(reportRepository, incidentRepository, complaintRepository, violationRepository,
+                objectMapper, null);
+        try {
+            reportData = objectMapper.readValue(service.generateRegulatoryReport(
+                    new RegulatoryReportRequest(START, END, null)).getReportData(), Map.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Report managementReport() {
+        return service.generateManagementReport(new ManagementReportRequest(START, END, null));
+    }
+
+    @Benchmark
+    public Report regulatoryReport() {
+        return service.generateRegulatoryReport(new RegulatoryReportRequest(START, END, null));
+    }
+
+    // Только Jackson: та же reportData, что пишет regulatoryReport
+    @Benchmark
+    public String serializeReportData() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(reportData);
+    }
+
+    // Результаты GROUP BY по всем сочетаниям [key, status, count]
+    private static List<Object[]> groups(Enum<?>[] keys, Enum<?>[] statuses, Random random) {
+        List<Object[]> groups = new ArrayList<>();
+        for (Enum<?> key : keys) {
+            for (Enum<?> status : statuses) {
+                groups.add(new Object[]{key, status, 1L + random.nextInt(1000)});
+            }
+        }
+        return groups;
+    }
+
+    private static <T> T pick(T[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Проекция Spring Data: геттер возвращает значение по имени метода
+    private static <T> T row(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> values.get(method.getName())));
+    }
+
+    // Репозиторий отдаёт заранее подготовленный результат по имени метода, save возвращает аргумент
+    private static <T> T repository(Class<T> type, Map<String, Object> results) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        return args[0];
+                    }
+                    if (results.containsKey(method.getName())) {
+                        return results.get(method.getName());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,45 @@
+package com.casino.mis.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Очистка пользовательского ввода от HTML: обычный текст описания инцидента
+ * и текст с разметкой и вставками script/onerror той же длины.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HtmlSanitizerBenchmark {
+
+    @Param({"100", "10000"})
+    private int length;
+
+    @Param({"PLAIN", "HTML"})
+    private String content;
+
+    private HtmlSanitizer sanitizer;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sanitizer = new HtmlSanitizer();
+        String fragment = "HTML".equals(content)
+                ? "<p>Игрок <b>за столом 7</b> <script>alert(1)</script><img src=x onerror=alert(2)> & "
+                : "Игрок за столом 7 повысил голос на крупье, вызвана охрана. ";
+        StringBuilder text = new StringBuilder(length + fragment.length());
+        while (text.length() < length) {
+            text.append(fragment);
+        }
+        input = text.substring(0, length);
+    }
+
+    @Benchmark
+    public String sanitizeToPlainText() {
+        return sanitizer.sanitizeToPlainText(input);
+    }
+}
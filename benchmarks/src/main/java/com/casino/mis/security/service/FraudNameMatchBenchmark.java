@@ -0,0 +1,100 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.FraudDatabase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сверка имени с базой мошенников (UC6): нечёткий поиск по FraudMatchIndex,
+ * которым FraudCheckService ищет совпадения, и оценка схожести одной пары имён.
+ * Запросы - имена из базы с опечатками и в кириллице.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudNameMatchBenchmark {
+
+    private static final String[] FIRST = {"Ivan", "Petr", "Sergey", "Alexey", "Dmitry", "Mikhail", "Andrey", "Nikolay", "Oleg", "Pavel"};
+    private static final String[] LAST = {"Ivanov", "Petrov", "Sidorov", "Smirnov", "Kuznetsov", "Popov", "Volkov", "Sokolov", "Lebedev", "Kozlov"};
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+
+        @Param({"1000", "100000", "1000000"})
+        private int records;
+
+        private FraudMatchIndex index;
+        private String[] queries;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            List<FraudDatabase> database = new ArrayList<>(records);
+            for (int i = 0; i < records; i++) {
+                FraudDatabase record = new FraudDatabase();
+                record.setId(UUID.randomUUID());
+                record.setPersonId("P-" + i);
+                record.setFullName(FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                        + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26)) + random.nextInt(1000));
+                record.setFraudType(FraudDatabase.FraudType.CHEATING);
+                record.setDescription("benchmark");
+                record.setStatus(FraudDatabase.FraudStatus.ACTIVE);
+                database.add(record);
+            }
+            index = new FraudMatchIndex(null, null, 10);
+            index.addAll(database);
+
+            queries = new String[1024];
+            for (int i = 0; i < queries.length; i++) {
+                String name = database.get(random.nextInt(records)).getFullName();
+                queries[i] = switch (i % 3) {
+                    case 0 -> name;
+                    // Перестановка двух соседних букв
+                    case 1 -> name.substring(0, 2) + name.charAt(3) + name.charAt(2) + name.substring(4);
+                    default -> "Сергей Волков";
+                };
+            }
+        }
+
+        String nextQuery() {
+            return queries[next++ & (queries.length - 1)];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PairState {
+
+        private String query = "Сергей Волкофф";
+        private String candidate = "Sergey Volkov";
+    }
+
+    @Benchmark
+    public List<FraudMatchIndex.Match> search(IndexState state) {
+        return state.index.search(state.nextQuery(), 70.0);
+    }
+
+    // Нормализация, токены и фонетика обеих сторон плюс итоговая оценка
+    @Benchmark
+    public double nameSimilarity(PairState state) {
+        String[] queryTokens = FraudNameMatcher.tokens(FraudNameMatcher.normalize(state.query));
+        String[] tokens = FraudNameMatcher.tokens(FraudNameMatcher.normalize(state.candidate));
+        return FraudNameMatcher.score(queryTokens, phonetic(queryTokens), FraudNameMatcher.sortedJoin(queryTokens),
+                tokens, phonetic(tokens), FraudNameMatcher.sortedJoin(tokens));
+    }
+
+    private static String[] phonetic(String[] tokens) {
+        String[] keys = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            keys[i] = FraudNameMatcher.phoneticKey(tokens[i]);
+        }
+        return keys;
+    }
+}
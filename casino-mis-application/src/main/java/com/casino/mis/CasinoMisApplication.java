@@ -3,9 +3,11 @@ package com.casino.mis;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class CasinoMisApplication {
     public static void main(String[] args) {
         SpringApplication.run(CasinoMisApplication.class, args);
@@ -0,0 +1,86 @@
+package com.casino.mis.config;
+
+import com.casino.mis.security.service.NotificationSubscriptionGuard;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP поверх WebSocket для push-уведомлений консолям службы безопасности (UC7).
+ * Консоль подключается к /ws и подписывается на /topic/notifications/{recipientId};
+ * чужие топики и шаблоны отклоняются {@link NotificationSubscriptionGuard}.
+ * Подтверждения доставки и прочтения отправляются на /app/notifications/{id}/delivered и /read
+ * и принимаются только от получателя уведомления или начальника смены.
+ * Медленный клиент не тормозит рассылку: исходящие сообщения буферизуются на сессию,
+ * при превышении лимита времени или размера буфера сессия закрывается, и консоль
+ * после переподключения догружает пропущенное через REST.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    @Value("${security.notifications.push.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${security.notifications.push.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${security.notifications.push.send-buffer-size-bytes:524288}")
+    private int sendBufferSizeBytes;
+
+    @Value("${security.notifications.push.outbound-threads:4}")
+    private int outboundThreads;
+
+    private final NotificationSubscriptionGuard subscriptionGuard;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    public WebSocketConfig(NotificationSubscriptionGuard subscriptionGuard) {
+        this.subscriptionGuard = subscriptionGuard;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        // Heartbeat в обе стороны: оборванные соединения закрываются без ожидания TCP-таймаута
+        registry.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[]{heartbeatMs, heartbeatMs})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeBytes)
+                .setMessageSizeLimit(64 * 1024);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(subscriptionGuard);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundThreads).maxPoolSize(outboundThreads);
+    }
+}
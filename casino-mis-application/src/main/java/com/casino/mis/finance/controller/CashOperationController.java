@@ -1,15 +1,35 @@
 package com.casino.mis.finance.controller;
 
 import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.dto.CashOperationBatchResponse;
+import com.casino.mis.finance.dto.CashOperationBatchResult;
+import com.casino.mis.finance.dto.CashOperationFilter;
+import com.casino.mis.finance.dto.CashOperationPageResponse;
 import com.casino.mis.finance.dto.CashOperationRequest;
 import com.casino.mis.finance.dto.CashOperationResponse;
+import com.casino.mis.finance.service.CashOperationIngestService;
 import com.casino.mis.finance.service.CashOperationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -18,10 +38,18 @@ import java.util.stream.Collectors;
 @Tag(name = "Cash Operations", description = "UC9: Регистрация финансовых операций")
 public class CashOperationController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final CashOperationService service;
+    private final CashOperationIngestService ingestService;
+    private final ObjectMapper objectMapper;
 
-    public CashOperationController(CashOperationService service) {
+    public CashOperationController(CashOperationService service,
+                                   CashOperationIngestService ingestService,
+                                   ObjectMapper objectMapper) {
         this.service = service;
+        this.ingestService = ingestService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -29,22 +57,145 @@ public class CashOperationController {
     @Operation(summary = "Создать операцию", description = "UC9: Регистрация новой финансовой операции (DEPOSIT или WITHDRAWAL)")
     public CashOperationResponse create(@RequestBody @jakarta.validation.Valid CashOperationRequest req) {
         CashOperation op = service.create(req);
-        return new CashOperationResponse(op.getId(), op.getCashDeskId(), op.getAmount(), op.getType(), op.getCurrency(), op.getOperatedAt());
+        return toResponse(op);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Создать пакет операций", description = "UC9: Пакетная синхронизация операций кассы (JSON-массив). Каждая операция проверяется отдельно; повтор по (cashDeskId, idempotencyKey) возвращается как DUPLICATE с id исходной операции.")
+    public CashOperationBatchResponse createBatch(@RequestBody List<CashOperationRequest> requests) {
+        return ingestService.ingest(requests);
+    }
+
+    @PostMapping(value = "/batch", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    @Operation(summary = "Создать пакет операций потоком", description = "UC9: Пакетная синхронизация в формате NDJSON (одна операция на строку). Результаты по операциям возвращаются NDJSON по мере записи.")
+    public void createBatchStream(InputStream body, HttpServletResponse response) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        ObjectReader requestReader = objectMapper.readerFor(CashOperationRequest.class);
+        ObjectWriter resultWriter = objectMapper.writerFor(CashOperationBatchResult.class);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON.toString());
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        ingestService.ingest(new NdjsonIterator(reader, requestReader), result -> {
+            try {
+                out.write(resultWriter.writeValueAsBytes(result));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
     }
 
     @GetMapping
     @Operation(summary = "Получить все операции", description = "Получить список всех финансовых операций")
     public List<CashOperationResponse> all() {
         return service.all().stream()
-                .map(op -> new CashOperationResponse(op.getId(), op.getCashDeskId(), op.getAmount(), op.getType(), op.getCurrency(), op.getOperatedAt()))
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Получить страницу операций", description = "Keyset-пагинация по (operatedAt, id) с фильтрами по кассе, типу, валюте и периоду. Для следующей страницы передайте nextCursor в параметре cursor.")
+    public CashOperationPageResponse page(
+            @RequestParam(required = false) UUID cashDeskId,
+            @RequestParam(required = false) OperationType type,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CashOperationService.DEFAULT_PAGE_SIZE) int limit) {
+        CashOperationFilter filter = new CashOperationFilter(cashDeskId, type, currency, from, to);
+        int size = Math.max(1, Math.min(limit, CashOperationService.MAX_PAGE_SIZE));
+        List<CashOperation> ops = service.page(filter, cursor, size);
+
+        String nextCursor = null;
+        if (ops.size() > size) {
+            ops = ops.subList(0, size);
+            nextCursor = CashOperationService.encodeCursor(ops.get(size - 1));
+        }
+        return new CashOperationPageResponse(
+                ops.stream().map(this::toResponse).collect(Collectors.toList()),
+                nextCursor
+        );
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Выгрузить операции потоком", description = "Выгрузка операций в формате NDJSON (одна операция на строку) с постоянным расходом памяти. Поддерживает те же фильтры, что и постраничный список.")
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(required = false) UUID cashDeskId,
+            @RequestParam(required = false) OperationType type,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        CashOperationFilter filter = new CashOperationFilter(cashDeskId, type, currency, from, to);
+        ObjectWriter writer = objectMapper.writerFor(CashOperationResponse.class);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+            service.stream(filter, op -> {
+                try {
+                    out.write(writer.writeValueAsBytes(toResponse(op)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Получить операцию по ID", description = "Получить детальную информацию об операции")
     public CashOperationResponse one(@PathVariable("id") UUID id) {
         CashOperation op = service.get(id);
+        return toResponse(op);
+    }
+
+    private CashOperationResponse toResponse(CashOperation op) {
         return new CashOperationResponse(op.getId(), op.getCashDeskId(), op.getAmount(), op.getType(), op.getCurrency(), op.getOperatedAt());
     }
-}
 
+    // Строки NDJSON по одной; пустые строки пропускаются, нераспознанные отдаются как null
+    private static class NdjsonIterator implements Iterator<CashOperationRequest> {
+
+        private final BufferedReader reader;
+        private final ObjectReader requestReader;
+        private String line;
+
+        NdjsonIterator(BufferedReader reader, ObjectReader requestReader) {
+            this.reader = reader;
+            this.requestReader = requestReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (line == null || line.isBlank()) {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public CashOperationRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String current = line;
+            line = null;
+            try {
+                return requestReader.readValue(current);
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+    }
+}
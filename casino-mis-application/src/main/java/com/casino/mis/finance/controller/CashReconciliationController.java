@@ -3,6 +3,7 @@ package com.casino.mis.finance.controller;
 import com.casino.mis.finance.domain.CashRegisterReconciliation;
 import com.casino.mis.finance.dto.CashReconciliationRequest;
 import com.casino.mis.finance.dto.CashReconciliationResponse;
+import com.casino.mis.finance.dto.LedgerRebuildResponse;
 import com.casino.mis.finance.service.CashReconciliationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +11,7 @@ import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -53,6 +55,13 @@ public class CashReconciliationController {
         return toResponse(service.updateStatus(id, status));
     }
 
+    @PostMapping("/ledger/rebuild")
+    @Operation(summary = "Пересобрать журнал балансов касс", description = "UC11: Полная пересборка почасовых остатков касс из операций. На время пересборки запись операций блокируется.")
+    public LedgerRebuildResponse rebuildLedger() {
+        int buckets = service.rebuildLedger();
+        return new LedgerRebuildResponse(buckets, OffsetDateTime.now());
+    }
+
     private CashReconciliationResponse toResponse(CashRegisterReconciliation reconciliation) {
         return new CashReconciliationResponse(
                 reconciliation.getId(),
@@ -4,13 +4,15 @@ import com.casino.mis.finance.domain.FinancialReport;
 import com.casino.mis.finance.dto.FinancialReportRequest;
 import com.casino.mis.finance.dto.FinancialReportResponse;
 import com.casino.mis.finance.service.FinancialReportService;
+import com.casino.mis.jobs.dto.ReportJobResponse;
+import com.casino.mis.jobs.mapper.ReportJobMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.UUID;
 
@@ -29,28 +31,36 @@ public class FinancialReportController {
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Создать финансовый отчёт", description = "UC10: Генерация CSV отчёта по финансовым операциям за период. Отчёт сохраняется в S3.")
     public FinancialReportResponse generate(@RequestBody @jakarta.validation.Valid FinancialReportRequest req) {
-        FinancialReport report = service.generateCsvReport(req);
+        return toResponse(service.generateCsvReport(req));
+    }
+
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Поставить финансовый отчёт в очередь", description = "UC10: CSV отчёт формируется в фоне. Возвращает задание; прогресс, отмена и результат доступны через /api/jobs/{id}.")
+    public ReportJobResponse submit(@RequestBody @jakarta.validation.Valid FinancialReportRequest req) {
+        return ReportJobMapper.toDto(service.submitCsvReport(req));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Получить финансовый отчёт", description = "Метаданные отчёта; csvUrl заполняется после формирования")
+    public FinancialReportResponse getById(@PathVariable UUID id) {
+        return toResponse(service.findById(id));
+    }
+
+    @GetMapping("/{id}/download")
+    @Operation(summary = "Скачать финансовый отчёт", description = "Потоковое скачивание CSV отчёта из MinIO по идентификатору отчёта. Поддерживает заголовок Range для докачки.")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        return service.downloadReport(id, range);
+    }
+
+    private FinancialReportResponse toResponse(FinancialReport report) {
         return new FinancialReportResponse(
                 report.getId(),
                 report.getPeriodStart(),
                 report.getPeriodEnd(),
-                report.getCsvUrl()
+                report.getCsvUrl(),
+                report.getStatus()
         );
     }
-
-    @GetMapping("/{id}/download")
-    @Operation(summary = "Скачать финансовый отчёт", description = "Скачивание CSV отчёта из MinIO по идентификатору отчёта")
-    public ResponseEntity<byte[]> downloadReport(@PathVariable UUID id) {
-        byte[] reportBytes = service.downloadReport(id);
-        
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", "report_" + id + ".csv");
-        headers.setContentLength(reportBytes.length);
-        
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(reportBytes);
-    }
 }
-
@@ -4,6 +4,8 @@ import com.casino.mis.finance.domain.GameSessionAnalysis;
 import com.casino.mis.finance.dto.GameAnalysisRequest;
 import com.casino.mis.finance.dto.GameAnalysisResponse;
 import com.casino.mis.finance.service.GameAnalysisService;
+import com.casino.mis.jobs.dto.ReportJobResponse;
+import com.casino.mis.jobs.mapper.ReportJobMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -34,6 +36,13 @@ public class GameAnalysisController {
         return toResponse(analysis);
     }
 
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Поставить анализ в очередь", description = "UC13: Анализ выполняется в фоне. Возвращает задание; прогресс, отмена и результат доступны через /api/jobs/{id}.")
+    public ReportJobResponse submitAnalysis(@RequestBody @Valid GameAnalysisRequest request) {
+        return ReportJobMapper.toDto(service.submitAnalysis(request));
+    }
+
     @GetMapping("/{id}")
     public GameAnalysisResponse getById(@PathVariable UUID id) {
         return toResponse(service.findById(id));
@@ -0,0 +1,26 @@
+package com.casino.mis.finance.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "anomaly_detection_checkpoints")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnomalyDetectionCheckpoint {
+
+    @Id
+    private String name;
+
+    private OffsetDateTime lastOperatedAt; // Время последней обработанной операции
+
+    private UUID lastOperationId; // Ключ последней обработанной операции
+
+    private OffsetDateTime updatedAt = OffsetDateTime.now();
+}
@@ -0,0 +1,41 @@
+package com.casino.mis.finance.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// UC11: Накопленные суммы операций кассы за часовой интервал
+@Entity
+@Table(name = "cash_desk_balance_buckets")
+@IdClass(CashDeskBalanceBucket.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashDeskBalanceBucket {
+
+    @Id
+    private UUID cashDeskId;
+
+    @Id
+    private OffsetDateTime bucketStart; // Начало часа в UTC
+
+    private BigDecimal deposits = BigDecimal.ZERO;
+    private BigDecimal withdrawals = BigDecimal.ZERO;
+    private Long operationsCount = 0L;
+
+    private OffsetDateTime updatedAt = OffsetDateTime.now();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private UUID cashDeskId;
+        private OffsetDateTime bucketStart;
+    }
+}
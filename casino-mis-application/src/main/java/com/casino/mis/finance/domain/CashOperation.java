@@ -9,8 +9,10 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+// Таблица секционирована по operated_at; уникальность ключа идемпотентности - в CashOperationIdempotencyKey
 @Entity
-@Table(name = "cash_operations")
+@Table(name = "cash_operations",
+        indexes = @Index(name = "idx_cash_operations_desk_idempotency_key", columnList = "cash_desk_id, idempotency_key"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -29,6 +31,8 @@ public class CashOperation {
     private String currency = "USD";
 
     private OffsetDateTime operatedAt = OffsetDateTime.now();
+
+    private String idempotencyKey; // Ключ клиента кассы для повторной отправки без дублей
 }
 
 
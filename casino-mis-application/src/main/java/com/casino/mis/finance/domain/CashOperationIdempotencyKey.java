@@ -0,0 +1,39 @@
+package com.casino.mis.finance.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// UC9: Занятые ключи идемпотентности касс. cash_operations секционирована по времени операции,
+// поэтому уникальность (cash_desk_id, idempotency_key) по всем секциям держится здесь
+@Entity
+@Table(name = "cash_operation_idempotency_keys")
+@IdClass(CashOperationIdempotencyKey.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashOperationIdempotencyKey {
+
+    @Id
+    private UUID cashDeskId;
+
+    @Id
+    private String idempotencyKey;
+
+    private UUID operationId;
+
+    private OffsetDateTime operatedAt; // Для удаления ключей вместе с архивированными секциями
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private UUID cashDeskId;
+        private String idempotencyKey;
+    }
+}
@@ -28,8 +28,11 @@ public class FinancialReport {
     private FinancialReportStatus status = FinancialReportStatus.READY;
 
     public enum FinancialReportStatus { 
+        QUEUED,     // Ожидает асинхронного формирования
+        RUNNING,    // Формируется
         READY, 
-        PROCESSING 
+        PROCESSING,
+        FAILED      // Ошибка или отмена формирования
     }
 }
 
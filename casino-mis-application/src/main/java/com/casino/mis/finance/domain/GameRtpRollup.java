@@ -0,0 +1,50 @@
+package com.casino.mis.finance.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// UC13: Почасовые агрегаты ставок и выигрышей по столу/автомату
+@Entity
+@Table(name = "game_rtp_hourly_rollups")
+@IdClass(GameRtpRollup.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GameRtpRollup {
+
+    @Id
+    private UUID cashDeskId; // Стол/автомат - касса операции, как в анализе UC13
+
+    @Id
+    private OffsetDateTime bucketStart; // Начало часа в UTC
+
+    private BigDecimal betsAmount = BigDecimal.ZERO;
+    private Long betsCount = 0L;
+    private BigDecimal winsAmount = BigDecimal.ZERO;
+    private Long winsCount = 0L;
+    private BigDecimal maxWin = BigDecimal.ZERO;
+
+    // Гистограмма крупных выигрышей: количество выигрышей строго больше границы
+    private Long winsOver1000 = 0L;
+    private Long winsOver5000 = 0L;
+    private Long winsOver10000 = 0L;
+    private Long winsOver50000 = 0L;
+    private Long winsOver100000 = 0L;
+
+    private OffsetDateTime updatedAt = OffsetDateTime.now();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private UUID cashDeskId;
+        private OffsetDateTime bucketStart;
+    }
+}
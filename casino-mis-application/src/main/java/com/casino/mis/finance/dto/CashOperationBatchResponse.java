@@ -0,0 +1,18 @@
+package com.casino.mis.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashOperationBatchResponse {
+
+    private int created;
+    private int duplicates;
+    private int rejected;
+    private List<CashOperationBatchResult> results;
+}
@@ -0,0 +1,26 @@
+package com.casino.mis.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashOperationBatchResult {
+
+    private int index; // Позиция операции в запросе
+    private String idempotencyKey;
+    private Status status;
+    private UUID id; // Для DUPLICATE - ранее созданная операция
+    private List<String> errors;
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        REJECTED
+    }
+}
@@ -0,0 +1,25 @@
+package com.casino.mis.finance.dto;
+
+import com.casino.mis.finance.domain.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashOperationFilter {
+
+    private UUID cashDeskId; // Если null - все кассы
+
+    private OperationType type;
+
+    private String currency;
+
+    private OffsetDateTime from;
+
+    private OffsetDateTime to;
+}
@@ -0,0 +1,17 @@
+package com.casino.mis.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CashOperationPageResponse {
+
+    private List<CashOperationResponse> items;
+
+    private String nextCursor; // null - страниц больше нет
+}
@@ -4,12 +4,15 @@ import com.casino.mis.finance.domain.OperationType;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Data
@@ -30,6 +33,13 @@ public class CashOperationRequest {
 
     @NotBlank(message = "Currency is required")
     private String currency;
+
+    // Время операции на кассе при синхронизации после обрыва связи; по умолчанию - время приёма
+    @PastOrPresent(message = "Operation time must not be in the future")
+    private OffsetDateTime operatedAt;
+
+    @Size(max = 100, message = "Idempotency key must be at most 100 characters")
+    private String idempotencyKey;
 }
 
 
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.casino.mis.finance.domain.FinancialReport;
+
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -16,6 +18,7 @@ public class FinancialReportResponse {
     private LocalDate periodStart;
     private LocalDate periodEnd;
     private String csvUrl;
+    private FinancialReport.FinancialReportStatus status;
 }
 
 
@@ -0,0 +1,16 @@
+package com.casino.mis.finance.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerRebuildResponse {
+
+    private int buckets;
+    private OffsetDateTime rebuiltAt;
+}
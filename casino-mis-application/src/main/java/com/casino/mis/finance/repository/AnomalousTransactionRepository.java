@@ -12,6 +12,7 @@ public interface AnomalousTransactionRepository extends JpaRepository<AnomalousT
     List<AnomalousTransaction> findByStatus(AnomalousTransaction.AnomalyStatus status);
     List<AnomalousTransaction> findByDetectedAtBetween(OffsetDateTime start, OffsetDateTime end);
     List<AnomalousTransaction> findByRiskLevel(AnomalousTransaction.RiskLevel riskLevel);
+    boolean existsByCashOperationIdAndType(UUID cashOperationId, AnomalousTransaction.AnomalyType type);
 }
 
 
@@ -0,0 +1,7 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.AnomalyDetectionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AnomalyDetectionCheckpointRepository extends JpaRepository<AnomalyDetectionCheckpoint, String> {
+}
@@ -0,0 +1,61 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.CashDeskBalanceBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public interface CashDeskBalanceBucketRepository
+        extends JpaRepository<CashDeskBalanceBucket, CashDeskBalanceBucket.Key> {
+
+    // Атомарное прибавление операций к интервалу; конкурирующие кассы блокируют только свою строку
+    @Modifying
+    @Query(value = "INSERT INTO cash_desk_balance_buckets " +
+            "(cash_desk_id, bucket_start, deposits, withdrawals, operations_count, updated_at) " +
+            "VALUES (:cashDeskId, :bucketStart, :deposits, :withdrawals, :operationsCount, :now) " +
+            "ON CONFLICT (cash_desk_id, bucket_start) DO UPDATE SET " +
+            "deposits = cash_desk_balance_buckets.deposits + EXCLUDED.deposits, " +
+            "withdrawals = cash_desk_balance_buckets.withdrawals + EXCLUDED.withdrawals, " +
+            "operations_count = cash_desk_balance_buckets.operations_count + EXCLUDED.operations_count, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int add(@Param("cashDeskId") UUID cashDeskId,
+            @Param("bucketStart") OffsetDateTime bucketStart,
+            @Param("deposits") BigDecimal deposits,
+            @Param("withdrawals") BigDecimal withdrawals,
+            @Param("operationsCount") long operationsCount,
+            @Param("now") OffsetDateTime now);
+
+    // Баланс по полным интервалам [from, to): читается по первичному ключу
+    @Query("SELECT COALESCE(SUM(b.deposits - b.withdrawals), 0) FROM CashDeskBalanceBucket b " +
+           "WHERE b.cashDeskId = :cashDeskId AND b.bucketStart >= :from AND b.bucketStart < :to")
+    BigDecimal sumNet(@Param("cashDeskId") UUID cashDeskId,
+                      @Param("from") OffsetDateTime from,
+                      @Param("to") OffsetDateTime to);
+
+    // Пересборка блокирует новые записи в журнал до конца транзакции
+    @Modifying
+    @Query(value = "LOCK TABLE cash_desk_balance_buckets IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query("DELETE FROM CashDeskBalanceBucket b")
+    int deleteAllBuckets();
+
+    @Modifying
+    @Query(value = "INSERT INTO cash_desk_balance_buckets " +
+            "(cash_desk_id, bucket_start, deposits, withdrawals, operations_count, updated_at) " +
+            "SELECT o.cash_desk_id, date_trunc('hour', o.operated_at AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', " +
+            "SUM(CASE WHEN o.type = 'DEPOSIT' THEN o.amount ELSE 0 END), " +
+            "SUM(CASE WHEN o.type = 'DEPOSIT' THEN 0 ELSE o.amount END), " +
+            "COUNT(*), now() " +
+            "FROM cash_operations o " +
+            "GROUP BY o.cash_desk_id, date_trunc('hour', o.operated_at AT TIME ZONE 'UTC')",
+            nativeQuery = true)
+    int rebuildFromOperations();
+}
@@ -0,0 +1,20 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.CashOperationIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+public interface CashOperationIdempotencyKeyRepository
+        extends JpaRepository<CashOperationIdempotencyKey, CashOperationIdempotencyKey.Key> {
+
+    // Ключи операций из архивированных секций (PartitionMaintenanceService)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CashOperationIdempotencyKey k WHERE k.operatedAt < :before")
+    int deleteOperatedBefore(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,23 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.dto.CashOperationFilter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface CashOperationQueries {
+
+    // Keyset-страница в порядке (operatedAt, id): строки строго после (afterOperatedAt, afterId)
+    List<CashOperation> findPage(CashOperationFilter filter, OffsetDateTime afterOperatedAt, UUID afterId, int limit);
+
+    Stream<CashOperation> streamByFilter(CashOperationFilter filter);
+
+    void detach(CashOperation operation);
+
+    // Пакетная вставка с готовыми id; строки с уже занятым (cashDeskId, idempotencyKey) пропускаются.
+    // Возвращает id фактически вставленных операций
+    List<UUID> insertIgnoringDuplicates(List<CashOperation> operations);
+}
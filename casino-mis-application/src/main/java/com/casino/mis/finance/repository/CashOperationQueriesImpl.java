@@ -0,0 +1,144 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.dto.CashOperationFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public class CashOperationQueriesImpl implements CashOperationQueries {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // 7 параметров на строку: 1000 строк укладываются в лимит 32767 параметров PostgreSQL
+    static final int INSERT_ROWS_PER_STATEMENT = 1000;
+
+    // Типы задаются явно: у VALUES в CTE нет целевой таблицы, по которой PostgreSQL вывел бы их сам
+    private static final String INSERT_ROW = "(CAST(? AS uuid), CAST(? AS uuid), CAST(? AS numeric), " +
+            "CAST(? AS varchar), CAST(? AS varchar), CAST(? AS timestamptz), CAST(? AS varchar))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CashOperationQueriesImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<CashOperation> findPage(CashOperationFilter filter, OffsetDateTime afterOperatedAt, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CashOperation> query = cb.createQuery(CashOperation.class);
+        Root<CashOperation> root = query.from(CashOperation.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        if (afterOperatedAt != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(root.get("operatedAt"), afterOperatedAt),
+                    cb.and(
+                            cb.equal(root.get("operatedAt"), afterOperatedAt),
+                            cb.greaterThan(root.get("id"), afterId)
+                    )
+            ));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("operatedAt")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<CashOperation> streamByFilter(CashOperationFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CashOperation> query = cb.createQuery(CashOperation.class);
+        Root<CashOperation> root = query.from(CashOperation.class);
+
+        query.select(root)
+                .where(filterPredicates(cb, root, filter).toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("operatedAt")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void detach(CashOperation operation) {
+        entityManager.detach(operation);
+    }
+
+    // Многострочный INSERT в транзакции JPA: одна команда и один round-trip на до 1000 операций.
+    // Ключи занимаются в cash_operation_idempotency_keys той же командой: вставляются только операции
+    // без ключа и операции, чей ключ удалось занять
+    @Override
+    public List<UUID> insertIgnoringDuplicates(List<CashOperation> operations) {
+        List<UUID> inserted = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += INSERT_ROWS_PER_STATEMENT) {
+            List<CashOperation> rows = operations.subList(from,
+                    Math.min(from + INSERT_ROWS_PER_STATEMENT, operations.size()));
+            StringBuilder sql = new StringBuilder("WITH rows " +
+                    "(id, cash_desk_id, amount, type, currency, operated_at, idempotency_key) AS (VALUES ");
+            Object[] args = new Object[rows.size() * 7];
+            int i = 0;
+            for (CashOperation op : rows) {
+                sql.append(i == 0 ? "" : ", ").append(INSERT_ROW);
+                args[i++] = op.getId();
+                args[i++] = op.getCashDeskId();
+                args[i++] = op.getAmount();
+                args[i++] = op.getType().name();
+                args[i++] = op.getCurrency();
+                args[i++] = op.getOperatedAt();
+                args[i++] = op.getIdempotencyKey();
+            }
+            sql.append("), claimed AS (" +
+                    "INSERT INTO cash_operation_idempotency_keys (cash_desk_id, idempotency_key, operation_id, operated_at) " +
+                    "SELECT cash_desk_id, idempotency_key, id, operated_at FROM rows WHERE idempotency_key IS NOT NULL " +
+                    "ON CONFLICT DO NOTHING RETURNING operation_id) " +
+                    "INSERT INTO cash_operations (id, cash_desk_id, amount, type, currency, operated_at, idempotency_key) " +
+                    "SELECT id, cash_desk_id, amount, type, currency, operated_at, idempotency_key FROM rows " +
+                    "WHERE idempotency_key IS NULL OR id IN (SELECT operation_id FROM claimed) RETURNING id");
+            inserted.addAll(jdbcTemplate.queryForList(sql.toString(), UUID.class, args));
+        }
+        return inserted;
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<CashOperation> root, CashOperationFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.getCashDeskId() != null) {
+            predicates.add(cb.equal(root.get("cashDeskId"), filter.getCashDeskId()));
+        }
+        if (filter.getType() != null) {
+            predicates.add(cb.equal(root.get("type"), filter.getType()));
+        }
+        if (filter.getCurrency() != null) {
+            predicates.add(cb.equal(root.get("currency"), filter.getCurrency()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("operatedAt"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("operatedAt"), filter.getTo()));
+        }
+        return predicates;
+    }
+}
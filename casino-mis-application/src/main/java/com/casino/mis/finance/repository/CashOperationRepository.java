@@ -1,14 +1,113 @@
 package com.casino.mis.finance.repository;
 
 import com.casino.mis.finance.domain.CashOperation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface CashOperationRepository extends JpaRepository<CashOperation, UUID> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CashOperationRepository extends JpaRepository<CashOperation, UUID>, CashOperationQueries {
     List<CashOperation> findByOperatedAtBetween(OffsetDateTime from, OffsetDateTime to);
-}
 
+    Optional<CashOperation> findByCashDeskIdAndIdempotencyKey(UUID cashDeskId, String idempotencyKey);
+
+    // Ранее принятые операции по ключам идемпотентности, индекс (cash_desk_id, idempotency_key)
+    @Query("SELECT o.cashDeskId AS cashDeskId, o.idempotencyKey AS idempotencyKey, o.id AS id " +
+           "FROM CashOperation o WHERE o.cashDeskId IN :cashDeskIds AND o.idempotencyKey IN :keys")
+    List<IdempotencyKeyRow> findIdempotencyKeys(@Param("cashDeskIds") Collection<UUID> cashDeskIds,
+                                                @Param("keys") Collection<String> keys);
+
+    // Потоковое чтение в порядке (operatedAt, id) для инкрементальной обработки
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o FROM CashOperation o WHERE o.operatedAt >= :from AND o.operatedAt <= :to ORDER BY o.operatedAt, o.id")
+    Stream<CashOperation> streamByOperatedAtBetween(@Param("from") OffsetDateTime from,
+                                                    @Param("to") OffsetDateTime to);
+
+    // UC11: Сумма операций кассы на неполных часах смены, индекс (cash_desk_id, operated_at)
+    @Query("SELECT COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT " +
+           "THEN o.amount ELSE -o.amount END), 0) FROM CashOperation o " +
+           "WHERE o.cashDeskId = :cashDeskId AND o.operatedAt >= :from AND o.operatedAt < :to")
+    BigDecimal sumNetAmount(@Param("cashDeskId") UUID cashDeskId,
+                            @Param("from") OffsetDateTime from,
+                            @Param("to") OffsetDateTime to);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT " +
+           "THEN o.amount ELSE -o.amount END), 0) FROM CashOperation o " +
+           "WHERE o.cashDeskId = :cashDeskId AND o.operatedAt >= :from AND o.operatedAt <= :to")
+    BigDecimal sumNetAmountInclusive(@Param("cashDeskId") UUID cashDeskId,
+                                     @Param("from") OffsetDateTime from,
+                                     @Param("to") OffsetDateTime to);
 
+    // UC13: Ставки и выигрыши на неполных часах периода: [start, headEnd) и [tailStart, end]
+    @Query("SELECT COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT THEN o.amount ELSE 0 END), 0) AS bets, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT THEN 1 ELSE 0 END), 0) AS betsCount, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN o.amount ELSE 0 END), 0) AS wins, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN 1 ELSE 0 END), 0) AS winsCount, " +
+           "COALESCE(MAX(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN o.amount END), 0) AS maxWin, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL AND o.amount > :threshold THEN 1 ELSE 0 END), 0) AS largeWins " +
+           "FROM CashOperation o WHERE o.cashDeskId = :cashDeskId " +
+           "AND ((o.operatedAt >= :start AND o.operatedAt < :headEnd) OR (o.operatedAt >= :tailStart AND o.operatedAt <= :end))")
+    EdgeTotals edgeTotals(@Param("cashDeskId") UUID cashDeskId,
+                          @Param("start") OffsetDateTime start,
+                          @Param("headEnd") OffsetDateTime headEnd,
+                          @Param("tailStart") OffsetDateTime tailStart,
+                          @Param("end") OffsetDateTime end,
+                          @Param("threshold") BigDecimal threshold);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT THEN o.amount ELSE 0 END), 0) AS bets, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.DEPOSIT THEN 1 ELSE 0 END), 0) AS betsCount, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN o.amount ELSE 0 END), 0) AS wins, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN 1 ELSE 0 END), 0) AS winsCount, " +
+           "COALESCE(MAX(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL THEN o.amount END), 0) AS maxWin, " +
+           "COALESCE(SUM(CASE WHEN o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL AND o.amount > :threshold THEN 1 ELSE 0 END), 0) AS largeWins " +
+           "FROM CashOperation o WHERE " +
+           "(o.operatedAt >= :start AND o.operatedAt < :headEnd) OR (o.operatedAt >= :tailStart AND o.operatedAt <= :end)")
+    EdgeTotals edgeTotals(@Param("start") OffsetDateTime start,
+                          @Param("headEnd") OffsetDateTime headEnd,
+                          @Param("tailStart") OffsetDateTime tailStart,
+                          @Param("end") OffsetDateTime end,
+                          @Param("threshold") BigDecimal threshold);
+
+    // Крупные выигрыши выше произвольного порога, который не совпадает с границей гистограммы
+    @Query("SELECT COUNT(o) FROM CashOperation o WHERE o.cashDeskId = :cashDeskId " +
+           "AND o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL AND o.amount > :threshold " +
+           "AND o.operatedAt >= :from AND o.operatedAt < :to")
+    long countWinsAbove(@Param("cashDeskId") UUID cashDeskId,
+                        @Param("threshold") BigDecimal threshold,
+                        @Param("from") OffsetDateTime from,
+                        @Param("to") OffsetDateTime to);
+
+    @Query("SELECT COUNT(o) FROM CashOperation o " +
+           "WHERE o.type = com.casino.mis.finance.domain.OperationType.WITHDRAWAL AND o.amount > :threshold " +
+           "AND o.operatedAt >= :from AND o.operatedAt < :to")
+    long countWinsAbove(@Param("threshold") BigDecimal threshold,
+                        @Param("from") OffsetDateTime from,
+                        @Param("to") OffsetDateTime to);
+
+    interface IdempotencyKeyRow {
+        UUID getCashDeskId();
+        String getIdempotencyKey();
+        UUID getId();
+    }
+
+    interface EdgeTotals {
+        BigDecimal getBets();
+        Long getBetsCount();
+        BigDecimal getWins();
+        Long getWinsCount();
+        BigDecimal getMaxWin();
+        Long getLargeWins();
+    }
+}
@@ -0,0 +1,85 @@
+package com.casino.mis.finance.repository;
+
+import com.casino.mis.finance.domain.GameRtpRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public interface GameRtpRollupRepository extends JpaRepository<GameRtpRollup, GameRtpRollup.Key> {
+
+    // Атомарное прибавление операций к часовому агрегату стола
+    @Modifying
+    @Query(value = "INSERT INTO game_rtp_hourly_rollups " +
+            "(cash_desk_id, bucket_start, bets_amount, bets_count, wins_amount, wins_count, max_win, " +
+            "wins_over1000, wins_over5000, wins_over10000, wins_over50000, wins_over100000, updated_at) " +
+            "VALUES (:cashDeskId, :bucketStart, :bets, :betsCount, :wins, :winsCount, :maxWin, " +
+            ":over1000, :over5000, :over10000, :over50000, :over100000, :now) " +
+            "ON CONFLICT (cash_desk_id, bucket_start) DO UPDATE SET " +
+            "bets_amount = game_rtp_hourly_rollups.bets_amount + EXCLUDED.bets_amount, " +
+            "bets_count = game_rtp_hourly_rollups.bets_count + EXCLUDED.bets_count, " +
+            "wins_amount = game_rtp_hourly_rollups.wins_amount + EXCLUDED.wins_amount, " +
+            "wins_count = game_rtp_hourly_rollups.wins_count + EXCLUDED.wins_count, " +
+            "max_win = GREATEST(game_rtp_hourly_rollups.max_win, EXCLUDED.max_win), " +
+            "wins_over1000 = game_rtp_hourly_rollups.wins_over1000 + EXCLUDED.wins_over1000, " +
+            "wins_over5000 = game_rtp_hourly_rollups.wins_over5000 + EXCLUDED.wins_over5000, " +
+            "wins_over10000 = game_rtp_hourly_rollups.wins_over10000 + EXCLUDED.wins_over10000, " +
+            "wins_over50000 = game_rtp_hourly_rollups.wins_over50000 + EXCLUDED.wins_over50000, " +
+            "wins_over100000 = game_rtp_hourly_rollups.wins_over100000 + EXCLUDED.wins_over100000, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int add(@Param("cashDeskId") UUID cashDeskId,
+            @Param("bucketStart") OffsetDateTime bucketStart,
+            @Param("bets") BigDecimal bets,
+            @Param("betsCount") long betsCount,
+            @Param("wins") BigDecimal wins,
+            @Param("winsCount") long winsCount,
+            @Param("maxWin") BigDecimal maxWin,
+            @Param("over1000") long over1000,
+            @Param("over5000") long over5000,
+            @Param("over10000") long over10000,
+            @Param("over50000") long over50000,
+            @Param("over100000") long over100000,
+            @Param("now") OffsetDateTime now);
+
+    // Итоги по полным часам [from, to): для одного стола читаются по первичному ключу
+    @Query("SELECT COALESCE(SUM(r.betsAmount), 0) AS bets, COALESCE(SUM(r.betsCount), 0) AS betsCount, " +
+           "COALESCE(SUM(r.winsAmount), 0) AS wins, COALESCE(SUM(r.winsCount), 0) AS winsCount, " +
+           "COALESCE(MAX(r.maxWin), 0) AS maxWin, " +
+           "COALESCE(SUM(r.winsOver1000), 0) AS winsOver1000, COALESCE(SUM(r.winsOver5000), 0) AS winsOver5000, " +
+           "COALESCE(SUM(r.winsOver10000), 0) AS winsOver10000, COALESCE(SUM(r.winsOver50000), 0) AS winsOver50000, " +
+           "COALESCE(SUM(r.winsOver100000), 0) AS winsOver100000 " +
+           "FROM GameRtpRollup r " +
+           "WHERE r.cashDeskId = :cashDeskId AND r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals totals(@Param("cashDeskId") UUID cashDeskId,
+                        @Param("from") OffsetDateTime from,
+                        @Param("to") OffsetDateTime to);
+
+    @Query("SELECT COALESCE(SUM(r.betsAmount), 0) AS bets, COALESCE(SUM(r.betsCount), 0) AS betsCount, " +
+           "COALESCE(SUM(r.winsAmount), 0) AS wins, COALESCE(SUM(r.winsCount), 0) AS winsCount, " +
+           "COALESCE(MAX(r.maxWin), 0) AS maxWin, " +
+           "COALESCE(SUM(r.winsOver1000), 0) AS winsOver1000, COALESCE(SUM(r.winsOver5000), 0) AS winsOver5000, " +
+           "COALESCE(SUM(r.winsOver10000), 0) AS winsOver10000, COALESCE(SUM(r.winsOver50000), 0) AS winsOver50000, " +
+           "COALESCE(SUM(r.winsOver100000), 0) AS winsOver100000 " +
+           "FROM GameRtpRollup r " +
+           "WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals totals(@Param("from") OffsetDateTime from,
+                        @Param("to") OffsetDateTime to);
+
+    interface RollupTotals {
+        BigDecimal getBets();
+        Long getBetsCount();
+        BigDecimal getWins();
+        Long getWinsCount();
+        BigDecimal getMaxWin();
+        Long getWinsOver1000();
+        Long getWinsOver5000();
+        Long getWinsOver10000();
+        Long getWinsOver50000();
+        Long getWinsOver100000();
+    }
+}
@@ -0,0 +1,137 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.AnomalousTransaction;
+import com.casino.mis.finance.domain.CashOperation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инкрементальный детектор аномалий (UC12).
+ * Обрабатывает операции по одной и хранит для каждой кассы только последние
+ * frequencyThreshold отметок времени, поэтому стоимость одной операции O(1)
+ * и не зависит от размера окна анализа.
+ */
+public class AnomalyDetectionEngine {
+
+    private final BigDecimal largeAmountThreshold;
+    private final int frequencyThreshold;
+    private final long timeWindowMinutes;
+    private final Map<UUID, DeskWindow> windows = new ConcurrentHashMap<>();
+
+    public AnomalyDetectionEngine(BigDecimal largeAmountThreshold, int frequencyThreshold, long timeWindowMinutes) {
+        this.largeAmountThreshold = largeAmountThreshold;
+        this.frequencyThreshold = Math.max(1, frequencyThreshold);
+        this.timeWindowMinutes = timeWindowMinutes;
+    }
+
+    public List<AnomalousTransaction> accept(CashOperation op) {
+        List<AnomalousTransaction> anomalies = new ArrayList<>(2);
+
+        // Проверка на крупные суммы
+        if (op.getAmount().abs().compareTo(largeAmountThreshold) > 0) {
+            anomalies.add(createAnomaly(
+                    op.getId(),
+                    op.getAmount(),
+                    AnomalousTransaction.AnomalyType.LARGE_AMOUNT,
+                    "Amount " + op.getAmount() + " exceeds threshold: " + largeAmountThreshold,
+                    calculateRiskLevel(op.getAmount().abs(), largeAmountThreshold)
+            ));
+        }
+
+        // Проверка на частоту транзакций в скользящем окне кассы
+        AnomalousTransaction frequencyAnomaly = windows
+                .computeIfAbsent(op.getCashDeskId(), id -> new DeskWindow(frequencyThreshold))
+                .record(op);
+        if (frequencyAnomaly != null) {
+            anomalies.add(frequencyAnomaly);
+        }
+        return anomalies;
+    }
+
+    public int trackedDesks() {
+        return windows.size();
+    }
+
+    static AnomalousTransaction createAnomaly(UUID operationId,
+                                              BigDecimal amount,
+                                              AnomalousTransaction.AnomalyType type,
+                                              String reason,
+                                              AnomalousTransaction.RiskLevel riskLevel) {
+        AnomalousTransaction anomaly = new AnomalousTransaction();
+        anomaly.setCashOperationId(operationId);
+        anomaly.setType(type);
+        anomaly.setRiskLevel(riskLevel);
+        anomaly.setReason(reason);
+        anomaly.setAmount(amount);
+        anomaly.setStatus(AnomalousTransaction.AnomalyStatus.DETECTED);
+        return anomaly;
+    }
+
+    static AnomalousTransaction.RiskLevel calculateRiskLevel(BigDecimal amount, BigDecimal threshold) {
+        BigDecimal ratio = amount.divide(threshold, 2, RoundingMode.HALF_UP);
+        if (ratio.compareTo(new BigDecimal("5")) >= 0) {
+            return AnomalousTransaction.RiskLevel.CRITICAL;
+        } else if (ratio.compareTo(new BigDecimal("2")) >= 0) {
+            return AnomalousTransaction.RiskLevel.HIGH;
+        } else {
+            return AnomalousTransaction.RiskLevel.MEDIUM;
+        }
+    }
+
+    // Кольцевой буфер последних операций одной кассы
+    private final class DeskWindow {
+
+        private final OffsetDateTime[] times;
+        private final UUID[] ids;
+        private final BigDecimal[] amounts;
+        private int next;
+        private int size;
+        private OffsetDateTime suppressedUntil;
+
+        DeskWindow(int capacity) {
+            this.times = new OffsetDateTime[capacity];
+            this.ids = new UUID[capacity];
+            this.amounts = new BigDecimal[capacity];
+        }
+
+        synchronized AnomalousTransaction record(CashOperation op) {
+            times[next] = op.getOperatedAt();
+            ids[next] = op.getId();
+            amounts[next] = op.getAmount();
+            next = (next + 1) % times.length;
+            if (size < times.length) {
+                size++;
+            }
+            if (size < times.length) {
+                return null;
+            }
+
+            // После заполнения буфера next указывает на самую старую операцию окна
+            OffsetDateTime first = times[next];
+            long minutesBetween = Duration.between(first, op.getOperatedAt()).toMinutes();
+            if (minutesBetween > timeWindowMinutes
+                    || (suppressedUntil != null && !op.getOperatedAt().isAfter(suppressedUntil))) {
+                return null;
+            }
+
+            // Одна аномалия на всплеск активности кассы
+            suppressedUntil = op.getOperatedAt().plusMinutes(timeWindowMinutes);
+            return createAnomaly(
+                    ids[next],
+                    amounts[next],
+                    AnomalousTransaction.AnomalyType.HIGH_FREQUENCY,
+                    "High frequency detected: " + times.length +
+                            " transactions in " + minutesBetween + " minutes",
+                    AnomalousTransaction.RiskLevel.MEDIUM
+            );
+        }
+    }
+}
@@ -1,152 +1,154 @@
 package com.casino.mis.finance.service;
 
 import com.casino.mis.finance.domain.AnomalousTransaction;
+import com.casino.mis.finance.domain.AnomalyDetectionCheckpoint;
 import com.casino.mis.finance.domain.CashOperation;
 import com.casino.mis.finance.dto.AnomalyDetectionRequest;
 import com.casino.mis.finance.repository.AnomalousTransactionRepository;
+import com.casino.mis.finance.repository.AnomalyDetectionCheckpointRepository;
 import com.casino.mis.finance.repository.CashOperationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AnomalyDetectionService {
 
+    static final String REPLAY_CHECKPOINT = "anomaly-replay";
+
     private final AnomalousTransactionRepository anomalyRepo;
     private final CashOperationRepository operationRepo;
+    private final AnomalyDetectionCheckpointRepository checkpointRepo;
+    private final EntityManager entityManager;
+    private final AnomalyDetectionEngine liveEngine;
+    private final long liveTimeWindowMinutes;
 
     public AnomalyDetectionService(AnomalousTransactionRepository anomalyRepo,
-                                  CashOperationRepository operationRepo) {
+                                  CashOperationRepository operationRepo,
+                                  AnomalyDetectionCheckpointRepository checkpointRepo,
+                                  EntityManager entityManager,
+                                  @Value("${finance.anomaly.large-amount-threshold:10000}") BigDecimal largeAmountThreshold,
+                                  @Value("${finance.anomaly.frequency-threshold:10}") int frequencyThreshold,
+                                  @Value("${finance.anomaly.time-window-minutes:60}") long timeWindowMinutes) {
         this.anomalyRepo = anomalyRepo;
         this.operationRepo = operationRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.entityManager = entityManager;
+        this.liveEngine = new AnomalyDetectionEngine(largeAmountThreshold, frequencyThreshold, timeWindowMinutes);
+        this.liveTimeWindowMinutes = timeWindowMinutes;
     }
 
-    // UC12: Выявление аномальных транзакций
+    // UC12: Онлайн-проверка операции сразу после регистрации (UC9)
     @Transactional
-    public List<AnomalousTransaction> detectAnomalies(AnomalyDetectionRequest request) {
-        OffsetDateTime start = request.getPeriodStart() != null ? 
-                request.getPeriodStart() : OffsetDateTime.now().minusDays(7);
-        OffsetDateTime end = request.getPeriodEnd() != null ? 
-                request.getPeriodEnd() : OffsetDateTime.now();
+    public List<AnomalousTransaction> onOperationCreated(CashOperation op) {
+        List<AnomalousTransaction> anomalies = liveEngine.accept(op);
+        if (anomalies.isEmpty()) {
+            return anomalies;
+        }
+        return anomalyRepo.saveAll(anomalies);
+    }
 
-        List<CashOperation> operations = operationRepo.findByOperatedAtBetween(start, end);
+    // UC12: Онлайн-проверка пакета операций; окна касс требуют порядка по времени операции
+    @Transactional
+    public List<AnomalousTransaction> onOperationsCreated(List<CashOperation> ops) {
+        List<CashOperation> ordered = new ArrayList<>(ops);
+        ordered.sort(Comparator.comparing(CashOperation::getOperatedAt));
         List<AnomalousTransaction> anomalies = new ArrayList<>();
-
-        // Проверка на крупные суммы
-        detectLargeAmountAnomalies(request, operations, anomalies);
-
-        // Проверка на частоту транзакций
-        detectHighFrequencyAnomalies(request, operations, anomalies);
-
-        // Сохраняем все обнаруженные аномалии
+        for (CashOperation op : ordered) {
+            anomalies.addAll(liveEngine.accept(op));
+        }
+        if (anomalies.isEmpty()) {
+            return anomalies;
+        }
         return anomalyRepo.saveAll(anomalies);
     }
 
-    private void detectLargeAmountAnomalies(AnomalyDetectionRequest request, 
-                                            List<CashOperation> operations, 
-                                            List<AnomalousTransaction> anomalies) {
-        BigDecimal largeAmountThreshold = request.getLargeAmountThreshold() != null ?
-                request.getLargeAmountThreshold() : new BigDecimal("10000");
-        
-        for (CashOperation op : operations) {
-            if (isLargeAmount(op, largeAmountThreshold) && !isAlreadyDetected(op, anomalies)) {
-                AnomalousTransaction anomaly = createAnomaly(
-                        op,
-                        AnomalousTransaction.AnomalyType.LARGE_AMOUNT,
-                        "Amount " + op.getAmount() + " exceeds threshold: " + largeAmountThreshold,
-                        calculateRiskLevel(op.getAmount().abs(), largeAmountThreshold)
-                );
-                anomalies.add(anomaly);
-            }
+    // Восстанавливаем скользящие окна касс после рестарта, аномалии повторно не сохраняются
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUpLiveWindows() {
+        OffsetDateTime now = OffsetDateTime.now();
+        try (Stream<CashOperation> ops = operationRepo.streamByOperatedAtBetween(
+                now.minusMinutes(liveTimeWindowMinutes), now)) {
+            ops.forEach(op -> {
+                liveEngine.accept(op);
+                entityManager.detach(op);
+            });
         }
     }
 
-    private void detectHighFrequencyAnomalies(AnomalyDetectionRequest request, 
-                                              List<CashOperation> operations, 
-                                              List<AnomalousTransaction> anomalies) {
+    // UC12: Выявление аномальных транзакций (догоняющий проход от контрольной точки)
+    @Transactional
+    public List<AnomalousTransaction> detectAnomalies(AnomalyDetectionRequest request) {
+        BigDecimal largeAmountThreshold = request.getLargeAmountThreshold() != null ?
+                request.getLargeAmountThreshold() : new BigDecimal("10000");
         Integer frequencyThreshold = request.getFrequencyThreshold() != null ?
                 request.getFrequencyThreshold() : 10;
         Long timeWindowMinutes = request.getTimeWindowMinutes() != null ?
                 request.getTimeWindowMinutes() : 60L;
 
-        Map<UUID, List<CashOperation>> operationsByDesk = operations.stream()
-                .collect(Collectors.groupingBy(CashOperation::getCashDeskId));
-
-        for (List<CashOperation> deskOps : operationsByDesk.values()) {
-            checkFrequencyForDesk(deskOps, frequencyThreshold, timeWindowMinutes, anomalies);
-        }
-    }
-
-    private void checkFrequencyForDesk(List<CashOperation> deskOps, 
-                                       Integer frequencyThreshold, 
-                                       Long timeWindowMinutes, 
-                                       List<AnomalousTransaction> anomalies) {
-        if (deskOps.size() < frequencyThreshold) {
-            return;
+        AnomalyDetectionCheckpoint checkpoint = checkpointRepo.findById(REPLAY_CHECKPOINT)
+                .orElseGet(() -> {
+                    AnomalyDetectionCheckpoint created = new AnomalyDetectionCheckpoint();
+                    created.setName(REPLAY_CHECKPOINT);
+                    return created;
+                });
+
+        // Без явного начала периода продолжаем с контрольной точки,
+        // захватывая одно окно частоты для прогрева состояния касс
+        OffsetDateTime start;
+        if (request.getPeriodStart() != null) {
+            start = request.getPeriodStart();
+        } else if (checkpoint.getLastOperatedAt() != null) {
+            start = checkpoint.getLastOperatedAt().minusMinutes(timeWindowMinutes);
+        } else {
+            start = OffsetDateTime.now().minusDays(7);
         }
+        OffsetDateTime end = request.getPeriodEnd() != null ?
+                request.getPeriodEnd() : OffsetDateTime.now();
 
-        for (int i = 0; i < deskOps.size() - frequencyThreshold + 1; i++) {
-            CashOperation first = deskOps.get(i);
-            CashOperation last = deskOps.get(Math.min(i + frequencyThreshold - 1, deskOps.size() - 1));
-            
-            long minutesBetween = java.time.Duration.between(
-                    first.getOperatedAt(), 
-                    last.getOperatedAt()
-            ).toMinutes();
-
-            if (minutesBetween <= timeWindowMinutes) {
-                AnomalousTransaction anomaly = createAnomaly(
-                        first,
-                        AnomalousTransaction.AnomalyType.HIGH_FREQUENCY,
-                        "High frequency detected: " + frequencyThreshold + 
-                                " transactions in " + minutesBetween + " minutes",
-                        AnomalousTransaction.RiskLevel.MEDIUM
-                );
-                anomalies.add(anomaly);
-                break; // Одна аномалия на кассу достаточно
+        AnomalyDetectionEngine engine = new AnomalyDetectionEngine(
+                largeAmountThreshold, frequencyThreshold, timeWindowMinutes);
+        List<AnomalousTransaction> detected = new ArrayList<>();
+        OffsetDateTime lastOperatedAt = null;
+        UUID lastOperationId = null;
+
+        try (Stream<CashOperation> ops = operationRepo.streamByOperatedAtBetween(start, end)) {
+            Iterator<CashOperation> iterator = ops.iterator();
+            while (iterator.hasNext()) {
+                CashOperation op = iterator.next();
+                for (AnomalousTransaction anomaly : engine.accept(op)) {
+                    // Аномалия могла быть уже сохранена онлайн-детектором или прошлым проходом
+                    if (!anomalyRepo.existsByCashOperationIdAndType(anomaly.getCashOperationId(), anomaly.getType())) {
+                        detected.add(anomalyRepo.save(anomaly));
+                    }
+                }
+                lastOperatedAt = op.getOperatedAt();
+                lastOperationId = op.getId();
+                entityManager.detach(op);
             }
         }
-    }
-
-    private boolean isLargeAmount(CashOperation op, BigDecimal threshold) {
-        return op.getAmount().abs().compareTo(threshold) > 0;
-    }
-
-    private boolean isAlreadyDetected(CashOperation op, List<AnomalousTransaction> anomalies) {
-        return anomalies.stream()
-                .anyMatch(a -> a.getCashOperationId().equals(op.getId()));
-    }
-
-    private AnomalousTransaction createAnomaly(CashOperation op, 
-                                               AnomalousTransaction.AnomalyType type,
-                                               String reason,
-                                               AnomalousTransaction.RiskLevel riskLevel) {
-        AnomalousTransaction anomaly = new AnomalousTransaction();
-        anomaly.setCashOperationId(op.getId());
-        anomaly.setType(type);
-        anomaly.setRiskLevel(riskLevel);
-        anomaly.setReason(reason);
-        anomaly.setAmount(op.getAmount());
-        anomaly.setStatus(AnomalousTransaction.AnomalyStatus.DETECTED);
-        return anomaly;
-    }
 
-    private AnomalousTransaction.RiskLevel calculateRiskLevel(BigDecimal amount, BigDecimal threshold) {
-        BigDecimal ratio = amount.divide(threshold, 2, java.math.RoundingMode.HALF_UP);
-        if (ratio.compareTo(new BigDecimal("5")) >= 0) {
-            return AnomalousTransaction.RiskLevel.CRITICAL;
-        } else if (ratio.compareTo(new BigDecimal("2")) >= 0) {
-            return AnomalousTransaction.RiskLevel.HIGH;
-        } else {
-            return AnomalousTransaction.RiskLevel.MEDIUM;
+        if (lastOperatedAt != null && (checkpoint.getLastOperatedAt() == null
+                || lastOperatedAt.isAfter(checkpoint.getLastOperatedAt()))) {
+            checkpoint.setLastOperatedAt(lastOperatedAt);
+            checkpoint.setLastOperationId(lastOperationId);
+            checkpoint.setUpdatedAt(OffsetDateTime.now());
+            checkpointRepo.save(checkpoint);
         }
+        return detected;
     }
 
     public List<AnomalousTransaction> findAll() {
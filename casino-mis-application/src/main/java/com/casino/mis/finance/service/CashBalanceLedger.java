@@ -0,0 +1,99 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashDeskBalanceBucket;
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.repository.CashDeskBalanceBucketRepository;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * UC11: Журнал балансов касс по часовым интервалам.
+ * Пополняется в транзакции создания операции, поэтому расчётный баланс смены
+ * складывается из полных часов журнала и двух неполных часов по краям смены.
+ */
+@Service
+public class CashBalanceLedger {
+
+    private final CashDeskBalanceBucketRepository bucketRepo;
+    private final CashOperationRepository operationRepo;
+
+    public CashBalanceLedger(CashDeskBalanceBucketRepository bucketRepo,
+                             CashOperationRepository operationRepo) {
+        this.bucketRepo = bucketRepo;
+        this.operationRepo = operationRepo;
+    }
+
+    @Transactional
+    public void record(CashOperation op) {
+        recordAll(List.of(op));
+    }
+
+    // Операции пакета сначала складываются по (касса, час): одно обновление журнала на интервал
+    @Transactional
+    public void recordAll(Collection<CashOperation> ops) {
+        Map<CashDeskBalanceBucket.Key, CashDeskBalanceBucket> buckets = new LinkedHashMap<>();
+        for (CashOperation op : ops) {
+            CashDeskBalanceBucket.Key key = new CashDeskBalanceBucket.Key(op.getCashDeskId(), bucketStart(op.getOperatedAt()));
+            CashDeskBalanceBucket bucket = buckets.computeIfAbsent(key, k -> {
+                CashDeskBalanceBucket created = new CashDeskBalanceBucket();
+                created.setCashDeskId(k.getCashDeskId());
+                created.setBucketStart(k.getBucketStart());
+                return created;
+            });
+            if (op.getType() == OperationType.DEPOSIT) {
+                bucket.setDeposits(bucket.getDeposits().add(op.getAmount()));
+            } else {
+                bucket.setWithdrawals(bucket.getWithdrawals().add(op.getAmount()));
+            }
+            bucket.setOperationsCount(bucket.getOperationsCount() + 1);
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        for (CashDeskBalanceBucket bucket : buckets.values()) {
+            bucketRepo.add(bucket.getCashDeskId(), bucket.getBucketStart(),
+                    bucket.getDeposits(), bucket.getWithdrawals(), bucket.getOperationsCount(), now);
+        }
+    }
+
+    // Ожидаемый баланс кассы за [from, to] включительно, как в исходном расчёте сверки
+    @Transactional(readOnly = true)
+    public BigDecimal expectedBalance(UUID cashDeskId, OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime firstFull = ceilToBucket(from);
+        OffsetDateTime lastFullEnd = bucketStart(to);
+        if (!firstFull.isBefore(lastFullEnd)) {
+            // Смена короче часа или не содержит полного интервала
+            return operationRepo.sumNetAmountInclusive(cashDeskId, from, to);
+        }
+        return operationRepo.sumNetAmount(cashDeskId, from, firstFull)
+                .add(bucketRepo.sumNet(cashDeskId, firstFull, lastFullEnd))
+                .add(operationRepo.sumNetAmountInclusive(cashDeskId, lastFullEnd, to));
+    }
+
+    // Полная пересборка журнала из cash_operations одним запросом
+    @Transactional
+    public int rebuild() {
+        bucketRepo.lockForRebuild();
+        bucketRepo.deleteAllBuckets();
+        return bucketRepo.rebuildFromOperations();
+    }
+
+    static OffsetDateTime bucketStart(OffsetDateTime time) {
+        return time.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    static OffsetDateTime ceilToBucket(OffsetDateTime time) {
+        OffsetDateTime start = bucketStart(time);
+        return start.isEqual(time) ? start : start.plusHours(1);
+    }
+}
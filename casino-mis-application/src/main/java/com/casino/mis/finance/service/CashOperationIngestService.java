@@ -0,0 +1,205 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.dto.CashOperationBatchResponse;
+import com.casino.mis.finance.dto.CashOperationBatchResult;
+import com.casino.mis.finance.dto.CashOperationRequest;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * UC9: Пакетный приём операций касс после восстановления связи.
+ * Операции принимаются частями по chunkSize: каждая часть - одна транзакция и одна многострочная вставка.
+ * Повторная отправка с тем же (cashDeskId, idempotencyKey) не создаёт дубль, а возвращает исходную операцию.
+ */
+@Service
+public class CashOperationIngestService {
+
+    private final CashOperationRepository repo;
+    private final CashBalanceLedger balanceLedger;
+    private final GameRtpRollups rtpRollups;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CashOperationIngestService(CashOperationRepository repo,
+                                      CashBalanceLedger balanceLedger,
+                                      GameRtpRollups rtpRollups,
+                                      AnomalyDetectionService anomalyDetectionService,
+                                      Validator validator,
+                                      TransactionTemplate transactionTemplate,
+                                      @Value("${finance.operations.ingest-chunk-size:1000}") int chunkSize) {
+        this.repo = repo;
+        this.balanceLedger = balanceLedger;
+        this.rtpRollups = rtpRollups;
+        this.anomalyDetectionService = anomalyDetectionService;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public CashOperationBatchResponse ingest(List<CashOperationRequest> requests) {
+        List<CashOperationBatchResult> results = new ArrayList<>(requests.size());
+        ingest(requests.iterator(), results::add);
+        results.sort(Comparator.comparingInt(CashOperationBatchResult::getIndex));
+
+        int created = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (CashOperationBatchResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED -> rejected++;
+            }
+        }
+        return new CashOperationBatchResponse(created, duplicates, rejected, results);
+    }
+
+    // Результаты отдаются по мере записи частей; отклонённые операции - сразу после проверки.
+    // null в потоке означает нераспознанную строку NDJSON
+    public void ingest(Iterator<CashOperationRequest> requests, Consumer<CashOperationBatchResult> sink) {
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (requests.hasNext()) {
+            CashOperationRequest request = requests.next();
+            List<String> errors = validate(request);
+            if (!errors.isEmpty()) {
+                sink.accept(new CashOperationBatchResult(index, request != null ? request.getIdempotencyKey() : null,
+                        CashOperationBatchResult.Status.REJECTED, null, errors));
+            } else {
+                chunk.add(new Pending(index, request));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk).forEach(sink);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk).forEach(sink);
+        }
+    }
+
+    private List<String> validate(CashOperationRequest request) {
+        if (request == null) {
+            return List.of("Malformed operation");
+        }
+        Set<ConstraintViolation<CashOperationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<CashOperationRequest> violation : violations) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Collections.sort(errors);
+        return errors;
+    }
+
+    private List<CashOperationBatchResult> writeChunk(List<Pending> chunk) {
+        return transactionTemplate.execute(status -> insertChunk(chunk));
+    }
+
+    private List<CashOperationBatchResult> insertChunk(List<Pending> chunk) {
+        OffsetDateTime now = OffsetDateTime.now();
+        // Повтор ключа внутри части ссылается на первую операцию с этим ключом
+        Map<IdempotencyKey, CashOperation> firstByKey = new HashMap<>();
+        List<CashOperation> candidates = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            CashOperation op = toOperation(pending.getRequest(), now);
+            IdempotencyKey key = IdempotencyKey.of(op);
+            CashOperation first = key != null ? firstByKey.putIfAbsent(key, op) : null;
+            if (first != null) {
+                pending.setOperation(first);
+            } else {
+                pending.setOperation(op);
+                pending.setFirst(true);
+                candidates.add(op);
+            }
+        }
+
+        Set<UUID> inserted = new HashSet<>(repo.insertIgnoringDuplicates(candidates));
+
+        List<CashOperation> created = new ArrayList<>(inserted.size());
+        Set<UUID> conflictDesks = new HashSet<>();
+        Set<String> conflictKeys = new HashSet<>();
+        for (CashOperation op : candidates) {
+            if (inserted.contains(op.getId())) {
+                created.add(op);
+            } else {
+                conflictDesks.add(op.getCashDeskId());
+                conflictKeys.add(op.getIdempotencyKey());
+            }
+        }
+
+        // Ключи, уже занятые ранее принятыми операциями
+        Map<IdempotencyKey, UUID> existing = new HashMap<>();
+        if (!conflictKeys.isEmpty()) {
+            for (CashOperationRepository.IdempotencyKeyRow row : repo.findIdempotencyKeys(conflictDesks, conflictKeys)) {
+                existing.put(new IdempotencyKey(row.getCashDeskId(), row.getIdempotencyKey()), row.getId());
+            }
+        }
+
+        if (!created.isEmpty()) {
+            // UC11, UC13: Журнал балансов и агрегаты RTP обновляются в той же транзакции
+            balanceLedger.recordAll(created);
+            rtpRollups.recordAll(created);
+            // UC12: Онлайн-проверка на аномалии
+            anomalyDetectionService.onOperationsCreated(created);
+        }
+
+        List<CashOperationBatchResult> results = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            CashOperation op = pending.getOperation();
+            boolean insertedHere = inserted.contains(op.getId());
+            UUID id = insertedHere ? op.getId() : existing.get(IdempotencyKey.of(op));
+            CashOperationBatchResult.Status status = insertedHere && pending.isFirst()
+                    ? CashOperationBatchResult.Status.CREATED
+                    : CashOperationBatchResult.Status.DUPLICATE;
+            results.add(new CashOperationBatchResult(pending.getIndex(), pending.getRequest().getIdempotencyKey(),
+                    status, id, null));
+        }
+        return results;
+    }
+
+    private static CashOperation toOperation(CashOperationRequest req, OffsetDateTime now) {
+        CashOperation op = new CashOperation();
+        op.setId(UUID.randomUUID());
+        op.setCashDeskId(req.getCashDeskId());
+        op.setAmount(req.getAmount());
+        op.setType(req.getType());
+        op.setCurrency(req.getCurrency() != null ? req.getCurrency() : "USD");
+        op.setOperatedAt(req.getOperatedAt() != null ? req.getOperatedAt() : now);
+        op.setIdempotencyKey(req.getIdempotencyKey());
+        return op;
+    }
+
+    @Data
+    private static class Pending {
+        private final int index;
+        private final CashOperationRequest request;
+        private CashOperation operation;
+        private boolean first;
+    }
+
+    @Data
+    private static class IdempotencyKey {
+        private final UUID cashDeskId;
+        private final String key;
+
+        static IdempotencyKey of(CashOperation op) {
+            return op.getIdempotencyKey() != null ? new IdempotencyKey(op.getCashDeskId(), op.getIdempotencyKey()) : null;
+        }
+    }
+}
@@ -1,31 +1,83 @@
 package com.casino.mis.finance.service;
 
 import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.dto.CashOperationFilter;
 import com.casino.mis.finance.dto.CashOperationRequest;
 import com.casino.mis.finance.repository.CashOperationRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class CashOperationService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final CashOperationRepository repo;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final CashBalanceLedger balanceLedger;
+    private final GameRtpRollups rtpRollups;
 
-    public CashOperationService(CashOperationRepository repo) {
+    public CashOperationService(CashOperationRepository repo,
+                                AnomalyDetectionService anomalyDetectionService,
+                                CashBalanceLedger balanceLedger,
+                                GameRtpRollups rtpRollups) {
         this.repo = repo;
+        this.anomalyDetectionService = anomalyDetectionService;
+        this.balanceLedger = balanceLedger;
+        this.rtpRollups = rtpRollups;
     }
 
     @Transactional
     public CashOperation create(CashOperationRequest req) {
+        // Повторная отправка с тем же ключом возвращает ранее созданную операцию
+        if (req.getIdempotencyKey() != null) {
+            Optional<CashOperation> existing = repo.findByCashDeskIdAndIdempotencyKey(
+                    req.getCashDeskId(), req.getIdempotencyKey());
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+        }
         CashOperation op = new CashOperation();
         op.setCashDeskId(req.getCashDeskId());
         op.setAmount(req.getAmount());
         op.setType(req.getType());
         op.setCurrency(req.getCurrency() != null ? req.getCurrency() : "USD");
-        return repo.save(op);
+        if (req.getOperatedAt() != null) {
+            op.setOperatedAt(req.getOperatedAt());
+        }
+        op.setIdempotencyKey(req.getIdempotencyKey());
+        CashOperation saved;
+        if (op.getIdempotencyKey() != null) {
+            // Ключ занимается тем же INSERT ... ON CONFLICT DO NOTHING, что и при пакетном приёме:
+            // одновременная отправка дожидается коммита первой и получает её операцию
+            op.setId(UUID.randomUUID());
+            if (repo.insertIgnoringDuplicates(List.of(op)).isEmpty()) {
+                return repo.findByCashDeskIdAndIdempotencyKey(op.getCashDeskId(), op.getIdempotencyKey())
+                        .orElseThrow(() -> new IllegalStateException(
+                                "Idempotency key is taken but operation not found: " + op.getIdempotencyKey()));
+            }
+            saved = op;
+        } else {
+            saved = repo.save(op);
+        }
+        // UC11: Журнал балансов обновляется в той же транзакции
+        balanceLedger.record(saved);
+        // UC13: Почасовые агрегаты RTP
+        rtpRollups.record(saved);
+        // UC12: Онлайн-проверка на аномалии
+        anomalyDetectionService.onOperationCreated(saved);
+        return saved;
     }
 
     public List<CashOperation> all() {
@@ -35,6 +87,44 @@ public class CashOperationService {
     public CashOperation get(UUID id) {
         return repo.findById(id).orElseThrow(() -> new RuntimeException("Cash operation not found: " + id));
     }
-}
 
+    // Keyset-пагинация: возвращает limit + 1 строк, лишняя строка означает наличие следующей страницы
+    @Transactional(readOnly = true)
+    public List<CashOperation> page(CashOperationFilter filter, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (cursor == null || cursor.isBlank()) {
+            return repo.findPage(filter, null, null, size + 1);
+        }
+        CashOperation position = decodeCursor(cursor);
+        return repo.findPage(filter, position.getOperatedAt(), position.getId(), size + 1);
+    }
+
+    // Потоковая выгрузка с постоянным расходом памяти: каждая строка отсоединяется после обработки
+    @Transactional(readOnly = true)
+    public void stream(CashOperationFilter filter, Consumer<CashOperation> consumer) {
+        try (Stream<CashOperation> ops = repo.streamByFilter(filter)) {
+            ops.forEach(op -> {
+                consumer.accept(op);
+                repo.detach(op);
+            });
+        }
+    }
 
+    public static String encodeCursor(CashOperation op) {
+        String raw = op.getOperatedAt().toString() + "|" + op.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CashOperation decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            CashOperation position = new CashOperation();
+            position.setOperatedAt(OffsetDateTime.parse(raw.substring(0, separator)));
+            position.setId(UUID.fromString(raw.substring(separator + 1)));
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
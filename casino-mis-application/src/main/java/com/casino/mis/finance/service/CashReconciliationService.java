@@ -1,9 +1,7 @@
 package com.casino.mis.finance.service;
 
-import com.casino.mis.finance.domain.CashOperation;
 import com.casino.mis.finance.domain.CashRegisterReconciliation;
 import com.casino.mis.finance.dto.CashReconciliationRequest;
-import com.casino.mis.finance.repository.CashOperationRepository;
 import com.casino.mis.finance.repository.CashRegisterReconciliationRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,42 +9,28 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class CashReconciliationService {
 
     private final CashRegisterReconciliationRepository reconciliationRepo;
-    private final CashOperationRepository operationRepo;
+    private final CashBalanceLedger balanceLedger;
 
     public CashReconciliationService(CashRegisterReconciliationRepository reconciliationRepo,
-                                    CashOperationRepository operationRepo) {
+                                    CashBalanceLedger balanceLedger) {
         this.reconciliationRepo = reconciliationRepo;
-        this.operationRepo = operationRepo;
+        this.balanceLedger = balanceLedger;
     }
 
     // UC11: Контроль кассы
     @Transactional
     public CashRegisterReconciliation reconcileCash(CashReconciliationRequest request) {
-        // Получаем все операции за смену (UC10)
-        List<CashOperation> allOperations = operationRepo.findByOperatedAtBetween(
-                request.getShiftStart(), 
+        // Рассчитываем ожидаемый баланс по журналу балансов кассы (UC10)
+        BigDecimal expectedBalance = balanceLedger.expectedBalance(
+                request.getCashDeskId(),
+                request.getShiftStart(),
                 request.getShiftEnd()
         );
-        List<CashOperation> operations = allOperations.stream()
-                .filter(op -> op.getCashDeskId().equals(request.getCashDeskId()))
-                .collect(Collectors.toList());
-
-        // Рассчитываем ожидаемый баланс
-        BigDecimal expectedBalance = operations.stream()
-                .map(op -> {
-                    if (op.getType() == com.casino.mis.finance.domain.OperationType.DEPOSIT) {
-                        return op.getAmount();
-                    } else {
-                        return op.getAmount().negate();
-                    }
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // Вычисляем расхождение
         BigDecimal discrepancy = request.getActualBalance().subtract(expectedBalance);
@@ -80,6 +64,11 @@ public class CashReconciliationService {
         return reconciliationRepo.findByCashDeskId(cashDeskId);
     }
 
+    // Пересборка журнала балансов из исходных операций
+    public int rebuildLedger() {
+        return balanceLedger.rebuild();
+    }
+
     @Transactional
     public CashRegisterReconciliation updateStatus(UUID id, CashRegisterReconciliation.ReconciliationStatus status) {
         CashRegisterReconciliation reconciliation = findById(id);
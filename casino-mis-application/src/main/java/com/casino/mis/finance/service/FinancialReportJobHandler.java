@@ -0,0 +1,42 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.FinancialReport;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobHandler;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Асинхронное формирование финансового отчёта UC10
+@Component
+public class FinancialReportJobHandler implements ReportJobHandler {
+
+    private final FinancialReportService reportService;
+
+    public FinancialReportJobHandler(FinancialReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    @Override
+    public Set<ReportJobType> getTypes() {
+        return EnumSet.of(ReportJobType.FINANCIAL_REPORT);
+    }
+
+    @Override
+    public void markRunning(ReportJob job) {
+        reportService.updateStatus(job.getResultId(), FinancialReport.FinancialReportStatus.RUNNING);
+    }
+
+    @Override
+    public void execute(ReportJob job, ReportJobProgress progress) {
+        reportService.completeQueuedReport(job.getResultId(), progress);
+    }
+
+    @Override
+    public void markFailed(ReportJob job) {
+        reportService.updateStatus(job.getResultId(), FinancialReport.FinancialReportStatus.FAILED);
+    }
+}
@@ -5,23 +5,41 @@ import com.casino.mis.finance.domain.FinancialReport;
 import com.casino.mis.finance.dto.FinancialReportRequest;
 import com.casino.mis.finance.repository.CashOperationRepository;
 import com.casino.mis.finance.repository.FinancialReportRepository;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class FinancialReportService {
@@ -29,98 +47,228 @@ public class FinancialReportService {
     private final FinancialReportRepository reportRepo;
     private final CashOperationRepository opRepo;
     private final S3Client s3;
+    private final ReportJobQueue reportJobQueue;
+
+    private final int uploadPartSize;
+    private final boolean gzip;
 
     private static final String BUCKET = "reports";
     private static final String S3_PROTOCOL_PREFIX = "s3://";
+    private static final String CSV_HEADER = "id,cashDeskId,amount,type,currency,operatedAt";
+    private static final String CSV_SUFFIX = ".csv";
+    private static final String GZIP_CSV_SUFFIX = ".csv.gz";
+    private static final String CSV_CONTENT_TYPE = "text/csv";
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int CHECKPOINT_ROWS = 10_000;
 
     public FinancialReportService(FinancialReportRepository reportRepo,
                          CashOperationRepository opRepo,
-                         S3Client s3) {
+                         S3Client s3,
+                         ReportJobQueue reportJobQueue,
+                         @Value("${finance.reports.upload-part-size:8388608}") int uploadPartSize,
+                         @Value("${finance.reports.gzip:false}") boolean gzip) {
         this.reportRepo = reportRepo;
         this.opRepo = opRepo;
         this.s3 = s3;
+        this.reportJobQueue = reportJobQueue;
+        this.uploadPartSize = uploadPartSize;
+        this.gzip = gzip;
     }
 
     @Transactional
     public FinancialReport generateCsvReport(FinancialReportRequest req) {
+        FinancialReport report = new FinancialReport();
+        report.setPeriodStart(req.getPeriodStart());
+        report.setPeriodEnd(req.getPeriodEnd());
+        report.setCsvUrl(writeCsv(req.getPeriodStart(), req.getPeriodEnd(), ReportJobProgress.NONE));
+        return reportRepo.save(report);
+    }
+
+    // Асинхронное формирование: запись отчёта создаётся сразу в статусе QUEUED
+    @Transactional
+    public ReportJob submitCsvReport(FinancialReportRequest req) {
+        FinancialReport report = new FinancialReport();
+        report.setPeriodStart(req.getPeriodStart());
+        report.setPeriodEnd(req.getPeriodEnd());
+        report.setStatus(FinancialReport.FinancialReportStatus.QUEUED);
+        FinancialReport saved = reportRepo.save(report);
+        return reportJobQueue.submit(ReportJobType.FINANCIAL_REPORT, saved.getId(), req);
+    }
+
+    @Transactional
+    public FinancialReport completeQueuedReport(UUID reportId, ReportJobProgress progress) {
+        FinancialReport report = findById(reportId);
+        report.setCsvUrl(writeCsv(report.getPeriodStart(), report.getPeriodEnd(), progress));
+        report.setStatus(FinancialReport.FinancialReportStatus.READY);
+        return reportRepo.save(report);
+    }
+
+    @Transactional
+    public void updateStatus(UUID reportId, FinancialReport.FinancialReportStatus status) {
+        FinancialReport report = findById(reportId);
+        report.setStatus(status);
+        reportRepo.save(report);
+    }
+
+    public FinancialReport findById(UUID reportId) {
+        return reportRepo.findById(reportId)
+                .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
+    }
+
+    // Операции читаются курсором и сразу уходят в S3 частями; в памяти только буфер одной части
+    private String writeCsv(LocalDate periodStart, LocalDate periodEnd, ReportJobProgress progress) {
         // Период в LocalDate → OffsetDateTime
-        OffsetDateTime from = req.getPeriodStart()
+        OffsetDateTime from = periodStart
                 .atStartOfDay().atOffset(ZoneOffset.UTC);
-        OffsetDateTime to = req.getPeriodEnd()
+        OffsetDateTime to = periodEnd
                 .atTime(23,59,59).atOffset(ZoneOffset.UTC);
 
-        // Находим операции
-        List<CashOperation> ops = opRepo.findByOperatedAtBetween(from, to);
+        String key = "report-" + UUID.randomUUID() + (gzip ? GZIP_CSV_SUFFIX : CSV_SUFFIX);
+        S3MultipartUploadStream upload = new S3MultipartUploadStream(
+                s3, BUCKET, key, gzip ? GZIP_CONTENT_TYPE : CSV_CONTENT_TYPE, uploadPartSize);
+        Writer writer;
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(upload, WRITE_BUFFER_SIZE) : upload;
+            writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start report upload", e);
+        }
+        progress.checkpoint(10);
 
-        // Собираем CSV
-        String header = "id,cashDeskId,amount,type,currency,operatedAt";
-        String body = ops.stream()
-                .map(o -> String.join(",",
+        try (Stream<CashOperation> ops = opRepo.streamByOperatedAtBetween(from, to)) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            long rows = 0;
+            Iterator<CashOperation> iterator = ops.iterator();
+            while (iterator.hasNext()) {
+                CashOperation o = iterator.next();
+                writer.write(String.join(",",
                         o.getId().toString(),
                         o.getCashDeskId().toString(),
                         o.getAmount().toString(),
                         o.getType().name(),
                         o.getCurrency(),
                         o.getOperatedAt().toString()
-                ))
-                .collect(Collectors.joining("\n"));
-
-        String csv = header + "\n" + body + "\n";
-        String key = "report-" + UUID.randomUUID() + ".csv";
-        // Отправляем в S3
-        s3.putObject(
-                PutObjectRequest.builder()
-                        .bucket(BUCKET)
-                        .key(key)
-                        .build(),
-                software.amazon.awssdk.core.sync.RequestBody
-                        .fromBytes(csv.getBytes(StandardCharsets.UTF_8))
-        );
-        // Сохраняем мета
-        FinancialReport report = new FinancialReport();
-        report.setPeriodStart(req.getPeriodStart());
-        report.setPeriodEnd(req.getPeriodEnd());
-        report.setCsvUrl(S3_PROTOCOL_PREFIX + BUCKET + "/" + key);
-        return reportRepo.save(report);
-    }
-
-    public byte[] downloadReport(UUID reportId) {
-        FinancialReport report = reportRepo.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
+                ));
+                writer.write('\n');
+                opRepo.detach(o);
+                // Контрольная точка заодно проверяет отмену фонового задания
+                if (++rows % CHECKPOINT_ROWS == 0) {
+                    progress.checkpoint(40);
+                }
+            }
+        } catch (IOException e) {
+            abortUpload(upload, writer);
+            throw new RuntimeException("Failed to write report to storage", e);
+        } catch (RuntimeException e) {
+            abortUpload(upload, writer);
+            throw e;
+        }
 
-        if (report.getCsvUrl() == null || report.getCsvUrl().isEmpty()) {
-            throw new RuntimeException("Report CSV URL is not set");
+        progress.checkpoint(70);
+        try {
+            // Закрытие дописывает последнюю часть и завершает multipart upload
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload report to storage", e);
         }
+        return S3_PROTOCOL_PREFIX + BUCKET + "/" + key;
+    }
 
-        // Извлекаем ключ из URL формата s3://bucket/key
-        String csvUrl = report.getCsvUrl();
-        String s3Prefix = S3_PROTOCOL_PREFIX + BUCKET + "/";
-        if (!csvUrl.startsWith(s3Prefix)) {
-            throw new RuntimeException("Invalid CSV URL format: " + csvUrl);
+    private void abortUpload(S3MultipartUploadStream upload, Writer writer) {
+        upload.abort();
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Загрузка уже отменена
         }
-        String key = csvUrl.substring(s3Prefix.length());
+    }
+
+    // Отдаёт объект из S3 потоком; заголовок Range (один диапазон) даёт ответ 206
+    public ResponseEntity<StreamingResponseBody> downloadReport(UUID reportId, String rangeHeader) {
+        FinancialReport report = findById(reportId);
+        String key = objectKey(report);
 
+        HeadObjectResponse head;
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            head = s3.headObject(HeadObjectRequest.builder()
                     .bucket(BUCKET)
                     .key(key)
-                    .build();
-
-            ResponseInputStream<GetObjectResponse> response = s3.getObject(getObjectRequest);
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = response.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-            response.close();
-            return outputStream.toByteArray();
+                    .build());
         } catch (NoSuchKeyException e) {
             throw new RuntimeException("Report file not found in storage: " + key, e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read report file from storage", e);
         }
+        long length = head.contentLength();
+        boolean gzipped = key.endsWith(GZIP_CSV_SUFFIX);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzipped ? MediaType.parseMediaType(GZIP_CONTENT_TYPE) : MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment",
+                "report_" + reportId + (gzipped ? GZIP_CSV_SUFFIX : CSV_SUFFIX));
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (head.eTag() != null) {
+            headers.setETag(head.eTag());
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return notSatisfiable(headers, length);
+        }
+        // Несколько диапазонов не поддерживаем: по RFC 9110 можно отдать весь объект
+        if (ranges.size() == 1) {
+            long start;
+            long end;
+            try {
+                start = ranges.get(0).getRangeStart(length);
+                end = ranges.get(0).getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                return notSatisfiable(headers, length);
+            }
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            headers.setContentLength(end - start + 1);
+            String range = "bytes=" + start + "-" + end;
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .body(out -> copyObject(key, range, out));
+        }
+
+        headers.setContentLength(length);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> copyObject(key, null, out));
     }
-}
 
+    private ResponseEntity<StreamingResponseBody> notSatisfiable(HttpHeaders headers, long length) {
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .headers(headers)
+                .build();
+    }
 
+    private void copyObject(String key, String range, OutputStream out) throws IOException {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(BUCKET)
+                .key(key)
+                .range(range)
+                .build();
+        try (ResponseInputStream<GetObjectResponse> in = s3.getObject(request)) {
+            in.transferTo(out);
+        }
+    }
+
+    // Извлекаем ключ из URL формата s3://bucket/key
+    private String objectKey(FinancialReport report) {
+        if (report.getCsvUrl() == null || report.getCsvUrl().isEmpty()) {
+            throw new RuntimeException("Report CSV URL is not set");
+        }
+        String csvUrl = report.getCsvUrl();
+        String s3Prefix = S3_PROTOCOL_PREFIX + BUCKET + "/";
+        if (!csvUrl.startsWith(s3Prefix)) {
+            throw new RuntimeException("Invalid CSV URL format: " + csvUrl);
+        }
+        return csvUrl.substring(s3Prefix.length());
+    }
+}
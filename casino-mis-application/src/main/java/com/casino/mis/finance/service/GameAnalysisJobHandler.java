@@ -0,0 +1,47 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.GameSessionAnalysis;
+import com.casino.mis.finance.dto.GameAnalysisRequest;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobHandler;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Асинхронный анализ игровых сессий UC13
+@Component
+public class GameAnalysisJobHandler implements ReportJobHandler {
+
+    private final GameAnalysisService analysisService;
+    private final ReportJobQueue reportJobQueue;
+
+    public GameAnalysisJobHandler(GameAnalysisService analysisService, ReportJobQueue reportJobQueue) {
+        this.analysisService = analysisService;
+        this.reportJobQueue = reportJobQueue;
+    }
+
+    @Override
+    public Set<ReportJobType> getTypes() {
+        return EnumSet.of(ReportJobType.GAME_ANALYSIS);
+    }
+
+    @Override
+    public void markRunning(ReportJob job) {
+        analysisService.updateStatus(job.getResultId(), GameSessionAnalysis.AnalysisStatus.PROCESSING);
+    }
+
+    @Override
+    public void execute(ReportJob job, ReportJobProgress progress) {
+        GameAnalysisRequest request = reportJobQueue.readPayload(job, GameAnalysisRequest.class);
+        analysisService.completeQueuedAnalysis(job.getResultId(), request, progress);
+    }
+
+    @Override
+    public void markFailed(ReportJob job) {
+        analysisService.updateStatus(job.getResultId(), GameSessionAnalysis.AnalysisStatus.ERROR);
+    }
+}
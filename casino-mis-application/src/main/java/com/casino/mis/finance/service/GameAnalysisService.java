@@ -1,11 +1,13 @@
 package com.casino.mis.finance.service;
 
-import com.casino.mis.finance.domain.CashOperation;
 import com.casino.mis.finance.domain.GameSessionAnalysis;
 import com.casino.mis.finance.dto.GameAnalysisRequest;
-import com.casino.mis.finance.repository.CashOperationRepository;
 import com.casino.mis.finance.repository.GameSessionAnalysisRepository;
 import com.casino.mis.finance.service.AnomalyDetectionService;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,57 +15,80 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class GameAnalysisService {
 
     private final GameSessionAnalysisRepository analysisRepo;
-    private final CashOperationRepository operationRepo;
+    private final GameRtpRollups rtpRollups;
     private final AnomalyDetectionService anomalyService;
+    private final ReportJobQueue reportJobQueue;
 
     public GameAnalysisService(GameSessionAnalysisRepository analysisRepo,
-                              CashOperationRepository operationRepo,
-                              AnomalyDetectionService anomalyService) {
+                              GameRtpRollups rtpRollups,
+                              AnomalyDetectionService anomalyService,
+                              ReportJobQueue reportJobQueue) {
         this.analysisRepo = analysisRepo;
-        this.operationRepo = operationRepo;
+        this.rtpRollups = rtpRollups;
         this.anomalyService = anomalyService;
+        this.reportJobQueue = reportJobQueue;
     }
 
     // UC13: Анализ выигрышей и проигрышей
     @Transactional
     public GameSessionAnalysis analyzeGameSessions(GameAnalysisRequest request) {
-        // Получаем операции за период
-        // В реальной системе здесь были бы игровые сессии, но для MVP используем операции
-        // Предполагаем, что DEPOSIT = ставки игрока, WITHDRAWAL = выигрыши
-        List<CashOperation> operations = operationRepo.findByOperatedAtBetween(
-                request.getPeriodStart(),
-                request.getPeriodEnd()
-        );
-
-        // Фильтруем по столу/автомату, если указан
-        if (request.getGameTableId() != null) {
-            operations = operations.stream()
-                    .filter(op -> op.getCashDeskId().toString().equals(request.getGameTableId()))
-                    .collect(Collectors.toList());
-        }
+        GameSessionAnalysis analysis = new GameSessionAnalysis();
+        analyze(analysis, request, ReportJobProgress.NONE);
+        return analysisRepo.save(analysis);
+    }
 
-        // Рассчитываем метрики
-        List<CashOperation> deposits = operations.stream()
-                .filter(op -> op.getType() == com.casino.mis.finance.domain.OperationType.DEPOSIT)
-                .collect(Collectors.toList());
+    // UC13 в фоне: запись анализа создаётся сразу в статусе PENDING
+    @Transactional
+    public ReportJob submitAnalysis(GameAnalysisRequest request) {
+        GameSessionAnalysis analysis = new GameSessionAnalysis();
+        analysis.setGameTableId(request.getGameTableId());
+        analysis.setPeriodStart(request.getPeriodStart());
+        analysis.setPeriodEnd(request.getPeriodEnd());
+        analysis.setStatus(GameSessionAnalysis.AnalysisStatus.PENDING);
+        GameSessionAnalysis saved = analysisRepo.save(analysis);
+        return reportJobQueue.submit(ReportJobType.GAME_ANALYSIS, saved.getId(), request);
+    }
 
-        List<CashOperation> withdrawals = operations.stream()
-                .filter(op -> op.getType() == com.casino.mis.finance.domain.OperationType.WITHDRAWAL)
-                .collect(Collectors.toList());
+    @Transactional
+    public GameSessionAnalysis completeQueuedAnalysis(UUID analysisId, GameAnalysisRequest request,
+                                                      ReportJobProgress progress) {
+        GameSessionAnalysis analysis = findById(analysisId);
+        analyze(analysis, request, progress);
+        return analysisRepo.save(analysis);
+    }
 
-        BigDecimal totalBets = deposits.stream()
-                .map(CashOperation::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    @Transactional
+    public void updateStatus(UUID analysisId, GameSessionAnalysis.AnalysisStatus status) {
+        GameSessionAnalysis analysis = findById(analysisId);
+        analysis.setStatus(status);
+        analysisRepo.save(analysis);
+    }
 
-        BigDecimal totalWins = withdrawals.stream()
-                .map(CashOperation::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void analyze(GameSessionAnalysis analysis, GameAnalysisRequest request, ReportJobProgress progress) {
+        // В реальной системе здесь были бы игровые сессии, но для MVP используем операции
+        // Предполагаем, что DEPOSIT = ставки игрока, WITHDRAWAL = выигрыши
+        BigDecimal largeWinThreshold = request.getLargeWinThreshold() != null ?
+                request.getLargeWinThreshold() : new BigDecimal("1000");
+
+        // Метрики за период читаются из почасовых агрегатов стола/автомата
+        GameRtpRollups.RtpStats stats;
+        if (request.getGameTableId() == null) {
+            stats = rtpRollups.stats(null, request.getPeriodStart(), request.getPeriodEnd(), largeWinThreshold);
+        } else {
+            UUID tableId = parseTableId(request.getGameTableId());
+            stats = tableId != null
+                    ? rtpRollups.stats(tableId, request.getPeriodStart(), request.getPeriodEnd(), largeWinThreshold)
+                    : GameRtpRollups.RtpStats.empty();
+        }
+        progress.checkpoint(40);
+
+        BigDecimal totalBets = stats.getBets();
+        BigDecimal totalWins = stats.getWins();
 
         // Рассчитываем RTP (Return to Player)
         BigDecimal rtp = BigDecimal.ZERO;
@@ -77,37 +102,27 @@ public class GameAnalysisService {
         
         BigDecimal rtpDeviation = rtp.subtract(expectedRtp);
 
-        // Определяем крупные выигрыши
-        BigDecimal largeWinThreshold = request.getLargeWinThreshold() != null ?
-                request.getLargeWinThreshold() : new BigDecimal("1000");
-
-        List<CashOperation> largeWins = withdrawals.stream()
-                .filter(op -> op.getAmount().compareTo(largeWinThreshold) > 0)
-                .collect(Collectors.toList());
+        long largeWins = stats.getLargeWins();
 
-        BigDecimal largestWin = withdrawals.stream()
-                .map(CashOperation::getAmount)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
+        progress.checkpoint(80);
 
-        // Создаем анализ
-        GameSessionAnalysis analysis = new GameSessionAnalysis();
+        // Заполняем анализ
         analysis.setGameTableId(request.getGameTableId());
         analysis.setPeriodStart(request.getPeriodStart());
         analysis.setPeriodEnd(request.getPeriodEnd());
-        analysis.setTotalSessions((long) Math.max(deposits.size(), withdrawals.size()));
+        analysis.setTotalSessions(Math.max(stats.getBetsCount(), stats.getWinsCount()));
         analysis.setTotalBets(totalBets);
         analysis.setTotalWins(totalWins);
         analysis.setRtp(rtp);
         analysis.setExpectedRtp(expectedRtp);
         analysis.setRtpDeviation(rtpDeviation);
-        analysis.setLargeWinsCount(largeWins.size());
-        analysis.setLargestWinAmount(largestWin);
+        analysis.setLargeWinsCount((int) largeWins);
+        analysis.setLargestWinAmount(stats.getMaxWin());
         analysis.setStatus(GameSessionAnalysis.AnalysisStatus.COMPLETED);
 
         // Если есть крупные выигрыши, передаем в UC12 для проверки
-        if (!largeWins.isEmpty()) {
-            String note = "Large wins detected: " + largeWins.size() + 
+        if (largeWins > 0) {
+            String note = "Large wins detected: " + largeWins + 
                     " wins exceeding " + largeWinThreshold + ". Sent to anomaly detection (UC12).";
             analysis.setNotes(note);
         }
@@ -119,13 +134,19 @@ public class GameAnalysisService {
             analysis.setNotes(note);
         }
 
-        GameSessionAnalysis saved = analysisRepo.save(analysis);
-
         // Передаем крупные выигрыши в UC12 (анализ аномалий)
         // Примечание: в реальной системе здесь можно автоматически вызвать обнаружение аномалий
         // Это демонстрация интеграции UC12 и UC13 согласно спецификации
+    }
 
-        return saved;
+    // Стол задаётся строкой; значение, не совпадающее ни с одной кассой, даёт пустой анализ
+    private static UUID parseTableId(String gameTableId) {
+        try {
+            UUID id = UUID.fromString(gameTableId);
+            return id.toString().equals(gameTableId) ? id : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     public GameSessionAnalysis findById(UUID id) {
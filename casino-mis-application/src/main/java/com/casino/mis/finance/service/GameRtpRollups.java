@@ -0,0 +1,172 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.GameRtpRollup;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import com.casino.mis.finance.repository.GameRtpRollupRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * UC13: Почасовые агрегаты RTP по столам/автоматам.
+ * Обновляются в транзакции создания операции; анализ за период читает полные часы
+ * из агрегатов и досчитывает по операциям только неполные часы по краям периода.
+ */
+@Service
+public class GameRtpRollups {
+
+    // Границы гистограммы крупных выигрышей, по возрастанию
+    static final BigDecimal[] LARGE_WIN_EDGES = {
+            new BigDecimal("1000"), new BigDecimal("5000"), new BigDecimal("10000"),
+            new BigDecimal("50000"), new BigDecimal("100000")
+    };
+
+    private final GameRtpRollupRepository rollupRepo;
+    private final CashOperationRepository operationRepo;
+
+    public GameRtpRollups(GameRtpRollupRepository rollupRepo, CashOperationRepository operationRepo) {
+        this.rollupRepo = rollupRepo;
+        this.operationRepo = operationRepo;
+    }
+
+    @Transactional
+    public void record(CashOperation op) {
+        recordAll(List.of(op));
+    }
+
+    // Операции пакета сначала складываются по (стол, час): одно обновление агрегата на интервал
+    @Transactional
+    public void recordAll(Collection<CashOperation> ops) {
+        Map<GameRtpRollup.Key, GameRtpRollup> rollups = new LinkedHashMap<>();
+        for (CashOperation op : ops) {
+            GameRtpRollup.Key key = new GameRtpRollup.Key(op.getCashDeskId(),
+                    CashBalanceLedger.bucketStart(op.getOperatedAt()));
+            GameRtpRollup rollup = rollups.computeIfAbsent(key, k -> {
+                GameRtpRollup created = new GameRtpRollup();
+                created.setCashDeskId(k.getCashDeskId());
+                created.setBucketStart(k.getBucketStart());
+                return created;
+            });
+            if (op.getType() == OperationType.DEPOSIT) {
+                rollup.setBetsAmount(rollup.getBetsAmount().add(op.getAmount()));
+                rollup.setBetsCount(rollup.getBetsCount() + 1);
+            } else {
+                addWin(rollup, op.getAmount());
+            }
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        for (GameRtpRollup rollup : rollups.values()) {
+            rollupRepo.add(rollup.getCashDeskId(), rollup.getBucketStart(),
+                    rollup.getBetsAmount(), rollup.getBetsCount(),
+                    rollup.getWinsAmount(), rollup.getWinsCount(), rollup.getMaxWin(),
+                    rollup.getWinsOver1000(), rollup.getWinsOver5000(), rollup.getWinsOver10000(),
+                    rollup.getWinsOver50000(), rollup.getWinsOver100000(),
+                    now);
+        }
+    }
+
+    private static void addWin(GameRtpRollup rollup, BigDecimal win) {
+        rollup.setWinsAmount(rollup.getWinsAmount().add(win));
+        rollup.setWinsCount(rollup.getWinsCount() + 1);
+        rollup.setMaxWin(rollup.getMaxWin().max(win));
+        long[] over = new long[LARGE_WIN_EDGES.length];
+        for (int i = 0; i < LARGE_WIN_EDGES.length; i++) {
+            over[i] = win.compareTo(LARGE_WIN_EDGES[i]) > 0 ? 1 : 0;
+        }
+        rollup.setWinsOver1000(rollup.getWinsOver1000() + over[0]);
+        rollup.setWinsOver5000(rollup.getWinsOver5000() + over[1]);
+        rollup.setWinsOver10000(rollup.getWinsOver10000() + over[2]);
+        rollup.setWinsOver50000(rollup.getWinsOver50000() + over[3]);
+        rollup.setWinsOver100000(rollup.getWinsOver100000() + over[4]);
+    }
+
+    // Итоги за [from, to] включительно, как в исходном анализе; cashDeskId == null - все столы
+    @Transactional(readOnly = true)
+    public RtpStats stats(UUID cashDeskId, OffsetDateTime from, OffsetDateTime to, BigDecimal largeWinThreshold) {
+        OffsetDateTime firstFull = CashBalanceLedger.ceilToBucket(from);
+        OffsetDateTime lastFullEnd = CashBalanceLedger.bucketStart(to);
+        if (!firstFull.isBefore(lastFullEnd)) {
+            // Нет ни одного полного часа: весь период считается по операциям
+            return fromEdges(edgeTotals(cashDeskId, from, from, from, to, largeWinThreshold));
+        }
+
+        RtpStats stats = fromEdges(edgeTotals(cashDeskId, from, firstFull, lastFullEnd, to, largeWinThreshold));
+        GameRtpRollupRepository.RollupTotals totals = cashDeskId != null
+                ? rollupRepo.totals(cashDeskId, firstFull, lastFullEnd)
+                : rollupRepo.totals(firstFull, lastFullEnd);
+        stats.setBets(stats.getBets().add(totals.getBets()));
+        stats.setBetsCount(stats.getBetsCount() + totals.getBetsCount());
+        stats.setWins(stats.getWins().add(totals.getWins()));
+        stats.setWinsCount(stats.getWinsCount() + totals.getWinsCount());
+        stats.setMaxWin(stats.getMaxWin().max(totals.getMaxWin()));
+        stats.setLargeWins(stats.getLargeWins()
+                + largeWins(cashDeskId, totals, largeWinThreshold, firstFull, lastFullEnd));
+        return stats;
+    }
+
+    // Порог на границе гистограммы берётся из агрегатов; иначе выигрыши выше порога досчитываются по операциям
+    private long largeWins(UUID cashDeskId, GameRtpRollupRepository.RollupTotals totals, BigDecimal threshold,
+                           OffsetDateTime from, OffsetDateTime to) {
+        long[] histogram = histogram(totals);
+        int lower = -1;
+        for (int i = 0; i < LARGE_WIN_EDGES.length && LARGE_WIN_EDGES[i].compareTo(threshold) <= 0; i++) {
+            lower = i;
+        }
+        if (lower >= 0 && LARGE_WIN_EDGES[lower].compareTo(threshold) == 0) {
+            return histogram[lower];
+        }
+        if (lower >= 0 && histogram[lower] == 0) {
+            // Нет выигрышей даже выше ближайшей меньшей границы
+            return 0;
+        }
+        return cashDeskId != null
+                ? operationRepo.countWinsAbove(cashDeskId, threshold, from, to)
+                : operationRepo.countWinsAbove(threshold, from, to);
+    }
+
+    private CashOperationRepository.EdgeTotals edgeTotals(UUID cashDeskId, OffsetDateTime start,
+                                                          OffsetDateTime headEnd, OffsetDateTime tailStart,
+                                                          OffsetDateTime end, BigDecimal threshold) {
+        return cashDeskId != null
+                ? operationRepo.edgeTotals(cashDeskId, start, headEnd, tailStart, end, threshold)
+                : operationRepo.edgeTotals(start, headEnd, tailStart, end, threshold);
+    }
+
+    private static RtpStats fromEdges(CashOperationRepository.EdgeTotals edges) {
+        return new RtpStats(edges.getBets(), edges.getBetsCount(), edges.getWins(), edges.getWinsCount(),
+                edges.getMaxWin(), edges.getLargeWins());
+    }
+
+    private static long[] histogram(GameRtpRollupRepository.RollupTotals totals) {
+        return new long[]{
+                totals.getWinsOver1000(), totals.getWinsOver5000(), totals.getWinsOver10000(),
+                totals.getWinsOver50000(), totals.getWinsOver100000()
+        };
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RtpStats {
+        private BigDecimal bets;
+        private long betsCount;
+        private BigDecimal wins;
+        private long winsCount;
+        private BigDecimal maxWin;
+        private long largeWins;
+
+        public static RtpStats empty() {
+            return new RtpStats(BigDecimal.ZERO, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO, 0);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.casino.mis.finance.service;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OutputStream, который пишет объект в S3 частями multipart upload.
+ * В памяти держится только буфер одной части; объект меньше одной части
+ * отправляется обычным PutObject. При ошибке загрузка отменяется (abort()).
+ */
+class S3MultipartUploadStream extends OutputStream {
+
+    // Минимальный размер части, кроме последней, по требованиям S3
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String key;
+    private final String contentType;
+    private final byte[] buffer;
+    private final List<CompletedPart> parts = new ArrayList<>();
+    private int position;
+    private String uploadId;
+    private long size;
+    private boolean closed;
+
+    S3MultipartUploadStream(S3Client s3, String bucket, String key, String contentType, int partSize) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.key = key;
+        this.contentType = contentType;
+        this.buffer = new byte[Math.max(partSize, MIN_PART_SIZE)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == buffer.length) {
+            uploadPart();
+        }
+        buffer[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart();
+            }
+            int count = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+            offset += count;
+            length -= count;
+            size += count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                s3.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        bufferBody());
+                return;
+            }
+            if (position > 0) {
+                uploadPart();
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (SdkException e) {
+            abort();
+            throw new IOException("Failed to upload " + key + " to storage", e);
+        }
+    }
+
+    // Прерывает загрузку, чтобы в бакете не остались незавершённые части
+    void abort() {
+        closed = true;
+        if (uploadId != null) {
+            try {
+                s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .build());
+            } catch (SdkException ignored) {
+                // Незавершённые части удалит lifecycle-правило бакета
+            }
+            uploadId = null;
+        }
+    }
+
+    // Тело запроса читает буфер напрямую, без копии части
+    private RequestBody bufferBody() {
+        return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, position), position);
+    }
+
+    long size() {
+        return size;
+    }
+
+    private void uploadPart() throws IOException {
+        try {
+            if (uploadId == null) {
+                uploadId = s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build()).uploadId();
+            }
+            int partNumber = parts.size() + 1;
+            UploadPartResponse response = s3.uploadPart(UploadPartRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .build(),
+                    bufferBody());
+            parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            position = 0;
+        } catch (SdkException e) {
+            abort();
+            throw new IOException("Failed to upload part of " + key + " to storage", e);
+        }
+    }
+}
@@ -3,10 +3,11 @@ package com.casino.mis.incident.controller;
 import com.casino.mis.incident.service.ExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.UUID;
 
 /**
@@ -28,15 +29,17 @@ public class ReportAliasController {
     @GetMapping("/{id}/export/pdf")
     @Operation(summary = "Экспорт отчёта в PDF (альтернативный URL)", 
                description = "Альтернативный URL для обратной совместимости. Используйте /api/incident/reports/{id}/export/pdf")
-    public ResponseEntity<byte[]> exportToPdf(@PathVariable UUID id) throws IOException {
-        return exportService.exportToPdf(id);
+    public ResponseEntity<StreamingResponseBody> exportToPdf(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return exportService.exportToPdf(id, ifNoneMatch);
     }
 
     // Альтернативный путь для Excel экспорта
     @GetMapping("/{id}/export/excel")
     @Operation(summary = "Экспорт отчёта в Excel (альтернативный URL)", 
                description = "Альтернативный URL для обратной совместимости. Используйте /api/incident/reports/{id}/export/excel")
-    public ResponseEntity<byte[]> exportToExcel(@PathVariable UUID id) throws IOException {
-        return exportService.exportToExcel(id);
+    public ResponseEntity<StreamingResponseBody> exportToExcel(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return exportService.exportToExcel(id, ifNoneMatch);
     }
 }
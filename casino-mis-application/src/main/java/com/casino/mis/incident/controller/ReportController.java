@@ -5,14 +5,17 @@ import com.casino.mis.incident.dto.*;
 import com.casino.mis.incident.mapper.ReportMapper;
 import com.casino.mis.incident.service.ExportService;
 import com.casino.mis.incident.service.ReportService;
+import com.casino.mis.jobs.dto.ReportJobResponse;
+import com.casino.mis.jobs.mapper.ReportJobMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,6 +56,28 @@ public class ReportController {
         return ReportMapper.toDto(reportService.generateRegulatoryReport(request));
     }
 
+    // Асинхронные варианты UC14, UC17, UC18: возвращают задание, статус - /api/jobs/{id}
+    @PostMapping("/incidents/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Поставить в очередь отчёт по инцидентам", description = "UC14: Отчёт формируется в фоне. Возвращает задание; прогресс, отмена и результат доступны через /api/jobs/{id}.")
+    public ReportJobResponse submitIncidentReport(@RequestBody @Valid IncidentReportRequest request) {
+        return ReportJobMapper.toDto(reportService.submitIncidentReport(request));
+    }
+
+    @PostMapping("/management/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Поставить в очередь отчёт для руководства", description = "UC17: Отчёт формируется в фоне. Возвращает задание; прогресс, отмена и результат доступны через /api/jobs/{id}.")
+    public ReportJobResponse submitManagementReport(@RequestBody @Valid ManagementReportRequest request) {
+        return ReportJobMapper.toDto(reportService.submitManagementReport(request));
+    }
+
+    @PostMapping("/regulatory/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Поставить в очередь отчёт для регуляторов", description = "UC18: Отчёт формируется в фоне. Возвращает задание; прогресс, отмена и результат доступны через /api/jobs/{id}.")
+    public ReportJobResponse submitRegulatoryReport(@RequestBody @Valid RegulatoryReportRequest request) {
+        return ReportJobMapper.toDto(reportService.submitRegulatoryReport(request));
+    }
+
     // UC16: Повторяющиеся нарушения сотрудников
     @PostMapping("/repeated-violations")
     @Operation(summary = "Найти повторяющиеся нарушения", description = "UC16: Аналитика частоты дисциплинарных нарушений, выделение сотрудников с количеством нарушений >= порога.")
@@ -75,16 +100,18 @@ public class ReportController {
 
     // UC19: Экспорт в PDF
     @GetMapping("/{id}/export/pdf")
-    @Operation(summary = "Экспорт отчёта в PDF", description = "UC19: Экспорт отчёта в формат PDF для загрузки или передачи.")
-    public ResponseEntity<byte[]> exportToPdf(@PathVariable UUID id) throws IOException {
-        return exportService.exportToPdf(id);
+    @Operation(summary = "Экспорт отчёта в PDF", description = "UC19: Экспорт отчёта в формат PDF для загрузки или передачи. Поддерживает ETag/If-None-Match.")
+    public ResponseEntity<StreamingResponseBody> exportToPdf(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return exportService.exportToPdf(id, ifNoneMatch);
     }
 
     // UC19: Экспорт в Excel
     @GetMapping("/{id}/export/excel")
-    @Operation(summary = "Экспорт отчёта в Excel", description = "UC19: Экспорт отчёта в формат Excel (XLSX) для дальнейшего анализа.")
-    public ResponseEntity<byte[]> exportToExcel(@PathVariable UUID id) throws IOException {
-        return exportService.exportToExcel(id);
+    @Operation(summary = "Экспорт отчёта в Excel", description = "UC19: Экспорт отчёта в формат Excel (XLSX) для дальнейшего анализа. Поддерживает ETag/If-None-Match.")
+    public ResponseEntity<StreamingResponseBody> exportToExcel(@PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return exportService.exportToExcel(id, ifNoneMatch);
     }
 }
 
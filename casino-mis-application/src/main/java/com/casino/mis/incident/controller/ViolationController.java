@@ -1,6 +1,11 @@
 package com.casino.mis.incident.controller;
 
 import com.casino.mis.incident.dto.CreateViolationRequest;
+import com.casino.mis.incident.dto.ViolationCountRequest;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
 import com.casino.mis.incident.dto.ViolationResponse;
 import com.casino.mis.incident.mapper.ViolationMapper;
 import com.casino.mis.incident.service.ViolationService;
@@ -40,6 +45,27 @@ public class ViolationController {
         return ViolationMapper.toDto(service.get(id));
     }
 
+    @PostMapping("/search")
+    @Operation(summary = "Поиск нарушений постранично", description = "UC22: Keyset-пагинация по (occurredAt, id) с фильтрами по набору сотрудников, типу и периоду [from, to). Для следующей страницы передайте nextCursor в параметре cursor.")
+    public ViolationPageResponse search(
+            @RequestBody ViolationFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ViolationService.DEFAULT_PAGE_SIZE) int limit) {
+        return service.page(filter, cursor, limit);
+    }
+
+    @PostMapping("/summary")
+    @Operation(summary = "Сводка по нарушениям", description = "UC22: Количество нарушений всего, по типам и по сотрудникам для того же фильтра, что и поиск")
+    public ViolationSummaryResponse summary(@RequestBody ViolationFilter filter) {
+        return service.summarize(filter);
+    }
+
+    @PostMapping("/counts")
+    @Operation(summary = "Количество нарушений по сотрудникам", description = "UC21: Число нарушений и дата последнего для набора сотрудников за период одним запросом")
+    public List<ViolationCountResponse> countByEmployees(@RequestBody @Valid ViolationCountRequest request) {
+        return service.countByEmployees(request.getEmployeeIds(), request.getFrom(), request.getTo());
+    }
+
     @GetMapping("/employee/{employeeId}")
     @Operation(summary = "Получить нарушения сотрудника", description = "UC22: Получение всех нарушений конкретного сотрудника для просмотра истории")
     public List<ViolationResponse> getByEmployee(@PathVariable UUID employeeId) {
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
@@ -31,7 +32,9 @@ public class DisciplinaryViolation {
     @Enumerated(EnumType.STRING)
     private ViolationStatus status = ViolationStatus.OPEN;
 
+    // Вложения страницы нарушений догружаются пакетами, а не запросом на каждую строку
     @ElementCollection
+    @BatchSize(size = 100)
     private List<String> attachmentUrls;
 
 }
@@ -32,6 +32,8 @@ public class Report {
     @Column(columnDefinition = "TEXT")
     private String reportData; // JSON данные отчёта
 
+    private OffsetDateTime updatedAt = OffsetDateTime.now(); // Последнее изменение данных: входит в ключ кэша экспорта
+
     @Enumerated(EnumType.STRING)
     private ReportStatus status = ReportStatus.GENERATED;
 
@@ -1,8 +1,10 @@
 package com.casino.mis.incident.domain;
 
 public enum ReportStatus {
+    QUEUED,      // Ожидает асинхронного формирования
+    RUNNING,     // Формируется
     GENERATED,
+    FAILED,      // Ошибка или отмена формирования
     EXPORTED,
     ARCHIVED
 }
-
@@ -0,0 +1,24 @@
+package com.casino.mis.incident.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViolationCountRequest {
+
+    @NotNull
+    private List<UUID> employeeIds;
+
+    private OffsetDateTime from; // Включительно, null - без нижней границы
+
+    private OffsetDateTime to; // Не включительно, null - без верхней границы
+
+}
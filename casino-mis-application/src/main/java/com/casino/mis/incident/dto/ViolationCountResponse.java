@@ -0,0 +1,19 @@
+package com.casino.mis.incident.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViolationCountResponse {
+
+    private UUID employeeId;
+    private long count;
+    private OffsetDateTime lastOccurredAt;
+
+}
@@ -0,0 +1,24 @@
+package com.casino.mis.incident.dto;
+
+import com.casino.mis.incident.domain.ViolationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViolationFilter {
+
+    private List<UUID> employeeIds; // null - все сотрудники, пустой список - ни одного
+
+    private ViolationType type;
+
+    private OffsetDateTime from; // Включительно
+
+    private OffsetDateTime to; // Не включительно
+}
@@ -0,0 +1,17 @@
+package com.casino.mis.incident.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViolationPageResponse {
+
+    private List<ViolationResponse> items;
+
+    private String nextCursor; // null - страниц больше нет
+}
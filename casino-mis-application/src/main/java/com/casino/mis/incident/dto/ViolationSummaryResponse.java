@@ -0,0 +1,18 @@
+package com.casino.mis.incident.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViolationSummaryResponse {
+
+    private long total;
+    private Map<String, Long> byType;
+    private Map<UUID, Long> byEmployee;
+}
@@ -3,7 +3,10 @@ package com.casino.mis.incident.repository;
 import com.casino.mis.incident.domain.Complaint;
 import com.casino.mis.incident.domain.ComplaintCategory;
 import com.casino.mis.incident.domain.ComplaintSource;
+import com.casino.mis.incident.domain.ComplaintStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -18,5 +21,22 @@ public interface ComplaintRepository extends JpaRepository<Complaint, UUID> {
     List<Complaint> findBySource(ComplaintSource source);
     
     List<Complaint> findByReportedAtBetweenAndCategory(OffsetDateTime start, OffsetDateTime end, ComplaintCategory category);
-}
 
+    // Агрегаты для отчётов: строки [category, status, count]
+    @Query("SELECT c.category, c.status, COUNT(c) FROM Complaint c WHERE c.reportedAt BETWEEN :start AND :end GROUP BY c.category, c.status")
+    List<Object[]> countByCategoryAndStatus(@Param("start") OffsetDateTime start,
+                                            @Param("end") OffsetDateTime end);
+
+    @Query("SELECT c.id AS id, c.category AS category, c.reportedAt AS reportedAt, c.status AS status, c.source AS source " +
+           "FROM Complaint c WHERE c.reportedAt BETWEEN :start AND :end ORDER BY c.reportedAt")
+    List<ComplaintRow> findRowsByPeriod(@Param("start") OffsetDateTime start,
+                                        @Param("end") OffsetDateTime end);
+
+    interface ComplaintRow {
+        UUID getId();
+        ComplaintCategory getCategory();
+        OffsetDateTime getReportedAt();
+        ComplaintStatus getStatus();
+        ComplaintSource getSource();
+    }
+}
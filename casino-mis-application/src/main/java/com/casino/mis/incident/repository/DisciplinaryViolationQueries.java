@@ -0,0 +1,17 @@
+package com.casino.mis.incident.repository;
+
+import com.casino.mis.incident.domain.DisciplinaryViolation;
+import com.casino.mis.incident.dto.ViolationFilter;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface DisciplinaryViolationQueries {
+
+    // Keyset-страница в порядке (occurredAt, id): строки строго после (afterOccurredAt, afterId)
+    List<DisciplinaryViolation> findPage(ViolationFilter filter, OffsetDateTime afterOccurredAt, UUID afterId, int limit);
+
+    // Агрегат по фильтру: строки [employeeId, type, count]
+    List<Object[]> countByEmployeeAndType(ViolationFilter filter);
+}
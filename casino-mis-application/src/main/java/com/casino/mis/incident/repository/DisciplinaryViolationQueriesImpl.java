@@ -0,0 +1,78 @@
+package com.casino.mis.incident.repository;
+
+import com.casino.mis.incident.domain.DisciplinaryViolation;
+import com.casino.mis.incident.dto.ViolationFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class DisciplinaryViolationQueriesImpl implements DisciplinaryViolationQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DisciplinaryViolation> findPage(ViolationFilter filter, OffsetDateTime afterOccurredAt, UUID afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DisciplinaryViolation> query = cb.createQuery(DisciplinaryViolation.class);
+        Root<DisciplinaryViolation> root = query.from(DisciplinaryViolation.class);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filter);
+        if (afterOccurredAt != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(root.get("occurredAt"), afterOccurredAt),
+                    cb.and(
+                            cb.equal(root.get("occurredAt"), afterOccurredAt),
+                            cb.greaterThan(root.get("id"), afterId)
+                    )
+            ));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("occurredAt")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Object[]> countByEmployeeAndType(ViolationFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<DisciplinaryViolation> root = query.from(DisciplinaryViolation.class);
+
+        query.multiselect(root.get("employeeId"), root.get("type"), cb.count(root))
+                .where(filterPredicates(cb, root, filter).toArray(new Predicate[0]))
+                .groupBy(root.get("employeeId"), root.get("type"));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, Root<DisciplinaryViolation> root, ViolationFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.getEmployeeIds() != null) {
+            predicates.add(root.get("employeeId").in(filter.getEmployeeIds()));
+        }
+        if (filter.getType() != null) {
+            predicates.add(cb.equal(root.get("type"), filter.getType()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("occurredAt"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(root.get("occurredAt"), filter.getTo()));
+        }
+        return predicates;
+    }
+}
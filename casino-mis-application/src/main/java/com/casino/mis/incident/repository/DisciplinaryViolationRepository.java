@@ -1,15 +1,18 @@
 package com.casino.mis.incident.repository;
 
 import com.casino.mis.incident.domain.DisciplinaryViolation;
+import com.casino.mis.incident.domain.ViolationStatus;
+import com.casino.mis.incident.domain.ViolationType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public interface DisciplinaryViolationRepository extends JpaRepository<DisciplinaryViolation, UUID> {
+public interface DisciplinaryViolationRepository extends JpaRepository<DisciplinaryViolation, UUID>, DisciplinaryViolationQueries {
     
     List<DisciplinaryViolation> findByEmployeeId(UUID employeeId);
     
@@ -19,4 +22,40 @@ public interface DisciplinaryViolationRepository extends JpaRepository<Disciplin
     List<Object[]> findEmployeesWithRepeatedViolations(@Param("start") OffsetDateTime start, 
                                                          @Param("end") OffsetDateTime end, 
                                                          @Param("threshold") Long threshold);
+
+    // Агрегаты для отчётов: строки [type, status, count], границы периода не включаются
+    @Query("SELECT dv.type, dv.status, COUNT(dv) FROM DisciplinaryViolation dv WHERE dv.occurredAt > :start AND dv.occurredAt < :end GROUP BY dv.type, dv.status")
+    List<Object[]> countByTypeAndStatus(@Param("start") OffsetDateTime start,
+                                        @Param("end") OffsetDateTime end);
+
+    @Query("SELECT dv.id AS id, dv.employeeId AS employeeId, dv.type AS type, dv.occurredAt AS occurredAt, dv.status AS status " +
+           "FROM DisciplinaryViolation dv WHERE dv.occurredAt > :start AND dv.occurredAt < :end ORDER BY dv.occurredAt")
+    List<ViolationRow> findRowsByPeriod(@Param("start") OffsetDateTime start,
+                                        @Param("end") OffsetDateTime end);
+
+    // UC21: Число нарушений и последнее нарушение по набору сотрудников одним GROUP BY
+    @Query("SELECT dv.employeeId AS employeeId, COUNT(dv) AS total, MAX(dv.occurredAt) AS lastOccurredAt " +
+           "FROM DisciplinaryViolation dv WHERE dv.employeeId IN :employeeIds GROUP BY dv.employeeId")
+    List<EmployeeViolationCount> countByEmployeeIds(@Param("employeeIds") Collection<UUID> employeeIds);
+
+    @Query("SELECT dv.employeeId AS employeeId, COUNT(dv) AS total, MAX(dv.occurredAt) AS lastOccurredAt " +
+           "FROM DisciplinaryViolation dv WHERE dv.employeeId IN :employeeIds " +
+           "AND dv.occurredAt >= :from AND dv.occurredAt < :to GROUP BY dv.employeeId")
+    List<EmployeeViolationCount> countByEmployeeIdsAndPeriod(@Param("employeeIds") Collection<UUID> employeeIds,
+                                                             @Param("from") OffsetDateTime from,
+                                                             @Param("to") OffsetDateTime to);
+
+    interface EmployeeViolationCount {
+        UUID getEmployeeId();
+        long getTotal();
+        OffsetDateTime getLastOccurredAt();
+    }
+
+    interface ViolationRow {
+        UUID getId();
+        UUID getEmployeeId();
+        ViolationType getType();
+        OffsetDateTime getOccurredAt();
+        ViolationStatus getStatus();
+    }
 }
@@ -1,10 +1,14 @@
 package com.casino.mis.incident.repository;
 
 import com.casino.mis.incident.domain.Incident;
+import com.casino.mis.incident.domain.IncidentStatus;
 import com.casino.mis.incident.domain.IncidentType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,5 +19,37 @@ public interface IncidentRepository extends JpaRepository<Incident, UUID> {
     List<Incident> findByType(IncidentType type);
     
     List<Incident> findByOccurredAtBetweenAndType(OffsetDateTime start, OffsetDateTime end, IncidentType type);
-}
 
+    // Агрегаты для отчётов: строки [type, status, count]
+    @Query("SELECT i.type, i.status, COUNT(i) FROM Incident i WHERE i.occurredAt BETWEEN :start AND :end GROUP BY i.type, i.status")
+    List<Object[]> countByTypeAndStatus(@Param("start") OffsetDateTime start,
+                                        @Param("end") OffsetDateTime end);
+
+    @Query("SELECT i.type, i.status, COUNT(i) FROM Incident i WHERE i.occurredAt BETWEEN :start AND :end AND i.type IN :types GROUP BY i.type, i.status")
+    List<Object[]> countByTypeAndStatus(@Param("start") OffsetDateTime start,
+                                        @Param("end") OffsetDateTime end,
+                                        @Param("types") Collection<IncidentType> types);
+
+    // Строки отчёта без загрузки участников и вложений
+    @Query("SELECT i.id AS id, i.type AS type, i.location AS location, i.occurredAt AS occurredAt, " +
+           "i.status AS status, i.description AS description " +
+           "FROM Incident i WHERE i.occurredAt BETWEEN :start AND :end ORDER BY i.occurredAt")
+    List<IncidentRow> findRowsByPeriod(@Param("start") OffsetDateTime start,
+                                       @Param("end") OffsetDateTime end);
+
+    @Query("SELECT i.id AS id, i.type AS type, i.location AS location, i.occurredAt AS occurredAt, " +
+           "i.status AS status, i.description AS description " +
+           "FROM Incident i WHERE i.occurredAt BETWEEN :start AND :end AND i.type IN :types ORDER BY i.occurredAt")
+    List<IncidentRow> findRowsByPeriod(@Param("start") OffsetDateTime start,
+                                       @Param("end") OffsetDateTime end,
+                                       @Param("types") Collection<IncidentType> types);
+
+    interface IncidentRow {
+        UUID getId();
+        IncidentType getType();
+        String getLocation();
+        OffsetDateTime getOccurredAt();
+        IncidentStatus getStatus();
+        String getDescription();
+    }
+}
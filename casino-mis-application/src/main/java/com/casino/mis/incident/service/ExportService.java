@@ -2,221 +2,420 @@ package com.casino.mis.incident.service;
 
 import com.casino.mis.incident.domain.Report;
 import com.casino.mis.incident.repository.ReportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.IBlockElement;
+import com.itextpdf.layout.element.IElement;
+import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.HtmlUtils;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Map;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 @Service
 public class ExportService {
 
+    // Сколько строк SXSSF держит в памяти на лист; остальные сбрасываются во временный файл
+    static final int EXCEL_ROW_WINDOW = 200;
+    // Через сколько строк таблица детализации PDF сбрасывается в документ
+    static final int PDF_CHUNK_ROWS = 500;
+
+    // Версия шаблонов экспорта: увеличить при изменении вёрстки, чтобы кэш отдавал новые файлы
+    static final String TEMPLATE_VERSION = "2";
+
+    private static final int EXCEL_MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int MAX_CELL_TEXT = 50;
+
+    private static final String PDF_STYLE = "<style>"
+            + "body { font-family: Arial, sans-serif; margin: 20px; font-size: 12px; }"
+            + "h1 { color: #333; font-size: 24px; border-bottom: 2px solid #333; padding-bottom: 10px; }"
+            + "h2 { color: #555; font-size: 18px; margin-top: 20px; }"
+            + ".info { background-color: #f0f0f0; padding: 10px; border-radius: 5px; margin-bottom: 20px; }"
+            + ".info p { margin: 5px 0; }"
+            + "table { width: 100%; border-collapse: collapse; margin-bottom: 20px; }"
+            + "th { background-color: #4CAF50; color: white; padding: 10px; text-align: left; }"
+            + "td { padding: 8px; border-bottom: 1px solid #ddd; }"
+            + ".summary { display: inline-block; margin-right: 20px; padding: 10px; background-color: #e3f2fd; border-radius: 5px; }"
+            + ".label { font-weight: bold; color: #555; }"
+            + "</style>";
+
+    private static final DeviceRgb HEADER_BACKGROUND = new DeviceRgb(0x4C, 0xAF, 0x50);
+    private static final DeviceRgb ROW_BORDER = new DeviceRgb(0xDD, 0xDD, 0xDD);
+
+    private static final Map<String, String> TITLES = Map.of(
+            "totalIncidents", "Total Incidents",
+            "totalComplaints", "Total Complaints",
+            "incidentsByType", "Incidents by Type",
+            "complaintsByCategory", "Complaints by Category",
+            "incidents", "Incidents Details",
+            "complaints", "Complaints Details",
+            "violations", "Violations Details",
+            "repeatedViolations", "Repeated Violations"
+    );
+
     private final ReportRepository reportRepository;
-    private final ObjectMapper objectMapper;
+    private final ReportDataReader reportDataReader;
+    private final ReportExportCache exportCache;
 
-    public ExportService(ReportRepository reportRepository, ObjectMapper objectMapper) {
+    public ExportService(ReportRepository reportRepository, ObjectMapper objectMapper,
+                         ReportExportCache exportCache) {
         this.reportRepository = reportRepository;
-        this.objectMapper = objectMapper;
+        this.reportDataReader = new ReportDataReader(objectMapper);
+        this.exportCache = exportCache;
     }
 
     // UC19: Экспорт в PDF
-    public ResponseEntity<byte[]> exportToPdf(UUID reportId) throws IOException {
-        Report report = reportRepository.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
+    public ResponseEntity<StreamingResponseBody> exportToPdf(UUID reportId, String ifNoneMatch) {
+        Report report = findGenerated(reportId);
+        return export(report, "pdf", MediaType.APPLICATION_PDF, ifNoneMatch,
+                out -> writePdf(report, new StringReader(report.getReportData()), out));
+    }
 
-        // Простая реализация PDF с использованием iText
-        String html = generateHtmlReport(report);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        try {
-            com.itextpdf.html2pdf.HtmlConverter.convertToPdf(html, outputStream);
-        } catch (Exception e) {
-            throw new IOException("Failed to convert HTML to PDF", e);
-        }
+    // UC19: Экспорт в Excel
+    public ResponseEntity<StreamingResponseBody> exportToExcel(UUID reportId, String ifNoneMatch) {
+        Report report = findGenerated(reportId);
+        return export(report, "xlsx", MediaType.APPLICATION_OCTET_STREAM, ifNoneMatch,
+                out -> writeExcel(report, new StringReader(report.getReportData()), out));
+    }
 
-        byte[] pdfBytes = outputStream.toByteArray();
+    private ResponseEntity<StreamingResponseBody> export(Report report, String extension, MediaType contentType,
+                                                         String ifNoneMatch, ReportExportCache.Renderer renderer) {
+        String key = cacheKey(report, extension);
+        String etag = "\"" + key + "\"";
+        // Отчёт не меняется после формирования: совпавший ETag означает, что у клиента актуальный файл
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_PDF);
-        headers.setContentDispositionFormData("attachment", "report_" + reportId + ".pdf");
+        headers.setContentType(contentType);
+        headers.setContentDispositionFormData("attachment", "report_" + report.getId() + "." + extension);
 
+        StreamingResponseBody body = out -> exportCache.write(key, extension, contentType.toString(), renderer, out);
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
     }
 
-    // UC19: Экспорт в Excel
-    public ResponseEntity<byte[]> exportToExcel(UUID reportId) throws IOException {
+    // Ключ кэша и ETag: SHA-256 от версии шаблона, формата, id отчёта и времени изменения его данных.
+    // Данные отчёта не хешируются: любое их изменение сдвигает updatedAt
+    static String cacheKey(Report report, String extension) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String header = String.join("|", TEMPLATE_VERSION, extension, String.valueOf(report.getId()),
+                String.valueOf(report.getUpdatedAt()));
+        return HexFormat.of().formatHex(digest.digest(header.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Report findGenerated(UUID reportId) {
         Report report = reportRepository.findById(reportId)
                 .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
-
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Report");
-
-        // Парсим JSON данные отчёта
-        @SuppressWarnings("unchecked")
-        Map<String, Object> reportData = objectMapper.readValue(report.getReportData(), Map.class);
-
-        int rowNum = 0;
-        Row headerRow = sheet.createRow(rowNum++);
-        headerRow.createCell(0).setCellValue("Report ID");
-        headerRow.createCell(1).setCellValue("Type");
-        headerRow.createCell(2).setCellValue("Period Start");
-        headerRow.createCell(3).setCellValue("Period End");
-        headerRow.createCell(4).setCellValue("Generated At");
-
-        Row dataRow = sheet.createRow(rowNum++);
-        dataRow.createCell(0).setCellValue(report.getId().toString());
-        dataRow.createCell(1).setCellValue(report.getType().name());
-        dataRow.createCell(2).setCellValue(report.getPeriodStart().toString());
-        dataRow.createCell(3).setCellValue(report.getPeriodEnd().toString());
-        dataRow.createCell(4).setCellValue(report.getGeneratedAt().toString());
-
-        // Добавляем данные из reportData
-        rowNum = addReportDataToSheet(sheet, reportData, rowNum);
-
-        // Автоподбор ширины колонок
-        for (int i = 0; i < 5; i++) {
-            sheet.autoSizeColumn(i);
+        if (report.getReportData() == null) {
+            throw new RuntimeException("Report is not generated yet: " + reportId);
         }
+        return report;
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
+    // Лист "Report" со сводкой и отдельный плоский лист на каждую секцию детализации
+    void writeExcel(Report report, Reader data, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet summary = workbook.createSheet("Report");
+            summary.setColumnWidth(0, 40 * 256);
+            summary.setColumnWidth(1, 40 * 256);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentDispositionFormData("attachment", "report_" + reportId + ".xlsx");
+            int[] summaryRow = {0};
+            Row headerRow = summary.createRow(summaryRow[0]++);
+            headerRow.createCell(0).setCellValue("Report ID");
+            headerRow.createCell(1).setCellValue("Type");
+            headerRow.createCell(2).setCellValue("Period Start");
+            headerRow.createCell(3).setCellValue("Period End");
+            headerRow.createCell(4).setCellValue("Generated At");
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(outputStream.toByteArray());
-    }
+            Row dataRow = summary.createRow(summaryRow[0]++);
+            dataRow.createCell(0).setCellValue(report.getId().toString());
+            dataRow.createCell(1).setCellValue(report.getType().name());
+            dataRow.createCell(2).setCellValue(report.getPeriodStart().toString());
+            dataRow.createCell(3).setCellValue(report.getPeriodEnd().toString());
+            dataRow.createCell(4).setCellValue(report.getGeneratedAt().toString());
+
+            reportDataReader.read(data, new ReportDataReader.Visitor() {
+                private Sheet sheet;
+                private List<String> columns;
+                private int rowNum;
+                private int part;
+
+                @Override
+                public void value(String key, JsonNode value) {
+                    Map<String, String> flat = new LinkedHashMap<>();
+                    flatten(key, value, flat);
+                    for (Map.Entry<String, String> entry : flat.entrySet()) {
+                        Row row = summary.createRow(summaryRow[0]++);
+                        row.createCell(0).setCellValue(entry.getKey());
+                        row.createCell(1).setCellValue(entry.getValue());
+                    }
+                }
+
+                @Override
+                public void beginSection(String section) {
+                    sheet = null;
+                    columns = null;
+                    part = 0;
+                }
+
+                @Override
+                public void row(String section, Map<String, Object> values) {
+                    if (columns == null) {
+                        columns = new ArrayList<>(values.keySet());
+                    }
+                    // Лист XLSX ограничен ~1М строк: продолжаем секцию на следующем листе
+                    if (sheet == null || rowNum == EXCEL_MAX_ROWS) {
+                        sheet = workbook.createSheet(++part == 1 ? section : section + " (" + part + ")");
+                        sheet.setDefaultColumnWidth(20);
+                        Row header = sheet.createRow(0);
+                        for (int i = 0; i < columns.size(); i++) {
+                            header.createCell(i).setCellValue(columns.get(i));
+                        }
+                        rowNum = 1;
+                    }
+                    Row row = sheet.createRow(rowNum++);
+                    for (int i = 0; i < columns.size(); i++) {
+                        Object value = values.get(columns.get(i));
+                        if (value instanceof Number) {
+                            row.createCell(i).setCellValue(((Number) value).doubleValue());
+                        } else if (value != null) {
+                            row.createCell(i).setCellValue(value.toString());
+                        }
+                    }
+                }
+
+                @Override
+                public void endSection(String section) {
+                    sheet = null;
+                }
+            });
 
-    private int addReportDataToSheet(Sheet sheet, Map<String, Object> data, int startRow) {
-        int rowNum = startRow;
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(entry.getKey());
-            row.createCell(1).setCellValue(entry.getValue().toString());
+            workbook.write(out);
+        } finally {
+            // Удаляем временные файлы SXSSF
+            workbook.dispose();
+            workbook.close();
         }
-        return rowNum;
     }
 
-    private String generateHtmlReport(Report report) {
+    // Шапка и сводка рендерятся из HTML фрагментами, детализация - потоковыми таблицами;
+    // готовые страницы сразу сбрасываются в out
+    void writePdf(Report report, Reader data, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        Document document = new Document(pdf);
+        ConverterProperties properties = new ConverterProperties();
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> reportData = objectMapper.readValue(report.getReportData(), Map.class);
-            StringBuilder html = new StringBuilder();
-            
-            // HTML заголовок с CSS стилями
-            html.append("<!DOCTYPE html>");
-            html.append("<html><head>");
-            html.append("<meta charset='UTF-8'/>");
-            html.append("<title>Report</title>");
-            html.append("<style>");
-            html.append("body { font-family: Arial, sans-serif; margin: 20px; font-size: 12px; }");
-            html.append("h1 { color: #333; font-size: 24px; border-bottom: 2px solid #333; padding-bottom: 10px; }");
-            html.append("h2 { color: #555; font-size: 18px; margin-top: 20px; }");
-            html.append(".info { background-color: #f0f0f0; padding: 10px; border-radius: 5px; margin-bottom: 20px; }");
-            html.append(".info p { margin: 5px 0; }");
-            html.append("table { width: 100%; border-collapse: collapse; margin-bottom: 20px; }");
-            html.append("th { background-color: #4CAF50; color: white; padding: 10px; text-align: left; }");
-            html.append("td { padding: 8px; border-bottom: 1px solid #ddd; }");
-            html.append("tr:hover { background-color: #f5f5f5; }");
-            html.append(".summary { display: inline-block; margin-right: 20px; padding: 10px; background-color: #e3f2fd; border-radius: 5px; }");
-            html.append(".label { font-weight: bold; color: #555; }");
-            html.append("</style>");
-            html.append("</head><body>");
-            
-            // Заголовок отчета
-            html.append("<h1>Report: ").append(report.getType().name()).append("</h1>");
-            
-            // Информация о периоде
-            html.append("<div class='info'>");
-            html.append("<p><span class='label'>Period:</span> ")
-                .append(report.getPeriodStart()).append(" - ").append(report.getPeriodEnd()).append("</p>");
-            html.append("<p><span class='label'>Generated:</span> ").append(report.getGeneratedAt()).append("</p>");
-            html.append("<p><span class='label'>Report ID:</span> ").append(report.getId()).append("</p>");
-            html.append("</div>");
-            
-            // Сводная статистика
-            html.append("<h2>Summary</h2>");
-            html.append("<div>");
-            if (reportData.containsKey("totalIncidents")) {
-                html.append("<div class='summary'>");
-                html.append("<span class='label'>Total Incidents:</span> ").append(reportData.get("totalIncidents"));
-                html.append("</div>");
-            }
-            html.append("</div>");
-            
-            // Инциденты по типам
-            if (reportData.containsKey("incidentsByType")) {
-                html.append("<h2>Incidents by Type</h2>");
-                html.append("<table>");
-                html.append("<tr><th>Type</th><th>Count</th></tr>");
-                @SuppressWarnings("unchecked")
-                Map<String, Object> incidentsByType = (Map<String, Object>) reportData.get("incidentsByType");
-                for (Map.Entry<String, Object> entry : incidentsByType.entrySet()) {
-                    html.append("<tr>");
-                    html.append("<td>").append(entry.getKey()).append("</td>");
-                    html.append("<td>").append(entry.getValue()).append("</td>");
-                    html.append("</tr>");
+            StringBuilder header = new StringBuilder();
+            header.append("<h1>Report: ").append(report.getType().name()).append("</h1>");
+            header.append("<div class='info'>");
+            header.append("<p><span class='label'>Period:</span> ")
+                    .append(report.getPeriodStart()).append(" - ").append(report.getPeriodEnd()).append("</p>");
+            header.append("<p><span class='label'>Generated:</span> ").append(report.getGeneratedAt()).append("</p>");
+            header.append("<p><span class='label'>Report ID:</span> ").append(report.getId()).append("</p>");
+            header.append("</div>");
+            header.append("<h2>Summary</h2>");
+            addHtml(document, header, properties);
+
+            reportDataReader.read(data, new ReportDataReader.Visitor() {
+                private Table table;
+                private List<String> columns;
+                private int tableRows;
+
+                @Override
+                public void value(String key, JsonNode value) {
+                    Map<String, String> flat = new LinkedHashMap<>();
+                    flatten("", value, flat);
+                    StringBuilder html = new StringBuilder();
+                    if (value.isContainerNode()) {
+                        html.append("<h2>").append(escape(title(key))).append("</h2>");
+                        html.append("<table><tr><th scope='col'>Key</th><th scope='col'>Value</th></tr>");
+                        for (Map.Entry<String, String> entry : flat.entrySet()) {
+                            html.append("<tr><td>").append(escape(entry.getKey())).append("</td>");
+                            html.append("<td>").append(escape(entry.getValue())).append("</td></tr>");
+                        }
+                        html.append("</table>");
+                    } else {
+                        html.append("<div class='summary'><span class='label'>").append(escape(title(key)))
+                                .append(":</span> ").append(escape(value.asText())).append("</div>");
+                    }
+                    addHtml(document, html, properties);
                 }
-                html.append("</table>");
-            }
-            
-            // Жалобы по категориям
-            if (reportData.containsKey("complaintsByCategory")) {
-                html.append("<h2>Complaints by Category</h2>");
-                html.append("<table>");
-                html.append("<tr><th>Category</th><th>Count</th></tr>");
-                @SuppressWarnings("unchecked")
-                Map<String, Object> complaintsByCategory = (Map<String, Object>) reportData.get("complaintsByCategory");
-                for (Map.Entry<String, Object> entry : complaintsByCategory.entrySet()) {
-                    html.append("<tr>");
-                    html.append("<td>").append(entry.getKey()).append("</td>");
-                    html.append("<td>").append(entry.getValue()).append("</td>");
-                    html.append("</tr>");
+
+                @Override
+                public void beginSection(String section) {
+                    addHtml(document, new StringBuilder("<h2>").append(escape(title(section))).append("</h2>"), properties);
+                    table = null;
+                    tableRows = 0;
                 }
-                html.append("</table>");
-            }
-            
-            // Список инцидентов
-            if (reportData.containsKey("incidents")) {
-                html.append("<h2>Incidents Details</h2>");
-                html.append("<table>");
-                html.append("<tr><th>ID</th><th>Type</th><th>Description</th><th>Location</th><th>Status</th></tr>");
-                @SuppressWarnings("unchecked")
-                java.util.List<Map<String, Object>> incidents = (java.util.List<Map<String, Object>>) reportData.get("incidents");
-                for (Map<String, Object> incident : incidents) {
-                    html.append("<tr>");
-                    html.append("<td>").append(incident.getOrDefault("id", "N/A").toString().substring(0, 8)).append("...</td>");
-                    html.append("<td>").append(incident.getOrDefault("type", "N/A")).append("</td>");
-                    String description = incident.getOrDefault("description", "N/A").toString();
-                    if (description.length() > 50) {
-                        description = description.substring(0, 47) + "...";
+
+                @Override
+                public void row(String section, Map<String, Object> values) {
+                    if (table == null) {
+                        columns = new ArrayList<>(values.keySet());
+                        // largeTable: строки уходят в документ при flush(), а не копятся до конца секции
+                        table = new Table(UnitValue.createPercentArray(columns.size()), true).useAllAvailableWidth();
+                        for (String column : columns) {
+                            table.addHeaderCell(headerCell(column));
+                        }
+                        document.add(table);
+                    }
+                    for (String column : columns) {
+                        table.addCell(bodyCell(cellText(column, values.get(column))));
+                    }
+                    if (++tableRows % PDF_CHUNK_ROWS == 0) {
+                        table.flush();
                     }
-                    html.append("<td>").append(description).append("</td>");
-                    html.append("<td>").append(incident.getOrDefault("location", "N/A")).append("</td>");
-                    html.append("<td>").append(incident.getOrDefault("status", "N/A")).append("</td>");
-                    html.append("</tr>");
                 }
-                html.append("</table>");
+
+                @Override
+                public void endSection(String section) {
+                    if (table != null) {
+                        table.complete();
+                    }
+                    table = null;
+                }
+            });
+        } finally {
+            document.close();
+        }
+        out.flush();
+    }
+
+    private void addHtml(Document document, StringBuilder body, ConverterProperties properties) {
+        if (body.length() == 0) {
+            return;
+        }
+        String html = "<!DOCTYPE html><html><head><meta charset='UTF-8'/>" + PDF_STYLE + "</head><body>"
+                + body + "</body></html>";
+        for (IElement element : HtmlConverter.convertToElements(html, properties)) {
+            if (element instanceof IBlockElement) {
+                document.add((IBlockElement) element);
+            } else if (element instanceof AreaBreak) {
+                document.add((AreaBreak) element);
+            } else if (element instanceof Image) {
+                document.add((Image) element);
             }
-            
-            html.append("</body></html>");
-            return html.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate HTML report", e);
         }
     }
-}
 
+    private static void flatten(String prefix, JsonNode node, Map<String, String> target) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String key = prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey();
+                flatten(key, field.getValue(), target);
+            }
+        } else if (node.isArray()) {
+            StringJoiner joiner = new StringJoiner(", ");
+            node.forEach(item -> joiner.add(item.asText()));
+            target.put(prefix, joiner.toString());
+        } else {
+            target.put(prefix, node.asText());
+        }
+    }
+
+    private static Cell headerCell(String text) {
+        return new Cell()
+                .add(new Paragraph(text).setBold())
+                .setBackgroundColor(HEADER_BACKGROUND)
+                .setFontColor(ColorConstants.WHITE)
+                .setFontSize(10)
+                .setPadding(6)
+                .setBorder(Border.NO_BORDER);
+    }
+
+    private static Cell bodyCell(String text) {
+        return new Cell()
+                .add(new Paragraph(text))
+                .setFontSize(9)
+                .setPadding(4)
+                .setBorder(Border.NO_BORDER)
+                .setBorderBottom(new SolidBorder(ROW_BORDER, 1));
+    }
+
+    private static String title(String key) {
+        return TITLES.getOrDefault(key, key);
+    }
+
+    private static String cellText(String column, Object value) {
+        if (value == null) {
+            return "N/A";
+        }
+        String text = value.toString();
+        if ("id".equals(column) && text.length() > 8) {
+            return text.substring(0, 8) + "...";
+        }
+        if (text.length() > MAX_CELL_TEXT) {
+            return text.substring(0, MAX_CELL_TEXT - 3) + "...";
+        }
+        return text;
+    }
+
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text);
+    }
+}
@@ -0,0 +1,49 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.ReportStatus;
+import com.casino.mis.incident.dto.IncidentReportRequest;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobHandler;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Асинхронное формирование отчётов UC14, UC17, UC18
+@Component
+public class IncidentReportJobHandler implements ReportJobHandler {
+
+    private final ReportService reportService;
+    private final ReportJobQueue reportJobQueue;
+
+    public IncidentReportJobHandler(ReportService reportService, ReportJobQueue reportJobQueue) {
+        this.reportService = reportService;
+        this.reportJobQueue = reportJobQueue;
+    }
+
+    @Override
+    public Set<ReportJobType> getTypes() {
+        return EnumSet.of(ReportJobType.INCIDENT_REPORT, ReportJobType.MANAGEMENT_REPORT, ReportJobType.REGULATORY_REPORT);
+    }
+
+    @Override
+    public void markRunning(ReportJob job) {
+        reportService.updateStatus(job.getResultId(), ReportStatus.RUNNING);
+    }
+
+    @Override
+    public void execute(ReportJob job, ReportJobProgress progress) {
+        IncidentReportRequest request = job.getType() == ReportJobType.INCIDENT_REPORT
+                ? reportJobQueue.readPayload(job, IncidentReportRequest.class)
+                : new IncidentReportRequest();
+        reportService.completeQueuedReport(job.getResultId(), request.getIncidentTypes(), progress);
+    }
+
+    @Override
+    public void markFailed(ReportJob job) {
+        reportService.updateStatus(job.getResultId(), ReportStatus.FAILED);
+    }
+}
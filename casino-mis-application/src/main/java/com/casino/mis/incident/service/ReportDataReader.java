@@ -0,0 +1,80 @@
+package com.casino.mis.incident.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Потоковый разбор reportData для экспорта (UC19).
+ * Сводные поля читаются целиком, массивы записей (incidents, complaints, violations)
+ * передаются по одной строке, поэтому детализация отчёта не собирается в памяти.
+ */
+class ReportDataReader {
+
+    interface Visitor {
+
+        // Сводное поле верхнего уровня: число, строка или небольшой вложенный объект
+        void value(String key, JsonNode value) throws IOException;
+
+        void beginSection(String section) throws IOException;
+
+        void row(String section, Map<String, Object> row) throws IOException;
+
+        void endSection(String section) throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+
+    ReportDataReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void read(Reader data, Visitor visitor) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Report data must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    readArray(parser, key, visitor);
+                } else {
+                    visitor.value(key, objectMapper.readTree(parser));
+                }
+            }
+        }
+    }
+
+    private void readArray(JsonParser parser, String key, Visitor visitor) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            visitor.value(key, objectMapper.createArrayNode());
+            return;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            // Массив скаляров (например, список типов) - небольшой, читаем целиком
+            com.fasterxml.jackson.databind.node.ArrayNode array = objectMapper.createArrayNode();
+            while (token != JsonToken.END_ARRAY) {
+                array.add(objectMapper.<JsonNode>readTree(parser));
+                token = parser.nextToken();
+            }
+            visitor.value(key, array);
+            return;
+        }
+        visitor.beginSection(key);
+        while (token == JsonToken.START_OBJECT) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> row = objectMapper.readValue(parser, LinkedHashMap.class);
+            visitor.row(key, row);
+            token = parser.nextToken();
+        }
+        visitor.endSection(key);
+    }
+}
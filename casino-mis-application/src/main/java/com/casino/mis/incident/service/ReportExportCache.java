@@ -0,0 +1,194 @@
+package com.casino.mis.incident.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш готовых экспортов отчётов (UC19). Ключ - хэш id отчёта, формата, версии шаблона и updatedAt
+ * отчёта (см. ExportService.cacheKey). Явной инвалидации нет: при перегенерации данных отчёта
+ * сдвигается updatedAt, при смене вёрстки - версия шаблона, и запрос идёт по новому ключу. Записи
+ * под старыми ключами устаревают и больше не читаются: из памяти их вытесняет LRU, в S3 они лежат,
+ * пока их не удалит политика хранения бакета (кэш сам объекты не удаляет).
+ * Первый уровень - LRU в памяти с ограничением по байтам, второй - объекты в S3/MinIO.
+ */
+@Component
+public class ReportExportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportExportCache.class);
+
+    @FunctionalInterface
+    public interface Renderer {
+        void render(OutputStream out) throws IOException;
+    }
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+    private final long maxEntryBytes;
+    private final MemoryTier memory;
+    private final Map<String, Object> renderLocks = new ConcurrentHashMap<>();
+
+    public ReportExportCache(S3Client s3,
+                             @Value("${reports.export-cache.bucket:reports}") String bucket,
+                             @Value("${reports.export-cache.prefix:exports/}") String prefix,
+                             @Value("${reports.export-cache.memory-max-bytes:67108864}") long memoryMaxBytes,
+                             @Value("${reports.export-cache.memory-max-entry-bytes:8388608}") long maxEntryBytes) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.maxEntryBytes = maxEntryBytes;
+        this.memory = new MemoryTier(memoryMaxBytes);
+    }
+
+    // Пишет экспорт в out: память -> S3 -> рендер (результат рендера сохраняется в оба уровня)
+    public void write(String key, String extension, String contentType, Renderer renderer, OutputStream out)
+            throws IOException {
+        byte[] cached = memory.get(key);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        if (writeFromS3(key, extension, out)) {
+            return;
+        }
+        // Один рендер на ключ: параллельные запросы того же экспорта дождутся первого
+        Object lock = renderLocks.computeIfAbsent(key, k -> new Object());
+        synchronized (lock) {
+            try {
+                cached = memory.get(key);
+                if (cached != null) {
+                    out.write(cached);
+                    return;
+                }
+                if (writeFromS3(key, extension, out)) {
+                    return;
+                }
+                renderAndStore(key, extension, contentType, renderer, out);
+            } finally {
+                renderLocks.remove(key);
+            }
+        }
+    }
+
+    long memoryBytes() {
+        return memory.bytes();
+    }
+
+    private boolean writeFromS3(String key, String extension, OutputStream out) throws IOException {
+        ResponseInputStream<GetObjectResponse> object;
+        try {
+            object = s3.getObject(GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key, extension))
+                    .build());
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (SdkException e) {
+            log.warn("Export cache lookup failed for {}", key, e);
+            return false;
+        }
+        try (object) {
+            Long length = object.response().contentLength();
+            if (length != null && length <= maxEntryBytes) {
+                byte[] bytes = object.readAllBytes();
+                memory.put(key, bytes);
+                out.write(bytes);
+            } else {
+                object.transferTo(out);
+            }
+        }
+        return true;
+    }
+
+    // Рендер идёт во временный файл, чтобы не держать большой экспорт в памяти
+    private void renderAndStore(String key, String extension, String contentType, Renderer renderer,
+                                OutputStream out) throws IOException {
+        Path file = Files.createTempFile("report-export-", "." + extension);
+        try {
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(file))) {
+                renderer.render(fileOut);
+            }
+            try {
+                s3.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey(key, extension))
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromFile(file));
+            } catch (SdkException e) {
+                // Экспорт отдаётся клиенту и без S3; в следующий раз будет отрендерен заново
+                log.warn("Export cache store failed for {}", key, e);
+            }
+            if (Files.size(file) <= maxEntryBytes) {
+                byte[] bytes = Files.readAllBytes(file);
+                memory.put(key, bytes);
+                out.write(bytes);
+            } else {
+                Files.copy(file, out);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private String objectKey(String key, String extension) {
+        return prefix + key + "." + extension;
+    }
+
+    // LRU по порядку доступа; вытесняются самые старые записи, пока суммарный размер больше лимита
+    static class MemoryTier {
+
+        private final long maxBytes;
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        MemoryTier(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, byte[] value) {
+            if (value.length > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(key, value);
+            bytes += value.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().length;
+                eldest.remove();
+            }
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        synchronized boolean contains(String key) {
+            return entries.containsKey(key);
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.casino.mis.incident.service;
 import com.casino.mis.incident.domain.*;
 import com.casino.mis.incident.dto.*;
 import com.casino.mis.incident.repository.*;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,44 +26,146 @@ public class ReportService {
     private final ComplaintRepository complaintRepository;
     private final DisciplinaryViolationRepository violationRepository;
     private final ObjectMapper objectMapper;
+    private final ReportJobQueue reportJobQueue;
 
     public ReportService(ReportRepository reportRepository,
                         IncidentRepository incidentRepository,
                         ComplaintRepository complaintRepository,
                         DisciplinaryViolationRepository violationRepository,
-                        ObjectMapper objectMapper) {
+                        ObjectMapper objectMapper,
+                        ReportJobQueue reportJobQueue) {
         this.reportRepository = reportRepository;
         this.incidentRepository = incidentRepository;
         this.complaintRepository = complaintRepository;
         this.violationRepository = violationRepository;
         this.objectMapper = objectMapper;
+        this.reportJobQueue = reportJobQueue;
     }
 
     // UC14: Формирование отчётов по инцидентам
     @Transactional
     public Report generateIncidentReport(IncidentReportRequest request) {
-        OffsetDateTime start = request.getPeriodStart() != null ? request.getPeriodStart() : OffsetDateTime.now().minusMonths(1);
-        OffsetDateTime end = request.getPeriodEnd() != null ? request.getPeriodEnd() : OffsetDateTime.now();
+        Report report = newReport(ReportType.INCIDENTS, request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy());
+        report.setReportData(serialize(incidentReportData(report.getPeriodStart(), report.getPeriodEnd(),
+                request.getIncidentTypes(), ReportJobProgress.NONE)));
+        return reportRepository.save(report);
+    }
+
+    // UC17: Генерация отчётов для руководства
+    @Transactional
+    public Report generateManagementReport(ManagementReportRequest request) {
+        Report report = newReport(ReportType.MANAGEMENT, request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy());
+        report.setReportData(serialize(managementReportData(report.getPeriodStart(), report.getPeriodEnd(), ReportJobProgress.NONE)));
+        return reportRepository.save(report);
+    }
+
+    // UC18: Генерация отчётов для регуляторов
+    @Transactional
+    public Report generateRegulatoryReport(RegulatoryReportRequest request) {
+        Report report = newReport(ReportType.REGULATORY, request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy());
+        report.setReportData(serialize(regulatoryReportData(report.getPeriodStart(), report.getPeriodEnd(), ReportJobProgress.NONE)));
+        return reportRepository.save(report);
+    }
+
+    // Асинхронное формирование: запись отчёта создаётся сразу в статусе QUEUED,
+    // данные заполняются заданием (см. IncidentReportJobHandler)
+    @Transactional
+    public ReportJob submitIncidentReport(IncidentReportRequest request) {
+        return submit(ReportType.INCIDENTS, ReportJobType.INCIDENT_REPORT,
+                request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy(), request);
+    }
+
+    @Transactional
+    public ReportJob submitManagementReport(ManagementReportRequest request) {
+        return submit(ReportType.MANAGEMENT, ReportJobType.MANAGEMENT_REPORT,
+                request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy(), request);
+    }
+
+    @Transactional
+    public ReportJob submitRegulatoryReport(RegulatoryReportRequest request) {
+        return submit(ReportType.REGULATORY, ReportJobType.REGULATORY_REPORT,
+                request.getPeriodStart(), request.getPeriodEnd(), request.getGeneratedBy(), request);
+    }
+
+    @Transactional
+    public void updateStatus(UUID reportId, ReportStatus status) {
+        Report report = findById(reportId);
+        report.setStatus(status);
+        reportRepository.save(report);
+    }
+
+    // Заполняет данные отчёта, созданного в статусе QUEUED
+    @Transactional
+    public Report completeQueuedReport(UUID reportId, List<IncidentType> incidentTypes, ReportJobProgress progress) {
+        Report report = findById(reportId);
+        Map<String, Object> reportData;
+        switch (report.getType()) {
+            case INCIDENTS -> reportData = incidentReportData(report.getPeriodStart(), report.getPeriodEnd(), incidentTypes, progress);
+            case MANAGEMENT -> reportData = managementReportData(report.getPeriodStart(), report.getPeriodEnd(), progress);
+            case REGULATORY -> reportData = regulatoryReportData(report.getPeriodStart(), report.getPeriodEnd(), progress);
+            default -> throw new IllegalStateException("Unsupported report type: " + report.getType());
+        }
+        progress.checkpoint(90);
+        OffsetDateTime now = OffsetDateTime.now();
+        report.setReportData(serialize(reportData));
+        report.setGeneratedAt(now);
+        report.setUpdatedAt(now);
+        report.setStatus(ReportStatus.GENERATED);
+        return reportRepository.save(report);
+    }
+
+    private ReportJob submit(ReportType type, ReportJobType jobType, OffsetDateTime periodStart,
+                             OffsetDateTime periodEnd, UUID generatedBy, Object request) {
+        Report report = newReport(type, periodStart, periodEnd, generatedBy);
+        report.setStatus(ReportStatus.QUEUED);
+        Report saved = reportRepository.save(report);
+        return reportJobQueue.submit(jobType, saved.getId(), request);
+    }
+
+    private Report newReport(ReportType type, OffsetDateTime periodStart, OffsetDateTime periodEnd, UUID generatedBy) {
+        OffsetDateTime start = periodStart != null ? periodStart : OffsetDateTime.now().minusMonths(1);
+        OffsetDateTime end = periodEnd != null ? periodEnd : OffsetDateTime.now();
+
+        Report report = new Report();
+        report.setType(type);
+        report.setPeriodStart(start);
+        report.setPeriodEnd(end);
+        report.setGeneratedAt(OffsetDateTime.now());
+        report.setGeneratedBy(generatedBy);
+        return report;
+    }
+
+    private String serialize(Map<String, Object> reportData) {
+        try {
+            return objectMapper.writeValueAsString(reportData);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize report data", e);
+        }
+    }
 
-        List<Incident> incidents;
-        if (request.getIncidentTypes() != null && !request.getIncidentTypes().isEmpty()) {
-            incidents = request.getIncidentTypes().stream()
-                    .flatMap(type -> incidentRepository.findByOccurredAtBetweenAndType(start, end, type).stream())
-                    .collect(Collectors.toList());
+    private Map<String, Object> incidentReportData(OffsetDateTime start, OffsetDateTime end,
+                                                   List<IncidentType> incidentTypes, ReportJobProgress progress) {
+        List<Object[]> incidentGroups;
+        List<IncidentRepository.IncidentRow> incidents;
+        if (incidentTypes != null && !incidentTypes.isEmpty()) {
+            incidentGroups = incidentRepository.countByTypeAndStatus(start, end, incidentTypes);
+            incidents = incidentRepository.findRowsByPeriod(start, end, incidentTypes);
         } else {
-            incidents = incidentRepository.findByOccurredAtBetween(start, end);
+            incidentGroups = incidentRepository.countByTypeAndStatus(start, end);
+            incidents = incidentRepository.findRowsByPeriod(start, end);
         }
 
+        progress.checkpoint(40);
+
         // Получаем жалобы за тот же период (UC15)
-        List<Complaint> complaints = complaintRepository.findByReportedAtBetween(start, end);
+        List<Object[]> complaintGroups = complaintRepository.countByCategoryAndStatus(start, end);
 
         Map<String, Object> reportData = new HashMap<>();
         reportData.put(FIELD_PERIOD_START, start.toString());
         reportData.put(FIELD_PERIOD_END, end.toString());
-        reportData.put("totalIncidents", incidents.size());
-        reportData.put("totalComplaints", complaints.size());
-        reportData.put("incidentsByType", incidents.stream()
-                .collect(Collectors.groupingBy(i -> i.getType().name(), Collectors.counting())));
+        reportData.put("totalIncidents", total(incidentGroups));
+        reportData.put("totalComplaints", total(complaintGroups));
+        reportData.put("incidentsByType", countBy(incidentGroups, 0));
         reportData.put("incidents", incidents.stream()
                 .map(i -> {
                     Map<String, String> map = new HashMap<>();
@@ -70,36 +176,18 @@ public class ReportService {
                     return map;
                 })
                 .collect(Collectors.toList()));
-        reportData.put("complaintsByCategory", complaints.stream()
-                .collect(Collectors.groupingBy(c -> c.getCategory().name(), Collectors.counting())));
-
-        Report report = new Report();
-        report.setType(ReportType.INCIDENTS);
-        report.setPeriodStart(start);
-        report.setPeriodEnd(end);
-        report.setGeneratedAt(OffsetDateTime.now());
-        report.setGeneratedBy(request.getGeneratedBy());
+        reportData.put("complaintsByCategory", countBy(complaintGroups, 0));
 
-        try {
-            report.setReportData(objectMapper.writeValueAsString(reportData));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize report data", e);
-        }
-
-        return reportRepository.save(report);
+        return reportData;
     }
 
-    // UC17: Генерация отчётов для руководства
-    @Transactional
-    public Report generateManagementReport(ManagementReportRequest request) {
-        OffsetDateTime start = request.getPeriodStart() != null ? request.getPeriodStart() : OffsetDateTime.now().minusMonths(1);
-        OffsetDateTime end = request.getPeriodEnd() != null ? request.getPeriodEnd() : OffsetDateTime.now();
+    private Map<String, Object> managementReportData(OffsetDateTime start, OffsetDateTime end, ReportJobProgress progress) {
+        // Все сводки строятся из GROUP BY запросов: объём работы зависит от числа групп, а не строк
+        List<Object[]> incidentGroups = incidentRepository.countByTypeAndStatus(start, end);
+        List<Object[]> complaintGroups = complaintRepository.countByCategoryAndStatus(start, end);
+        List<Object[]> violationGroups = violationRepository.countByTypeAndStatus(start, end);
 
-        List<Incident> incidents = incidentRepository.findByOccurredAtBetween(start, end);
-        List<Complaint> complaints = complaintRepository.findByReportedAtBetween(start, end);
-        List<DisciplinaryViolation> violations = violationRepository.findAll().stream()
-                .filter(v -> v.getOccurredAt().isAfter(start) && v.getOccurredAt().isBefore(end))
-                .collect(Collectors.toList());
+        progress.checkpoint(60);
 
         // UC16: Повторяющиеся нарушения сотрудников
         List<Object[]> repeatedViolations = violationRepository.findEmployeesWithRepeatedViolations(start, end, 3L);
@@ -108,25 +196,25 @@ public class ReportService {
         reportData.put(FIELD_PERIOD_START, start.toString());
         reportData.put(FIELD_PERIOD_END, end.toString());
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalIncidents", incidents.size());
-        summary.put("totalComplaints", complaints.size());
-        summary.put("totalViolations", violations.size());
+        summary.put("totalIncidents", total(incidentGroups));
+        summary.put("totalComplaints", total(complaintGroups));
+        summary.put("totalViolations", total(violationGroups));
         summary.put("employeesWithRepeatedViolations", repeatedViolations.size());
         reportData.put("summary", summary);
         
         Map<String, Object> incidentsSummary = new HashMap<>();
-        incidentsSummary.put("byType", incidents.stream().collect(Collectors.groupingBy(i -> i.getType().name(), Collectors.counting())));
-        incidentsSummary.put("byStatus", incidents.stream().collect(Collectors.groupingBy(i -> i.getStatus().name(), Collectors.counting())));
+        incidentsSummary.put("byType", countBy(incidentGroups, 0));
+        incidentsSummary.put("byStatus", countBy(incidentGroups, 1));
         reportData.put("incidentsSummary", incidentsSummary);
         
         Map<String, Object> complaintsSummary = new HashMap<>();
-        complaintsSummary.put("byCategory", complaints.stream().collect(Collectors.groupingBy(c -> c.getCategory().name(), Collectors.counting())));
-        complaintsSummary.put("byStatus", complaints.stream().collect(Collectors.groupingBy(c -> c.getStatus().name(), Collectors.counting())));
+        complaintsSummary.put("byCategory", countBy(complaintGroups, 0));
+        complaintsSummary.put("byStatus", countBy(complaintGroups, 1));
         reportData.put("complaintsSummary", complaintsSummary);
         
         Map<String, Object> violationsSummary = new HashMap<>();
-        violationsSummary.put("byType", violations.stream().collect(Collectors.groupingBy(v -> v.getType().name(), Collectors.counting())));
-        violationsSummary.put("byStatus", violations.stream().collect(Collectors.groupingBy(v -> v.getStatus().name(), Collectors.counting())));
+        violationsSummary.put("byType", countBy(violationGroups, 0));
+        violationsSummary.put("byStatus", countBy(violationGroups, 1));
         reportData.put("violationsSummary", violationsSummary);
         
         reportData.put("repeatedViolations", repeatedViolations.stream()
@@ -138,35 +226,17 @@ public class ReportService {
                 })
                 .collect(Collectors.toList()));
 
-        Report report = new Report();
-        report.setType(ReportType.MANAGEMENT);
-        report.setPeriodStart(start);
-        report.setPeriodEnd(end);
-        report.setGeneratedAt(OffsetDateTime.now());
-        report.setGeneratedBy(request.getGeneratedBy());
-
-        try {
-            report.setReportData(objectMapper.writeValueAsString(reportData));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize report data", e);
-        }
-
-        return reportRepository.save(report);
+        return reportData;
     }
 
-    // UC18: Генерация отчётов для регуляторов
-    @Transactional
-    public Report generateRegulatoryReport(RegulatoryReportRequest request) {
-        OffsetDateTime start = request.getPeriodStart() != null ? request.getPeriodStart() : OffsetDateTime.now().minusMonths(1);
-        OffsetDateTime end = request.getPeriodEnd() != null ? request.getPeriodEnd() : OffsetDateTime.now();
-
-        List<Incident> incidents = incidentRepository.findByOccurredAtBetween(start, end);
-        List<Complaint> complaints = complaintRepository.findByReportedAtBetween(start, end);
-        List<DisciplinaryViolation> violations = violationRepository.findAll().stream()
-                .filter(v -> v.getOccurredAt().isAfter(start) && v.getOccurredAt().isBefore(end))
-                .collect(Collectors.toList());
+    private Map<String, Object> regulatoryReportData(OffsetDateTime start, OffsetDateTime end, ReportJobProgress progress) {
+        // Для регуляторов нужна построчная детализация: читаем только нужные колонки
+        List<IncidentRepository.IncidentRow> incidents = incidentRepository.findRowsByPeriod(start, end);
+        progress.checkpoint(30);
+        List<ComplaintRepository.ComplaintRow> complaints = complaintRepository.findRowsByPeriod(start, end);
+        progress.checkpoint(50);
+        List<DisciplinaryViolationRepository.ViolationRow> violations = violationRepository.findRowsByPeriod(start, end);
 
-        // Для регуляторов нужна более детальная информация
         Map<String, Object> reportData = new HashMap<>();
         reportData.put(FIELD_PERIOD_START, start.toString());
         reportData.put(FIELD_PERIOD_END, end.toString());
@@ -205,20 +275,24 @@ public class ReportService {
                 })
                 .collect(Collectors.toList()));
 
-        Report report = new Report();
-        report.setType(ReportType.REGULATORY);
-        report.setPeriodStart(start);
-        report.setPeriodEnd(end);
-        report.setGeneratedAt(OffsetDateTime.now());
-        report.setGeneratedBy(request.getGeneratedBy());
+        return reportData;
+    }
 
-        try {
-            report.setReportData(objectMapper.writeValueAsString(reportData));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize report data", e);
+    // Свёртка строк [key1, key2, ..., count] по одной из колонок-ключей
+    static Map<String, Long> countBy(List<Object[]> groups, int keyColumn) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : groups) {
+            counts.merge(((Enum<?>) row[keyColumn]).name(), (Long) row[row.length - 1], Long::sum);
         }
+        return counts;
+    }
 
-        return reportRepository.save(report);
+    static long total(List<Object[]> groups) {
+        long total = 0;
+        for (Object[] row : groups) {
+            total += (Long) row[row.length - 1];
+        }
+        return total;
     }
 
     public Report findById(UUID id) {
@@ -1,19 +1,39 @@
 package com.casino.mis.incident.service;
 
 import com.casino.mis.incident.domain.DisciplinaryViolation;
+import com.casino.mis.incident.domain.ViolationType;
 import com.casino.mis.incident.dto.CreateViolationRequest;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
 import com.casino.mis.incident.mapper.ViolationMapper;
 import com.casino.mis.incident.repository.DisciplinaryViolationRepository;
 import com.casino.mis.security.HtmlSanitizer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ViolationService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // Открытая граница периода: значения в пределах диапазона timestamptz
+    private static final OffsetDateTime PERIOD_MIN = OffsetDateTime.parse("1970-01-01T00:00:00Z");
+    private static final OffsetDateTime PERIOD_MAX = OffsetDateTime.parse("9999-12-31T00:00:00Z");
+
     private final DisciplinaryViolationRepository repo;
     private final HtmlSanitizer htmlSanitizer;
 
@@ -42,4 +62,86 @@ public class ViolationService {
     public List<DisciplinaryViolation> findByEmployeeId(UUID employeeId) {
         return repo.findByEmployeeId(employeeId);
     }
+
+    // UC21: Количество нарушений по сотрудникам за период; сотрудники без нарушений в ответ не попадают
+    public List<ViolationCountResponse> countByEmployees(Collection<UUID> employeeIds,
+                                                        OffsetDateTime from, OffsetDateTime to) {
+        if (employeeIds == null || employeeIds.isEmpty()) {
+            return List.of();
+        }
+        List<DisciplinaryViolationRepository.EmployeeViolationCount> rows;
+        if (from == null && to == null) {
+            rows = repo.countByEmployeeIds(employeeIds);
+        } else {
+            rows = repo.countByEmployeeIdsAndPeriod(employeeIds,
+                    from != null ? from : PERIOD_MIN, to != null ? to : PERIOD_MAX);
+        }
+        return rows.stream()
+                .map(row -> new ViolationCountResponse(row.getEmployeeId(), row.getTotal(), row.getLastOccurredAt()))
+                .collect(Collectors.toList());
+    }
+
+    // UC22: Keyset-пагинация с фильтрами на стороне БД; DTO собираются в транзакции (attachmentUrls - ленивая коллекция)
+    @Transactional(readOnly = true)
+    public ViolationPageResponse page(ViolationFilter filter, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (filter != null && filter.getEmployeeIds() != null && filter.getEmployeeIds().isEmpty()) {
+            return new ViolationPageResponse(List.of(), null);
+        }
+        List<DisciplinaryViolation> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repo.findPage(filter, null, null, size + 1);
+        } else {
+            DisciplinaryViolation position = decodeCursor(cursor);
+            rows = repo.findPage(filter, position.getOccurredAt(), position.getId(), size + 1);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = encodeCursor(rows.get(size - 1));
+        }
+        return new ViolationPageResponse(ViolationMapper.toDtoList(rows), nextCursor);
+    }
+
+    // UC22: Сводка по тому же фильтру одним GROUP BY - без выгрузки самих нарушений
+    public ViolationSummaryResponse summarize(ViolationFilter filter) {
+        Map<String, Long> byType = new HashMap<>();
+        Map<UUID, Long> byEmployee = new HashMap<>();
+        long total = 0;
+        if (filter != null && filter.getEmployeeIds() != null && filter.getEmployeeIds().isEmpty()) {
+            return new ViolationSummaryResponse(total, byType, byEmployee);
+        }
+        for (Object[] row : repo.countByEmployeeAndType(filter)) {
+            UUID employeeId = (UUID) row[0];
+            ViolationType type = (ViolationType) row[1];
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            if (type != null) {
+                byType.merge(type.name(), count, Long::sum);
+            }
+            if (employeeId != null) {
+                byEmployee.merge(employeeId, count, Long::sum);
+            }
+        }
+        return new ViolationSummaryResponse(total, byType, byEmployee);
+    }
+
+    static String encodeCursor(DisciplinaryViolation violation) {
+        String raw = violation.getOccurredAt().toString() + "|" + violation.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static DisciplinaryViolation decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            DisciplinaryViolation position = new DisciplinaryViolation();
+            position.setOccurredAt(OffsetDateTime.parse(raw.substring(0, separator)));
+            position.setId(UUID.fromString(raw.substring(separator + 1)));
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.casino.mis.jobs.controller;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.dto.ReportJobResponse;
+import com.casino.mis.jobs.mapper.ReportJobMapper;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import com.casino.mis.jobs.service.ReportJobWorker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Report Jobs", description = "Асинхронное формирование отчётов: прогресс, отмена, получение результата")
+public class ReportJobController {
+
+    private final ReportJobQueue queue;
+    private final ReportJobWorker worker;
+
+    public ReportJobController(ReportJobQueue queue, ReportJobWorker worker) {
+        this.queue = queue;
+        this.worker = worker;
+    }
+
+    @GetMapping
+    @Operation(summary = "Список заданий", description = "Последние задания формирования отчётов, опционально по статусу")
+    public List<ReportJobResponse> list(@RequestParam(required = false) ReportJobStatus status,
+                                        @RequestParam(defaultValue = "50") int limit) {
+        return ReportJobMapper.toDtoList(queue.findRecent(status, Math.max(1, Math.min(limit, 500))));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Статус задания", description = "Статус и прогресс (0-100) задания формирования отчёта")
+    public ReportJobResponse get(@PathVariable UUID id) {
+        return ReportJobMapper.toDto(queue.findById(id));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Отменить задание", description = "Задание в очереди отменяется сразу, выполняющееся - на ближайшей контрольной точке")
+    public ReportJobResponse cancel(@PathVariable UUID id) {
+        return ReportJobMapper.toDto(worker.cancel(id));
+    }
+
+    @GetMapping("/{id}/result")
+    @Operation(summary = "Результат задания", description = "Перенаправление (303) на сформированный отчёт; 409, если задание ещё не завершено успешно")
+    public ResponseEntity<ReportJobResponse> result(@PathVariable UUID id) {
+        ReportJob job = queue.findById(id);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ReportJobMapper.toDto(job));
+        }
+        return ResponseEntity.status(HttpStatus.SEE_OTHER)
+                .location(URI.create(job.getType().resultPath(job.getResultId())))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.casino.mis.jobs.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "report_jobs")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJob {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    private ReportJobType type;
+
+    @Enumerated(EnumType.STRING)
+    private ReportJobStatus status = ReportJobStatus.QUEUED;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // JSON исходного запроса
+
+    private UUID resultId; // Отчёт или анализ, который формирует задание
+
+    private Integer progress = 0; // 0..100
+
+    private Boolean cancelRequested = false;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    private OffsetDateTime createdAt = OffsetDateTime.now();
+
+    private OffsetDateTime startedAt;
+
+    private OffsetDateTime heartbeatAt; // Продлевается выполняющим экземпляром, пока задание в работе
+
+    private OffsetDateTime finishedAt;
+}
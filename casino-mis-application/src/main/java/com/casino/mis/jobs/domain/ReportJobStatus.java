@@ -0,0 +1,9 @@
+package com.casino.mis.jobs.domain;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,20 @@
+package com.casino.mis.jobs.domain;
+
+public enum ReportJobType {
+    INCIDENT_REPORT("/api/incident/reports/"),      // UC14
+    MANAGEMENT_REPORT("/api/incident/reports/"),    // UC17
+    REGULATORY_REPORT("/api/incident/reports/"),    // UC18
+    FINANCIAL_REPORT("/api/finance/reports/"),      // UC10
+    GAME_ANALYSIS("/api/finance/game-analysis/");   // UC13
+
+    private final String resultPath;
+
+    ReportJobType(String resultPath) {
+        this.resultPath = resultPath;
+    }
+
+    // URL ресурса с результатом задания
+    public String resultPath(java.util.UUID resultId) {
+        return resultPath + resultId;
+    }
+}
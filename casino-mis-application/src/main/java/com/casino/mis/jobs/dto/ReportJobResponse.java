@@ -0,0 +1,27 @@
+package com.casino.mis.jobs.dto;
+
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.domain.ReportJobType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobResponse {
+
+    private UUID id;
+    private ReportJobType type;
+    private ReportJobStatus status;
+    private Integer progress;
+    private UUID resultId;
+    private String resultUrl;
+    private String error;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime finishedAt;
+}
@@ -0,0 +1,30 @@
+package com.casino.mis.jobs.mapper;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.dto.ReportJobResponse;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ReportJobMapper {
+
+    public static ReportJobResponse toDto(ReportJob entity) {
+        return new ReportJobResponse(
+                entity.getId(),
+                entity.getType(),
+                entity.getStatus(),
+                entity.getProgress(),
+                entity.getResultId(),
+                entity.getStatus() == ReportJobStatus.COMPLETED ? entity.getType().resultPath(entity.getResultId()) : null,
+                entity.getError(),
+                entity.getCreatedAt(),
+                entity.getStartedAt(),
+                entity.getFinishedAt()
+        );
+    }
+
+    public static List<ReportJobResponse> toDtoList(List<ReportJob> list) {
+        return list.stream().map(ReportJobMapper::toDto).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,71 @@
+package com.casino.mis.jobs.repository;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, UUID> {
+
+    List<ReportJob> findByStatusOrderByCreatedAtDesc(ReportJobStatus status, Pageable pageable);
+
+    List<ReportJob> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    @Query("SELECT j.id FROM ReportJob j WHERE j.status = :status ORDER BY j.createdAt")
+    List<UUID> findIdsByStatus(@Param("status") ReportJobStatus status, Pageable pageable);
+
+    @Query("SELECT j.cancelRequested FROM ReportJob j WHERE j.id = :id")
+    Boolean isCancelRequested(@Param("id") UUID id);
+
+    // Атомарный захват задания: только один обработчик переведёт QUEUED -> RUNNING
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.casino.mis.jobs.domain.ReportJobStatus.RUNNING, j.startedAt = :now, j.heartbeatAt = :now WHERE j.id = :id AND j.status = com.casino.mis.jobs.domain.ReportJobStatus.QUEUED")
+    int claim(@Param("id") UUID id, @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.progress = :progress WHERE j.id = :id")
+    int updateProgress(@Param("id") UUID id, @Param("progress") int progress);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.casino.mis.jobs.domain.ReportJobStatus.CANCELLED, j.cancelRequested = true, j.finishedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.casino.mis.jobs.domain.ReportJobStatus.QUEUED")
+    int cancelQueued(@Param("id") UUID id, @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.cancelRequested = true WHERE j.id = :id AND j.status = com.casino.mis.jobs.domain.ReportJobStatus.RUNNING")
+    int requestCancel(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :status, j.error = :error, j.finishedAt = :now, " +
+           "j.progress = CASE WHEN :status = com.casino.mis.jobs.domain.ReportJobStatus.COMPLETED THEN 100 ELSE j.progress END WHERE j.id = :id")
+    int finish(@Param("id") UUID id,
+               @Param("status") ReportJobStatus status,
+               @Param("error") String error,
+               @Param("now") OffsetDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.status = com.casino.mis.jobs.domain.ReportJobStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("now") OffsetDateTime now);
+
+    // В очередь возвращаются только задания, чей исполнитель перестал продлевать аренду (упал или остановлен)
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = com.casino.mis.jobs.domain.ReportJobStatus.QUEUED, j.startedAt = null, j.heartbeatAt = null, j.progress = 0 " +
+           "WHERE j.status = com.casino.mis.jobs.domain.ReportJobStatus.RUNNING AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :cutoff)")
+    int requeueExpired(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,10 @@
+package com.casino.mis.jobs.service;
+
+import java.util.UUID;
+
+public class ReportJobCancelledException extends RuntimeException {
+
+    public ReportJobCancelledException(UUID jobId) {
+        super("Report job cancelled: " + jobId);
+    }
+}
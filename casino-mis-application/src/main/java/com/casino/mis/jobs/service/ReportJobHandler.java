@@ -0,0 +1,24 @@
+package com.casino.mis.jobs.service;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+
+import java.util.Set;
+
+/**
+ * Исполнитель заданий модуля. Каждый метод вызывается в отдельной транзакции,
+ * чтобы смена статуса отчёта была видна клиентам сразу.
+ */
+public interface ReportJobHandler {
+
+    Set<ReportJobType> getTypes();
+
+    // QUEUED -> RUNNING для записи отчёта
+    void markRunning(ReportJob job);
+
+    // Формирование отчёта; RUNNING -> GENERATED
+    void execute(ReportJob job, ReportJobProgress progress);
+
+    // Ошибка или отмена; запись отчёта переводится в FAILED
+    void markFailed(ReportJob job);
+}
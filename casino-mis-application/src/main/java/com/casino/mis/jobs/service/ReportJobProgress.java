@@ -0,0 +1,13 @@
+package com.casino.mis.jobs.service;
+
+/**
+ * Точка контроля длительного задания: фиксирует прогресс и прерывает
+ * выполнение исключением {@link ReportJobCancelledException}, если задание отменено.
+ */
+@FunctionalInterface
+public interface ReportJobProgress {
+
+    ReportJobProgress NONE = percent -> { };
+
+    void checkpoint(int percent);
+}
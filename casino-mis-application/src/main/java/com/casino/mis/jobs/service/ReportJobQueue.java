@@ -0,0 +1,68 @@
+package com.casino.mis.jobs.service;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.repository.ReportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class ReportJobQueue {
+
+    private final ReportJobRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ReportJobQueue(ReportJobRepository repository,
+                          ObjectMapper objectMapper,
+                          ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Задание сохраняется в БД и переживает рестарт; запуск - после коммита транзакции
+    @Transactional
+    public ReportJob submit(ReportJobType type, UUID resultId, Object request) {
+        ReportJob job = new ReportJob();
+        job.setType(type);
+        job.setResultId(resultId);
+        try {
+            job.setPayload(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize report job request", e);
+        }
+        ReportJob saved = repository.save(job);
+        eventPublisher.publishEvent(new ReportJobSubmittedEvent(saved.getId()));
+        return saved;
+    }
+
+    public <T> T readPayload(ReportJob job, Class<T> requestType) {
+        try {
+            return objectMapper.readValue(job.getPayload(), requestType);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read report job request: " + job.getId(), e);
+        }
+    }
+
+    public ReportJob findById(UUID id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Report job not found: " + id));
+    }
+
+    public List<ReportJob> findRecent(ReportJobStatus status, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (status != null) {
+            return repository.findByStatusOrderByCreatedAtDesc(status, page);
+        }
+        return repository.findAllByOrderByCreatedAtDesc(page);
+    }
+}
@@ -0,0 +1,16 @@
+package com.casino.mis.jobs.service;
+
+import java.util.UUID;
+
+public class ReportJobSubmittedEvent {
+
+    private final UUID jobId;
+
+    public ReportJobSubmittedEvent(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+}
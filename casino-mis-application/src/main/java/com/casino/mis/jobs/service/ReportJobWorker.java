@@ -0,0 +1,182 @@
+package com.casino.mis.jobs.service;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.repository.ReportJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Выполняет задания из таблицы report_jobs на ограниченном пуле потоков.
+ * Задания забираются атомарным UPDATE ... WHERE status = QUEUED, поэтому
+ * одно задание не запускается дважды даже при нескольких экземплярах приложения.
+ * Прогресс и флаг отмены пишутся и читаются в собственных транзакциях (REQUIRES_NEW),
+ * а не в длинной транзакции формирования отчёта: иначе прогресс не виден до конца
+ * задания, а запрос отмены ждёт блокировку строки задания.
+ */
+@Service
+public class ReportJobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobWorker.class);
+
+    private final ReportJobRepository repository;
+    private final Map<ReportJobType, ReportJobHandler> handlers = new EnumMap<>(ReportJobType.class);
+    private final TransactionTemplate requiresNew;
+    private final ExecutorService executor;
+    private final int workers;
+    private final long leaseMillis;
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> cancelled = ConcurrentHashMap.newKeySet();
+
+    public ReportJobWorker(ReportJobRepository repository,
+                           List<ReportJobHandler> handlers,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${reports.jobs.workers:2}") int workers,
+                           @Value("${reports.jobs.lease-ms:60000}") long leaseMillis) {
+        this.repository = repository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (ReportJobHandler handler : handlers) {
+            for (ReportJobType type : handler.getTypes()) {
+                this.handlers.put(type, handler);
+            }
+        }
+        this.workers = Math.max(1, workers);
+        this.leaseMillis = leaseMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "report-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Задания упавших или остановленных экземпляров возвращаются в очередь после истечения аренды
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        requeueExpired();
+        dispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        if (!running.isEmpty()) {
+            repository.heartbeat(Set.copyOf(running), OffsetDateTime.now());
+        }
+        requeueExpired();
+    }
+
+    private void requeueExpired() {
+        int requeued = repository.requeueExpired(OffsetDateTime.now().minus(Duration.ofMillis(leaseMillis)));
+        if (requeued > 0) {
+            log.info("Requeued {} report jobs with expired lease", requeued);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubmitted(ReportJobSubmittedEvent event) {
+        dispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${reports.jobs.poll-interval-ms:2000}")
+    public synchronized void dispatch() {
+        int free = workers - running.size();
+        if (free <= 0) {
+            return;
+        }
+        for (UUID id : repository.findIdsByStatus(ReportJobStatus.QUEUED, PageRequest.of(0, free))) {
+            if (repository.claim(id, OffsetDateTime.now()) == 1) {
+                running.add(id);
+                executor.execute(() -> run(id));
+            }
+        }
+    }
+
+    public ReportJob cancel(UUID id) {
+        ReportJob job = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Report job not found: " + id));
+        if (inNewTransaction(() -> repository.cancelQueued(id, OffsetDateTime.now())) == 1) {
+            handlerFor(job).markFailed(job);
+        } else if (inNewTransaction(() -> repository.requestCancel(id)) == 1) {
+            // Выполняющееся задание остановится на ближайшей контрольной точке
+            cancelled.add(id);
+        }
+        return repository.findById(id).orElse(job);
+    }
+
+    private void run(UUID id) {
+        try {
+            ReportJob job = repository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Report job not found: " + id));
+            ReportJobHandler handler = handlerFor(job);
+            try {
+                handler.markRunning(job);
+                handler.execute(job, percent -> checkpoint(id, percent));
+                repository.finish(id, ReportJobStatus.COMPLETED, null, OffsetDateTime.now());
+            } catch (ReportJobCancelledException e) {
+                handler.markFailed(job);
+                repository.finish(id, ReportJobStatus.CANCELLED, e.getMessage(), OffsetDateTime.now());
+            } catch (RuntimeException e) {
+                log.warn("Report job {} failed", id, e);
+                handler.markFailed(job);
+                repository.finish(id, ReportJobStatus.FAILED, e.getMessage(), OffsetDateTime.now());
+            }
+        } catch (RuntimeException e) {
+            log.error("Report job {} could not be finalized", id, e);
+        } finally {
+            running.remove(id);
+            cancelled.remove(id);
+        }
+    }
+
+    // Вызывается из транзакции обработчика; строка задания обновляется отдельной короткой транзакцией
+    private void checkpoint(UUID id, int percent) {
+        if (cancelled.contains(id) || Boolean.TRUE.equals(requiresNew.execute(status -> repository.isCancelRequested(id)))) {
+            throw new ReportJobCancelledException(id);
+        }
+        inNewTransaction(() -> repository.updateProgress(id, Math.max(0, Math.min(percent, 100))));
+    }
+
+    private int inNewTransaction(IntSupplier update) {
+        Integer updated = requiresNew.execute(status -> update.getAsInt());
+        return updated != null ? updated : 0;
+    }
+
+    private ReportJobHandler handlerFor(ReportJob job) {
+        ReportJobHandler handler = handlers.get(job.getType());
+        if (handler == null) {
+            throw new IllegalStateException("No handler for report job type: " + job.getType());
+        }
+        return handler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
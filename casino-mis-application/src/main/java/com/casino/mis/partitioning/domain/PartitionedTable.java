@@ -0,0 +1,46 @@
+package com.casino.mis.partitioning.domain;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+// Таблицы с помесячным секционированием по времени (changelog 020). Секция - <таблица>_pYYYY_MM, месяц по UTC
+public enum PartitionedTable {
+    CASH_OPERATIONS("cash_operations", "operated_at"),        // UC9-UC13
+    CONTACT_EVENTS("contact_events", "contact_start_time");   // UC4, UC5
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final String tableName;
+    private final String timeColumn;
+
+    PartitionedTable(String tableName, String timeColumn) {
+        this.tableName = tableName;
+        this.timeColumn = timeColumn;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getTimeColumn() {
+        return timeColumn;
+    }
+
+    public String partitionName(YearMonth month) {
+        return tableName + "_p" + month.format(SUFFIX);
+    }
+
+    public Optional<YearMonth> monthOf(String partitionName) {
+        String prefix = tableName + "_p";
+        if (!partitionName.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partitionName.substring(prefix.length()), SUFFIX));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.casino.mis.partitioning.repository;
+
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Секции таблиц из PartitionedTable в каталоге PostgreSQL. Имена секций строятся только из
+ * PartitionedTable и месяца, поэтому подставляются в DDL напрямую.
+ */
+@Repository
+public class PartitionCatalog {
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    // Ключ advisory-блокировки обслуживания секций, общий для всех экземпляров приложения
+    static final long MAINTENANCE_LOCK_KEY = 7_310_874_209_418_240_001L;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+
+    public PartitionCatalog(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+    }
+
+    // Сессионная pg_try_advisory_lock на отдельном соединении: держится весь запуск обслуживания,
+    // снимается при close() или при обрыве соединения. null - блокировку держит другой экземпляр
+    public MaintenanceLock tryLockMaintenance() {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                connection.close();
+                return null;
+            }
+            Connection held = connection;
+            return () -> {
+                try (held) {
+                    advisoryLock(held, "SELECT pg_advisory_unlock(?)");
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Failed to release partition maintenance lock", e);
+                }
+            };
+        } catch (SQLException e) {
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new IllegalStateException("Failed to acquire partition maintenance lock", e);
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, MAINTENANCE_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    // Помесячные секции таблицы, в том числе уже отсоединённые, но ещё не удалённые
+    public List<PartitionInfo> findPartitions(PartitionedTable table) {
+        return jdbcTemplate.query("SELECT c.relname, c.relispartition FROM pg_class c " +
+                        "WHERE c.relkind = 'r' AND c.relnamespace = current_schema()::regnamespace " +
+                        "AND c.relname ~ ? ORDER BY c.relname",
+                (rs, rowNum) -> new PartitionInfo(rs.getString(1), rs.getBoolean(2)),
+                "^" + table.getTableName() + "_p[0-9]{4}_[0-9]{2}$");
+    }
+
+    public void createPartition(PartitionedTable table, YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table.partitionName(month) +
+                " PARTITION OF " + table.getTableName() +
+                " FOR VALUES FROM ('" + month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC) + "')" +
+                " TO ('" + month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC) + "')");
+    }
+
+    public void detachPartition(PartitionedTable table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table.getTableName() + " DETACH PARTITION " + partition);
+    }
+
+    // Потоковое чтение отсоединённой секции: курсор PostgreSQL работает только внутри транзакции
+    @Transactional(readOnly = true)
+    public <T> T exportRows(PartitionedTable table, String partition, ResultSetExtractor<T> extractor) {
+        return exportJdbcTemplate.query("SELECT * FROM " + partition + " ORDER BY " + table.getTimeColumn() + ", id",
+                extractor);
+    }
+
+    public void dropPartition(String partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    public interface MaintenanceLock extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PartitionInfo {
+        private String name;
+        private boolean attached;
+    }
+}
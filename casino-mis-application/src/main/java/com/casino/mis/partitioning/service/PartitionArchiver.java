@@ -0,0 +1,109 @@
+package com.casino.mis.partitioning.service;
+
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import com.casino.mis.partitioning.repository.PartitionCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка отсоединённой секции в S3/MinIO: CSV с заголовком, сжатый gzip.
+ * Файл собирается во временном каталоге, чтобы не держать секцию в памяти.
+ */
+@Component
+public class PartitionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionArchiver.class);
+
+    private final PartitionCatalog catalog;
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefix;
+
+    public PartitionArchiver(PartitionCatalog catalog,
+                             S3Client s3,
+                             @Value("${partitioning.archive.bucket:reports}") String bucket,
+                             @Value("${partitioning.archive.prefix:archive/}") String prefix) {
+        this.catalog = catalog;
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    // Повторная выгрузка той же секции перезаписывает объект, поэтому прерванный архив можно повторить
+    public String archive(PartitionedTable table, String partition) throws IOException {
+        String key = objectKey(table, partition);
+        Path file = Files.createTempFile(partition + "-", ".csv.gz");
+        try {
+            long rows;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+                rows = catalog.exportRows(table, partition, rs -> writeCsv(rs, writer));
+            }
+            s3.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType("text/csv")
+                            .contentEncoding("gzip")
+                            .build(),
+                    RequestBody.fromFile(file));
+            log.info("Archived partition {} ({} rows, {} bytes) to s3://{}/{}", partition, rows, Files.size(file), bucket, key);
+            return key;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    String objectKey(PartitionedTable table, String partition) {
+        return prefix + table.getTableName() + "/" + partition + ".csv.gz";
+    }
+
+    static long writeCsv(ResultSet rs, Writer writer) throws SQLException {
+        try {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                writer.write(i > 1 ? "," : "");
+                writer.write(meta.getColumnName(i));
+            }
+            writer.write('\n');
+            long rows = 0;
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    writer.write(i > 1 ? "," : "");
+                    writer.write(csvValue(rs.getString(i)));
+                }
+                writer.write('\n');
+                rows++;
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // NULL - пустое поле, пустая строка - "", остальное в кавычках только при необходимости
+    static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,120 @@
+package com.casino.mis.partitioning.service;
+
+import com.casino.mis.finance.repository.CashOperationIdempotencyKeyRepository;
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import com.casino.mis.partitioning.repository.PartitionCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Обслуживание помесячных секций cash_operations и contact_events:
+ * заранее создаёт секции на monthsAhead месяцев вперёд (иначе строки уходят в секцию _default
+ * и запросы по периоду её не отсекают) и архивирует секции старше срока хранения:
+ * отсоединение -> выгрузка в S3 -> удаление. Отсоединённая, но не удалённая секция
+ * (сбой выгрузки) подбирается следующим запуском. Запуск идёт под advisory-блокировкой PostgreSQL:
+ * если её держит другой экземпляр, запуск пропускается.
+ */
+@Service
+@ConditionalOnProperty(name = "partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private final PartitionCatalog catalog;
+    private final PartitionArchiver archiver;
+    private final CashOperationIdempotencyKeyRepository idempotencyKeys;
+    private final int monthsAhead;
+    private final Map<PartitionedTable, Integer> retentionMonths = new EnumMap<>(PartitionedTable.class);
+
+    public PartitionMaintenanceService(PartitionCatalog catalog,
+                                       PartitionArchiver archiver,
+                                       CashOperationIdempotencyKeyRepository idempotencyKeys,
+                                       @Value("${partitioning.months-ahead:3}") int monthsAhead,
+                                       @Value("${partitioning.retention-months.cash-operations:60}") int cashOperationsRetention,
+                                       @Value("${partitioning.retention-months.contact-events:12}") int contactEventsRetention) {
+        this.catalog = catalog;
+        this.archiver = archiver;
+        this.idempotencyKeys = idempotencyKeys;
+        this.monthsAhead = Math.max(1, monthsAhead);
+        this.retentionMonths.put(PartitionedTable.CASH_OPERATIONS, Math.max(1, cashOperationsRetention));
+        this.retentionMonths.put(PartitionedTable.CONTACT_EVENTS, Math.max(1, contactEventsRetention));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitioning.maintenance-cron:0 30 3 * * *}", zone = "UTC")
+    public synchronized void maintain() {
+        try (PartitionCatalog.MaintenanceLock lock = catalog.tryLockMaintenance()) {
+            if (lock == null) {
+                log.info("Partition maintenance is already running on another instance, skipping");
+                return;
+            }
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            ensureFuturePartitions(current);
+            archiveExpiredPartitions(current);
+        }
+    }
+
+    void ensureFuturePartitions(YearMonth current) {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            Set<String> existing = catalog.findPartitions(table).stream()
+                    .map(PartitionCatalog.PartitionInfo::getName)
+                    .collect(Collectors.toSet());
+            for (int i = 0; i <= monthsAhead; i++) {
+                String partition = table.partitionName(current.plusMonths(i));
+                if (existing.contains(partition)) {
+                    continue;
+                }
+                try {
+                    catalog.createPartition(table, current.plusMonths(i));
+                    log.info("Created partition {}", partition);
+                } catch (RuntimeException e) {
+                    // Например, в _default уже есть строки этого месяца: их нужно перенести вручную
+                    log.error("Failed to create partition {}", partition, e);
+                }
+            }
+        }
+    }
+
+    void archiveExpiredPartitions(YearMonth current) {
+        for (PartitionedTable table : PartitionedTable.values()) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths.get(table));
+            for (PartitionCatalog.PartitionInfo partition : catalog.findPartitions(table)) {
+                YearMonth month = table.monthOf(partition.getName()).orElse(null);
+                if (month == null || !month.isBefore(oldestKept)) {
+                    continue;
+                }
+                try {
+                    archive(table, partition, month);
+                } catch (Exception e) {
+                    log.error("Failed to archive partition {}", partition.getName(), e);
+                }
+            }
+        }
+    }
+
+    private void archive(PartitionedTable table, PartitionCatalog.PartitionInfo partition, YearMonth month)
+            throws Exception {
+        if (partition.isAttached()) {
+            catalog.detachPartition(table, partition.getName());
+        }
+        archiver.archive(table, partition.getName());
+        catalog.dropPartition(partition.getName());
+        if (table == PartitionedTable.CASH_OPERATIONS) {
+            // UC9: Повторная отправка операции старше срока хранения снова будет принята
+            idempotencyKeys.deleteOperatedBefore(month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.casino.mis.security.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "modules.incident.mode", havingValue = "remote")
+public class FeignSuspiciousActivityGateway implements SuspiciousActivityGateway {
+
+    private final IncidentServiceClient client;
+
+    public FeignSuspiciousActivityGateway(IncidentServiceClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public UUID createSuspiciousActivity(String shortDescription, String location, List<String> participants, String risk) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("shortDescription", shortDescription);
+        request.put("location", location);
+        request.put("participants", participants);
+        request.put("risk", risk);
+        Map<String, Object> created = client.createSuspiciousActivity(request);
+        return UUID.fromString(created.get("id").toString());
+    }
+}
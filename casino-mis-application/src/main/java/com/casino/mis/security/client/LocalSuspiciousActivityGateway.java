@@ -0,0 +1,51 @@
+package com.casino.mis.security.client;
+
+import com.casino.mis.incident.domain.SuspiciousActivity;
+import com.casino.mis.incident.service.SuspiciousActivityService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "modules.incident.mode", havingValue = "local", matchIfMissing = true)
+public class LocalSuspiciousActivityGateway implements SuspiciousActivityGateway {
+
+    private final SuspiciousActivityService service;
+    private final TransactionTemplate requiresNew;
+
+    public LocalSuspiciousActivityGateway(SuspiciousActivityService service,
+                                          PlatformTransactionManager transactionManager) {
+        this.service = service;
+        // Как и при HTTP-вызове: своя транзакция, ошибка не помечает транзакцию вызывающего rollback-only
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public UUID createSuspiciousActivity(String shortDescription, String location, List<String> participants, String risk) {
+        SuspiciousActivity activity = new SuspiciousActivity();
+        activity.setShortDescription(shortDescription);
+        activity.setLocation(location);
+        if (participants != null) {
+            activity.setParticipants(participants);
+        }
+        activity.setRisk(parseRisk(risk));
+        return requiresNew.execute(status -> service.create(activity).getId());
+    }
+
+    private static SuspiciousActivity.RiskLevel parseRisk(String risk) {
+        if (risk == null) {
+            return SuspiciousActivity.RiskLevel.MEDIUM;
+        }
+        try {
+            return SuspiciousActivity.RiskLevel.valueOf(risk.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return SuspiciousActivity.RiskLevel.MEDIUM;
+        }
+    }
+}
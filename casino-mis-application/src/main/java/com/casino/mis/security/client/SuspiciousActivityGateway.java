@@ -0,0 +1,15 @@
+package com.casino.mis.security.client;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * UC3: Регистрация подозрительной активности в модуле инцидентов.
+ * В монолите - вызов сервиса внутри процесса, при раздельном развёртывании - Feign
+ * (modules.incident.mode: local | remote).
+ */
+public interface SuspiciousActivityGateway {
+
+    // Возвращает id созданной активности; risk - имя RiskLevel, неизвестное значение даёт MEDIUM
+    UUID createSuspiciousActivity(String shortDescription, String location, List<String> participants, String risk);
+}
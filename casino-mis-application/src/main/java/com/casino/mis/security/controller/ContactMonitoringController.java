@@ -1,8 +1,11 @@
 package com.casino.mis.security.controller;
 
 import com.casino.mis.security.domain.ContactEvent;
+import com.casino.mis.security.dto.ContactBatchResponse;
 import com.casino.mis.security.dto.ContactEventRequest;
 import com.casino.mis.security.dto.ContactEventResponse;
+import com.casino.mis.security.dto.ContactIngestStats;
+import com.casino.mis.security.service.ContactIngestPipeline;
 import com.casino.mis.security.service.ContactMonitoringService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -20,9 +23,11 @@ import java.util.stream.Collectors;
 public class ContactMonitoringController {
 
     private final ContactMonitoringService service;
+    private final ContactIngestPipeline ingestPipeline;
 
-    public ContactMonitoringController(ContactMonitoringService service) {
+    public ContactMonitoringController(ContactMonitoringService service, ContactIngestPipeline ingestPipeline) {
         this.service = service;
+        this.ingestPipeline = ingestPipeline;
     }
 
     @PostMapping
@@ -32,6 +37,19 @@ public class ContactMonitoringController {
         return toResponse(service.registerContact(request));
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Принять пакет событий контактов", description = "UC4, UC5: Приём потока событий от видеоаналитики и считывателей пропусков. События ставятся в очередь и записываются пачками; начало и окончание одного контакта сводятся в одну запись. Подозрительная активность создаётся асинхронно. События со статусом THROTTLED нужно отправить повторно.")
+    public ContactBatchResponse ingestBatch(@RequestBody List<ContactEventRequest> requests) {
+        return ingestPipeline.ingest(requests);
+    }
+
+    @GetMapping("/ingest/stats")
+    @Operation(summary = "Состояние приёма событий", description = "Глубина очередей, счётчики записанных, сведённых и отброшенных событий")
+    public ContactIngestStats getIngestStats() {
+        return ingestPipeline.stats();
+    }
+
     @PostMapping("/check-frequency")
     @Operation(summary = "Проверить частоту взаимодействий", description = "UC5: Проверка частоты контактов между двумя лицами. При превышении лимита создаётся подозрительная активность.")
     public void checkFrequency(@RequestParam String personId1, @RequestParam String personId2) {
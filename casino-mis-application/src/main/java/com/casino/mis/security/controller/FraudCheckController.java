@@ -1,5 +1,7 @@
 package com.casino.mis.security.controller;
 
+import com.casino.mis.security.dto.FraudBatchCheckRequest;
+import com.casino.mis.security.dto.FraudBatchCheckResponse;
 import com.casino.mis.security.dto.FraudCheckRequest;
 import com.casino.mis.security.dto.FraudCheckResponse;
 import com.casino.mis.security.service.FraudCheckService;
@@ -27,6 +29,12 @@ public class FraudCheckController {
         return service.performCheck(request);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Пакетная проверка лиц", description = "UC6: Сверка списка лиц (до 1000) за один запрос. Уведомление (UC7) - одно на каждую найденную запись базы.")
+    public FraudBatchCheckResponse checkBatch(@RequestBody @Valid FraudBatchCheckRequest request) {
+        return service.performBatchCheck(request.getPersons());
+    }
+
     @PostMapping("/quick")
     @Operation(summary = "Быстрая проверка", description = "Проверка только по personId")
     public FraudCheckResponse quickCheck(@RequestParam String personId, 
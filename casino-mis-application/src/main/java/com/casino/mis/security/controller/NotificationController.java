@@ -1,6 +1,8 @@
 package com.casino.mis.security.controller;
 
 import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationPageResponse;
+import com.casino.mis.security.dto.NotificationPipelineStats;
 import com.casino.mis.security.dto.NotificationResponse;
 import com.casino.mis.security.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,6 +34,33 @@ public class NotificationController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/recipient/{recipientId}/inbox")
+    @Operation(summary = "Страница входящих", description = "UC7: Keyset-пагинация уведомлений получателя, новые сначала. Для следующей страницы передайте nextCursor в параметре cursor.")
+    public NotificationPageResponse inbox(
+            @PathVariable UUID recipientId,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + NotificationService.DEFAULT_PAGE_SIZE) int limit) {
+        int size = Math.max(1, Math.min(limit, NotificationService.MAX_PAGE_SIZE));
+        List<Notification> notifications = service.page(recipientId, unreadOnly, cursor, size);
+
+        String nextCursor = null;
+        if (notifications.size() > size) {
+            notifications = notifications.subList(0, size);
+            nextCursor = NotificationService.encodeCursor(notifications.get(size - 1));
+        }
+        return new NotificationPageResponse(
+                notifications.stream().map(this::toResponse).collect(Collectors.toList()),
+                nextCursor
+        );
+    }
+
+    @PostMapping("/recipient/{recipientId}/read-all")
+    @Operation(summary = "Прочитать все", description = "UC7: Отметить все непрочитанные уведомления получателя одним запросом. Возвращает число отмеченных.")
+    public Integer markAllAsRead(@PathVariable UUID recipientId) {
+        return service.markAllAsRead(recipientId);
+    }
+
     @GetMapping("/recipient/{recipientId}/unread")
     @Operation(summary = "Получить непрочитанные уведомления", description = "Список непрочитанных уведомлений")
     public List<NotificationResponse> getUnread(@PathVariable UUID recipientId) {
@@ -46,6 +75,12 @@ public class NotificationController {
         return service.getUnreadCount(recipientId);
     }
 
+    @GetMapping("/pipeline/stats")
+    @Operation(summary = "Состояние очереди рассылки", description = "UC7: Глубина очереди по приоритетам, счётчики и задержка от постановки в очередь до push")
+    public NotificationPipelineStats getPipelineStats() {
+        return service.getPipelineStats();
+    }
+
     @PostMapping("/{id}/read")
     @Operation(summary = "Отметить как прочитанное", description = "Пометить уведомление как прочитанное")
     public NotificationResponse markAsRead(@PathVariable UUID id) {
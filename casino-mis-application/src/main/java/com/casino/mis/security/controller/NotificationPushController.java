@@ -0,0 +1,46 @@
+package com.casino.mis.security.controller;
+
+import com.casino.mis.security.service.NotificationService;
+import com.casino.mis.security.service.NotificationSubscriptionGuard;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.Optional;
+import java.util.UUID;
+
+// UC7: Подтверждения от консолей по STOMP (см. WebSocketConfig). Подтвердить можно только своё
+// уведомление (или любое - начальнику смены), как и подписаться только на свой топик
+@Controller
+public class NotificationPushController {
+
+    private final NotificationService service;
+    private final NotificationSubscriptionGuard guard;
+
+    public NotificationPushController(NotificationService service, NotificationSubscriptionGuard guard) {
+        this.service = service;
+        this.guard = guard;
+    }
+
+    @MessageMapping("/notifications/{id}/delivered")
+    public void delivered(@DestinationVariable UUID id, Principal user) {
+        if (authorize(id, user)) {
+            service.markDelivered(id);
+        }
+    }
+
+    @MessageMapping("/notifications/{id}/read")
+    public void read(@DestinationVariable UUID id, Principal user) {
+        if (authorize(id, user)) {
+            service.markAsRead(id);
+        }
+    }
+
+    // Подтверждение неизвестного уведомления игнорируется
+    private boolean authorize(UUID id, Principal user) {
+        Optional<UUID> recipientId = service.findRecipientId(id);
+        recipientId.ifPresent(recipient -> guard.checkAccess(user, recipient));
+        return recipientId.isPresent();
+    }
+}
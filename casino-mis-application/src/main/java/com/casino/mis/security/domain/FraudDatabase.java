@@ -4,12 +4,14 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "fraud_database")
+@DynamicUpdate // UPDATE только изменённых колонок: правка статуса не затирает match_count, сброшенный FraudMatchCounters
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -38,7 +40,10 @@ public class FraudDatabase {
 
     private OffsetDateTime lastCheckedAt; // Когда последний раз проверяли
 
-    private Integer matchCount = 0; // Количество совпадений при проверках
+    private Integer matchCount = 0; // Количество совпадений при проверках (копится в FraudMatchCounters)
+
+    @Version
+    private Long version; // Оптимистическая блокировка правок записи; сброс счётчика совпадений её не меняет
 
     @Enumerated(EnumType.STRING)
     private FraudStatus status = FraudStatus.ACTIVE;
@@ -0,0 +1,18 @@
+package com.casino.mis.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContactBatchResponse {
+
+    private int accepted;
+    private int rejected;
+    private int throttled;
+    private List<ContactBatchResult> results; // Только непринятые события
+}
@@ -0,0 +1,22 @@
+package com.casino.mis.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContactBatchResult {
+
+    private int index; // Позиция события в запросе
+    private Status status;
+    private List<String> errors;
+
+    public enum Status {
+        REJECTED,  // Не прошло проверку, повтор бесполезен
+        THROTTLED  // Очередь заполнена, отправить повторно
+    }
+}
@@ -0,0 +1,22 @@
+package com.casino.mis.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContactIngestStats {
+
+    private int queueDepth;
+    private int capacity;
+    private long accepted;
+    private long throttled; // Не принято из-за заполненной очереди
+    private long inserted;
+    private long updated; // ACTIVE-контакт дополнен окончанием
+    private long coalesced; // Повторы и начало+окончание в одной пачке
+    private long failed;
+    private long suspicious; // Передано в стадию подозрительной активности
+    private int sideEffectQueueDepth;
+}
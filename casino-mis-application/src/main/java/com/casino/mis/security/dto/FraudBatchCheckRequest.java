@@ -0,0 +1,19 @@
+package com.casino.mis.security.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FraudBatchCheckRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid FraudCheckRequest> persons;
+}
@@ -0,0 +1,26 @@
+package com.casino.mis.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FraudBatchCheckResponse {
+    private int checked;
+    private int matched; // Число лиц с хотя бы одним совпадением
+    private List<PersonResult> results;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PersonResult {
+        private int index; // Позиция в запросе
+        private String personId;
+        private Boolean matchFound;
+        private List<FraudCheckResponse.MatchResult> matches;
+    }
+}
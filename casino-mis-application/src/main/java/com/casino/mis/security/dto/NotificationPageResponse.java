@@ -0,0 +1,17 @@
+package com.casino.mis.security.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationPageResponse {
+
+    private List<NotificationResponse> items;
+
+    private String nextCursor; // null - страниц больше нет
+}
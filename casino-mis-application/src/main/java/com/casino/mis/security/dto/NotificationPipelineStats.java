@@ -0,0 +1,24 @@
+package com.casino.mis.security.dto;
+
+import com.casino.mis.security.domain.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationPipelineStats {
+    private int queueDepth;
+    private int capacity;
+    private Map<Notification.NotificationPriority, Integer> depthByPriority;
+    private long enqueued;
+    private long dispatched;
+    private long failed;
+    private long deferred; // Не принято или вытеснено при переполнении, ждёт восстановления
+    private long recovered; // Поставлено повторно из PENDING в БД
+    private double averageLatencyMs; // От постановки в очередь до push
+    private long maxLatencyMs;
+}
@@ -1,25 +1,69 @@
 package com.casino.mis.security.repository;
 
 import com.casino.mis.security.domain.ContactEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface ContactEventRepository extends JpaRepository<ContactEvent, UUID> {
     List<ContactEvent> findByPersonId1OrPersonId2(String personId1, String personId2);
     List<ContactEvent> findBySuspicious(Boolean suspicious);
     List<ContactEvent> findByContactStartTimeBetween(OffsetDateTime start, OffsetDateTime end);
     
+    // Последние контакты пары; частота считается в ContactFrequencyWindow, здесь нужен только последний
     @Query("SELECT ce FROM ContactEvent ce WHERE " +
            "(ce.personId1 = :personId1 AND ce.personId2 = :personId2) OR " +
            "(ce.personId1 = :personId2 AND ce.personId2 = :personId1) " +
            "ORDER BY ce.contactStartTime DESC")
     List<ContactEvent> findContactsBetweenPersons(@Param("personId1") String personId1, 
-                                                   @Param("personId2") String personId2);
+                                                   @Param("personId2") String personId2,
+                                                   Pageable pageable);
+
+    // Пакетный приём: уже сохранённые контакты с теми же участниками и временем начала
+    @Query("SELECT ce FROM ContactEvent ce WHERE ce.contactStartTime IN :startTimes " +
+           "AND (ce.personId1 IN :personIds OR ce.personId2 IN :personIds)")
+    List<ContactEvent> findByStartTimesAndPersons(@Param("startTimes") Collection<OffsetDateTime> startTimes,
+                                                  @Param("personIds") Collection<String> personIds);
+
+    // UC3: Блокировка контакта на время создания подозрительной активности - одна активность на контакт
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ce FROM ContactEvent ce WHERE ce.id = :id")
+    Optional<ContactEvent> lockById(@Param("id") UUID id);
+
+    // UC3: Точечная запись ссылки на активность: не перезаписывает окончание, длительность и статус,
+    // записанные более поздней пачкой приёма
+    @Modifying
+    @Query("UPDATE ContactEvent ce SET ce.suspiciousActivityId = :activityId " +
+           "WHERE ce.id = :id AND ce.suspiciousActivityId IS NULL")
+    int linkSuspiciousActivity(@Param("id") UUID id, @Param("activityId") UUID activityId);
+
+    // Восстановление окна частоты контактов при старте, индекс contact_start_time
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT ce.personId1 AS personId1, ce.personId2 AS personId2, ce.contactStartTime AS contactStartTime " +
+           "FROM ContactEvent ce WHERE ce.contactStartTime > :from")
+    Stream<ContactWindowRow> streamWindowRows(@Param("from") OffsetDateTime from);
+
+    interface ContactWindowRow {
+        String getPersonId1();
+        String getPersonId2();
+        OffsetDateTime getContactStartTime();
+    }
 }
 
 
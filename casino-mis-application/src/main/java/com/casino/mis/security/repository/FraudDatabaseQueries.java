@@ -0,0 +1,13 @@
+package com.casino.mis.security.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+public interface FraudDatabaseQueries {
+
+    // UC6: Пакетное увеличение счётчиков совпадений (match_count + delta); version не меняется,
+    // чтобы сброс счётчиков не ломал параллельные правки записи.
+    // Возвращает число обновлённых записей; удалённые записи пропускаются
+    int addMatchCounts(Map<UUID, Long> deltas, OffsetDateTime checkedAt);
+}
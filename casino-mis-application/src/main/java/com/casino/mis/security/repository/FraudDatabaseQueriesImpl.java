@@ -0,0 +1,44 @@
+package com.casino.mis.security.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+public class FraudDatabaseQueriesImpl implements FraudDatabaseQueries {
+
+    static final int UPDATE_BATCH_SIZE = 500;
+
+    private static final String ADD_MATCH_COUNT_SQL =
+            "UPDATE fraud_database SET match_count = COALESCE(match_count, 0) + ?, last_checked_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FraudDatabaseQueriesImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int addMatchCounts(Map<UUID, Long> deltas, OffsetDateTime checkedAt) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Timestamp timestamp = Timestamp.from(checkedAt.toInstant());
+        int[][] counts = jdbcTemplate.batchUpdate(ADD_MATCH_COUNT_SQL, deltas.entrySet(), UPDATE_BATCH_SIZE,
+                (ps, delta) -> {
+                    ps.setLong(1, delta.getValue());
+                    ps.setTimestamp(2, timestamp);
+                    ps.setObject(3, delta.getKey());
+                });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Драйвер может вернуть SUCCESS_NO_INFO (-2) вместо числа строк
+                updated += Math.max(count, 0);
+            }
+        }
+        return updated;
+    }
+}
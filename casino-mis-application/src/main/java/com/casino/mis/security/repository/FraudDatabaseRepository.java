@@ -1,18 +1,29 @@
 package com.casino.mis.security.repository;
 
 import com.casino.mis.security.domain.FraudDatabase;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface FraudDatabaseRepository extends JpaRepository<FraudDatabase, UUID> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface FraudDatabaseRepository extends JpaRepository<FraudDatabase, UUID>, FraudDatabaseQueries {
     Optional<FraudDatabase> findByPersonId(String personId);
     List<FraudDatabase> findByFraudType(FraudDatabase.FraudType fraudType);
     List<FraudDatabase> findByStatus(FraudDatabase.FraudStatus status);
+
+    // Потоковое чтение для построения индекса сверки (FraudMatchIndex)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT f FROM FraudDatabase f WHERE f.status = :status")
+    Stream<FraudDatabase> streamByStatus(@Param("status") FraudDatabase.FraudStatus status);
     
     @Query("SELECT f FROM FraudDatabase f WHERE " +
            "f.status = 'ACTIVE' AND (" +
@@ -1,19 +1,92 @@
 package com.casino.mis.security.repository;
 
 import com.casino.mis.security.domain.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface NotificationRepository extends JpaRepository<Notification, UUID> {
     List<Notification> findByRecipientId(UUID recipientId);
     List<Notification> findByRecipientIdAndStatus(UUID recipientId, Notification.NotificationStatus status);
+    List<Notification> findByRecipientIdAndStatusIn(UUID recipientId, Collection<Notification.NotificationStatus> statuses);
     List<Notification> findByType(Notification.NotificationType type);
     List<Notification> findByCreatedAtBetween(OffsetDateTime start, OffsetDateTime end);
     List<Notification> findByStatus(Notification.NotificationStatus status);
     Long countByRecipientIdAndStatus(UUID recipientId, Notification.NotificationStatus status);
-}
+    Long countByRecipientIdAndStatusIn(UUID recipientId, Collection<Notification.NotificationStatus> statuses);
+
+    // Получатель уведомления для проверки подтверждений от консолей
+    @Query("SELECT n.recipientId FROM Notification n WHERE n.id = :id")
+    Optional<UUID> findRecipientIdById(@Param("id") UUID id);
+
+    // Снимок непрочитанных для кэша входящих (NotificationInbox)
+    @Query("SELECT n.id FROM Notification n WHERE n.recipientId = :recipientId AND n.status IN :statuses")
+    List<UUID> findIdsByRecipientIdAndStatusIn(@Param("recipientId") UUID recipientId,
+                                               @Param("statuses") Collection<Notification.NotificationStatus> statuses);
+
+    // Keyset-пагинация входящих: новые сначала, порядок (createdAt, id) по убыванию
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId AND n.status IN :statuses " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxPage(@Param("recipientId") UUID recipientId,
+                                     @Param("statuses") Collection<Notification.NotificationStatus> statuses,
+                                     Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId AND n.status IN :statuses " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findInboxPageBefore(@Param("recipientId") UUID recipientId,
+                                           @Param("statuses") Collection<Notification.NotificationStatus> statuses,
+                                           @Param("createdAt") OffsetDateTime createdAt,
+                                           @Param("id") UUID id,
+                                           Pageable pageable);
 
+    // UC7: "Прочитать все" одним UPDATE
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.casino.mis.security.domain.Notification.NotificationStatus.READ, n.readAt = :readAt " +
+           "WHERE n.recipientId = :recipientId AND n.status IN :statuses")
+    int markAllRead(@Param("recipientId") UUID recipientId,
+                    @Param("statuses") Collection<Notification.NotificationStatus> statuses,
+                    @Param("readAt") OffsetDateTime readAt);
 
+    // UC7: Подтверждение доставки консолью; прочитанные и ошибочные не меняются
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.casino.mis.security.domain.Notification.NotificationStatus.DELIVERED " +
+           "WHERE n.id = :id AND n.status = com.casino.mis.security.domain.Notification.NotificationStatus.SENT")
+    int markDelivered(@Param("id") UUID id);
+
+    // UC7: Захват пачки outbox диспетчером. Строки, заблокированные другим экземпляром, пропускаются;
+    // уже отправленные не проходят условие по статусу. Блокировка держится до коммита отметки SENT.
+    @Query(value = "SELECT id FROM notifications WHERE id IN (:ids) AND status = 'PENDING' FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<UUID> lockPending(@Param("ids") Collection<UUID> ids);
+
+    // UC7: Пачка из outbox (PENDING) отправлена диспетчером
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.casino.mis.security.domain.Notification.NotificationStatus.SENT, n.sentAt = :sentAt " +
+           "WHERE n.id IN :ids AND n.status = com.casino.mis.security.domain.Notification.NotificationStatus.PENDING")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentAt") OffsetDateTime sentAt);
+
+    // Push не принят брокером
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = com.casino.mis.security.domain.Notification.NotificationStatus.FAILED " +
+           "WHERE n.id IN :ids AND n.status = com.casino.mis.security.domain.Notification.NotificationStatus.SENT")
+    int markFailed(@Param("ids") Collection<UUID> ids);
+
+    // Восстановление outbox: самые старые неотправленные, индекс (status, created_at)
+    List<Notification> findByStatusAndCreatedAtBeforeOrderByCreatedAt(Notification.NotificationStatus status,
+                                                                      OffsetDateTime before,
+                                                                      Pageable pageable);
+}
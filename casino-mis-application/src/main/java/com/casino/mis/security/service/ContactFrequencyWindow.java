@@ -0,0 +1,296 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.repository.ContactEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * UC5: Скользящее окно частоты контактов по паре лиц в памяти.
+ * Ключ - 64-битный хэш неупорядоченной пары, значение - кольцо счётчиков по корзинам времени.
+ * Корзины, вышедшие из окна, обнуляются при следующем обращении к паре, поэтому учёт события
+ * и проверка лимита не зависят от длины истории пары. При старте окно восстанавливается из contact_events.
+ */
+@Component
+public class ContactFrequencyWindow {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactFrequencyWindow.class);
+
+    private static final int STRIPES = 64;
+
+    private final ContactEventRepository repository;
+    private final long windowMs;
+    private final long bucketMs;
+    private final int buckets;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ContactFrequencyWindow(ContactEventRepository repository,
+                                  @Value("${security.contact.time-window-minutes:10}") long timeWindowMinutes,
+                                  @Value("${security.contact.window-bucket-seconds:10}") long bucketSeconds) {
+        this.repository = repository;
+        this.windowMs = Math.max(1, timeWindowMinutes) * 60_000L;
+        this.bucketMs = Math.max(1, Math.min(bucketSeconds * 1000L, windowMs));
+        this.buckets = (int) ((windowMs + bucketMs - 1) / bucketMs);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // Контакты за окно до текущего момента
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long now = System.currentTimeMillis();
+        OffsetDateTime windowStart = OffsetDateTime.now().minusNanos(windowMs * 1_000_000L);
+        long count = 0;
+        try (Stream<ContactEventRepository.ContactWindowRow> rows = repository.streamWindowRows(windowStart)) {
+            Iterator<ContactEventRepository.ContactWindowRow> it = rows.iterator();
+            while (it.hasNext()) {
+                ContactEventRepository.ContactWindowRow row = it.next();
+                add(row.getPersonId1(), row.getPersonId2(), row.getContactStartTime(), 1, now);
+                count++;
+            }
+        }
+        log.info("Contact frequency window rebuilt: {} contacts", count);
+    }
+
+    /**
+     * Учитывает контакт пары. В транзакции учёт откатывается вместе с ней,
+     * чтобы несохранённый контакт не завышал частоту.
+     */
+    public void record(String personId1, String personId2, OffsetDateTime contactStartTime) {
+        add(personId1, personId2, contactStartTime, 1, System.currentTimeMillis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        add(personId1, personId2, contactStartTime, -1, System.currentTimeMillis());
+                    }
+                }
+            });
+        }
+    }
+
+    // Число контактов пары за окно до текущего момента
+    public int count(String personId1, String personId2) {
+        long key = pairKey(personId1, personId2);
+        long nowBucket = System.currentTimeMillis() / bucketMs;
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            PairWindow window = stripe.get(key);
+            return window != null ? window.total(nowBucket) : 0;
+        }
+    }
+
+    public int pairs() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size;
+            }
+        }
+        return total;
+    }
+
+    // Пары без контактов в окне удаляются, чтобы память не росла с числом когда-либо встречавшихся пар
+    @Scheduled(fixedDelayString = "${security.contact.window-sweep-interval-ms:60000}")
+    public void sweep() {
+        long nowBucket = System.currentTimeMillis() / bucketMs;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.retainActive(nowBucket);
+            }
+        }
+    }
+
+    private void add(String personId1, String personId2, OffsetDateTime contactStartTime, int delta, long now) {
+        long eventMs = contactStartTime != null ? contactStartTime.toInstant().toEpochMilli() : now;
+        long nowBucket = now / bucketMs;
+        long eventBucket = eventMs / bucketMs;
+        if (eventBucket <= nowBucket - buckets) {
+            return;
+        }
+        long key = pairKey(personId1, personId2);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            PairWindow window = stripe.get(key);
+            if (window == null) {
+                if (delta < 0) {
+                    return;
+                }
+                window = stripe.put(key, new PairWindow(buckets, nowBucket));
+            }
+            window.add(nowBucket, eventBucket, delta);
+        }
+    }
+
+    private Stripe stripeOf(long key) {
+        return stripes[(int) (key >>> 58) & (STRIPES - 1)];
+    }
+
+    // FNV-1a по обоим идентификаторам в каноническом порядке + финальное перемешивание
+    static long pairKey(String personId1, String personId2) {
+        String first = personId1 != null ? personId1 : "";
+        String second = personId2 != null ? personId2 : "";
+        if (first.compareTo(second) > 0) {
+            String tmp = first;
+            first = second;
+            second = tmp;
+        }
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, first);
+        hash = (hash ^ 0xFFFF) * 0x100000001b3L;
+        hash = fnv(hash, second);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Кольцо счётчиков: ячейка bucket % length хранит контакты корзины bucket, head - последняя учтённая корзина
+    static final class PairWindow {
+
+        private final int[] counts;
+        private long head;
+        private int total;
+
+        PairWindow(int buckets, long head) {
+            this.counts = new int[buckets];
+            this.head = head;
+        }
+
+        void add(long nowBucket, long eventBucket, int delta) {
+            advance(Math.max(nowBucket, eventBucket));
+            if (eventBucket <= head - counts.length) {
+                return;
+            }
+            int slot = slot(eventBucket);
+            int applied = Math.max(delta, -counts[slot]);
+            counts[slot] += applied;
+            total += applied;
+        }
+
+        int total(long nowBucket) {
+            advance(nowBucket);
+            return total;
+        }
+
+        private void advance(long bucket) {
+            if (bucket <= head) {
+                return;
+            }
+            if (bucket - head >= counts.length) {
+                Arrays.fill(counts, 0);
+                total = 0;
+            } else {
+                for (long b = head + 1; b <= bucket; b++) {
+                    int slot = slot(b);
+                    total -= counts[slot];
+                    counts[slot] = 0;
+                }
+            }
+            head = bucket;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) counts.length);
+        }
+    }
+
+    // Открытая адресация с линейным пробированием по примитивным long-ключам (guarded by this)
+    private static final class Stripe {
+
+        private long[] keys = new long[16];
+        private PairWindow[] values = new PairWindow[16];
+        private int size;
+
+        PairWindow get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        PairWindow put(long key, PairWindow value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            insert(key, value);
+            size++;
+            return value;
+        }
+
+        void retainActive(long nowBucket) {
+            long[] oldKeys = keys;
+            PairWindow[] oldValues = values;
+            int live = 0;
+            for (PairWindow value : oldValues) {
+                if (value != null && value.total(nowBucket) > 0) {
+                    live++;
+                }
+            }
+            int capacity = 16;
+            while (live * 4 > capacity * 3) {
+                capacity *= 2;
+            }
+            keys = new long[capacity];
+            values = new PairWindow[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null && oldValues[i].total(nowBucket) > 0) {
+                    insert(oldKeys[i], oldValues[i]);
+                    size++;
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            PairWindow[] oldValues = values;
+            keys = new long[capacity];
+            values = new PairWindow[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private void insert(long key, PairWindow value) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private static int mix(long key) {
+            return (int) (key ^ (key >>> 32));
+        }
+    }
+}
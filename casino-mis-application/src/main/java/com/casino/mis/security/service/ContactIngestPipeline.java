@@ -0,0 +1,345 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.ContactEvent;
+import com.casino.mis.security.dto.ContactBatchResponse;
+import com.casino.mis.security.dto.ContactBatchResult;
+import com.casino.mis.security.dto.ContactEventRequest;
+import com.casino.mis.security.dto.ContactIngestStats;
+import com.casino.mis.security.repository.ContactEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * UC4, UC5: Приём потока событий контактов от видеоаналитики и считывателей пропусков.
+ * События раскладываются по очередям воркеров по паре лиц, поэтому начало и окончание одного контакта
+ * обрабатываются по порядку одним воркером. Воркер пишет пачку одной транзакцией: новые контакты -
+ * пакетной вставкой, окончание уже сохранённого ACTIVE-контакта - обновлением строки, начало и окончание
+ * в одной пачке - одной вставкой ENDED. Подозрительная активность, сверка с базой мошенников
+ * и уведомления (UC3, UC6, UC7) выполняются после коммита на отдельном пуле и не задерживают приём.
+ */
+@Component
+public class ContactIngestPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactIngestPipeline.class);
+
+    private final ContactEventRepository repository;
+    private final ContactMonitoringService monitoringService;
+    private final ContactFrequencyWindow frequencyWindow;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final List<BlockingQueue<ContactEventRequest>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ThreadPoolExecutor sideEffects;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder inserted = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder suspicious = new LongAdder();
+
+    private volatile boolean running;
+
+    public ContactIngestPipeline(ContactEventRepository repository,
+                                 ContactMonitoringService monitoringService,
+                                 ContactFrequencyWindow frequencyWindow,
+                                 Validator validator,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${security.contact.ingest.queue-capacity:50000}") int capacity,
+                                 @Value("${security.contact.ingest.workers:4}") int workers,
+                                 @Value("${security.contact.ingest.batch-size:500}") int batchSize,
+                                 @Value("${security.contact.ingest.side-effect-threads:2}") int sideEffectThreads,
+                                 @Value("${security.contact.ingest.side-effect-queue-capacity:10000}") int sideEffectCapacity) {
+        this.repository = repository;
+        this.monitoringService = monitoringService;
+        this.frequencyWindow = frequencyWindow;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        int workerCount = Math.max(1, workers);
+        int perWorker = Math.max(1, capacity / workerCount);
+        this.capacity = perWorker * workerCount;
+        this.batchSize = Math.max(1, batchSize);
+        for (int i = 0; i < workerCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(perWorker));
+        }
+        int threads = Math.max(1, sideEffectThreads);
+        AtomicInteger counter = new AtomicInteger();
+        // Переполнение стадии побочных эффектов тормозит воркеров, а через их очереди - приём (THROTTLED)
+        this.sideEffects = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, sideEffectCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "contact-side-effects-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < queues.size(); i++) {
+            int worker = i;
+            Thread thread = new Thread(() -> workLoop(worker), "contact-ingest-" + (i + 1));
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    // Воркеры дописывают уже принятое, затем дожидаемся побочных эффектов
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        sideEffects.shutdown();
+        sideEffects.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // Ответ сразу после постановки в очереди; запись и проверки идут в фоне
+    public ContactBatchResponse ingest(List<ContactEventRequest> requests) {
+        List<ContactBatchResult> results = new ArrayList<>();
+        int accepted = 0;
+        int rejected = 0;
+        int throttled = 0;
+        for (int index = 0; index < requests.size(); index++) {
+            ContactEventRequest request = requests.get(index);
+            List<String> errors = validate(request);
+            if (!errors.isEmpty()) {
+                results.add(new ContactBatchResult(index, ContactBatchResult.Status.REJECTED, errors));
+                rejected++;
+            } else if (offer(request)) {
+                accepted++;
+            } else {
+                results.add(new ContactBatchResult(index, ContactBatchResult.Status.THROTTLED, null));
+                throttled++;
+            }
+        }
+        return new ContactBatchResponse(accepted, rejected, throttled, results);
+    }
+
+    // false - очередь воркера заполнена, событие нужно отправить повторно
+    public boolean offer(ContactEventRequest request) {
+        if (!queues.get(workerOf(request)).offer(request)) {
+            throttled.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    public ContactIngestStats stats() {
+        int depth = 0;
+        for (BlockingQueue<ContactEventRequest> queue : queues) {
+            depth += queue.size();
+        }
+        return new ContactIngestStats(depth, capacity, accepted.sum(), throttled.sum(), inserted.sum(),
+                updated.sum(), coalesced.sum(), failed.sum(), suspicious.sum(), sideEffects.getQueue().size());
+    }
+
+    /**
+     * Одна пачка воркера: ждёт первое событие до waitMs и добирает до batchSize.
+     * Возвращает число обработанных событий.
+     */
+    int drain(int worker, long waitMs) throws InterruptedException {
+        BlockingQueue<ContactEventRequest> queue = queues.get(worker);
+        ContactEventRequest first = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<ContactEventRequest> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+        return batch.size();
+    }
+
+    private void workLoop(int worker) {
+        while (running || !queues.get(worker).isEmpty()) {
+            try {
+                drain(worker, 500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Contact ingest worker error", e);
+            }
+        }
+    }
+
+    private void write(List<ContactEventRequest> batch) {
+        Written written;
+        try {
+            written = transactionTemplate.execute(status -> writeBatch(batch));
+        } catch (RuntimeException e) {
+            // Пачка откатилась целиком: пишем по одному, чтобы отбросить только ошибочные события
+            log.warn("Contact batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeOne);
+            return;
+        }
+        completed(written);
+    }
+
+    private void writeOne(ContactEventRequest request) {
+        Written written;
+        try {
+            written = transactionTemplate.execute(status -> writeBatch(List.of(request)));
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Contact event {} - {} dropped: {}", request.getPersonId1(), request.getPersonId2(), e.getMessage());
+            return;
+        }
+        completed(written);
+    }
+
+    private Written writeBatch(List<ContactEventRequest> batch) {
+        Written written = new Written();
+        // Последнее состояние каждого контакта в пачке, ключ - пара лиц и время начала
+        Map<ContactKey, ContactEventRequest> latest = new LinkedHashMap<>();
+        for (ContactEventRequest request : batch) {
+            ContactKey key = ContactKey.of(request.getPersonId1(), request.getPersonId2(), request.getContactStartTime());
+            ContactEventRequest previous = latest.get(key);
+            if (previous == null) {
+                latest.put(key, request);
+                continue;
+            }
+            written.coalesced++;
+            if (previous.getContactEndTime() == null && request.getContactEndTime() != null) {
+                latest.put(key, request);
+            }
+        }
+
+        // Уже сохранённые контакты: незавершённый дополняется окончанием, повторы пропускаются
+        Map<ContactKey, ContactEvent> existing = new HashMap<>();
+        Set<String> personIds = new HashSet<>();
+        Set<OffsetDateTime> startTimes = new HashSet<>();
+        for (ContactEventRequest request : latest.values()) {
+            personIds.add(request.getPersonId1());
+            startTimes.add(request.getContactStartTime());
+        }
+        for (ContactEvent event : repository.findByStartTimesAndPersons(startTimes, personIds)) {
+            existing.put(ContactKey.of(event.getPersonId1(), event.getPersonId2(), event.getContactStartTime()), event);
+        }
+
+        List<Alert> alerts = written.alerts;
+        List<ContactEvent> toInsert = new ArrayList<>(latest.size());
+        for (Map.Entry<ContactKey, ContactEventRequest> entry : latest.entrySet()) {
+            ContactEventRequest request = entry.getValue();
+            ContactEvent stored = existing.get(entry.getKey());
+            if (stored == null) {
+                ContactEvent event = monitoringService.toEvent(request);
+                toInsert.add(event);
+                if (Boolean.TRUE.equals(event.getSuspicious())) {
+                    alerts.add(new Alert(event, monitoringService.longContactDescription(event)));
+                }
+            } else if (stored.getContactEndTime() == null && request.getContactEndTime() != null) {
+                // Управляемая сущность: UPDATE уйдёт пачкой при коммите
+                if (monitoringService.applyContactEnd(stored, request.getContactEndTime())) {
+                    alerts.add(new Alert(stored, monitoringService.longContactDescription(stored)));
+                }
+                written.updated++;
+            } else {
+                written.coalesced++;
+            }
+        }
+
+        // UC5: Частота по паре учитывается для каждого нового контакта
+        int maxFrequency = monitoringService.maxFrequencyThreshold();
+        for (ContactEvent event : toInsert) {
+            frequencyWindow.record(event.getPersonId1(), event.getPersonId2(), event.getContactStartTime());
+            int contactsInWindow = frequencyWindow.count(event.getPersonId1(), event.getPersonId2());
+            if (contactsInWindow >= maxFrequency) {
+                event.setSuspicious(true);
+                event.setStatus(ContactEvent.ContactStatus.SUSPICIOUS);
+                alerts.add(new Alert(event, monitoringService.frequentContactDescription(contactsInWindow)));
+            }
+        }
+
+        repository.saveAll(toInsert);
+        written.inserted = toInsert.size();
+        return written;
+    }
+
+    // После коммита пачки
+    private void completed(Written written) {
+        if (written == null) {
+            return;
+        }
+        inserted.add(written.inserted);
+        updated.add(written.updated);
+        coalesced.add(written.coalesced);
+        for (Alert alert : written.alerts) {
+            suspicious.increment();
+            sideEffects.execute(() -> monitoringService.createSuspiciousActivity(alert.getEvent(), alert.getDescription()));
+        }
+    }
+
+    private List<String> validate(ContactEventRequest request) {
+        if (request == null) {
+            return List.of("Malformed contact event");
+        }
+        Set<ConstraintViolation<ContactEventRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<ContactEventRequest> violation : violations) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Collections.sort(errors);
+        return errors;
+    }
+
+    private int workerOf(ContactEventRequest request) {
+        long key = ContactFrequencyWindow.pairKey(request.getPersonId1(), request.getPersonId2());
+        return (int) Math.floorMod(key, (long) queues.size());
+    }
+
+    // Итог пачки; счётчики применяются только после коммита
+    private static class Written {
+        private final List<Alert> alerts = new ArrayList<>();
+        private int inserted;
+        private int updated;
+        private int coalesced;
+    }
+
+    @Data
+    private static class Alert {
+        private final ContactEvent event;
+        private final String description;
+    }
+
+    // Пара лиц без учёта порядка и момент начала контакта
+    @Data
+    private static class ContactKey {
+        private final String first;
+        private final String second;
+        private final Instant start;
+
+        static ContactKey of(String personId1, String personId2, OffsetDateTime start) {
+            boolean swap = personId1 != null && personId2 != null && personId1.compareTo(personId2) > 0;
+            return new ContactKey(swap ? personId2 : personId1, swap ? personId1 : personId2,
+                    start != null ? start.toInstant() : null);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package com.casino.mis.security.service;
 
-import com.casino.mis.security.client.IncidentServiceClient;
+import com.casino.mis.security.client.SuspiciousActivityGateway;
 import com.casino.mis.security.domain.ContactEvent;
 import com.casino.mis.security.dto.ContactEventRequest;
 import com.casino.mis.security.repository.ContactEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
@@ -15,10 +21,14 @@ import java.util.*;
 @Service
 public class ContactMonitoringService {
 
+    private static final Logger log = LoggerFactory.getLogger(ContactMonitoringService.class);
+
     private final ContactEventRepository repository;
     private final FraudCheckService fraudCheckService;
     private final NotificationService notificationService;
-    private final IncidentServiceClient incidentServiceClient;
+    private final SuspiciousActivityGateway suspiciousActivityGateway;
+    private final ContactFrequencyWindow frequencyWindow;
+    private final TransactionTemplate requiresNew;
     // Using SecureRandom for better security in mock data generation
     private final java.security.SecureRandom random = new java.security.SecureRandom();
 
@@ -34,60 +44,90 @@ public class ContactMonitoringService {
     public ContactMonitoringService(ContactEventRepository repository,
                                    FraudCheckService fraudCheckService,
                                    NotificationService notificationService,
-                                   IncidentServiceClient incidentServiceClient) {
+                                   SuspiciousActivityGateway suspiciousActivityGateway,
+                                   ContactFrequencyWindow frequencyWindow,
+                                   PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.fraudCheckService = fraudCheckService;
         this.notificationService = notificationService;
-        this.incidentServiceClient = incidentServiceClient;
+        this.suspiciousActivityGateway = suspiciousActivityGateway;
+        this.frequencyWindow = frequencyWindow;
+        // Активность создаётся вне транзакции вызывающего: сбой шлюза не откатывает событие контакта
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     // UC4: Контроль длительности контактов (моки событий)
     @Transactional
     public ContactEvent registerContact(ContactEventRequest request) {
+        ContactEvent saved = repository.save(toEvent(request));
+
+        // UC4: Проверка на превышение лимита длительности
+        if (Boolean.TRUE.equals(saved.getSuspicious())) {
+            // UC3: Создаём подозрительную активность через Feign
+            createSuspiciousActivity(saved, longContactDescription(saved));
+        }
+
+        // UC5: Учёт в окне частоты (откатывается вместе с транзакцией)
+        frequencyWindow.record(saved.getPersonId1(), saved.getPersonId2(), saved.getContactStartTime());
+        return saved;
+    }
+
+    ContactEvent toEvent(ContactEventRequest request) {
         ContactEvent event = new ContactEvent();
         event.setPersonId1(request.getPersonId1());
         event.setPersonId2(request.getPersonId2());
         event.setContactStartTime(request.getContactStartTime() != null ? 
                 request.getContactStartTime() : OffsetDateTime.now());
-        event.setContactEndTime(request.getContactEndTime());
         event.setLocation(request.getLocation());
+        applyContactEnd(event, request.getContactEndTime());
+        return event;
+    }
 
-        // Рассчитываем длительность
-        if (event.getContactEndTime() != null) {
-            Duration duration = Duration.between(event.getContactStartTime(), event.getContactEndTime());
-            event.setDurationSeconds(duration.getSeconds());
-            event.setStatus(ContactEvent.ContactStatus.ENDED);
-
-            // UC4: Проверка на превышение лимита длительности
-            if (duration.toMinutes() > maxContactDurationMinutes) {
-                event.setSuspicious(true);
-                event.setStatus(ContactEvent.ContactStatus.SUSPICIOUS);
-                
-                // UC3: Создаём подозрительную активность через Feign
-                createSuspiciousActivity(event, "Длительный контакт: " + duration.toMinutes() + " минут");
-            }
-        } else {
+    // UC4: Длительность и статус по времени окончания; true - превышен лимит длительности
+    boolean applyContactEnd(ContactEvent event, OffsetDateTime contactEndTime) {
+        event.setContactEndTime(contactEndTime);
+        if (contactEndTime == null) {
             event.setStatus(ContactEvent.ContactStatus.ACTIVE);
+            return false;
+        }
+        // Рассчитываем длительность
+        Duration duration = Duration.between(event.getContactStartTime(), contactEndTime);
+        event.setDurationSeconds(duration.getSeconds());
+        // Контакт, уже помеченный по частоте (UC5), остаётся подозрительным
+        event.setStatus(Boolean.TRUE.equals(event.getSuspicious())
+                ? ContactEvent.ContactStatus.SUSPICIOUS : ContactEvent.ContactStatus.ENDED);
+        if (duration.toMinutes() > maxContactDurationMinutes) {
+            event.setSuspicious(true);
+            event.setStatus(ContactEvent.ContactStatus.SUSPICIOUS);
+            return true;
         }
+        return false;
+    }
+
+    String longContactDescription(ContactEvent event) {
+        return "Длительный контакт: " + event.getDurationSeconds() / 60 + " минут";
+    }
+
+    String frequentContactDescription(long contactsInWindow) {
+        return "Частые взаимодействия: " + contactsInWindow + " контактов за " + timeWindowMinutes + " минут";
+    }
 
-        return repository.save(event);
+    int maxFrequencyThreshold() {
+        return maxFrequencyThreshold;
     }
 
     // UC5: Контроль частоты взаимодействий
     @Transactional
     public void checkInteractionFrequency(String personId1, String personId2) {
-        OffsetDateTime windowStart = OffsetDateTime.now().minusMinutes(timeWindowMinutes);
-        List<ContactEvent> recentContacts = repository.findContactsBetweenPersons(personId1, personId2);
-
-        // Фильтруем по временному окну
-        long contactsInWindow = recentContacts.stream()
-                .filter(ce -> ce.getContactStartTime().isAfter(windowStart))
-                .count();
+        // Число контактов пары за окно - из памяти, без чтения истории пары
+        long contactsInWindow = frequencyWindow.count(personId1, personId2);
 
         // UC5: Если частота превышает лимит
         if (contactsInWindow >= maxFrequencyThreshold) {
-            ContactEvent latestContact = recentContacts.stream()
-                    .max(Comparator.comparing(ContactEvent::getContactStartTime))
+            ContactEvent latestContact = repository.findContactsBetweenPersons(personId1, personId2, PageRequest.of(0, 1))
+                    .stream()
+                    .findFirst()
                     .orElse(null);
 
             if (latestContact != null) {
@@ -96,8 +136,7 @@ public class ContactMonitoringService {
                 repository.save(latestContact);
 
                 // UC3: Создаём подозрительную активность
-                createSuspiciousActivity(latestContact, 
-                    "Частые взаимодействия: " + contactsInWindow + " контактов за " + timeWindowMinutes + " минут");
+                createSuspiciousActivity(latestContact, frequentContactDescription(contactsInWindow));
             }
         }
     }
@@ -125,37 +164,61 @@ public class ContactMonitoringService {
         return events;
     }
 
-    private void createSuspiciousActivity(ContactEvent contactEvent, String description) {
+    // Вызывается и из асинхронной стадии ContactIngestPipeline с отсоединённым снимком события;
+    // ошибки не пробрасываются. Из транзакции вызывающего выполняется после её коммита: строка контакта
+    // уже видна и не заблокирована вызывающим. Строка блокируется, поэтому два сигнала по одному контакту
+    // создают одну активность, а ссылка на неё пишется точечным UPDATE без слияния снимка
+    void createSuspiciousActivity(ContactEvent contactEvent, String description) {
+        AfterCommit.run(() -> raiseSuspiciousActivity(contactEvent, description));
+    }
+
+    private void raiseSuspiciousActivity(ContactEvent contactEvent, String description) {
         try {
-            Map<String, Object> activityRequest = new HashMap<>();
-            activityRequest.put("shortDescription", description);
-            activityRequest.put("location", contactEvent.getLocation());
-            activityRequest.put("participants", Arrays.asList(contactEvent.getPersonId1(), contactEvent.getPersonId2()));
-            activityRequest.put("risk", "HIGH");
-
-            Map<String, Object> created = incidentServiceClient.createSuspiciousActivity(activityRequest);
-            UUID activityId = UUID.fromString((String) created.get("id"));
+            UUID activityId = requiresNew.execute(status -> linkNewActivity(contactEvent, description));
+            if (activityId == null) {
+                return;
+            }
             contactEvent.setSuspiciousActivityId(activityId);
-            repository.save(contactEvent);
-
-            // UC6: Сверка с базой мошенников
-            fraudCheckService.checkPerson(contactEvent.getPersonId1(), activityId);
-            fraudCheckService.checkPerson(contactEvent.getPersonId2(), activityId);
-
-            // UC7: Отправка уведомления
-            notificationService.createNotification(
-                    UUID.randomUUID(), // В реальности - ID сотрудника службы безопасности
-                    com.casino.mis.security.domain.Notification.NotificationType.SUSPICIOUS_ACTIVITY,
-                    "Обнаружена подозрительная активность",
-                    description + " в " + contactEvent.getLocation(),
-                    com.casino.mis.security.domain.Notification.NotificationPriority.HIGH,
-                    "SUSPICIOUS_ACTIVITY",
-                    activityId
-            );
+
+            requiresNew.executeWithoutResult(status -> {
+                // UC6: Сверка с базой мошенников
+                fraudCheckService.checkPerson(contactEvent.getPersonId1(), activityId);
+                fraudCheckService.checkPerson(contactEvent.getPersonId2(), activityId);
+
+                // UC7: Отправка уведомления
+                notificationService.createNotification(
+                        UUID.randomUUID(), // В реальности - ID сотрудника службы безопасности
+                        com.casino.mis.security.domain.Notification.NotificationType.SUSPICIOUS_ACTIVITY,
+                        "Обнаружена подозрительная активность",
+                        description + " в " + contactEvent.getLocation(),
+                        com.casino.mis.security.domain.Notification.NotificationPriority.HIGH,
+                        "SUSPICIOUS_ACTIVITY",
+                        activityId
+                );
+            });
         } catch (Exception e) {
             // Логируем ошибку, но не прерываем процесс
-            System.err.println("Error creating suspicious activity: " + e.getMessage());
+            log.warn("Error creating suspicious activity for contact {}: {}", contactEvent.getId(), e.getMessage());
+        }
+    }
+
+    // null - контакт не найден или активность по нему уже создана
+    private UUID linkNewActivity(ContactEvent contactEvent, String description) {
+        if (contactEvent.getId() == null) {
+            return null;
+        }
+        ContactEvent current = repository.lockById(contactEvent.getId()).orElse(null);
+        if (current == null || current.getSuspiciousActivityId() != null) {
+            return null;
+        }
+        UUID activityId = suspiciousActivityGateway.createSuspiciousActivity(description,
+                contactEvent.getLocation(),
+                Arrays.asList(contactEvent.getPersonId1(), contactEvent.getPersonId2()),
+                "HIGH");
+        if (repository.linkSuspiciousActivity(contactEvent.getId(), activityId) == 0) {
+            return null;
         }
+        return activityId;
     }
 
     public long countSuspiciousContacts() {
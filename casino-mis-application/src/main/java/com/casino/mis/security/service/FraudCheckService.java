@@ -1,31 +1,39 @@
 package com.casino.mis.security.service;
 
 import com.casino.mis.security.domain.FraudCheckResult;
-import com.casino.mis.security.domain.FraudDatabase;
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.FraudBatchCheckResponse;
 import com.casino.mis.security.dto.FraudCheckRequest;
 import com.casino.mis.security.dto.FraudCheckResponse;
 import com.casino.mis.security.repository.FraudCheckResultRepository;
-import com.casino.mis.security.repository.FraudDatabaseRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 @Service
 public class FraudCheckService {
 
-    private final FraudDatabaseRepository fraudRepository;
+    // Имя начинается с буквы любого алфавита; идентификаторы вида "12345" ищутся только точно
+    private static final Pattern NAME_PATTERN = Pattern.compile("\\p{L}.*");
+
     private final FraudCheckResultRepository checkResultRepository;
     private final NotificationService notificationService;
+    private final FraudMatchIndex matchIndex;
+    private final FraudMatchCounters matchCounters;
 
-    public FraudCheckService(FraudDatabaseRepository fraudRepository,
-                            FraudCheckResultRepository checkResultRepository,
-                            NotificationService notificationService) {
-        this.fraudRepository = fraudRepository;
+    public FraudCheckService(FraudCheckResultRepository checkResultRepository,
+                            NotificationService notificationService,
+                            FraudMatchIndex matchIndex,
+                            FraudMatchCounters matchCounters) {
         this.checkResultRepository = checkResultRepository;
         this.notificationService = notificationService;
+        this.matchIndex = matchIndex;
+        this.matchCounters = matchCounters;
     }
 
     // UC6: Сверка с базой мошенников
@@ -39,78 +47,141 @@ public class FraudCheckService {
 
     @Transactional
     public FraudCheckResponse performCheck(FraudCheckRequest request) {
-        FraudCheckResponse response = new FraudCheckResponse();
-        List<FraudCheckResponse.MatchResult> matches = new ArrayList<>();
-
-        // Поиск по personId
-        Optional<FraudDatabase> exactMatch = fraudRepository.findByPersonId(request.getPersonId());
-        if (exactMatch.isPresent() && exactMatch.get().getStatus() == FraudDatabase.FraudStatus.ACTIVE) {
-            FraudCheckResult checkResult = createCheckResult(exactMatch.get(), request, 100.0, FraudCheckResult.MatchConfidence.VERY_HIGH);
-            matches.add(toMatchResult(checkResult));
-        }
+        List<FraudCheckResponse.MatchResult> matches = screen(List.of(request)).get(0);
+        return new FraudCheckResponse(!matches.isEmpty(), matches);
+    }
 
-        // Поиск по имени (если есть)
-        if (request.getPersonId().matches("[A-Za-z]+.*")) {
-            List<FraudDatabase> nameMatches = fraudRepository.search(request.getPersonId());
-            for (FraudDatabase fraud : nameMatches) {
-                if (fraud.getStatus() == FraudDatabase.FraudStatus.ACTIVE) {
-                    double similarity = calculateNameSimilarity(request.getPersonId(), fraud.getFullName());
-                    if (similarity > 70.0) {
-                        FraudCheckResult checkResult = createCheckResult(fraud, request, similarity, 
-                                similarity > 90 ? FraudCheckResult.MatchConfidence.HIGH : 
-                                similarity > 80 ? FraudCheckResult.MatchConfidence.MEDIUM : 
-                                FraudCheckResult.MatchConfidence.LOW);
-                        matches.add(toMatchResult(checkResult));
-                    }
-                }
+    // UC6: Пакетная сверка (турникеты, система лояльности).
+    // Результаты и уведомления сохраняются пакетно, уведомление - одно на запись базы
+    @Transactional
+    public FraudBatchCheckResponse performBatchCheck(List<FraudCheckRequest> requests) {
+        List<List<FraudCheckResponse.MatchResult>> matches = screen(requests);
+        List<FraudBatchCheckResponse.PersonResult> results = new ArrayList<>(requests.size());
+        int matched = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            List<FraudCheckResponse.MatchResult> personMatches = matches.get(i);
+            if (!personMatches.isEmpty()) {
+                matched++;
             }
+            results.add(new FraudBatchCheckResponse.PersonResult(i, requests.get(i).getPersonId(),
+                    !personMatches.isEmpty(), personMatches));
         }
+        return new FraudBatchCheckResponse(requests.size(), matched, results);
+    }
 
-        response.setMatchFound(!matches.isEmpty());
-        response.setMatches(matches);
-
-        // UC7: Если найдено совпадение - отправляем уведомление
-        if (!matches.isEmpty()) {
-            for (FraudCheckResponse.MatchResult match : matches) {
-                notificationService.createNotification(
-                        UUID.randomUUID(), // ID сотрудника службы безопасности
-                        com.casino.mis.security.domain.Notification.NotificationType.FRAUD_MATCH,
-                        "Совпадение с базой мошенников",
-                        "Лицо " + request.getPersonId() + " найдено в базе мошенников: " + match.getFraudRecordName(),
-                        com.casino.mis.security.domain.Notification.NotificationPriority.CRITICAL,
-                        "FRAUD_CHECK",
-                        match.getCheckResultId()
-                );
-
-                // Обновляем счётчик совпадений
-                FraudDatabase fraud = fraudRepository.findById(match.getFraudRecordId())
-                        .orElseThrow();
-                fraud.setMatchCount(fraud.getMatchCount() + 1);
-                fraud.setLastCheckedAt(OffsetDateTime.now());
-                fraudRepository.save(fraud);
+    // Совпадения для каждого запроса в том же порядке
+    private List<List<FraudCheckResponse.MatchResult>> screen(List<FraudCheckRequest> requests) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Hit> hits = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            FraudCheckRequest request = requests.get(i);
+            for (FraudMatchIndex.Match match : findMatches(request.getPersonId())) {
+                hits.add(new Hit(i, match, createCheckResult(match, request, now)));
             }
         }
 
-        return response;
+        List<List<FraudCheckResponse.MatchResult>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new ArrayList<>());
+        }
+        if (hits.isEmpty()) {
+            return results;
+        }
+
+        List<FraudCheckResult> checkResults = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            checkResults.add(hit.getCheckResult());
+        }
+        checkResultRepository.saveAll(checkResults);
+
+        // Совпадения по каждой записи базы: число и проверенные лица, в порядке первого появления
+        Map<UUID, List<Hit>> hitsByRecord = new LinkedHashMap<>();
+        for (Hit hit : hits) {
+            results.get(hit.getIndex()).add(toMatchResult(hit.getCheckResult(), hit.getMatch()));
+            hitsByRecord.computeIfAbsent(hit.getMatch().getId(), id -> new ArrayList<>()).add(hit);
+        }
+
+        // UC7: Одно уведомление на запись базы мошенников за пакет
+        List<Notification> notifications = new ArrayList<>(hitsByRecord.size());
+        for (List<Hit> recordHits : hitsByRecord.values()) {
+            notifications.add(createNotification(requests, recordHits));
+        }
+        notificationService.createNotifications(notifications);
+
+        // Обновляем счётчики совпадений после коммита: в памяти, в БД - периодическим пакетом
+        Map<UUID, Integer> deltas = new HashMap<>();
+        hitsByRecord.forEach((id, recordHits) -> deltas.put(id, recordHits.size()));
+        AfterCommit.run(() -> deltas.forEach(matchCounters::increment));
+
+        return results;
     }
 
-    private FraudCheckResult createCheckResult(FraudDatabase fraud, FraudCheckRequest request, 
-                                              Double similarity, FraudCheckResult.MatchConfidence confidence) {
+    private List<FraudMatchIndex.Match> findMatches(String personId) {
+        List<FraudMatchIndex.Match> matches = new ArrayList<>();
+        Set<UUID> matchedIds = new HashSet<>();
+
+        // Поиск по personId (в индексе только активные записи)
+        matchIndex.findByPersonId(personId).ifPresent(match -> {
+            matches.add(match);
+            matchedIds.add(match.getId());
+        });
+
+        // Нечёткий поиск по имени (латиница или кириллица)
+        if (NAME_PATTERN.matcher(personId).matches()) {
+            for (FraudMatchIndex.Match match : matchIndex.search(personId, 70.0)) {
+                if (matchedIds.add(match.getId())) {
+                    matches.add(match);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private FraudCheckResult createCheckResult(FraudMatchIndex.Match fraud, FraudCheckRequest request,
+                                              OffsetDateTime now) {
         FraudCheckResult result = new FraudCheckResult();
         result.setFraudRecordId(fraud.getId());
         result.setCheckedPersonId(request.getPersonId());
-        result.setCheckedAt(OffsetDateTime.now());
-        result.setSimilarityScore(similarity);
-        result.setConfidence(confidence);
+        result.setCheckedAt(now);
+        result.setSimilarityScore(fraud.getScore());
+        result.setConfidence(confidence(fraud, request));
         result.setMatchDetails("Совпадение: " + fraud.getFraudType() + " - " + fraud.getDescription());
         result.setTriggeredByActivityId(request.getTriggeredByActivityId());
         result.setStatus(FraudCheckResult.CheckStatus.MATCH_FOUND);
-        return checkResultRepository.save(result);
+        return result;
+    }
+
+    private static FraudCheckResult.MatchConfidence confidence(FraudMatchIndex.Match fraud, FraudCheckRequest request) {
+        if (request.getPersonId().equals(fraud.getPersonId())) {
+            return FraudCheckResult.MatchConfidence.VERY_HIGH;
+        }
+        double similarity = fraud.getScore();
+        return similarity > 90 ? FraudCheckResult.MatchConfidence.HIGH :
+                similarity > 80 ? FraudCheckResult.MatchConfidence.MEDIUM :
+                FraudCheckResult.MatchConfidence.LOW;
     }
 
-    private FraudCheckResponse.MatchResult toMatchResult(FraudCheckResult checkResult) {
-        FraudDatabase fraud = fraudRepository.findById(checkResult.getFraudRecordId())
-                .orElseThrow();
+    private Notification createNotification(List<FraudCheckRequest> requests, List<Hit> recordHits) {
+        Set<String> persons = new LinkedHashSet<>();
+        for (Hit hit : recordHits) {
+            persons.add(requests.get(hit.getIndex()).getPersonId());
+        }
+        Hit first = recordHits.get(0);
+
+        Notification notification = new Notification();
+        notification.setRecipientId(UUID.randomUUID()); // ID сотрудника службы безопасности
+        notification.setType(Notification.NotificationType.FRAUD_MATCH);
+        notification.setTitle("Совпадение с базой мошенников");
+        notification.setMessage(persons.size() == 1
+                ? "Лицо " + persons.iterator().next() + " найдено в базе мошенников: " + first.getMatch().getFullName()
+                : "Лица " + String.join(", ", persons) + " найдены в базе мошенников: " + first.getMatch().getFullName());
+        notification.setPriority(Notification.NotificationPriority.CRITICAL);
+        notification.setRelatedEntityType("FRAUD_CHECK");
+        notification.setRelatedEntityId(first.getCheckResult().getId());
+        return notification;
+    }
+
+    private FraudCheckResponse.MatchResult toMatchResult(FraudCheckResult checkResult, FraudMatchIndex.Match fraud) {
         return new FraudCheckResponse.MatchResult(
                 checkResult.getId(),
                 checkResult.getFraudRecordId(),
@@ -122,27 +193,11 @@ public class FraudCheckService {
         );
     }
 
-    private double calculateNameSimilarity(String name1, String name2) {
-        // Простой алгоритм схожести имён (Levenshtein distance упрощённо)
-        if (name1 == null || name2 == null) return 0.0;
-        String s1 = name1.toLowerCase();
-        String s2 = name2.toLowerCase();
-        if (s1.equals(s2)) return 100.0;
-        if (s1.contains(s2) || s2.contains(s1)) return 85.0;
-        
-        // Простая проверка на общие слова
-        String[] words1 = s1.split("\\s+");
-        String[] words2 = s2.split("\\s+");
-        int commonWords = 0;
-        for (String w1 : words1) {
-            for (String w2 : words2) {
-                if (w1.equals(w2) || w1.contains(w2) || w2.contains(w1)) {
-                    commonWords++;
-                }
-            }
-        }
-        return Math.min(100.0, (double) commonWords / Math.max(words1.length, words2.length) * 100);
+    @Data
+    @AllArgsConstructor
+    private static class Hit {
+        private int index;
+        private FraudMatchIndex.Match match;
+        private FraudCheckResult checkResult;
     }
 }
-
-
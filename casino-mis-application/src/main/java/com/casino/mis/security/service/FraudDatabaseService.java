@@ -13,9 +13,11 @@ import java.util.UUID;
 public class FraudDatabaseService {
 
     private final FraudDatabaseRepository repository;
+    private final FraudMatchIndex matchIndex;
 
-    public FraudDatabaseService(FraudDatabaseRepository repository) {
+    public FraudDatabaseService(FraudDatabaseRepository repository, FraudMatchIndex matchIndex) {
         this.repository = repository;
+        this.matchIndex = matchIndex;
     }
 
     @Transactional
@@ -28,7 +30,10 @@ public class FraudDatabaseService {
         fraudRecord.setFraudType(request.getFraudType());
         fraudRecord.setAddedBy(request.getAddedBy() != null ? request.getAddedBy() : UUID.randomUUID());
         fraudRecord.setStatus(FraudDatabase.FraudStatus.ACTIVE);
-        return repository.save(fraudRecord);
+        FraudDatabase saved = repository.save(fraudRecord);
+        // UC6: Индекс сверки обновляется после коммита
+        matchIndex.onSaved(saved);
+        return saved;
     }
 
     public FraudDatabase findById(UUID id) {
@@ -52,12 +57,15 @@ public class FraudDatabaseService {
     public FraudDatabase updateStatus(UUID id, FraudDatabase.FraudStatus status) {
         FraudDatabase fraudRecord = findById(id);
         fraudRecord.setStatus(status);
-        return repository.save(fraudRecord);
+        FraudDatabase saved = repository.save(fraudRecord);
+        matchIndex.onSaved(saved);
+        return saved;
     }
 
     @Transactional
     public void delete(UUID id) {
         repository.deleteById(id);
+        matchIndex.onDeleted(id);
     }
 }
 
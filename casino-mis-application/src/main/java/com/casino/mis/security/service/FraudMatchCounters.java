@@ -0,0 +1,111 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.repository.FraudDatabaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики совпадений с базой мошенников (UC6) без конкуренции за строку fraud_database.
+ * Проверки только увеличивают LongAdder записи; периодический сброс забирает счётчики из карты
+ * и переносит накопленное в БД одним пакетом UPDATE match_count = match_count + ?. Сброс не меняет
+ * version записи, поэтому не конфликтует с правками через FraudDatabaseService. Если пакет не прошёл,
+ * записи обновляются тем же UPDATE по одной; неудавшееся возвращается в счётчик.
+ */
+@Component
+public class FraudMatchCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudMatchCounters.class);
+
+    private final FraudDatabaseRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+
+    public FraudMatchCounters(FraudDatabaseRepository repository, TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void increment(UUID fraudRecordId, long delta) {
+        LongAdder adder = counters.computeIfAbsent(fraudRecordId, id -> new LongAdder());
+        adder.add(delta);
+        // Сброс успел забрать счётчик из карты: вклад, который он мог не увидеть, переносится в новый
+        if (counters.get(fraudRecordId) != adder) {
+            long moved = adder.sumThenReset();
+            if (moved != 0) {
+                increment(fraudRecordId, moved);
+            }
+        }
+    }
+
+    // Ещё не сброшенные в БД совпадения записи
+    public long pending(UUID fraudRecordId) {
+        LongAdder adder = counters.get(fraudRecordId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // Записи, по которым есть несброшенные совпадения
+    int tracked() {
+        return counters.size();
+    }
+
+    // last_checked_at получает время сброса: точность ограничена интервалом сброса
+    @Scheduled(fixedDelayString = "${security.fraud-counters.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            Map<UUID, Long> deltas = drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.addMatchCounts(deltas, now));
+            } catch (DataAccessException e) {
+                log.warn("Batched match count flush failed, falling back to per-record updates: {}", e.getMessage());
+                deltas.forEach((id, delta) -> flushOne(id, delta, now));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Счётчик сначала удаляется из карты, затем обнуляется: карта не растёт по всем когда-либо
+    // совпавшим записям. sumThenReset атомарен по ячейкам, поэтому каждое add учитывается ровно один раз -
+    // либо здесь, либо в increment, который заметил удаление
+    private Map<UUID, Long> drain() {
+        Map<UUID, Long> deltas = new HashMap<>();
+        counters.forEach((id, adder) -> {
+            if (counters.remove(id, adder)) {
+                long delta = adder.sumThenReset();
+                if (delta != 0) {
+                    deltas.merge(id, delta, Long::sum);
+                }
+            }
+        });
+        return deltas;
+    }
+
+    private void flushOne(UUID id, long delta, OffsetDateTime now) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.addMatchCounts(Map.of(id, delta), now));
+        } catch (DataAccessException e) {
+            // Не потеряется: будет сброшено в следующий раз
+            increment(id, delta);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.FraudDatabase;
+import com.casino.mis.security.repository.FraudDatabaseRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Индекс активных записей базы мошенников в памяти (UC6).
+ * Кандидаты отбираются по триграммам и фонетическим ключам слов, затем оцениваются
+ * Jaro-Winkler/Levenshtein (FraudNameMatcher). Изменения записей применяются после коммита транзакции.
+ * Изменения, сделанные через другие экземпляры приложения, сюда не приходят, поэтому индекс
+ * периодически перестраивается из БД (security.fraud-index.refresh-interval-ms).
+ */
+@Component
+public class FraudMatchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudMatchIndex.class);
+
+    // Триграммы, встречающиеся чаще, считаются стоп-граммами и не перебираются
+    static final int COMMON_POSTINGS_LIMIT = 4000;
+    // Оцениваются только лучшие по числу общих граммов кандидаты
+    static final int MAX_CANDIDATES = 200;
+    private static final int PHONETIC_WEIGHT = 3;
+
+    private final FraudDatabaseRepository repository;
+    private final EntityManager entityManager;
+    private final int topK;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<UUID, Integer> ordinalById = new HashMap<>();
+    private final Map<String, Integer> ordinalByPersonId = new HashMap<>();
+    private final Map<String, Postings> gramPostings = new HashMap<>();
+    private final Map<String, Postings> phoneticPostings = new HashMap<>();
+    private int removed;
+    // Локальные изменения, закоммиченные во время перестроения (guarded by lock); null вне перестроения
+    private Map<UUID, Optional<Entry>> replay;
+    private final Object rebuildLock = new Object();
+
+    public FraudMatchIndex(FraudDatabaseRepository repository,
+                           EntityManager entityManager,
+                           @Value("${security.fraud-index.top-k:10}") int topK) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.topK = Math.max(1, topK);
+    }
+
+    // Полная загрузка активных записей при старте и периодически. Записи читаются без блокировки поиска;
+    // под блокировкой только замена содержимого и повтор локальных изменений, пришедших во время чтения
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.fraud-index.refresh-interval-ms:60000}",
+               initialDelayString = "${security.fraud-index.refresh-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                replay = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<Entry> loaded = new ArrayList<>();
+            try (Stream<FraudDatabase> records = repository.streamByStatus(FraudDatabase.FraudStatus.ACTIVE)) {
+                records.forEach(record -> {
+                    loaded.add(Entry.of(record));
+                    entityManager.detach(record);
+                });
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    replay = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                clear();
+                loaded.forEach(this::insert);
+                replay.forEach((id, entry) -> apply(id, entry.orElse(null)));
+                replay = null;
+                log.info("Fraud match index built: {} active records", ordinalById.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Запись попадает в индекс, только если активна; архивная удаляется из него
+    public void onSaved(FraudDatabase record) {
+        Entry entry = record.getStatus() == FraudDatabase.FraudStatus.ACTIVE ? Entry.of(record) : null;
+        UUID id = record.getId();
+        AfterCommit.run(() -> applyLocal(id, entry));
+    }
+
+    public void onDeleted(UUID id) {
+        AfterCommit.run(() -> applyLocal(id, null));
+    }
+
+    private void applyLocal(UUID id, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.remove(id);
+                replay.put(id, Optional.ofNullable(entry));
+            }
+            apply(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Вызывается под write lock; entry == null - удаление
+    private void apply(UUID id, Entry entry) {
+        remove(id);
+        if (entry != null) {
+            insert(entry);
+        }
+    }
+
+    public Optional<Match> findByPersonId(String personId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalByPersonId.get(personId);
+            return ordinal != null ? Optional.of(entries.get(ordinal).toMatch(100.0)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Лучшие topK записей со схожестью имени строго выше minScore, по убыванию схожести
+    public List<Match> search(String name, double minScore) {
+        String normalized = FraudNameMatcher.normalize(name);
+        String[] queryTokens = FraudNameMatcher.tokens(normalized);
+        if (queryTokens.length == 0) {
+            return List.of();
+        }
+        String[] queryPhonetic = new String[queryTokens.length];
+        for (int i = 0; i < queryTokens.length; i++) {
+            queryPhonetic[i] = FraudNameMatcher.phoneticKey(queryTokens[i]);
+        }
+        String querySorted = FraudNameMatcher.sortedJoin(queryTokens);
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = new ArrayList<>();
+            for (int ordinal : candidates(normalized, queryPhonetic)) {
+                Entry entry = entries.get(ordinal);
+                double score = FraudNameMatcher.score(queryTokens, queryPhonetic, querySorted,
+                        entry.getTokens(), entry.getPhonetic(), entry.getSorted());
+                if (score > minScore) {
+                    matches.add(entry.toMatch(score));
+                }
+            }
+            matches.sort(Comparator.comparingDouble(Match::getScore).reversed());
+            return matches.size() > topK ? new ArrayList<>(matches.subList(0, topK)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Загрузка без транзакции и событий, для прогрева и тестов
+    void addAll(Collection<FraudDatabase> records) {
+        lock.writeLock().lock();
+        try {
+            records.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] candidates(String normalized, String[] queryPhonetic) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        List<Postings> common = new ArrayList<>();
+        boolean scanned = false;
+        for (String gram : FraudNameMatcher.trigrams(normalized)) {
+            Postings postings = gramPostings.get(gram);
+            if (postings == null) {
+                continue;
+            }
+            if (postings.size() > COMMON_POSTINGS_LIMIT) {
+                common.add(postings);
+                continue;
+            }
+            postings.forEach(ordinal -> hits.merge(ordinal, 1, Integer::sum));
+            scanned = true;
+        }
+        for (String key : queryPhonetic) {
+            Postings postings = phoneticPostings.get(key);
+            if (postings != null && postings.size() <= COMMON_POSTINGS_LIMIT) {
+                postings.forEach(ordinal -> hits.merge(ordinal, PHONETIC_WEIGHT, Integer::sum));
+                scanned = true;
+            }
+        }
+        if (!scanned && !common.isEmpty()) {
+            // Все граммы частые: берём самую редкую, чтобы не остаться без кандидатов
+            common.stream().min(Comparator.comparingInt(Postings::size))
+                    .ifPresent(postings -> postings.forEach(ordinal -> hits.merge(ordinal, 1, Integer::sum)));
+        }
+
+        PriorityQueue<Map.Entry<Integer, Integer>> best =
+                new PriorityQueue<>(MAX_CANDIDATES + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Integer, Integer> hit : hits.entrySet()) {
+            // Ordinal удалённой записи может остаться в списках до уплотнения
+            if (entries.get(hit.getKey()) == null) {
+                continue;
+            }
+            best.offer(hit);
+            if (best.size() > MAX_CANDIDATES) {
+                best.poll();
+            }
+        }
+        int[] result = new int[best.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> hit : best) {
+            result[i++] = hit.getKey();
+        }
+        return result;
+    }
+
+    private void add(FraudDatabase record) {
+        if (record.getStatus() == FraudDatabase.FraudStatus.ACTIVE) {
+            remove(record.getId());
+            insert(Entry.of(record));
+        }
+    }
+
+    private void insert(Entry entry) {
+        int ordinal = entries.size();
+        entries.add(entry);
+        ordinalById.put(entry.getId(), ordinal);
+        if (entry.getPersonId() != null) {
+            ordinalByPersonId.put(entry.getPersonId(), ordinal);
+        }
+        for (String gram : FraudNameMatcher.trigrams(entry.getNormalized())) {
+            gramPostings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+        for (String key : new HashSet<>(Arrays.asList(entry.getPhonetic()))) {
+            if (!key.isEmpty()) {
+                phoneticPostings.computeIfAbsent(key, k -> new Postings()).add(ordinal);
+            }
+        }
+    }
+
+    private void remove(UUID id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        Entry entry = entries.set(ordinal, null);
+        if (entry.getPersonId() != null) {
+            ordinalByPersonId.remove(entry.getPersonId(), ordinal);
+        }
+        removed++;
+        // Уплотнение, когда удалённых больше четверти: списки ordinal строятся заново
+        if (removed > 1024 && removed * 4 > entries.size()) {
+            List<Entry> live = new ArrayList<>(ordinalById.size());
+            for (Entry e : entries) {
+                if (e != null) {
+                    live.add(e);
+                }
+            }
+            clear();
+            live.forEach(this::insert);
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        ordinalById.clear();
+        ordinalByPersonId.clear();
+        gramPostings.clear();
+        phoneticPostings.clear();
+        removed = 0;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Match {
+        private UUID id;
+        private String personId;
+        private String fullName;
+        private FraudDatabase.FraudType fraudType;
+        private String description;
+        private double score;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Entry {
+        private UUID id;
+        private String personId;
+        private String fullName;
+        private FraudDatabase.FraudType fraudType;
+        private String description;
+        private String normalized;
+        private String[] tokens;
+        private String[] phonetic;
+        private String sorted;
+
+        static Entry of(FraudDatabase record) {
+            String normalized = FraudNameMatcher.normalize(record.getFullName());
+            String[] tokens = FraudNameMatcher.tokens(normalized);
+            String[] phonetic = new String[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                phonetic[i] = FraudNameMatcher.phoneticKey(tokens[i]);
+            }
+            return new Entry(record.getId(), record.getPersonId(), record.getFullName(), record.getFraudType(),
+                    record.getDescription(), normalized, tokens, phonetic, FraudNameMatcher.sortedJoin(tokens));
+        }
+
+        Match toMatch(double score) {
+            return new Match(id, personId, fullName, fraudType, description, score);
+        }
+    }
+
+    // Растущий массив ordinal без упаковки в Integer
+    private static class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(java.util.function.IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(ordinals[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.casino.mis.security.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Нормализация и сравнение имён для сверки с базой мошенников (UC6).
+ * Кириллица транслитерируется в латиницу, поэтому "Иван Петров" и "Ivan Petrov" дают одинаковые токены;
+ * фонетический ключ сглаживает различия транслитераций (Yuri / Iurii / Jurij).
+ */
+final class FraudNameMatcher {
+
+    private static final Map<Character, String> CYRILLIC = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ё', "e"), Map.entry('ж', "zh"),
+            Map.entry('з', "z"), Map.entry('и', "i"), Map.entry('й', "i"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"),
+            Map.entry('п', "p"), Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "kh"), Map.entry('ц', "ts"),
+            Map.entry('ч', "ch"), Map.entry('ш', "sh"), Map.entry('щ', "shch"), Map.entry('ъ', ""),
+            Map.entry('ы', "y"), Map.entry('ь', ""), Map.entry('э', "e"), Map.entry('ю', "yu"),
+            Map.entry('я', "ya"), Map.entry('і', "i"), Map.entry('ї', "i"), Map.entry('є', "ie"),
+            Map.entry('ґ', "g")
+    );
+
+    // Порядок важен: длинные сочетания заменяются раньше своих частей
+    private static final String[][] PHONETIC_RULES = {
+            {"shch", "s"}, {"sch", "s"}, {"sh", "s"}, {"ch", "c"}, {"zh", "z"}, {"kh", "h"},
+            {"ph", "f"}, {"ck", "k"}, {"ts", "c"}, {"tz", "c"}, {"ks", "x"}, {"w", "v"},
+            {"f", "v"}, {"q", "k"}, {"y", "i"}, {"j", "i"}
+    };
+
+    private FraudNameMatcher() {
+    }
+
+    // Нижний регистр, транслитерация, без диакритики; всё, кроме букв и цифр, - разделитель слов
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lower = value.toLowerCase();
+        StringBuilder transliterated = new StringBuilder(lower.length() + 8);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String latin = CYRILLIC.get(c);
+            transliterated.append(latin != null ? latin : String.valueOf(c));
+        }
+        String plain = Normalizer.normalize(transliterated, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(plain.length());
+        boolean space = true;
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                result.append(c);
+                space = false;
+            } else if (!space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        int length = result.length();
+        if (length > 0 && result.charAt(length - 1) == ' ') {
+            result.setLength(length - 1);
+        }
+        return result.toString();
+    }
+
+    static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    // Токены по алфавиту: порядок "фамилия имя" не влияет на сравнение строк целиком
+    static String sortedJoin(String[] tokens) {
+        String[] sorted = tokens.clone();
+        Arrays.sort(sorted);
+        return String.join(" ", sorted);
+    }
+
+    // Скелет согласных после сведения похожих звуков; первая буква сохраняется
+    static String phoneticKey(String token) {
+        String value = token;
+        for (String[] rule : PHONETIC_RULES) {
+            value = value.replace(rule[0], rule[1]);
+        }
+        if (value.isEmpty()) {
+            return value;
+        }
+        StringBuilder key = new StringBuilder(value.length());
+        key.append(value.charAt(0));
+        char previous = value.charAt(0);
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != previous && "aeiou".indexOf(c) < 0) {
+                key.append(c);
+            }
+            previous = c;
+        }
+        return key.toString();
+    }
+
+    // Триграммы с пробелами по краям слов: начала и окончания слов весят больше
+    static List<String> trigrams(String normalized) {
+        String padded = " " + normalized + " ";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String gram = padded.substring(i, i + 3);
+            if (!grams.contains(gram)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int lengthA = a.length();
+        int lengthB = b.length();
+        if (lengthA == 0 || lengthB == 0) {
+            return 0.0;
+        }
+        int window = Math.max(0, Math.max(lengthA, lengthB) / 2 - 1);
+        boolean[] matchedA = new boolean[lengthA];
+        boolean[] matchedB = new boolean[lengthB];
+        int matches = 0;
+        for (int i = 0; i < lengthA; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(lengthB - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < lengthA; i++) {
+            if (!matchedA[i]) {
+                continue;
+            }
+            while (!matchedB[j]) {
+                j++;
+            }
+            if (a.charAt(i) != b.charAt(j)) {
+                transpositions++;
+            }
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / lengthA + m / lengthB + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(lengthA, lengthB)) && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    static double levenshteinSimilarity(String a, String b) {
+        int length = Math.max(a.length(), b.length());
+        return length == 0 ? 1.0 : 1.0 - (double) levenshtein(a, b) / length;
+    }
+
+    /**
+     * Схожесть имён 0..100: максимум из
+     * - среднего по словам запроса лучшего Jaro-Winkler со словами записи (совпадение фонетических ключей = 0.9),
+     *   со штрафом 10% при разном числе слов;
+     * - Levenshtein по строкам целиком с упорядоченными словами.
+     */
+    static double score(String[] queryTokens, String[] queryPhonetic, String querySorted,
+                        String[] tokens, String[] phonetic, String sorted) {
+        if (queryTokens.length == 0 || tokens.length == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < queryTokens.length; i++) {
+            double best = 0.0;
+            for (int j = 0; j < tokens.length && best < 1.0; j++) {
+                double similarity = jaroWinkler(queryTokens[i], tokens[j]);
+                if (similarity < 0.9 && !queryPhonetic[i].isEmpty() && queryPhonetic[i].equals(phonetic[j])) {
+                    similarity = 0.9;
+                }
+                best = Math.max(best, similarity);
+            }
+            sum += best;
+        }
+        double tokenScore = sum / queryTokens.length;
+        if (queryTokens.length != tokens.length) {
+            tokenScore *= 0.9;
+        }
+        double wholeScore = levenshteinSimilarity(querySorted, sorted);
+        return Math.round(Math.max(tokenScore, wholeScore) * 1000.0) / 10.0;
+    }
+}
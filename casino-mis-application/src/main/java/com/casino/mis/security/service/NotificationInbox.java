@@ -0,0 +1,146 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UC7: Кэш входящих по получателю - множество id непрочитанных (SENT, DELIVERED) уведомлений.
+ * Загружается из БД при первом обращении, дальше обновляется после коммита рассылки и прочтения.
+ * Операции над множеством идемпотентны, поэтому изменение, уже попавшее в загруженный снимок,
+ * не учитывается дважды; изменения во время загрузки повторяются поверх снимка.
+ * Изменения с других экземпляров сюда не приходят, поэтому снимок живёт не дольше ttl-ms,
+ * а число получателей ограничено LRU. Кэш отвечает только на счётчик непрочитанных;
+ * списки входящих всегда читаются из БД.
+ */
+@Component
+public class NotificationInbox {
+
+    private final NotificationRepository repository;
+    private final long ttlNanos;
+    private final Map<UUID, Inbox> inboxes;
+
+    public NotificationInbox(NotificationRepository repository,
+                             @Value("${security.notifications.inbox.max-recipients:50000}") int maxRecipients,
+                             @Value("${security.notifications.inbox.ttl-ms:5000}") long ttlMs) {
+        this.repository = repository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+        int bound = Math.max(1, maxRecipients);
+        // Порядок доступа: при переполнении вытесняется давно не запрашиваемый получатель
+        this.inboxes = Collections.synchronizedMap(new LinkedHashMap<UUID, Inbox>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Inbox> eldest) {
+                return size() > bound;
+            }
+        });
+    }
+
+    public long unreadCount(UUID recipientId) {
+        return inbox(recipientId).size();
+    }
+
+    // Уведомления дошли до консоли (PENDING -> SENT)
+    public void onSent(Collection<Notification> notifications) {
+        for (Notification notification : notifications) {
+            Inbox inbox = inboxes.get(notification.getRecipientId());
+            if (inbox != null) {
+                inbox.apply(notification.getId(), true);
+            }
+        }
+    }
+
+    // Прочитано или не доставлено: больше не входит в непрочитанные
+    public void onRemoved(Collection<Notification> notifications) {
+        for (Notification notification : notifications) {
+            Inbox inbox = inboxes.get(notification.getRecipientId());
+            if (inbox != null) {
+                inbox.apply(notification.getId(), false);
+            }
+        }
+    }
+
+    // Состав неизвестен (массовое изменение): следующее обращение перечитает из БД
+    public void invalidate(UUID recipientId) {
+        inboxes.remove(recipientId);
+    }
+
+    public int size() {
+        return inboxes.size();
+    }
+
+    private Inbox inbox(UUID recipientId) {
+        Inbox inbox = inboxes.get(recipientId);
+        if (inbox != null && inbox.loaded && inbox.isExpired()) {
+            inboxes.remove(recipientId, inbox);
+            inbox = null;
+        }
+        if (inbox != null && inbox.loaded) {
+            return inbox;
+        }
+        if (inbox == null) {
+            // Запись появляется до чтения БД: изменения, закоммиченные после этого момента, не теряются
+            inbox = inboxes.computeIfAbsent(recipientId, id -> new Inbox());
+        }
+        inbox.load(recipientId);
+        return inbox;
+    }
+
+    private class Inbox {
+
+        private final Set<UUID> unread = ConcurrentHashMap.newKeySet();
+        private final Object loadLock = new Object();
+        private volatile boolean loaded;
+        private volatile long loadedAt;
+        // Изменения, пришедшие во время загрузки (guarded by this)
+        private Map<UUID, Boolean> replay;
+
+        int size() {
+            return unread.size();
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - loadedAt >= ttlNanos;
+        }
+
+        void load(UUID recipientId) {
+            synchronized (loadLock) {
+                if (loaded) {
+                    return;
+                }
+                synchronized (this) {
+                    replay = new LinkedHashMap<>();
+                }
+                List<UUID> ids = repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES);
+                synchronized (this) {
+                    unread.clear();
+                    unread.addAll(ids);
+                    replay.forEach(this::applyToSet);
+                    replay = null;
+                    loadedAt = System.nanoTime();
+                    loaded = true;
+                }
+            }
+        }
+
+        synchronized void apply(UUID notificationId, boolean add) {
+            if (replay != null) {
+                replay.remove(notificationId);
+                replay.put(notificationId, add);
+            }
+            applyToSet(notificationId, add);
+        }
+
+        private void applyToSet(UUID notificationId, boolean add) {
+            if (add) {
+                unread.add(notificationId);
+            } else {
+                unread.remove(notificationId);
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationPipelineStats;
+import com.casino.mis.security.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UC7: Асинхронная рассылка уведомлений.
+ * Транзакционный outbox - сама строка notifications в статусе PENDING, вставленная в транзакции вызывающего.
+ * После коммита уведомление попадает в ограниченную очередь с полосами приоритетов: CRITICAL уходит раньше LOW.
+ * Диспетчер забирает пачку и в одной транзакции захватывает её строки (FOR UPDATE SKIP LOCKED),
+ * отправляет push только захваченным и переводит их в SENT. Восстановление работает на каждом экземпляре,
+ * но одну строку отправляет только захвативший её; при падении до коммита строки остаются PENDING
+ * и будут отправлены повторно (не менее одного раза).
+ * Всё, что не попало в очередь (переполнение, падение процесса), остаётся PENDING и подбирается восстановлением.
+ */
+@Component
+public class NotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    // Полосы в порядке выборки
+    private static final Notification.NotificationPriority[] LANE_ORDER = {
+            Notification.NotificationPriority.CRITICAL,
+            Notification.NotificationPriority.HIGH,
+            Notification.NotificationPriority.NORMAL,
+            Notification.NotificationPriority.LOW
+    };
+
+    private final NotificationRepository repository;
+    private final NotificationPushGateway pushGateway;
+    private final NotificationInbox inbox;
+    private final TransactionTemplate requiresNew;
+    private final int capacity;
+    private final int batchSize;
+    private final long recoveryGraceMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<Notification.NotificationPriority, ArrayDeque<Queued>> lanes =
+            new EnumMap<>(Notification.NotificationPriority.class);
+    private int size;
+    // Уведомления в очереди или в обработке: восстановление не ставит их повторно
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder latencyTotalMs = new LongAdder();
+    private final LongAccumulator latencyMaxMs = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public NotificationPipeline(NotificationRepository repository,
+                                NotificationPushGateway pushGateway,
+                                NotificationInbox inbox,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${security.notifications.pipeline.capacity:10000}") int capacity,
+                                @Value("${security.notifications.pipeline.batch-size:200}") int batchSize,
+                                @Value("${security.notifications.pipeline.recovery-grace-ms:5000}") long recoveryGraceMs) {
+        this.repository = repository;
+        this.pushGateway = pushGateway;
+        this.inbox = inbox;
+        // SENT/FAILED всегда фиксируются собственной транзакцией и не присоединяются к транзакции
+        // вызывающего: в afterCommit она уже завершена, и запись с REQUIRED потерялась бы
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.recoveryGraceMs = recoveryGraceMs;
+        for (Notification.NotificationPriority priority : LANE_ORDER) {
+            lanes.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "notification-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Неотправленное остаётся PENDING в БД и будет восстановлено при следующем запуске
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Ставит сохранённое уведомление в очередь. При переполнении вытесняется самое новое уведомление
+     * низшей непустой полосы, если оно ниже по приоритету; иначе отклоняется входящее.
+     * Вытесненные и отклонённые не теряются: они остаются PENDING до восстановления.
+     */
+    public boolean offer(Notification notification) {
+        if (!inFlight.add(notification.getId())) {
+            return true;
+        }
+        Notification.NotificationPriority priority = priorityOf(notification);
+        lock.lock();
+        try {
+            if (size >= capacity && !evictBelow(priority)) {
+                inFlight.remove(notification.getId());
+                deferred.increment();
+                return false;
+            }
+            lanes.get(priority).addLast(new Queued(notification, System.nanoTime()));
+            size++;
+            enqueued.increment();
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void offerAll(Collection<Notification> notifications) {
+        notifications.forEach(this::offer);
+    }
+
+    // PENDING старше grace: не попали в очередь или процесс упал до отправки
+    @Scheduled(fixedDelayString = "${security.notifications.pipeline.recovery-interval-ms:30000}")
+    public void recoverPending() {
+        int free = capacity - depth();
+        if (free <= 0) {
+            return;
+        }
+        OffsetDateTime before = OffsetDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(recoveryGraceMs));
+        List<Notification> pending = repository.findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+                Notification.NotificationStatus.PENDING, before, PageRequest.of(0, free));
+        int count = 0;
+        for (Notification notification : pending) {
+            if (!inFlight.contains(notification.getId()) && offer(notification)) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            recovered.add(count);
+            log.info("Recovered {} pending notifications", count);
+        }
+    }
+
+    /**
+     * Одна пачка: ждёт первое уведомление до waitMs, затем добирает до batchSize по приоритетам.
+     * Возвращает число обработанных уведомлений.
+     */
+    int dispatchBatch(long waitMs) throws InterruptedException {
+        List<Queued> batch = takeBatch(waitMs);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Queued> byId = new LinkedHashMap<>(batch.size() * 2);
+        for (Queued queued : batch) {
+            byId.put(queued.getNotification().getId(), queued);
+        }
+        OffsetDateTime sentAt = OffsetDateTime.now();
+        List<Queued> pushed = new ArrayList<>(batch.size());
+        List<UUID> failedIds = new ArrayList<>();
+        try {
+            // Push внутри транзакции захвата: подтверждение доставки с консоли ждёт блокировку строки
+            // и не обгонит смену статуса, а упавший до коммита экземпляр оставит строки PENDING
+            requiresNew.executeWithoutResult(status -> {
+                List<UUID> claimed = repository.lockPending(byId.keySet());
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                for (UUID id : claimed) {
+                    Queued queued = byId.get(id);
+                    if (queued == null) {
+                        continue;
+                    }
+                    Notification notification = queued.getNotification();
+                    notification.setStatus(Notification.NotificationStatus.SENT);
+                    notification.setSentAt(sentAt);
+                    if (pushGateway.push(notification)) {
+                        pushed.add(queued);
+                    } else {
+                        failedIds.add(id);
+                    }
+                }
+                repository.markSent(claimed, sentAt);
+                if (!failedIds.isEmpty()) {
+                    repository.markFailed(failedIds);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Захваченные строки откатываются в PENDING и будут восстановлены
+            log.warn("Failed to dispatch {} notifications: {}", batch.size(), e.getMessage());
+            return batch.size();
+        } finally {
+            byId.keySet().forEach(inFlight::remove);
+        }
+
+        List<Notification> sent = new ArrayList<>(pushed.size());
+        long now = System.nanoTime();
+        for (Queued queued : pushed) {
+            sent.add(queued.getNotification());
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(now - queued.getEnqueuedAt());
+            latencyTotalMs.add(latencyMs);
+            latencyMaxMs.accumulate(latencyMs);
+            dispatched.increment();
+        }
+        inbox.onSent(sent);
+        if (!failedIds.isEmpty()) {
+            for (UUID id : failedIds) {
+                byId.get(id).getNotification().setStatus(Notification.NotificationStatus.FAILED);
+            }
+            failed.add(failedIds.size());
+        }
+        return batch.size();
+    }
+
+    public int depth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public NotificationPipelineStats stats() {
+        Map<Notification.NotificationPriority, Integer> depth = new EnumMap<>(Notification.NotificationPriority.class);
+        int total;
+        lock.lock();
+        try {
+            for (Notification.NotificationPriority priority : LANE_ORDER) {
+                depth.put(priority, lanes.get(priority).size());
+            }
+            total = size;
+        } finally {
+            lock.unlock();
+        }
+        long dispatchedCount = dispatched.sum();
+        double averageLatencyMs = dispatchedCount > 0 ? (double) latencyTotalMs.sum() / dispatchedCount : 0.0;
+        return new NotificationPipelineStats(total, capacity, depth, enqueued.sum(), dispatchedCount, failed.sum(),
+                deferred.sum(), recovered.sum(), averageLatencyMs, latencyMaxMs.get());
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                dispatchBatch(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Notification dispatcher error", e);
+            }
+        }
+    }
+
+    private List<Queued> takeBatch(long waitMs) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+            while (size == 0) {
+                if (nanos <= 0) {
+                    return List.of();
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            List<Queued> batch = new ArrayList<>(Math.min(size, batchSize));
+            for (Notification.NotificationPriority priority : LANE_ORDER) {
+                ArrayDeque<Queued> lane = lanes.get(priority);
+                while (!lane.isEmpty() && batch.size() < batchSize) {
+                    batch.add(lane.pollFirst());
+                }
+            }
+            size -= batch.size();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывается под lock
+    private boolean evictBelow(Notification.NotificationPriority priority) {
+        for (int i = LANE_ORDER.length - 1; i >= 0 && LANE_ORDER[i].ordinal() < priority.ordinal(); i--) {
+            ArrayDeque<Queued> lane = lanes.get(LANE_ORDER[i]);
+            if (!lane.isEmpty()) {
+                inFlight.remove(lane.pollLast().getNotification().getId());
+                size--;
+                deferred.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Notification.NotificationPriority priorityOf(Notification notification) {
+        return notification.getPriority() != null ? notification.getPriority() : Notification.NotificationPriority.NORMAL;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Queued {
+        private Notification notification;
+        private long enqueuedAt;
+    }
+}
@@ -0,0 +1,62 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * UC7: Отправка уведомлений подписчикам топика получателя через STOMP-брокер в памяти.
+ * Публикация не ждёт клиентов: доставка в сессии идёт через clientOutboundChannel.
+ */
+@Component
+public class NotificationPushGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPushGateway.class);
+
+    static final String TOPIC_PREFIX = "/topic/notifications/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public NotificationPushGateway(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    static String topic(UUID recipientId) {
+        return TOPIC_PREFIX + recipientId;
+    }
+
+    // false, если брокер не принял сообщение
+    public boolean push(Notification notification) {
+        try {
+            messagingTemplate.convertAndSend(topic(notification.getRecipientId()), toResponse(notification));
+            return true;
+        } catch (MessagingException e) {
+            log.warn("Failed to push notification {} to {}: {}",
+                    notification.getId(), notification.getRecipientId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private NotificationResponse toResponse(Notification notification) {
+        return new NotificationResponse(
+                notification.getId(),
+                notification.getRecipientId(),
+                notification.getType(),
+                notification.getTitle(),
+                notification.getMessage(),
+                notification.getPriority(),
+                notification.getStatus(),
+                notification.getCreatedAt(),
+                notification.getSentAt(),
+                notification.getReadAt(),
+                notification.getRelatedEntityType(),
+                notification.getRelatedEntityId()
+        );
+    }
+}
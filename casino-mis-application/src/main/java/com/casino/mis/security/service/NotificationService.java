@@ -1,21 +1,44 @@
 package com.casino.mis.security.service;
 
 import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationPipelineStats;
 import com.casino.mis.security.repository.NotificationRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class NotificationService {
 
-    private final NotificationRepository repository;
+    // Отправленные и доставленные на консоль, но ещё не прочитанные
+    static final List<Notification.NotificationStatus> UNREAD_STATUSES =
+            List.of(Notification.NotificationStatus.SENT, Notification.NotificationStatus.DELIVERED);
+    static final List<Notification.NotificationStatus> ALL_STATUSES = List.of(Notification.NotificationStatus.values());
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
-    public NotificationService(NotificationRepository repository) {
+    private final NotificationRepository repository;
+    private final NotificationPushGateway pushGateway;
+    private final NotificationPipeline pipeline;
+    private final NotificationInbox inbox;
+
+    public NotificationService(NotificationRepository repository,
+                               NotificationPushGateway pushGateway,
+                               NotificationPipeline pipeline,
+                               NotificationInbox inbox) {
         this.repository = repository;
+        this.pushGateway = pushGateway;
+        this.pipeline = pipeline;
+        this.inbox = inbox;
     }
 
     // UC7: Создание уведомления (сохранение в БД + push)
@@ -33,55 +56,103 @@ public class NotificationService {
         notification.setTitle(title);
         notification.setMessage(message);
         notification.setPriority(priority);
-        notification.setStatus(Notification.NotificationStatus.PENDING);
         notification.setRelatedEntityType(relatedEntityType);
         notification.setRelatedEntityId(relatedEntityId);
+        return createNotifications(List.of(notification)).get(0);
+    }
 
-        Notification saved = repository.save(notification);
-
-        // Отправка push уведомления (мок)
-        sendPushNotification(saved);
-
+    // UC7: В транзакции вызывающего - только вставка в outbox (PENDING) пакетом;
+    // отправка и смена статуса - в NotificationPipeline после коммита
+    @Transactional
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            notification.setStatus(Notification.NotificationStatus.PENDING);
+        }
+        List<Notification> saved = repository.saveAll(notifications);
+        AfterCommit.run(() -> pipeline.offerAll(saved));
         return saved;
     }
 
-    // Отправка push уведомления (мок реализации)
-    private void sendPushNotification(Notification notification) {
-        try {
-            // В реальной системе здесь был бы вызов push сервиса (FCM, APNS, WebSocket)
-            // Для MVP - просто помечаем как отправленное
-            notification.setStatus(Notification.NotificationStatus.SENT);
-            notification.setSentAt(OffsetDateTime.now());
-            repository.save(notification);
-
-            // Логирование (в реальности - отправка через WebSocket или внешний сервис)
-            System.out.println("Push notification sent: " + notification.getTitle() + " to " + notification.getRecipientId());
-        } catch (Exception e) {
-            notification.setStatus(Notification.NotificationStatus.FAILED);
-            repository.save(notification);
-            System.err.println("Failed to send push notification: " + e.getMessage());
-        }
+    public NotificationPipelineStats getPipelineStats() {
+        return pipeline.stats();
     }
 
     public List<Notification> findByRecipient(UUID recipientId) {
         return repository.findByRecipientId(recipientId);
     }
 
+    // Список всегда из БД: кэш входящих может не знать об уведомлениях, созданных на другом экземпляре
     public List<Notification> findUnread(UUID recipientId) {
-        return repository.findByRecipientIdAndStatus(recipientId, Notification.NotificationStatus.SENT);
+        return repository.findByRecipientIdAndStatusIn(recipientId, UNREAD_STATUSES);
+    }
+
+    // Keyset-пагинация: возвращает limit + 1 строк, лишняя строка означает наличие следующей страницы
+    @Transactional(readOnly = true)
+    public List<Notification> page(UUID recipientId, boolean unreadOnly, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Notification.NotificationStatus> statuses = unreadOnly ? UNREAD_STATUSES : ALL_STATUSES;
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        if (cursor == null || cursor.isBlank()) {
+            return repository.findInboxPage(recipientId, statuses, pageRequest);
+        }
+        Notification position = decodeCursor(cursor);
+        return repository.findInboxPageBefore(recipientId, statuses, position.getCreatedAt(), position.getId(), pageRequest);
+    }
+
+    public Optional<UUID> findRecipientId(UUID notificationId) {
+        return repository.findRecipientIdById(notificationId);
+    }
+
+    // Подтверждение доставки от консоли: SENT -> DELIVERED, прочитанные не откатываются
+    @Transactional
+    public boolean markDelivered(UUID notificationId) {
+        return repository.markDelivered(notificationId) > 0;
     }
 
+    // Прочтение рассылается в топик получателя, чтобы обновились его остальные консоли
     @Transactional
     public Notification markAsRead(UUID notificationId) {
         Notification notification = repository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found: " + notificationId));
         notification.setStatus(Notification.NotificationStatus.READ);
         notification.setReadAt(OffsetDateTime.now());
-        return repository.save(notification);
+        Notification saved = repository.save(notification);
+        AfterCommit.run(() -> {
+            inbox.onRemoved(List.of(saved));
+            pushGateway.push(saved);
+        });
+        return saved;
     }
 
+    // UC7: "Прочитать все" - один UPDATE; кэш входящих перечитается при следующем обращении
+    @Transactional
+    public int markAllAsRead(UUID recipientId) {
+        int updated = repository.markAllRead(recipientId, UNREAD_STATUSES, OffsetDateTime.now());
+        AfterCommit.run(() -> inbox.invalidate(recipientId));
+        return updated;
+    }
+
+    // Счётчик из кэша входящих; отстаёт от других экземпляров не больше чем на ttl-ms кэша
     public Long getUnreadCount(UUID recipientId) {
-        return repository.countByRecipientIdAndStatus(recipientId, Notification.NotificationStatus.SENT);
+        return inbox.unreadCount(recipientId);
+    }
+
+    public static String encodeCursor(Notification notification) {
+        String raw = notification.getCreatedAt().toString() + "|" + notification.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Notification decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            Notification position = new Notification();
+            position.setCreatedAt(OffsetDateTime.parse(raw.substring(0, separator)));
+            position.setId(UUID.fromString(raw.substring(separator + 1)));
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
     }
 }
 
@@ -0,0 +1,69 @@
+package com.casino.mis.security.service;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * UC7: Проверка STOMP-подписок. Подписаться можно только на топик конкретного получателя
+ * (/topic/notifications/{recipientId}) и только на свой: имя пользователя совпадает с recipientId.
+ * Начальник смены (ROLE_ADMIN) видит топики всех получателей. Шаблоны и прочие топики отклоняются,
+ * иначе подписка на /topic/** получала бы уведомления всех сотрудников. Те же правила проверяют
+ * подтверждения доставки и прочтения от консолей (NotificationPushController).
+ */
+@Component
+public class NotificationSubscriptionGuard implements ChannelInterceptor {
+
+    static final String SUPERVISOR_AUTHORITY = "ROLE_ADMIN";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+        checkAccess(accessor.getUser(), recipientOf(accessor.getDestination()));
+        return message;
+    }
+
+    // Доступ пользователя STOMP-сессии к уведомлениям получателя
+    public void checkAccess(Principal user, UUID recipientId) {
+        if (!canSubscribe(user, recipientId)) {
+            throw new AccessDeniedException("Access to notifications of " + recipientId + " is not allowed");
+        }
+    }
+
+    private static UUID recipientOf(String destination) {
+        if (destination == null || !destination.startsWith(NotificationPushGateway.TOPIC_PREFIX)) {
+            throw new AccessDeniedException("Unknown destination: " + destination);
+        }
+        try {
+            return UUID.fromString(destination.substring(NotificationPushGateway.TOPIC_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new AccessDeniedException("Invalid notification destination: " + destination);
+        }
+    }
+
+    private static boolean canSubscribe(Principal user, UUID recipientId) {
+        if (user == null) {
+            return false;
+        }
+        if (recipientId.toString().equalsIgnoreCase(user.getName())) {
+            return true;
+        }
+        return user instanceof Authentication authentication
+                && authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(SUPERVISOR_AUTHORITY::equals);
+    }
+}
@@ -0,0 +1,33 @@
+package com.casino.mis.staff.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "modules.security.mode", havingValue = "remote")
+public class FeignNotificationGateway implements NotificationGateway {
+
+    private final SecurityServiceClient client;
+
+    public FeignNotificationGateway(SecurityServiceClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void createNotification(UUID recipientId, String type, String title, String message, String priority,
+                                   String relatedEntityType, UUID relatedEntityId) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("recipientId", recipientId);
+        request.put("type", type);
+        request.put("title", title);
+        request.put("message", message);
+        request.put("priority", priority);
+        request.put("relatedEntityType", relatedEntityType);
+        request.put("relatedEntityId", relatedEntityId);
+        client.createNotification(request);
+    }
+}
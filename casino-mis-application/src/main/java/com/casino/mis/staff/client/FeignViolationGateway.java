@@ -0,0 +1,90 @@
+package com.casino.mis.staff.client;
+
+import com.casino.mis.incident.dto.ViolationCountRequest;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@ConditionalOnProperty(name = "modules.incident.mode", havingValue = "remote")
+public class FeignViolationGateway implements ViolationGateway {
+
+    private final IncidentServiceClient client;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public FeignViolationGateway(IncidentServiceClient client,
+                                 @Value("${modules.incident.remote.chunk-size:500}") int chunkSize,
+                                 @Value("${modules.incident.remote.parallelism:4}") int parallelism) {
+        this.client = client;
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "incident-gateway-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public List<ViolationResponse> getViolationsByEmployee(UUID employeeId) {
+        return client.getViolationsByEmployee(employeeId);
+    }
+
+    @Override
+    public ViolationPageResponse searchViolations(ViolationFilter filter, String cursor, int limit) {
+        return client.searchViolations(filter, cursor, limit);
+    }
+
+    @Override
+    public ViolationSummaryResponse summarizeViolations(ViolationFilter filter) {
+        return client.summarizeViolations(filter);
+    }
+
+    // Большой набор сотрудников режется на части, части запрашиваются параллельно
+    @Override
+    public List<ViolationCountResponse> countByEmployees(Collection<UUID> employeeIds, OffsetDateTime from, OffsetDateTime to) {
+        List<UUID> ids = new ArrayList<>(employeeIds);
+        if (ids.size() <= chunkSize) {
+            return ids.isEmpty() ? List.of() : client.countByEmployees(new ViolationCountRequest(ids, from, to));
+        }
+        List<CompletableFuture<List<ViolationCountResponse>>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<UUID> chunk = ids.subList(i, Math.min(ids.size(), i + chunkSize));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> client.countByEmployees(new ViolationCountRequest(chunk, from, to)), executor));
+        }
+        List<ViolationCountResponse> counts = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<ViolationCountResponse>> chunk : chunks) {
+                counts.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return counts;
+    }
+}
@@ -1,20 +1,37 @@
 package com.casino.mis.staff.client;
 
+import com.casino.mis.incident.dto.ViolationCountRequest;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 @FeignClient(name = "incident-service-staff", url = "${feign.client.incident.url:http://localhost:8080}")
 public interface IncidentServiceClient {
 
-    @GetMapping("/api/incident/violations")
-    List<Map<String, Object>> getViolations();
-
     @GetMapping("/api/incident/violations/employee/{employeeId}")
-    List<Map<String, Object>> getViolationsByEmployee(@PathVariable("employeeId") UUID employeeId);
+    List<ViolationResponse> getViolationsByEmployee(@PathVariable("employeeId") UUID employeeId);
+
+    // cursor = null не передаётся в запрос
+    @PostMapping("/api/incident/violations/search")
+    ViolationPageResponse searchViolations(@RequestBody ViolationFilter filter,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam("limit") int limit);
+
+    @PostMapping("/api/incident/violations/summary")
+    ViolationSummaryResponse summarizeViolations(@RequestBody ViolationFilter filter);
+
+    @PostMapping("/api/incident/violations/counts")
+    List<ViolationCountResponse> countByEmployees(@RequestBody ViolationCountRequest request);
 }
 
@@ -0,0 +1,35 @@
+package com.casino.mis.staff.client;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.service.NotificationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "modules.security.mode", havingValue = "local", matchIfMissing = true)
+public class LocalNotificationGateway implements NotificationGateway {
+
+    private final NotificationService service;
+    private final TransactionTemplate requiresNew;
+
+    public LocalNotificationGateway(NotificationService service, PlatformTransactionManager transactionManager) {
+        this.service = service;
+        // Как и при HTTP-вызове: своя транзакция, ошибка не помечает транзакцию вызывающего rollback-only
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void createNotification(UUID recipientId, String type, String title, String message, String priority,
+                                   String relatedEntityType, UUID relatedEntityId) {
+        Notification.NotificationType notificationType = Notification.NotificationType.valueOf(type);
+        Notification.NotificationPriority notificationPriority = Notification.NotificationPriority.valueOf(priority);
+        requiresNew.executeWithoutResult(status -> service.createNotification(recipientId, notificationType,
+                title, message, notificationPriority, relatedEntityType, relatedEntityId));
+    }
+}
@@ -0,0 +1,50 @@
+package com.casino.mis.staff.client;
+
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+import com.casino.mis.incident.mapper.ViolationMapper;
+import com.casino.mis.incident.service.ViolationService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "modules.incident.mode", havingValue = "local", matchIfMissing = true)
+public class LocalViolationGateway implements ViolationGateway {
+
+    private final ViolationService service;
+
+    public LocalViolationGateway(ViolationService service) {
+        this.service = service;
+    }
+
+    // attachmentUrls - ленивая коллекция, DTO собирается внутри транзакции
+    @Override
+    @Transactional(readOnly = true)
+    public List<ViolationResponse> getViolationsByEmployee(UUID employeeId) {
+        return ViolationMapper.toDtoList(service.findByEmployeeId(employeeId));
+    }
+
+    @Override
+    public ViolationPageResponse searchViolations(ViolationFilter filter, String cursor, int limit) {
+        return service.page(filter, cursor, limit);
+    }
+
+    @Override
+    public ViolationSummaryResponse summarizeViolations(ViolationFilter filter) {
+        return service.summarize(filter);
+    }
+
+    @Override
+    public List<ViolationCountResponse> countByEmployees(Collection<UUID> employeeIds, OffsetDateTime from, OffsetDateTime to) {
+        return service.countByEmployees(employeeIds, from, to);
+    }
+}
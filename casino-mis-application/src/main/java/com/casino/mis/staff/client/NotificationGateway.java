@@ -0,0 +1,15 @@
+package com.casino.mis.staff.client;
+
+import java.util.UUID;
+
+/**
+ * UC7: Отправка уведомлений через модуль безопасности.
+ * В монолите - вызов сервиса внутри процесса, при раздельном развёртывании - Feign
+ * (modules.security.mode: local | remote).
+ */
+public interface NotificationGateway {
+
+    // type и priority - имена NotificationType и NotificationPriority
+    void createNotification(UUID recipientId, String type, String title, String message, String priority,
+                            String relatedEntityType, UUID relatedEntityId);
+}
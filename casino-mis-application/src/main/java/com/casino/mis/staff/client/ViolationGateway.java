@@ -0,0 +1,31 @@
+package com.casino.mis.staff.client;
+
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * UC21: Чтение нарушений дисциплины из модуля инцидентов.
+ * В монолите - вызов сервиса внутри процесса, при раздельном развёртывании - Feign
+ * (modules.incident.mode: local | remote).
+ */
+public interface ViolationGateway {
+
+    List<ViolationResponse> getViolationsByEmployee(UUID employeeId);
+
+    // Keyset-страница с фильтрами на стороне модуля инцидентов; cursor - nextCursor предыдущей страницы или null
+    ViolationPageResponse searchViolations(ViolationFilter filter, String cursor, int limit);
+
+    // Всего, по типам и по сотрудникам для того же фильтра
+    ViolationSummaryResponse summarizeViolations(ViolationFilter filter);
+
+    // Сотрудники без нарушений за период в ответ не попадают; from/to - null для открытой границы
+    List<ViolationCountResponse> countByEmployees(Collection<UUID> employeeIds, OffsetDateTime from, OffsetDateTime to);
+}
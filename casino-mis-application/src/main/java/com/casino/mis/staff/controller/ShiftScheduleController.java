@@ -60,6 +60,17 @@ public class ShiftScheduleController {
         return service.getEmployeeAvailability(startDate, endDate);
     }
 
+    @GetMapping("/availability/page")
+    @Operation(summary = "Доступность сотрудников постранично", description = "UC23: Доступность активных сотрудников страницами с фильтром по подразделению")
+    public Map<String, Object> getAvailabilityPage(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return service.getEmployeeAvailability(startDate, endDate, department, page, size);
+    }
+
     @GetMapping("/employee/{employeeId}")
     @Operation(summary = "Получить смены сотрудника", description = "Получение всех смен конкретного сотрудника")
     public List<ShiftScheduleResponse> getByEmployee(@PathVariable UUID employeeId) {
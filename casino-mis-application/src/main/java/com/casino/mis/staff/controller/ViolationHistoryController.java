@@ -19,24 +19,32 @@ public class ViolationHistoryController {
     }
 
     @PostMapping("/search")
-    @Operation(summary = "Поиск нарушений", description = "UC22: Поиск и фильтрация истории нарушений по сотруднику, подразделению, датам, типу")
+    @Operation(summary = "Поиск нарушений", description = "UC22: Поиск и фильтрация истории нарушений по сотруднику, подразделению, датам, типу. Сводка - по всем найденным, нарушения - страницей; для следующей передайте nextCursor в поле cursor")
     public ViolationHistoryResponse search(@RequestBody ViolationHistoryRequest request) {
         return service.getViolationHistory(request);
     }
 
     @GetMapping("/employee/{employeeId}")
     @Operation(summary = "Получить историю нарушений сотрудника", description = "UC22: Получение полной истории нарушений конкретного сотрудника")
-    public ViolationHistoryResponse getByEmployee(@PathVariable java.util.UUID employeeId) {
+    public ViolationHistoryResponse getByEmployee(@PathVariable java.util.UUID employeeId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limit) {
         ViolationHistoryRequest request = new ViolationHistoryRequest();
         request.setEmployeeId(employeeId);
+        request.setCursor(cursor);
+        request.setLimit(limit);
         return service.getViolationHistory(request);
     }
 
     @GetMapping("/department/{department}")
     @Operation(summary = "Получить нарушения по подразделению", description = "UC22: Получение сводного отчёта по нарушениям всего подразделения")
-    public ViolationHistoryResponse getByDepartment(@PathVariable String department) {
+    public ViolationHistoryResponse getByDepartment(@PathVariable String department,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer limit) {
         ViolationHistoryRequest request = new ViolationHistoryRequest();
         request.setDepartment(department);
+        request.setCursor(cursor);
+        request.setLimit(limit);
         return service.getViolationHistory(request);
     }
 }
@@ -16,6 +16,8 @@ public class ViolationHistoryRequest {
     private OffsetDateTime startDate;
     private OffsetDateTime endDate;
     private String violationType; // Опциональный фильтр по типу
+    private String cursor; // nextCursor предыдущей страницы, null - первая страница
+    private Integer limit; // Размер страницы, null - по умолчанию
 }
 
 
@@ -15,6 +15,7 @@ import java.util.UUID;
 public class ViolationHistoryResponse {
     private List<ViolationRecord> violations;
     private Summary summary;
+    private String nextCursor; // null - страниц больше нет
 
     @Data
     @AllArgsConstructor
@@ -1,6 +1,8 @@
 package com.casino.mis.staff.repository;
 
 import com.casino.mis.staff.domain.Employee;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -11,6 +13,8 @@ public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
     Optional<Employee> findById(UUID id);
     List<Employee> findByDepartment(String department);
     List<Employee> findByStatus(Employee.EmployeeStatus status);
+    Page<Employee> findByStatus(Employee.EmployeeStatus status, Pageable pageable);
+    Page<Employee> findByStatusAndDepartment(Employee.EmployeeStatus status, String department, Pageable pageable);
 }
 
 
@@ -2,8 +2,11 @@ package com.casino.mis.staff.repository;
 
 import com.casino.mis.staff.domain.ShiftSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,6 +16,18 @@ public interface ShiftScheduleRepository extends JpaRepository<ShiftSchedule, UU
     List<ShiftSchedule> findByShiftDate(LocalDate shiftDate);
     List<ShiftSchedule> findByStatus(ShiftSchedule.ShiftStatus status);
     List<ShiftSchedule> findByEmployeeIdAndShiftDateBetween(UUID employeeId, LocalDate start, LocalDate end);
+
+    // UC23: Загрузка сотрудников - число смен за период по каждому сотруднику
+    @Query("SELECT s.employeeId AS employeeId, COUNT(s) AS shifts FROM ShiftSchedule s " +
+           "WHERE s.employeeId IN :employeeIds AND s.shiftDate BETWEEN :start AND :end GROUP BY s.employeeId")
+    List<EmployeeShiftCount> countShiftsByEmployeeIds(@Param("employeeIds") Collection<UUID> employeeIds,
+                                                      @Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
+
+    interface EmployeeShiftCount {
+        UUID getEmployeeId();
+        long getShifts();
+    }
 }
 
 
@@ -0,0 +1,54 @@
+package com.casino.mis.staff.service;
+
+import com.casino.mis.staff.domain.Employee;
+import com.casino.mis.staff.repository.EmployeeRepository;
+
+import java.util.*;
+
+/**
+ * Кэш сотрудников на время одного запроса: недостающие id загружаются одним findAllById,
+ * повторные обращения (в том числе к отсутствующим сотрудникам) обслуживаются из памяти.
+ */
+class EmployeeLookup {
+
+    private final EmployeeRepository repository;
+    private final Map<UUID, Employee> employees = new HashMap<>();
+    private final Set<UUID> missing = new HashSet<>();
+
+    EmployeeLookup(EmployeeRepository repository) {
+        this.repository = repository;
+    }
+
+    List<Employee> byDepartment(String department) {
+        List<Employee> found = repository.findByDepartment(department);
+        for (Employee employee : found) {
+            employees.put(employee.getId(), employee);
+        }
+        return found;
+    }
+
+    void load(Collection<UUID> ids) {
+        Set<UUID> unknown = new HashSet<>();
+        for (UUID id : ids) {
+            if (id != null && !employees.containsKey(id) && !missing.contains(id)) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        for (Employee employee : repository.findAllById(unknown)) {
+            employees.put(employee.getId(), employee);
+            unknown.remove(employee.getId());
+        }
+        missing.addAll(unknown);
+    }
+
+    Employee get(UUID id) {
+        if (id == null) {
+            return null;
+        }
+        load(List.of(id));
+        return employees.get(id);
+    }
+}
@@ -1,31 +1,39 @@
 package com.casino.mis.staff.service;
 
-import com.casino.mis.staff.client.IncidentServiceClient;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+import com.casino.mis.staff.client.ViolationGateway;
 import com.casino.mis.staff.domain.Employee;
 import com.casino.mis.staff.domain.ShiftSchedule;
 import com.casino.mis.staff.dto.ShiftScheduleRequest;
 import com.casino.mis.staff.repository.EmployeeRepository;
 import com.casino.mis.staff.repository.ShiftScheduleRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class ShiftScheduleService {
 
+    static final int MAX_PAGE_SIZE = 200;
+
     private final ShiftScheduleRepository repository;
     private final EmployeeRepository employeeRepository;
-    private final IncidentServiceClient incidentServiceClient;
+    private final ViolationGateway violationGateway;
 
     public ShiftScheduleService(ShiftScheduleRepository repository,
                                EmployeeRepository employeeRepository,
-                               IncidentServiceClient incidentServiceClient) {
+                               ViolationGateway violationGateway) {
         this.repository = repository;
         this.employeeRepository = employeeRepository;
-        this.incidentServiceClient = incidentServiceClient;
+        this.violationGateway = violationGateway;
     }
 
     // UC23: Управление сменами и загрузкой
@@ -85,51 +93,74 @@ public class ShiftScheduleService {
     // UC23: Получение доступности сотрудников с учётом загрузки
     public Map<String, Object> getEmployeeAvailability(LocalDate startDate, LocalDate endDate) {
         Map<String, Object> availability = new HashMap<>();
-        
-        List<Employee> allEmployees = employeeRepository.findAll();
-        List<ShiftSchedule> scheduledShifts = repository.findByShiftDateBetween(startDate, endDate);
-
-        // Подсчитываем количество смен для каждого сотрудника
-        Map<UUID, Long> shiftCounts = scheduledShifts.stream()
-                .collect(Collectors.groupingBy(
-                        ShiftSchedule::getEmployeeId,
-                        Collectors.counting()
-                ));
-
-        List<Map<String, Object>> employeeAvailability = new ArrayList<>();
-        for (Employee employee : allEmployees) {
-            if (employee.getStatus() == Employee.EmployeeStatus.ACTIVE) {
-                Map<String, Object> empInfo = new HashMap<>();
-                empInfo.put("employeeId", employee.getId());
-                empInfo.put("name", employee.getFirstName() + " " + employee.getLastName());
-                empInfo.put("department", employee.getDepartment());
-                empInfo.put("scheduledShifts", shiftCounts.getOrDefault(employee.getId(), 0L));
-                
-                // UC21: Учитываем нарушения при распределении
-                List<Map<String, Object>> violations = incidentServiceClient.getViolationsByEmployee(employee.getId());
-                empInfo.put("violationsCount", violations.size());
-                
-                // Рекомендация: если много нарушений - не назначать на критичные смены
-                boolean hasRecentViolations = violations.stream()
-                        .anyMatch(v -> {
-                            Object occurredAt = v.get("occurredAt");
-                            if (occurredAt == null) return false;
-                            // Проверка на нарушения за последний месяц
-                            return true; // Упрощённая логика
-                        });
-                empInfo.put("hasRecentViolations", hasRecentViolations);
-                
-                employeeAvailability.add(empInfo);
-            }
-        }
+        List<Employee> activeEmployees = employeeRepository.findByStatus(Employee.EmployeeStatus.ACTIVE);
 
-        availability.put("employees", employeeAvailability);
-        availability.put("totalEmployees", allEmployees.size());
+        availability.put("employees", toAvailability(activeEmployees, startDate, endDate));
+        availability.put("totalEmployees", employeeRepository.count());
         availability.put("period", Map.of("start", startDate.toString(), "end", endDate.toString()));
 
         return availability;
     }
 
+    // UC23: Доступность постранично с фильтром по подразделению
+    public Map<String, Object> getEmployeeAvailability(LocalDate startDate, LocalDate endDate,
+                                                       String department, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), MAX_PAGE_SIZE),
+                Sort.by("lastName", "firstName", "id"));
+        Page<Employee> employees = department != null
+                ? employeeRepository.findByStatusAndDepartment(Employee.EmployeeStatus.ACTIVE, department, pageable)
+                : employeeRepository.findByStatus(Employee.EmployeeStatus.ACTIVE, pageable);
+
+        Map<String, Object> availability = new HashMap<>();
+        availability.put("employees", toAvailability(employees.getContent(), startDate, endDate));
+        availability.put("totalEmployees", employees.getTotalElements());
+        availability.put("page", employees.getNumber());
+        availability.put("size", employees.getSize());
+        availability.put("totalPages", employees.getTotalPages());
+        availability.put("period", Map.of("start", startDate.toString(), "end", endDate.toString()));
+
+        return availability;
+    }
+
+    // Смены и нарушения - по одному сгруппированному запросу на набор сотрудников
+    private List<Map<String, Object>> toAvailability(List<Employee> employees, LocalDate startDate, LocalDate endDate) {
+        if (employees.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> ids = employees.stream().map(Employee::getId).collect(Collectors.toList());
+
+        Map<UUID, Long> shiftCounts = new HashMap<>();
+        for (ShiftScheduleRepository.EmployeeShiftCount row : repository.countShiftsByEmployeeIds(ids, startDate, endDate)) {
+            shiftCounts.put(row.getEmployeeId(), row.getShifts());
+        }
+        // UC21: Учитываем нарушения при распределении
+        Map<UUID, ViolationCountResponse> violationCounts = new HashMap<>();
+        for (ViolationCountResponse row : violationGateway.countByEmployees(ids, null, null)) {
+            violationCounts.put(row.getEmployeeId(), row);
+        }
+        OffsetDateTime recentSince = OffsetDateTime.now().minusMonths(1);
+
+        List<Map<String, Object>> employeeAvailability = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Map<String, Object> empInfo = new HashMap<>();
+            empInfo.put("employeeId", employee.getId());
+            empInfo.put("name", employee.getFirstName() + " " + employee.getLastName());
+            empInfo.put("department", employee.getDepartment());
+            empInfo.put("scheduledShifts", shiftCounts.getOrDefault(employee.getId(), 0L));
+
+            ViolationCountResponse violations = violationCounts.get(employee.getId());
+            empInfo.put("violationsCount", violations != null ? (int) violations.getCount() : 0);
+
+            // Рекомендация: если были нарушения за последний месяц - не назначать на критичные смены
+            boolean hasRecentViolations = violations != null && violations.getLastOccurredAt() != null
+                    && violations.getLastOccurredAt().isAfter(recentSince);
+            empInfo.put("hasRecentViolations", hasRecentViolations);
+
+            employeeAvailability.add(empInfo);
+        }
+        return employeeAvailability;
+    }
+
     // UC23: Экстренное перераспределение смен
     @Transactional
     public ShiftSchedule reassignShift(UUID scheduleId, UUID newEmployeeId) {
@@ -146,7 +177,7 @@ public class ShiftScheduleService {
     }
 
     private void checkEmployeeViolations(UUID employeeId) {
-        List<Map<String, Object>> violations = incidentServiceClient.getViolationsByEmployee(employeeId);
+        List<ViolationResponse> violations = violationGateway.getViolationsByEmployee(employeeId);
         
         // UC16: Если сотрудник систематически нарушает график, можно предупредить
         if (violations.size() >= 3) {
@@ -1,6 +1,11 @@
 package com.casino.mis.staff.service;
 
-import com.casino.mis.staff.client.IncidentServiceClient;
+import com.casino.mis.incident.domain.ViolationType;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.staff.client.ViolationGateway;
 import com.casino.mis.staff.domain.Employee;
 import com.casino.mis.staff.dto.ViolationHistoryRequest;
 import com.casino.mis.staff.dto.ViolationHistoryResponse;
@@ -14,139 +19,124 @@ import java.util.stream.Collectors;
 @Service
 public class ViolationHistoryService {
 
-    private final IncidentServiceClient incidentServiceClient;
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final ViolationGateway violationGateway;
     private final EmployeeRepository employeeRepository;
 
-    public ViolationHistoryService(IncidentServiceClient incidentServiceClient,
+    public ViolationHistoryService(ViolationGateway violationGateway,
                                   EmployeeRepository employeeRepository) {
-        this.incidentServiceClient = incidentServiceClient;
+        this.violationGateway = violationGateway;
         this.employeeRepository = employeeRepository;
     }
 
-    // UC22: Просмотр истории нарушений
+    // UC22: Просмотр истории нарушений - страница нарушений и сводка по всем найденным
     public ViolationHistoryResponse getViolationHistory(ViolationHistoryRequest request) {
         ViolationHistoryResponse response = new ViolationHistoryResponse();
-        
-        // Получаем нарушения через Feign Client из incident модуля
-        List<Map<String, Object>> violations;
-        
-        if (request.getEmployeeId() != null) {
-            violations = incidentServiceClient.getViolationsByEmployee(request.getEmployeeId());
-        } else {
-            violations = incidentServiceClient.getViolations();
-            // Фильтруем по типу, если указан
-            if (request.getViolationType() != null) {
-                violations = violations.stream()
-                        .filter(v -> request.getViolationType().equals(v.get("type")))
-                        .collect(Collectors.toList());
-            }
-        }
+        EmployeeLookup employees = new EmployeeLookup(employeeRepository);
+        int limit = request.getLimit() != null
+                ? Math.max(1, Math.min(request.getLimit(), MAX_PAGE_SIZE))
+                : DEFAULT_PAGE_SIZE;
 
-        // Фильтруем по датам, если указаны
-        if (request.getStartDate() != null || request.getEndDate() != null) {
-            OffsetDateTime start = request.getStartDate() != null ? request.getStartDate() : OffsetDateTime.MIN;
-            OffsetDateTime end = request.getEndDate() != null ? request.getEndDate() : OffsetDateTime.now();
-            
-            violations = violations.stream()
-                    .filter(v -> {
-                        Object occurredAtObj = v.get("occurredAt");
-                        if (occurredAtObj == null) return false;
-                        OffsetDateTime occurredAt = parseDateTime(occurredAtObj);
-                        return occurredAt.isAfter(start) && occurredAt.isBefore(end);
-                    })
-                    .collect(Collectors.toList());
-        }
+        // Фильтры по сотрудникам, типу и датам выполняются в incident модуле
+        Optional<ViolationFilter> filter = buildFilter(request, employees);
+        ViolationPageResponse page = filter
+                .map(f -> violationGateway.searchViolations(f, request.getCursor(), limit))
+                .orElseGet(() -> new ViolationPageResponse(List.of(), null));
+        ViolationSummaryResponse totals = filter
+                .map(violationGateway::summarizeViolations)
+                .orElseGet(() -> new ViolationSummaryResponse(0, Map.of(), Map.of()));
 
-        // Фильтруем по подразделению, если указано
-        if (request.getDepartment() != null) {
-            List<UUID> departmentEmployeeIds = employeeRepository.findByDepartment(request.getDepartment())
-                    .stream()
-                    .map(Employee::getId)
-                    .collect(Collectors.toList());
-            
-            violations = violations.stream()
-                    .filter(v -> {
-                        Object empIdObj = v.get("employeeId");
-                        if (empIdObj == null) return false;
-                        UUID empId = UUID.fromString(empIdObj.toString());
-                        return departmentEmployeeIds.contains(empId);
-                    })
-                    .collect(Collectors.toList());
-        }
+        // Сотрудники страницы и сводки загружаются одним запросом
+        Set<UUID> employeeIds = new HashSet<>(totals.getByEmployee().keySet());
+        page.getItems().forEach(violation -> employeeIds.add(violation.getEmployeeId()));
+        employees.load(employeeIds);
 
         // Преобразуем в DTO
-        List<ViolationHistoryResponse.ViolationRecord> violationRecords = violations.stream()
-                .map(this::toViolationRecord)
-                .collect(Collectors.toList());
-
-        response.setViolations(violationRecords);
+        response.setViolations(page.getItems().stream()
+                .map(violation -> toViolationRecord(violation, employees))
+                .collect(Collectors.toList()));
+        response.setNextCursor(page.getNextCursor());
 
         // Формируем сводку
         ViolationHistoryResponse.Summary summary = new ViolationHistoryResponse.Summary();
-        summary.setTotalViolations((long) violationRecords.size());
-        
-        // Группировка по типам
-        Map<String, Long> byType = violationRecords.stream()
-                .collect(Collectors.groupingBy(
-                        ViolationHistoryResponse.ViolationRecord::getViolationType,
-                        Collectors.counting()
-                ));
-        summary.setByType(byType);
-        
-        // Группировка по подразделениям
+        summary.setTotalViolations(totals.getTotal());
+        summary.setByType(new HashMap<>(totals.getByType()));
+
+        // Группировка по подразделениям - число сотрудников с нарушениями
         Map<String, Long> byDepartment = new HashMap<>();
-        Set<UUID> uniqueEmployees = violationRecords.stream()
-                .map(ViolationHistoryResponse.ViolationRecord::getEmployeeId)
-                .filter(java.util.Objects::nonNull)
-                .collect(Collectors.toSet());
-        
-        // Группируем по подразделениям
-        for (UUID empId : uniqueEmployees) {
-            Employee emp = employeeRepository.findById(empId).orElse(null);
+        for (UUID empId : totals.getByEmployee().keySet()) {
+            Employee emp = employees.get(empId);
             if (emp != null && emp.getDepartment() != null) {
                 byDepartment.merge(emp.getDepartment(), 1L, Long::sum);
             }
         }
         summary.setByDepartment(byDepartment);
-        summary.setEmployeesWithViolations((long) uniqueEmployees.size());
+        summary.setEmployeesWithViolations((long) totals.getByEmployee().size());
         response.setSummary(summary);
 
         return response;
     }
 
-    private ViolationHistoryResponse.ViolationRecord toViolationRecord(Map<String, Object> violation) {
-        ViolationHistoryResponse.ViolationRecord record = new ViolationHistoryResponse.ViolationRecord();
-        
-        Object idObj = violation.get("id");
-        Object empIdObj = violation.get("employeeId");
-        
-        if (idObj instanceof UUID) {
-            record.setId((UUID) idObj);
-        } else {
-            record.setId(UUID.fromString(idObj.toString()));
+    // Пустой результат - фильтр заведомо ничего не найдёт (неизвестный тип, подразделение без сотрудников)
+    private Optional<ViolationFilter> buildFilter(ViolationHistoryRequest request, EmployeeLookup employees) {
+        ViolationFilter filter = new ViolationFilter();
+
+        Set<UUID> employeeIds = null;
+        if (request.getEmployeeId() != null) {
+            employeeIds = new HashSet<>(List.of(request.getEmployeeId()));
         }
-        
-        UUID employeeId;
-        if (empIdObj instanceof UUID) {
-            employeeId = (UUID) empIdObj;
-            record.setEmployeeId(employeeId);
-        } else {
-            employeeId = UUID.fromString(empIdObj.toString());
-            record.setEmployeeId(employeeId);
+        if (request.getDepartment() != null) {
+            Set<UUID> departmentEmployeeIds = employees.byDepartment(request.getDepartment()).stream()
+                    .map(Employee::getId)
+                    .collect(Collectors.toSet());
+            if (employeeIds == null) {
+                employeeIds = departmentEmployeeIds;
+            } else {
+                employeeIds.retainAll(departmentEmployeeIds);
+            }
+        }
+        if (employeeIds != null) {
+            if (employeeIds.isEmpty()) {
+                return Optional.empty();
+            }
+            filter.setEmployeeIds(new ArrayList<>(employeeIds));
         }
+
+        if (request.getViolationType() != null) {
+            try {
+                filter.setType(ViolationType.valueOf(request.getViolationType()));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        if (request.getStartDate() != null || request.getEndDate() != null) {
+            filter.setFrom(request.getStartDate());
+            filter.setTo(request.getEndDate() != null ? request.getEndDate() : OffsetDateTime.now());
+        }
+        return Optional.of(filter);
+    }
+
+    private ViolationHistoryResponse.ViolationRecord toViolationRecord(ViolationResponse violation, EmployeeLookup employees) {
+        ViolationHistoryResponse.ViolationRecord record = new ViolationHistoryResponse.ViolationRecord();
+        record.setId(violation.getId());
+        UUID employeeId = violation.getEmployeeId();
+        record.setEmployeeId(employeeId);
         
         // Получаем имя сотрудника из базы
-        Employee employee = employeeRepository.findById(employeeId).orElse(null);
+        Employee employee = employees.get(employeeId);
         if (employee != null) {
             record.setEmployeeName(employee.getFirstName() + " " + employee.getLastName());
         } else {
             record.setEmployeeName("Unknown");
         }
         
-        record.setViolationType(violation.get("type").toString());
-        record.setDescription(violation.get("description") != null ? violation.get("description").toString() : "");
-        record.setOccurredAt(parseDateTime(violation.get("occurredAt")));
-        record.setStatus(violation.get("status").toString());
+        record.setViolationType(violation.getType().name());
+        record.setDescription(violation.getDescription() != null ? violation.getDescription() : "");
+        record.setOccurredAt(violation.getOccurredAt() != null ? violation.getOccurredAt() : OffsetDateTime.now());
+        record.setStatus(violation.getStatus().name());
         
         // Определяем severity на основе типа
         String type = record.getViolationType();
@@ -160,14 +150,5 @@ public class ViolationHistoryService {
         
         return record;
     }
-
-    private OffsetDateTime parseDateTime(Object dateTimeObj) {
-        if (dateTimeObj instanceof String) {
-            return OffsetDateTime.parse((String) dateTimeObj);
-        } else if (dateTimeObj instanceof OffsetDateTime) {
-            return (OffsetDateTime) dateTimeObj;
-        }
-        return OffsetDateTime.now();
-    }
 }
 
@@ -1,6 +1,6 @@
 package com.casino.mis.staff.service;
 
-import com.casino.mis.staff.client.SecurityServiceClient;
+import com.casino.mis.staff.client.NotificationGateway;
 import com.casino.mis.staff.domain.WorkTimeRecord;
 import com.casino.mis.staff.dto.ClockInRequest;
 import com.casino.mis.staff.dto.ClockOutRequest;
@@ -16,7 +16,7 @@ import java.util.*;
 public class WorkTimeService {
 
     private final WorkTimeRecordRepository repository;
-    private final SecurityServiceClient securityServiceClient;
+    private final NotificationGateway notificationGateway;
 
     // Стандартные параметры
     private static final int STANDARD_WORK_HOURS = 8; // 8 часов в смену
@@ -24,9 +24,9 @@ public class WorkTimeService {
     private static final int OVERTIME_THRESHOLD_HOURS = 8; // Порог переработки
 
     public WorkTimeService(WorkTimeRecordRepository repository,
-                          SecurityServiceClient securityServiceClient) {
+                          NotificationGateway notificationGateway) {
         this.repository = repository;
-        this.securityServiceClient = securityServiceClient;
+        this.notificationGateway = notificationGateway;
     }
 
     // UC20: Учёт времени работы сотрудников - отметка входа
@@ -103,17 +103,15 @@ public class WorkTimeService {
                 
                 // UC7: Уведомление HR через Security Service
                 try {
-                    Map<String, Object> notification = new HashMap<>();
-                    notification.put("recipientId", UUID.randomUUID()); // HR department ID
-                    notification.put("type", "SYSTEM_ALERT");
-                    notification.put("title", "Отсутствует отметка выхода");
-                    notification.put("message", "Сотрудник " + record.getEmployeeId() + 
-                            " не отметился на выходе. Смена открыта с " + record.getClockInTime());
-                    notification.put("priority", "HIGH");
-                    notification.put("relatedEntityType", "WORK_TIME_RECORD");
-                    notification.put("relatedEntityId", record.getId());
-                    
-                    securityServiceClient.createNotification(notification);
+                    notificationGateway.createNotification(
+                            UUID.randomUUID(), // HR department ID
+                            "SYSTEM_ALERT",
+                            "Отсутствует отметка выхода",
+                            "Сотрудник " + record.getEmployeeId() +
+                                    " не отметился на выходе. Смена открыта с " + record.getClockInTime(),
+                            "HIGH",
+                            "WORK_TIME_RECORD",
+                            record.getId());
                 } catch (Exception e) {
                     // Логируем ошибку, но не прерываем процесс
                     System.err.println("Failed to send notification: " + e.getMessage());
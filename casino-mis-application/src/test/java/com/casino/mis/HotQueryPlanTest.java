@@ -0,0 +1,209 @@
+package com.casino.mis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Планы горячих запросов репозиториев на PostgreSQL со схемой из Liquibase и большим набором данных.
+ * Падает, если хотя бы один зарегистрированный запрос читает таблицу последовательным сканированием.
+ * Запуск: mvn test -Pbenchmark -Dtest=HotQueryPlanTest [-Dbenchmark.rows=200000], нужен Docker.
+ */
+@Tag("benchmark")
+@EnabledIf("dockerAvailable")
+class HotQueryPlanTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotQueryPlanTest.class);
+
+    private static final String FROM = "'2025-02-20 00:00:00+00'";
+    private static final String TO = "'2025-02-21 00:00:00+00'";
+    private static final String EMPLOYEE = "md5('emp42')::uuid";
+    private static final String EMPLOYEES = "(md5('emp42')::uuid, md5('emp43')::uuid, md5('emp44')::uuid)";
+    private static final String CASH_DESK = "md5('desk7')::uuid";
+
+    // Запросы в том виде, в каком их строит Hibernate для методов репозиториев
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("CashOperationRepository.findByOperatedAtBetween",
+                "SELECT * FROM cash_operations WHERE operated_at BETWEEN " + FROM + " AND " + TO);
+        HOT_QUERIES.put("CashOperationRepository.countWinsAbove(cashDeskId)",
+                "SELECT count(*) FROM cash_operations WHERE cash_desk_id = " + CASH_DESK +
+                " AND type = 'WITHDRAWAL' AND amount > 1000 AND operated_at >= " + FROM + " AND operated_at < " + TO);
+        HOT_QUERIES.put("IncidentRepository.findByOccurredAtBetweenAndType",
+                "SELECT * FROM incidents WHERE occurred_at BETWEEN " + FROM + " AND " + TO + " AND type = 'THEFT'");
+        HOT_QUERIES.put("IncidentRepository.countByTypeAndStatus(types)",
+                "SELECT type, status, count(*) FROM incidents WHERE occurred_at BETWEEN " + FROM + " AND " + TO +
+                " AND type IN ('THEFT', 'FIGHT') GROUP BY type, status");
+        HOT_QUERIES.put("ComplaintRepository.findByReportedAtBetweenAndCategory",
+                "SELECT * FROM complaints WHERE reported_at BETWEEN " + FROM + " AND " + TO +
+                " AND category = 'SERVICE_QUALITY'");
+        HOT_QUERIES.put("DisciplinaryViolationRepository.countByEmployeeIdsAndPeriod",
+                "SELECT employee_id, count(*), max(occurred_at) FROM disciplinary_violation WHERE employee_id IN " +
+                EMPLOYEES + " AND occurred_at >= " + FROM + " AND occurred_at < " + TO + " GROUP BY employee_id");
+        HOT_QUERIES.put("DisciplinaryViolationQueries.findPage(employeeIds)",
+                "SELECT * FROM disciplinary_violation WHERE employee_id IN " + EMPLOYEES +
+                " ORDER BY occurred_at, id LIMIT 101");
+        HOT_QUERIES.put("ShiftScheduleRepository.findByEmployeeIdAndShiftDateBetween",
+                "SELECT * FROM shift_schedules WHERE employee_id = " + EMPLOYEE +
+                " AND shift_date BETWEEN '2025-02-01' AND '2025-02-07'");
+        HOT_QUERIES.put("ShiftScheduleRepository.countShiftsByEmployeeIds",
+                "SELECT employee_id, count(*) FROM shift_schedules WHERE employee_id IN " + EMPLOYEES +
+                " AND shift_date BETWEEN '2025-02-01' AND '2025-02-07' GROUP BY employee_id");
+        HOT_QUERIES.put("NotificationRepository.countByRecipientIdAndStatusIn",
+                "SELECT count(*) FROM notifications WHERE recipient_id = " + EMPLOYEE +
+                " AND status IN ('PENDING', 'SENT', 'DELIVERED')");
+        HOT_QUERIES.put("NotificationRepository.findInboxPage",
+                "SELECT * FROM notifications WHERE recipient_id = " + EMPLOYEE +
+                " AND status IN ('PENDING', 'SENT', 'DELIVERED') ORDER BY created_at DESC, id DESC LIMIT 20");
+        HOT_QUERIES.put("NotificationRepository.findByCreatedAtBetween",
+                "SELECT * FROM notifications WHERE created_at BETWEEN " + FROM + " AND " + TO);
+        HOT_QUERIES.put("NotificationRepository.findByStatusAndCreatedAtBeforeOrderByCreatedAt",
+                "SELECT * FROM notifications WHERE status = 'FAILED' AND created_at < " + TO +
+                " ORDER BY created_at LIMIT 100");
+        HOT_QUERIES.put("AnomalousTransactionRepository.findByDetectedAtBetween",
+                "SELECT * FROM anomalous_transactions WHERE detected_at BETWEEN " + FROM + " AND " + TO);
+        HOT_QUERIES.put("GameSessionAnalysisRepository.findByPeriodStartBetween",
+                "SELECT * FROM game_session_analyses WHERE period_start BETWEEN " + FROM + " AND " + TO);
+        HOT_QUERIES.put("CashRegisterReconciliationRepository.findByCashDeskId",
+                "SELECT * FROM cash_register_reconciliations WHERE cash_desk_id = " + CASH_DESK);
+        HOT_QUERIES.put("ContactEventRepository.findContactsBetweenPersons",
+                "SELECT * FROM contact_events WHERE (person_id1 = 'PERSON_1' AND person_id2 = 'PERSON_8') " +
+                "OR (person_id1 = 'PERSON_8' AND person_id2 = 'PERSON_1') ORDER BY contact_start_time DESC LIMIT 1");
+        HOT_QUERIES.put("ContactEventRepository.streamWindowRows",
+                "SELECT person_id1, person_id2, contact_start_time FROM contact_events WHERE contact_start_time > " + TO);
+    }
+
+    private static PostgreSQLContainer<?> postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    static boolean dockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:14");
+        postgres.start();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        seed(Integer.getInteger("benchmark.rows", 200_000));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void hotQueriesShouldNotFallBackToSeqScan() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> seqScans = new ArrayList<>();
+        for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+            String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + query.getValue(), String.class);
+            JsonNode plan = mapper.readTree(json).get(0).get("Plan");
+            List<String> relations = new ArrayList<>();
+            collectSeqScans(plan, relations);
+            List<String> nodeTypes = new ArrayList<>();
+            collectNodeTypes(plan, nodeTypes);
+            assertFalse(nodeTypes.isEmpty(), query.getKey() + ": план без узлов");
+            log.info("{}: {}", query.getKey(), String.join(" -> ", nodeTypes));
+            if (!relations.isEmpty()) {
+                seqScans.add(query.getKey() + " -> Seq Scan on " + relations + " (" + String.join(" -> ", nodeTypes) + ")");
+            }
+        }
+        assertTrue(seqScans.isEmpty(), "Seq Scan в горячих запросах:\n" + String.join("\n", seqScans));
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> relations) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            relations.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, relations);
+        }
+    }
+
+    // Типы узлов плана в порядке обхода сверху вниз
+    private static void collectNodeTypes(JsonNode node, List<String> nodeTypes) {
+        if (node.hasNonNull("Node Type")) {
+            nodeTypes.add(node.get("Node Type").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectNodeTypes(child, nodeTypes);
+        }
+    }
+
+    // Время растёт вместе с номером строки, как при обычной записи в конец таблиц
+    private static void seed(int rows) {
+        String minute = "timestamptz '2025-01-01 00:00:00+00' + i * interval '1 minute'";
+        jdbcTemplate.update("INSERT INTO cash_operations (id, cash_desk_id, amount, type, currency, operated_at) " +
+                "SELECT md5('op' || i)::uuid, md5('desk' || i % 50)::uuid, i % 2000 + 1, " +
+                "CASE WHEN i % 2 = 0 THEN 'DEPOSIT' ELSE 'WITHDRAWAL' END, 'RUB', " + minute +
+                " FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO incidents (id, type, location, occurred_at, description, status) " +
+                "SELECT md5('incident' || i)::uuid, (ARRAY['THEFT', 'FIGHT', 'DRUNKENNESS', 'CHEATING', 'OTHER'])[i % 5 + 1], " +
+                "'Зал ' || i % 10, " + minute + ", 'Инцидент', CASE WHEN i % 3 = 0 THEN 'RESOLVED' ELSE 'OPEN' END " +
+                "FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO complaints (id, category, description, reported_at, source, status) " +
+                "SELECT md5('complaint' || i)::uuid, (ARRAY['SERVICE_QUALITY', 'STAFF_BEHAVIOR', 'GAME_ISSUES'])[i % 3 + 1], " +
+                "'Жалоба', " + minute + ", 'VISITOR', 'OPEN' FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO disciplinary_violation (id, employee_id, type, description, occurred_at, status) " +
+                "SELECT md5('violation' || i)::uuid, md5('emp' || i % 2000)::uuid, " +
+                "(ARRAY['LATE', 'OUT_OF_ZONE', 'CONFLICT', 'OTHER'])[i % 4 + 1], 'Нарушение', " + minute + ", 'OPEN' " +
+                "FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO shift_schedules (id, employee_id, shift_date, planned_start_time, planned_end_time, " +
+                "status, shift_type, created_at) " +
+                "SELECT md5('shift' || i)::uuid, md5('emp' || i % 2000)::uuid, date '2025-01-01' + i / 2000, " +
+                "timestamptz '2025-01-01 09:00:00+00' + (i / 2000) * interval '1 day', " +
+                "timestamptz '2025-01-01 21:00:00+00' + (i / 2000) * interval '1 day', 'PUBLISHED', 'DAY', now() " +
+                "FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO notifications (id, recipient_id, type, title, message, priority, status, created_at) " +
+                "SELECT md5('notification' || i)::uuid, md5('emp' || i % 2000)::uuid, 'SUSPICIOUS_ACTIVITY', 'Уведомление', " +
+                "'Текст', 'LOW', CASE WHEN i % 500 = 0 THEN 'FAILED' WHEN i % 10 = 0 THEN 'DELIVERED' ELSE 'READ' END, " +
+                minute + " FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO anomalous_transactions (id, cash_operation_id, type, risk_level, amount, detected_at, status) " +
+                "SELECT md5('anomaly' || i)::uuid, md5('op' || i)::uuid, 'LARGE_AMOUNT', 'MEDIUM', 5000, " + minute +
+                ", 'DETECTED' FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO game_session_analyses (id, game_table_id, period_start, period_end, status, analyzed_at) " +
+                "SELECT md5('analysis' || i)::uuid, 'TABLE_' || i % 20, " + minute + ", " + minute +
+                " + interval '1 hour', 'COMPLETED', now() FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO cash_register_reconciliations (id, cash_desk_id, shift_start, shift_end, " +
+                "expected_balance, actual_balance, discrepancy, status, created_at) " +
+                "SELECT md5('reconciliation' || i)::uuid, md5('desk' || i % 500)::uuid, " + minute + ", " + minute +
+                " + interval '12 hours', 1000, 1000, 0, 'CONFIRMED', now() FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.update("INSERT INTO contact_events (id, person_id1, person_id2, contact_start_time, status, suspicious) " +
+                "SELECT md5('contact' || i)::uuid, 'PERSON_' || i % 5000, 'PERSON_' || (i * 7 + 1) % 5000, " + minute +
+                ", 'ENDED', false FROM generate_series(1, ?) i", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
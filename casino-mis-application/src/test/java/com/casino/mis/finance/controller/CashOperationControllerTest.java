@@ -2,7 +2,11 @@ package com.casino.mis.finance.controller;
 
 import com.casino.mis.finance.domain.CashOperation;
 import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.dto.CashOperationFilter;
 import com.casino.mis.finance.dto.CashOperationRequest;
+import com.casino.mis.finance.dto.CashOperationBatchResponse;
+import com.casino.mis.finance.dto.CashOperationBatchResult;
+import com.casino.mis.finance.service.CashOperationIngestService;
 import com.casino.mis.finance.service.CashOperationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,11 +17,22 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.OffsetDateTime;
+import java.util.function.Consumer;
 
 import java.math.BigDecimal;
 import java.util.*;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,6 +47,9 @@ class CashOperationControllerTest {
     @MockBean
     private CashOperationService service;
 
+    @MockBean
+    private CashOperationIngestService ingestService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -94,5 +112,95 @@ class CashOperationControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(operationId.toString()));
     }
-}
 
+    @Test
+    @WithMockUser
+    void testPageReturnsNextCursorWhenMoreRowsExist() throws Exception {
+        operation.setOperatedAt(OffsetDateTime.parse("2025-01-01T10:00:00Z"));
+        CashOperation second = new CashOperation(UUID.randomUUID(), cashDeskId, BigDecimal.TEN,
+                OperationType.WITHDRAWAL, "USD", OffsetDateTime.parse("2025-01-01T10:05:00Z"), null);
+        CashOperation third = new CashOperation(UUID.randomUUID(), cashDeskId, BigDecimal.ONE,
+                OperationType.DEPOSIT, "USD", OffsetDateTime.parse("2025-01-01T10:10:00Z"), null);
+        when(service.page(any(CashOperationFilter.class), isNull(), eq(2)))
+                .thenReturn(Arrays.asList(operation, second, third));
+
+        mockMvc.perform(get("/api/finance/operations/page")
+                        .param("cashDeskId", cashDeskId.toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].id").value(second.getId().toString()))
+                .andExpect(jsonPath("$.nextCursor").value(CashOperationService.encodeCursor(second)));
+    }
+
+    @Test
+    @WithMockUser
+    void testStreamWritesNdjson() throws Exception {
+        operation.setOperatedAt(OffsetDateTime.parse("2025-01-01T10:00:00Z"));
+        doAnswer(invocation -> {
+            Consumer<CashOperation> consumer = invocation.getArgument(1);
+            consumer.accept(operation);
+            consumer.accept(operation);
+            return null;
+        }).when(service).stream(any(CashOperationFilter.class), any());
+
+        MvcResult result = mockMvc.perform(get("/api/finance/operations/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"operatedAt\":\"2025-01-01T10:00:00Z\"}\n{\"id\":\"" + operationId + "\"")));
+    }
+
+    @Test
+    @WithMockUser
+    void testCreateBatchReturnsPerItemResults() throws Exception {
+        CashOperationBatchResult result = new CashOperationBatchResult(0, "k1", CashOperationBatchResult.Status.CREATED, operationId, null);
+        when(ingestService.ingest(anyList())).thenReturn(new CashOperationBatchResponse(1, 0, 0, List.of(result)));
+
+        mockMvc.perform(post("/api/finance/operations/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].id").value(operationId.toString()));
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    void testCreateBatchStreamParsesNdjsonLines() throws Exception {
+        List<CashOperationRequest> received = new ArrayList<>();
+        doAnswer(invocation -> {
+            Iterator<CashOperationRequest> requests = invocation.getArgument(0);
+            Consumer<CashOperationBatchResult> sink = invocation.getArgument(1);
+            int index = 0;
+            while (requests.hasNext()) {
+                CashOperationRequest next = requests.next();
+                received.add(next);
+                sink.accept(new CashOperationBatchResult(index++, null,
+                        next != null ? CashOperationBatchResult.Status.CREATED : CashOperationBatchResult.Status.REJECTED,
+                        null, null));
+            }
+            return null;
+        }).when(ingestService).ingest(any(Iterator.class), any(Consumer.class));
+
+        String body = objectMapper.writeValueAsString(request) + "\n\n{not json\n";
+        mockMvc.perform(post("/api/finance/operations/batch")
+                        .with(csrf())
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"status\":\"CREATED\"")))
+                .andExpect(content().string(containsString("\"index\":1,")));
+
+        assertEquals(2, received.size());
+        assertEquals(cashDeskId, received.get(0).getCashDeskId());
+        assertNull(received.get(1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.AnomalousTransaction;
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnomalyDetectionEngineTest {
+
+    private AnomalyDetectionEngine engine;
+    private UUID cashDeskId;
+    private OffsetDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        engine = new AnomalyDetectionEngine(new BigDecimal("10000"), 3, 60L);
+        cashDeskId = UUID.randomUUID();
+        base = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+    }
+
+    private CashOperation operation(UUID deskId, String amount, OffsetDateTime at) {
+        CashOperation op = new CashOperation();
+        op.setId(UUID.randomUUID());
+        op.setCashDeskId(deskId);
+        op.setAmount(new BigDecimal(amount));
+        op.setType(OperationType.DEPOSIT);
+        op.setOperatedAt(at);
+        return op;
+    }
+
+    @Test
+    void testLargeAmountRiskLevels() {
+        List<AnomalousTransaction> medium = engine.accept(operation(cashDeskId, "15000", base));
+        List<AnomalousTransaction> critical = engine.accept(operation(UUID.randomUUID(), "60000", base));
+
+        assertEquals(1, medium.size());
+        assertEquals(AnomalousTransaction.AnomalyType.LARGE_AMOUNT, medium.get(0).getType());
+        assertEquals(AnomalousTransaction.RiskLevel.MEDIUM, medium.get(0).getRiskLevel());
+        assertEquals(AnomalousTransaction.RiskLevel.CRITICAL, critical.get(0).getRiskLevel());
+    }
+
+    @Test
+    void testSmallAmountNotFlagged() {
+        assertTrue(engine.accept(operation(cashDeskId, "100", base)).isEmpty());
+    }
+
+    @Test
+    void testHighFrequencyFlagsFirstOperationOfWindowOnce() {
+        CashOperation first = operation(cashDeskId, "100", base);
+        List<AnomalousTransaction> anomalies = new ArrayList<>(engine.accept(first));
+        for (int i = 1; i < 6; i++) {
+            anomalies.addAll(engine.accept(operation(cashDeskId, "100", base.plusMinutes(i * 5L))));
+        }
+
+        assertEquals(1, anomalies.size());
+        assertEquals(AnomalousTransaction.AnomalyType.HIGH_FREQUENCY, anomalies.get(0).getType());
+        assertEquals(first.getId(), anomalies.get(0).getCashOperationId());
+    }
+
+    @Test
+    void testSparseOperationsNotFlagged() {
+        List<AnomalousTransaction> anomalies = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            anomalies.addAll(engine.accept(operation(cashDeskId, "100", base.plusHours(i))));
+        }
+
+        assertTrue(anomalies.isEmpty());
+    }
+
+    @Test
+    void testWindowsAreTrackedPerCashDesk() {
+        List<AnomalousTransaction> anomalies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            anomalies.addAll(engine.accept(operation(UUID.randomUUID(), "100", base.plusMinutes(i))));
+        }
+
+        assertTrue(anomalies.isEmpty());
+        assertEquals(4, engine.trackedDesks());
+    }
+}
@@ -0,0 +1,128 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.repository.CashDeskBalanceBucketRepository;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashBalanceLedgerTest {
+
+    @Mock
+    private CashDeskBalanceBucketRepository bucketRepo;
+
+    @Mock
+    private CashOperationRepository operationRepo;
+
+    @InjectMocks
+    private CashBalanceLedger ledger;
+
+    private final UUID cashDeskId = UUID.randomUUID();
+
+    @Test
+    void record_ShouldAddWithdrawalToUtcHourBucket() {
+        CashOperation op = new CashOperation();
+        op.setCashDeskId(cashDeskId);
+        op.setAmount(new BigDecimal("250.00"));
+        op.setType(OperationType.WITHDRAWAL);
+        op.setOperatedAt(OffsetDateTime.of(2025, 3, 1, 12, 45, 10, 0, ZoneOffset.ofHours(3)));
+
+        ledger.record(op);
+
+        verify(bucketRepo).add(eq(cashDeskId),
+                eq(OffsetDateTime.of(2025, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC)),
+                eq(BigDecimal.ZERO),
+                eq(new BigDecimal("250.00")),
+                eq(1L),
+                any(OffsetDateTime.class));
+    }
+
+    @Test
+    void recordAll_ShouldUpsertOncePerDeskHour() {
+        OffsetDateTime hour = OffsetDateTime.of(2025, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+        CashOperation deposit = operation(OperationType.DEPOSIT, "100.00", hour.plusMinutes(5));
+        CashOperation withdrawal = operation(OperationType.WITHDRAWAL, "30.00", hour.plusMinutes(50));
+        CashOperation nextHour = operation(OperationType.DEPOSIT, "10.00", hour.plusMinutes(65));
+
+        ledger.recordAll(List.of(deposit, withdrawal, nextHour));
+
+        verify(bucketRepo).add(eq(cashDeskId), eq(hour), eq(new BigDecimal("100.00")), eq(new BigDecimal("30.00")),
+                eq(2L), any(OffsetDateTime.class));
+        verify(bucketRepo).add(eq(cashDeskId), eq(hour.plusHours(1)), eq(new BigDecimal("10.00")), eq(BigDecimal.ZERO),
+                eq(1L), any(OffsetDateTime.class));
+        verifyNoMoreInteractions(bucketRepo);
+    }
+
+    @Test
+    void expectedBalance_ShouldCombineEdgeOperationsWithFullBuckets() {
+        OffsetDateTime start = OffsetDateTime.of(2025, 3, 1, 8, 30, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = OffsetDateTime.of(2025, 3, 1, 20, 15, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime firstFull = OffsetDateTime.of(2025, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime lastFullEnd = OffsetDateTime.of(2025, 3, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+        when(operationRepo.sumNetAmount(cashDeskId, start, firstFull)).thenReturn(new BigDecimal("100"));
+        when(bucketRepo.sumNet(cashDeskId, firstFull, lastFullEnd)).thenReturn(new BigDecimal("5000"));
+        when(operationRepo.sumNetAmountInclusive(cashDeskId, lastFullEnd, end)).thenReturn(new BigDecimal("-300"));
+
+        BigDecimal balance = ledger.expectedBalance(cashDeskId, start, end);
+
+        assertEquals(new BigDecimal("4800"), balance);
+    }
+
+    @Test
+    void expectedBalance_ShouldUseOperationsWhenShiftHasNoFullHour() {
+        OffsetDateTime start = OffsetDateTime.of(2025, 3, 1, 8, 10, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = OffsetDateTime.of(2025, 3, 1, 8, 50, 0, 0, ZoneOffset.UTC);
+        when(operationRepo.sumNetAmountInclusive(cashDeskId, start, end)).thenReturn(new BigDecimal("75"));
+
+        assertEquals(new BigDecimal("75"), ledger.expectedBalance(cashDeskId, start, end));
+        verifyNoInteractions(bucketRepo);
+    }
+
+    @Test
+    void expectedBalance_ShouldNotDoubleCountAlignedShiftStart() {
+        OffsetDateTime start = OffsetDateTime.of(2025, 3, 1, 8, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime end = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+        when(operationRepo.sumNetAmount(cashDeskId, start, start)).thenReturn(BigDecimal.ZERO);
+        when(bucketRepo.sumNet(cashDeskId, start, end)).thenReturn(new BigDecimal("40"));
+        when(operationRepo.sumNetAmountInclusive(cashDeskId, end, end)).thenReturn(new BigDecimal("5"));
+
+        assertEquals(new BigDecimal("45"), ledger.expectedBalance(cashDeskId, start, end));
+    }
+
+    @Test
+    void rebuild_ShouldReplaceBucketsUnderLock() {
+        when(bucketRepo.rebuildFromOperations()).thenReturn(42);
+
+        assertEquals(42, ledger.rebuild());
+
+        var order = inOrder(bucketRepo);
+        order.verify(bucketRepo).lockForRebuild();
+        order.verify(bucketRepo).deleteAllBuckets();
+        order.verify(bucketRepo).rebuildFromOperations();
+    }
+
+    private CashOperation operation(OperationType type, String amount, OffsetDateTime operatedAt) {
+        CashOperation op = new CashOperation();
+        op.setCashDeskId(cashDeskId);
+        op.setType(type);
+        op.setAmount(new BigDecimal(amount));
+        op.setOperatedAt(operatedAt);
+        return op;
+    }
+}
@@ -0,0 +1,159 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.dto.CashOperationBatchResponse;
+import com.casino.mis.finance.dto.CashOperationBatchResult;
+import com.casino.mis.finance.dto.CashOperationRequest;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CashOperationIngestServiceTest {
+
+    @Mock
+    private CashOperationRepository repository;
+
+    @Mock
+    private CashBalanceLedger balanceLedger;
+
+    @Mock
+    private GameRtpRollups rtpRollups;
+
+    @Mock
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ValidatorFactory validatorFactory;
+    private CashOperationIngestService service;
+    private final UUID cashDeskId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        service = createService(1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void ingest_ShouldInsertValidOperationsAndUpdateAggregates() {
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation ->
+                invocation.<List<CashOperation>>getArgument(0).stream().map(CashOperation::getId).toList());
+
+        CashOperationBatchResponse response = service.ingest(List.of(request("a"), request("b")));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(0, response.getDuplicates());
+        assertTrue(response.getResults().stream()
+                .allMatch(r -> r.getStatus() == CashOperationBatchResult.Status.CREATED && r.getId() != null));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CashOperation>> created = ArgumentCaptor.forClass(List.class);
+        verify(balanceLedger).recordAll(created.capture());
+        assertEquals(2, created.getValue().size());
+        assertEquals("a", created.getValue().get(0).getIdempotencyKey());
+        verify(rtpRollups).recordAll(created.getValue());
+        verify(anomalyDetectionService).onOperationsCreated(created.getValue());
+    }
+
+    @Test
+    void ingest_ShouldReturnDuplicatesWithOriginalIds() {
+        UUID storedId = UUID.randomUUID();
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation ->
+                invocation.<List<CashOperation>>getArgument(0).stream()
+                        .filter(op -> !"stored".equals(op.getIdempotencyKey()))
+                        .map(CashOperation::getId)
+                        .toList());
+        CashOperationRepository.IdempotencyKeyRow row = mock(CashOperationRepository.IdempotencyKeyRow.class);
+        when(row.getCashDeskId()).thenReturn(cashDeskId);
+        when(row.getIdempotencyKey()).thenReturn("stored");
+        when(row.getId()).thenReturn(storedId);
+        when(repository.findIdempotencyKeys(Set.of(cashDeskId), Set.of("stored"))).thenReturn(List.of(row));
+
+        CashOperationBatchResponse response = service.ingest(List.of(request("a"), request("a"), request("stored")));
+
+        List<CashOperationBatchResult> results = response.getResults();
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getDuplicates());
+        assertEquals(CashOperationBatchResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(CashOperationBatchResult.Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals(results.get(0).getId(), results.get(1).getId());
+        assertEquals(storedId, results.get(2).getId());
+        verify(repository).insertIgnoringDuplicates(argThat(ops -> ops.size() == 2));
+    }
+
+    @Test
+    void ingest_ShouldRejectInvalidAndMalformedOperations() {
+        CashOperationRequest invalid = request("bad");
+        invalid.setAmount(new BigDecimal("-5"));
+        List<CashOperationRequest> requests = new ArrayList<>();
+        requests.add(invalid);
+        requests.add(null);
+
+        CashOperationBatchResponse response = service.ingest(requests);
+
+        assertEquals(2, response.getRejected());
+        assertEquals("bad", response.getResults().get(0).getIdempotencyKey());
+        assertTrue(response.getResults().get(0).getErrors().stream().anyMatch(e -> e.startsWith("amount")));
+        assertEquals(List.of("Malformed operation"), response.getResults().get(1).getErrors());
+        verifyNoInteractions(repository, balanceLedger);
+    }
+
+    @Test
+    void ingest_ShouldWriteEachChunkInSeparateTransaction() {
+        service = createService(2);
+        when(repository.insertIgnoringDuplicates(anyList())).thenReturn(List.of());
+        List<CashOperationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request(null));
+        }
+        List<CashOperationBatchResult> results = new ArrayList<>();
+
+        service.ingest(requests.iterator(), results::add);
+
+        assertEquals(5, results.size());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(repository, times(3)).insertIgnoringDuplicates(anyList());
+    }
+
+    private CashOperationIngestService createService(int chunkSize) {
+        return new CashOperationIngestService(repository, balanceLedger, rtpRollups, anomalyDetectionService,
+                validatorFactory.getValidator(), transactionTemplate, chunkSize);
+    }
+
+    private CashOperationRequest request(String idempotencyKey) {
+        CashOperationRequest request = new CashOperationRequest();
+        request.setCashDeskId(cashDeskId);
+        request.setAmount(new BigDecimal("100.00"));
+        request.setType(OperationType.DEPOSIT);
+        request.setCurrency("USD");
+        request.setIdempotencyKey(idempotencyKey);
+        return request;
+    }
+}
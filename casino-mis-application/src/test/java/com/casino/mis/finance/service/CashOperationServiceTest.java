@@ -12,10 +12,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +28,15 @@ class CashOperationServiceTest {
     @Mock
     private CashOperationRepository repository;
 
+    @Mock
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Mock
+    private CashBalanceLedger balanceLedger;
+
+    @Mock
+    private GameRtpRollups rtpRollups;
+
     @InjectMocks
     private CashOperationService service;
 
@@ -51,6 +64,48 @@ class CashOperationServiceTest {
         operation.setCurrency("USD");
     }
 
+    @Test
+    void create_ShouldReturnExistingOperationForRepeatedIdempotencyKey() {
+        request.setIdempotencyKey("sync-1");
+        when(repository.findByCashDeskIdAndIdempotencyKey(cashDeskId, "sync-1")).thenReturn(Optional.of(operation));
+
+        CashOperation result = service.create(request);
+
+        assertSame(operation, result);
+        verify(repository, never()).save(any(CashOperation.class));
+        verifyNoInteractions(balanceLedger, rtpRollups, anomalyDetectionService);
+    }
+
+    @Test
+    void create_ShouldInsertKeyedOperationIgnoringDuplicates() {
+        request.setIdempotencyKey("sync-2");
+        when(repository.findByCashDeskIdAndIdempotencyKey(cashDeskId, "sync-2")).thenReturn(Optional.empty());
+        when(repository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation ->
+                List.of(invocation.<List<CashOperation>>getArgument(0).get(0).getId()));
+
+        CashOperation result = service.create(request);
+
+        assertNotNull(result.getId());
+        assertEquals("sync-2", result.getIdempotencyKey());
+        verify(repository, never()).save(any(CashOperation.class));
+        verify(balanceLedger).record(result);
+        verify(anomalyDetectionService).onOperationCreated(result);
+    }
+
+    @Test
+    void create_ShouldReturnConcurrentlyCreatedOperationWhenKeyIsTaken() {
+        request.setIdempotencyKey("sync-3");
+        // Проверка не нашла ключ, но параллельная отправка заняла его раньше вставки
+        when(repository.findByCashDeskIdAndIdempotencyKey(cashDeskId, "sync-3"))
+                .thenReturn(Optional.empty(), Optional.of(operation));
+        when(repository.insertIgnoringDuplicates(anyList())).thenReturn(List.of());
+
+        CashOperation result = service.create(request);
+
+        assertSame(operation, result);
+        verifyNoInteractions(balanceLedger, rtpRollups, anomalyDetectionService);
+    }
+
     @Test
     void testCreate() {
         when(repository.save(any(CashOperation.class))).thenReturn(operation);
@@ -63,6 +118,10 @@ class CashOperationServiceTest {
         assertEquals(OperationType.DEPOSIT, result.getType());
         assertEquals(new BigDecimal("1000.00"), result.getAmount());
         verify(repository, times(1)).save(any(CashOperation.class));
+        verify(balanceLedger, times(1)).record(operation);
+        verify(rtpRollups, times(1)).record(operation);
+        verify(anomalyDetectionService, times(1)).onOperationCreated(operation);
+        verify(repository, never()).insertIgnoringDuplicates(anyList());
     }
 
     @Test
@@ -109,5 +168,22 @@ class CashOperationServiceTest {
         assertThrows(RuntimeException.class, () -> service.get(operationId));
         verify(repository, times(1)).findById(operationId);
     }
-}
 
+    @Test
+    void testPageResumesAfterCursor() {
+        operation.setOperatedAt(OffsetDateTime.parse("2025-01-01T10:00:00Z"));
+        String cursor = CashOperationService.encodeCursor(operation);
+        when(repository.findPage(isNull(), eq(operation.getOperatedAt()), eq(operationId), eq(11)))
+                .thenReturn(Collections.emptyList());
+
+        List<CashOperation> result = service.page(null, cursor, 10);
+
+        assertTrue(result.isEmpty());
+        verify(repository, times(1)).findPage(null, operation.getOperatedAt(), operationId, 11);
+    }
+
+    @Test
+    void testPageRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.page(null, "not-a-cursor", 10));
+    }
+}
@@ -0,0 +1,66 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.FinancialReport;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FinancialReportJobHandlerTest {
+
+    @Mock
+    private FinancialReportService reportService;
+
+    @InjectMocks
+    private FinancialReportJobHandler handler;
+
+    private ReportJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReportJob();
+        job.setId(UUID.randomUUID());
+        job.setType(ReportJobType.FINANCIAL_REPORT);
+        job.setResultId(UUID.randomUUID());
+    }
+
+    @Test
+    void getTypes_ShouldHandleFinancialReports() {
+        assertEquals(EnumSet.of(ReportJobType.FINANCIAL_REPORT), handler.getTypes());
+    }
+
+    @Test
+    void markRunning_ShouldSetReportRunning() {
+        handler.markRunning(job);
+
+        verify(reportService).updateStatus(job.getResultId(), FinancialReport.FinancialReportStatus.RUNNING);
+    }
+
+    @Test
+    void execute_ShouldCompleteQueuedReportWithProgress() {
+        ReportJobProgress progress = percent -> { };
+
+        handler.execute(job, progress);
+
+        verify(reportService).completeQueuedReport(job.getResultId(), progress);
+    }
+
+    @Test
+    void markFailed_ShouldSetReportFailed() {
+        handler.markFailed(job);
+
+        verify(reportService).updateStatus(job.getResultId(), FinancialReport.FinancialReportStatus.FAILED);
+    }
+}
@@ -0,0 +1,74 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.GameSessionAnalysis;
+import com.casino.mis.finance.dto.GameAnalysisRequest;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameAnalysisJobHandlerTest {
+
+    @Mock
+    private GameAnalysisService analysisService;
+
+    @Mock
+    private ReportJobQueue reportJobQueue;
+
+    @InjectMocks
+    private GameAnalysisJobHandler handler;
+
+    private ReportJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReportJob();
+        job.setId(UUID.randomUUID());
+        job.setType(ReportJobType.GAME_ANALYSIS);
+        job.setResultId(UUID.randomUUID());
+    }
+
+    @Test
+    void getTypes_ShouldHandleGameAnalysis() {
+        assertEquals(EnumSet.of(ReportJobType.GAME_ANALYSIS), handler.getTypes());
+    }
+
+    @Test
+    void markRunning_ShouldSetAnalysisProcessing() {
+        handler.markRunning(job);
+
+        verify(analysisService).updateStatus(job.getResultId(), GameSessionAnalysis.AnalysisStatus.PROCESSING);
+    }
+
+    @Test
+    void execute_ShouldAnalyzeWithStoredRequest() {
+        GameAnalysisRequest request = new GameAnalysisRequest();
+        request.setGameTableId("table-1");
+        when(reportJobQueue.readPayload(job, GameAnalysisRequest.class)).thenReturn(request);
+        ReportJobProgress progress = percent -> { };
+
+        handler.execute(job, progress);
+
+        verify(analysisService).completeQueuedAnalysis(job.getResultId(), request, progress);
+    }
+
+    @Test
+    void markFailed_ShouldSetAnalysisError() {
+        handler.markFailed(job);
+
+        verify(analysisService).updateStatus(job.getResultId(), GameSessionAnalysis.AnalysisStatus.ERROR);
+    }
+}
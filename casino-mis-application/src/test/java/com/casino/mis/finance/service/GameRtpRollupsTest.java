@@ -0,0 +1,141 @@
+package com.casino.mis.finance.service;
+
+import com.casino.mis.finance.domain.CashOperation;
+import com.casino.mis.finance.domain.OperationType;
+import com.casino.mis.finance.repository.CashOperationRepository;
+import com.casino.mis.finance.repository.GameRtpRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameRtpRollupsTest {
+
+    @Mock
+    private GameRtpRollupRepository rollupRepo;
+
+    @Mock
+    private CashOperationRepository operationRepo;
+
+    @InjectMocks
+    private GameRtpRollups rollups;
+
+    private final UUID tableId = UUID.randomUUID();
+    private final OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 8, 30, 0, 0, ZoneOffset.UTC);
+    private final OffsetDateTime end = OffsetDateTime.of(2025, 1, 1, 20, 15, 0, 0, ZoneOffset.UTC);
+    private final OffsetDateTime firstFull = OffsetDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+    private final OffsetDateTime lastFullEnd = OffsetDateTime.of(2025, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void record_ShouldFillHistogramForLargeWin() {
+        CashOperation op = new CashOperation();
+        op.setCashDeskId(tableId);
+        op.setAmount(new BigDecimal("7500.00"));
+        op.setType(OperationType.WITHDRAWAL);
+        op.setOperatedAt(OffsetDateTime.of(2025, 1, 1, 10, 20, 0, 0, ZoneOffset.UTC));
+
+        rollups.record(op);
+
+        verify(rollupRepo).add(eq(tableId), eq(OffsetDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC)),
+                eq(BigDecimal.ZERO), eq(0L), eq(new BigDecimal("7500.00")), eq(1L), eq(new BigDecimal("7500.00")),
+                eq(1L), eq(1L), eq(0L), eq(0L), eq(0L), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void stats_ShouldCombineEdgesWithRollupsAndUseHistogramEdge() {
+        CashOperationRepository.EdgeTotals edgeTotals = edges("100", 2, "50", 1, "50", 0);
+        when(operationRepo.edgeTotals(tableId, start, firstFull, lastFullEnd, end, new BigDecimal("1000")))
+                .thenReturn(edgeTotals);
+        GameRtpRollupRepository.RollupTotals totals = rollup("10000", 40, "9400", 30, "3000", 4);
+        when(rollupRepo.totals(tableId, firstFull, lastFullEnd)).thenReturn(totals);
+
+        GameRtpRollups.RtpStats stats = rollups.stats(tableId, start, end, new BigDecimal("1000"));
+
+        assertEquals(new BigDecimal("10100"), stats.getBets());
+        assertEquals(42, stats.getBetsCount());
+        assertEquals(new BigDecimal("9450"), stats.getWins());
+        assertEquals(31, stats.getWinsCount());
+        assertEquals(new BigDecimal("3000"), stats.getMaxWin());
+        assertEquals(4, stats.getLargeWins());
+        verify(operationRepo, never()).countWinsAbove(any(UUID.class), any(), any(), any());
+    }
+
+    @Test
+    void stats_ShouldCountOperationsForThresholdBetweenEdges() {
+        BigDecimal threshold = new BigDecimal("2500");
+        CashOperationRepository.EdgeTotals edgeTotals = edges("0", 0, "0", 0, "0", 0);
+        when(operationRepo.edgeTotals(tableId, start, firstFull, lastFullEnd, end, threshold))
+                .thenReturn(edgeTotals);
+        GameRtpRollupRepository.RollupTotals totals = rollup("10000", 40, "9400", 30, "3000", 4);
+        when(rollupRepo.totals(tableId, firstFull, lastFullEnd)).thenReturn(totals);
+        when(operationRepo.countWinsAbove(tableId, threshold, firstFull, lastFullEnd)).thenReturn(2L);
+
+        assertEquals(2, rollups.stats(tableId, start, end, threshold).getLargeWins());
+    }
+
+    @Test
+    void stats_ShouldSkipOperationCountWhenLowerEdgeIsEmpty() {
+        BigDecimal threshold = new BigDecimal("2500");
+        CashOperationRepository.EdgeTotals edgeTotals = edges("0", 0, "0", 0, "0", 0);
+        when(operationRepo.edgeTotals(start, firstFull, lastFullEnd, end, threshold))
+                .thenReturn(edgeTotals);
+        GameRtpRollupRepository.RollupTotals totals = rollup("500", 5, "400", 4, "200", 0);
+        when(rollupRepo.totals(firstFull, lastFullEnd)).thenReturn(totals);
+
+        assertEquals(0, rollups.stats(null, start, end, threshold).getLargeWins());
+        verify(operationRepo, never()).countWinsAbove(any(), any(), any());
+    }
+
+    @Test
+    void stats_ShouldUseOperationsWhenPeriodHasNoFullHour() {
+        OffsetDateTime shortEnd = start.plusMinutes(20);
+        CashOperationRepository.EdgeTotals edgeTotals = edges("300", 3, "150", 1, "150", 0);
+        when(operationRepo.edgeTotals(tableId, start, start, start, shortEnd, new BigDecimal("1000")))
+                .thenReturn(edgeTotals);
+
+        GameRtpRollups.RtpStats stats = rollups.stats(tableId, start, shortEnd, new BigDecimal("1000"));
+
+        assertEquals(new BigDecimal("300"), stats.getBets());
+        verifyNoInteractions(rollupRepo);
+    }
+
+    private CashOperationRepository.EdgeTotals edges(String bets, long betsCount, String wins, long winsCount,
+                                                     String maxWin, long largeWins) {
+        CashOperationRepository.EdgeTotals edges = mock(CashOperationRepository.EdgeTotals.class);
+        when(edges.getBets()).thenReturn(new BigDecimal(bets));
+        when(edges.getBetsCount()).thenReturn(betsCount);
+        when(edges.getWins()).thenReturn(new BigDecimal(wins));
+        when(edges.getWinsCount()).thenReturn(winsCount);
+        when(edges.getMaxWin()).thenReturn(new BigDecimal(maxWin));
+        when(edges.getLargeWins()).thenReturn(largeWins);
+        return edges;
+    }
+
+    private GameRtpRollupRepository.RollupTotals rollup(String bets, long betsCount, String wins, long winsCount,
+                                                        String maxWin, long over1000) {
+        GameRtpRollupRepository.RollupTotals totals = mock(GameRtpRollupRepository.RollupTotals.class);
+        lenient().when(totals.getBets()).thenReturn(new BigDecimal(bets));
+        lenient().when(totals.getBetsCount()).thenReturn(betsCount);
+        lenient().when(totals.getWins()).thenReturn(new BigDecimal(wins));
+        lenient().when(totals.getWinsCount()).thenReturn(winsCount);
+        lenient().when(totals.getMaxWin()).thenReturn(new BigDecimal(maxWin));
+        lenient().when(totals.getWinsOver1000()).thenReturn(over1000);
+        lenient().when(totals.getWinsOver5000()).thenReturn(0L);
+        lenient().when(totals.getWinsOver10000()).thenReturn(0L);
+        lenient().when(totals.getWinsOver50000()).thenReturn(0L);
+        lenient().when(totals.getWinsOver100000()).thenReturn(0L);
+        return totals;
+    }
+}
@@ -0,0 +1,93 @@
+package com.casino.mis.finance.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartUploadStreamTest {
+
+    private static final int PART = S3MultipartUploadStream.MIN_PART_SIZE;
+
+    @Mock
+    private S3Client s3;
+
+    @Test
+    void close_ShouldUsePutObjectWhenSmallerThanOnePart() throws IOException {
+        S3MultipartUploadStream stream = new S3MultipartUploadStream(s3, "reports", "r.csv", "text/csv", PART);
+        stream.write("id,amount\n".getBytes());
+
+        stream.close();
+
+        ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3).putObject(any(PutObjectRequest.class), body.capture());
+        assertEquals(10L, body.getValue().optionalContentLength().orElse(-1L));
+        verify(s3, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void close_ShouldUploadPartsAndComplete() throws IOException {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("\"p\"").build());
+        S3MultipartUploadStream stream = new S3MultipartUploadStream(s3, "reports", "r.csv", "text/csv", PART);
+
+        stream.write(new byte[PART * 2 + 100]);
+        stream.close();
+
+        ArgumentCaptor<UploadPartRequest> parts = ArgumentCaptor.forClass(UploadPartRequest.class);
+        ArgumentCaptor<RequestBody> bodies = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3, times(3)).uploadPart(parts.capture(), bodies.capture());
+        assertEquals(List.of(1, 2, 3), parts.getAllValues().stream().map(UploadPartRequest::partNumber).toList());
+        assertEquals(100L, bodies.getAllValues().get(2).optionalContentLength().orElse(-1L));
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(complete.capture());
+        assertEquals("u1", complete.getValue().uploadId());
+        assertEquals(3, complete.getValue().multipartUpload().parts().size());
+        assertEquals(PART * 2L + 100, stream.size());
+    }
+
+    @Test
+    void write_ShouldAbortUploadWhenPartFails() {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenThrow(SdkClientException.create("connection reset"));
+        S3MultipartUploadStream stream = new S3MultipartUploadStream(s3, "reports", "r.csv", "text/csv", PART);
+
+        assertThrows(IOException.class, () -> stream.write(new byte[PART + 1]));
+
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abort_ShouldNotCompleteUploadOnClose() throws IOException {
+        when(s3.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build());
+        when(s3.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+                .thenReturn(UploadPartResponse.builder().eTag("\"p\"").build());
+        S3MultipartUploadStream stream = new S3MultipartUploadStream(s3, "reports", "r.csv", "text/csv", PART);
+        stream.write(new byte[PART + 1]);
+
+        stream.abort();
+        stream.close();
+
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+}
@@ -0,0 +1,107 @@
+package com.casino.mis.incident.repository;
+
+import com.casino.mis.incident.domain.Incident;
+import com.casino.mis.incident.domain.IncidentStatus;
+import com.casino.mis.incident.domain.IncidentType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение построения сводок отчётов (UC14, UC17) через загрузку сущностей
+ * и через GROUP BY запросы. Запуск: mvn test -Pbenchmark [-Dbenchmark.incidents=1000000]
+ */
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+class ReportAggregationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportAggregationBenchmarkTest.class);
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OffsetDateTime start;
+    private OffsetDateTime end;
+    private int incidents;
+
+    @BeforeEach
+    void setUp() {
+        incidents = Integer.getInteger("benchmark.incidents", 1_000_000);
+        end = OffsetDateTime.now();
+        start = end.minusDays(30);
+
+        IncidentType[] types = IncidentType.values();
+        IncidentStatus[] statuses = IncidentStatus.values();
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < incidents; i++) {
+            batch.add(new Object[]{
+                    UUID.randomUUID(),
+                    types[random.nextInt(types.length)].name(),
+                    "Hall " + random.nextInt(20),
+                    Timestamp.from(start.plusSeconds(random.nextInt(29 * 24 * 3600)).toInstant()),
+                    statuses[random.nextInt(statuses.length)].name()
+            });
+            if (batch.size() == BATCH_SIZE || i == incidents - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO incidents (id, type, location, occurred_at, status) VALUES (?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    void aggregateQueryMatchesEntityGroupingAndIsFaster() {
+        long legacyStarted = System.nanoTime();
+        List<Incident> loaded = incidentRepository.findByOccurredAtBetween(start, end);
+        Map<String, Long> legacyByType = loaded.stream()
+                .collect(Collectors.groupingBy(i -> i.getType().name(), Collectors.counting()));
+        Map<String, Long> legacyByStatus = loaded.stream()
+                .collect(Collectors.groupingBy(i -> i.getStatus().name(), Collectors.counting()));
+        long legacyMillis = (System.nanoTime() - legacyStarted) / 1_000_000;
+        loaded = null;
+        entityManager.clear();
+
+        long aggregateStarted = System.nanoTime();
+        List<Object[]> groups = incidentRepository.countByTypeAndStatus(start, end);
+        Map<String, Long> byType = new HashMap<>();
+        Map<String, Long> byStatus = new HashMap<>();
+        for (Object[] row : groups) {
+            byType.merge(((IncidentType) row[0]).name(), (Long) row[2], Long::sum);
+            byStatus.merge(((IncidentStatus) row[1]).name(), (Long) row[2], Long::sum);
+        }
+        long aggregateMillis = (System.nanoTime() - aggregateStarted) / 1_000_000;
+
+        log.info("Report aggregation over {} incidents: entity grouping {} ms, GROUP BY {} ms ({} groups)",
+                incidents, legacyMillis, aggregateMillis, groups.size());
+
+        assertEquals(legacyByType, byType);
+        assertEquals(legacyByStatus, byStatus);
+        assertEquals(incidents, byType.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(aggregateMillis < legacyMillis);
+    }
+}
@@ -0,0 +1,203 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.Report;
+import com.casino.mis.incident.domain.ReportType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Экспорт 500k строк детализации в отдельной JVM с -Xmx256m (UC19).
+ * Данные генерируются на лету, поэтому в куче нет ни исходного JSON, ни готового файла:
+ * проверяется, что сам экспорт укладывается в ограниченный объём памяти.
+ */
+class ExportServiceMemoryTest {
+
+    private static final int ROWS = 500_000;
+    private static final String HEAP = "-Xmx256m";
+
+    @Test
+    void exportToExcel_ShouldStream500kRowsWithin256MbHeap() throws Exception {
+        assertExportSucceeds("xlsx", ROWS);
+    }
+
+    // Вёрстка 500k строк PDF занимает несколько минут: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void exportToPdf_ShouldStream500kRowsWithin256MbHeap() throws Exception {
+        assertExportSucceeds("pdf", ROWS);
+    }
+
+    private void assertExportSucceeds(String format, int rows) throws Exception {
+        Path log = Files.createTempFile("export-" + format, ".log");
+        try {
+            List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add(HEAP);
+            command.add("-XX:+ExitOnOutOfMemoryError");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(ExportMain.class.getName());
+            command.add(format);
+            command.add(String.valueOf(rows));
+
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            assertTrue(process.waitFor(10, TimeUnit.MINUTES), "Export did not finish in time");
+
+            String output = Files.readString(log, StandardCharsets.UTF_8);
+            assertEquals(0, process.exitValue(), output);
+            assertTrue(output.contains("rows=" + rows), output);
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    public static class ExportMain {
+
+        public static void main(String[] args) throws IOException {
+            String format = args[0];
+            int rows = Integer.parseInt(args[1]);
+
+            Report report = new Report();
+            report.setId(UUID.randomUUID());
+            report.setType(ReportType.REGULATORY);
+            report.setPeriodStart(OffsetDateTime.now().minusDays(30));
+            report.setPeriodEnd(OffsetDateTime.now());
+
+            ExportService service = new ExportService(null, new ObjectMapper(), null);
+            CountingOutputStream out = new CountingOutputStream();
+            GeneratedReportData data = new GeneratedReportData(rows);
+            if ("pdf".equals(format)) {
+                service.writePdf(report, data, out);
+            } else {
+                service.writeExcel(report, data, out);
+            }
+            System.out.println("rows=" + data.rows + " bytes=" + out.count
+                    + " maxHeapMb=" + Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        }
+    }
+
+    // JSON отчёта, который пишется по мере чтения: incidents (60%), complaints и violations (по 20%)
+    static class GeneratedReportData extends Reader {
+
+        private final int total;
+        private final StringBuilder buffer = new StringBuilder();
+        private int position;
+        private int rows;
+        private int stage;
+        private boolean sectionStart = true;
+
+        GeneratedReportData(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (position == buffer.length()) {
+                buffer.setLength(0);
+                position = 0;
+                if (!fill()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + count, target, offset);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() {
+            int incidents = total * 3 / 5;
+            int complaints = total / 5;
+            switch (stage) {
+                case 0 -> {
+                    buffer.append("{\"totalIncidents\":").append(incidents)
+                            .append(",\"totalComplaints\":").append(complaints)
+                            .append(",\"summary\":{\"totalViolations\":").append(total - incidents - complaints)
+                            .append("},\"incidents\":[");
+                    stage++;
+                }
+                case 1 -> {
+                    appendRows(incidents, "incident");
+                    if (rows == incidents) {
+                        buffer.append("],\"complaints\":[");
+                        sectionStart = true;
+                        stage++;
+                    }
+                }
+                case 2 -> {
+                    appendRows(incidents + complaints, "complaint");
+                    if (rows == incidents + complaints) {
+                        buffer.append("],\"violations\":[");
+                        sectionStart = true;
+                        stage++;
+                    }
+                }
+                case 3 -> {
+                    appendRows(total, "violation");
+                    if (rows == total) {
+                        buffer.append("]}");
+                        stage++;
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void appendRows(int until, String kind) {
+            for (int i = 0; i < 1000 && rows < until; i++) {
+                if (!sectionStart) {
+                    buffer.append(',');
+                }
+                sectionStart = false;
+                buffer.append("{\"id\":\"").append(UUID.randomUUID())
+                        .append("\",\"type\":\"").append(kind.toUpperCase())
+                        .append("\",\"location\":\"Hall ").append(rows % 12)
+                        .append("\",\"occurredAt\":\"2025-01-01T10:00:00Z\",\"status\":\"OPEN\"")
+                        .append(",\"description\":\"Generated ").append(kind).append(" #").append(rows)
+                        .append("\"}");
+                rows++;
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.Report;
+import com.casino.mis.incident.domain.ReportStatus;
+import com.casino.mis.incident.domain.ReportType;
+import com.casino.mis.incident.repository.ReportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private S3Client s3;
+
+    private ExportService service;
+    private Report report;
+    private UUID reportId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ReportExportCache exportCache = new ReportExportCache(s3, "reports", "exports/", 1024 * 1024, 512 * 1024);
+        service = new ExportService(reportRepository, objectMapper, exportCache);
+
+        Map<String, Object> reportData = new LinkedHashMap<>();
+        reportData.put("totalIncidents", 3);
+        reportData.put("incidentsByType", Map.of("THEFT", 2, "FIGHT", 1));
+        List<Map<String, Object>> incidents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> incident = new LinkedHashMap<>();
+            incident.put("id", UUID.randomUUID().toString());
+            incident.put("type", i < 2 ? "THEFT" : "FIGHT");
+            incident.put("location", "Hall <" + i + ">");
+            incident.put("status", "OPEN");
+            incidents.add(incident);
+        }
+        reportData.put("incidents", incidents);
+        reportData.put("complaints", List.of(Map.of("id", UUID.randomUUID().toString(), "category", "SERVICE_QUALITY")));
+
+        reportId = UUID.randomUUID();
+        report = new Report();
+        report.setId(reportId);
+        report.setType(ReportType.INCIDENTS);
+        report.setPeriodStart(OffsetDateTime.now().minusDays(7));
+        report.setPeriodEnd(OffsetDateTime.now());
+        report.setReportData(objectMapper.writeValueAsString(reportData));
+    }
+
+    @Test
+    void exportToExcel_ShouldWriteSummaryAndSectionSheets() throws Exception {
+        when(reportRepository.findById(reportId)).thenReturn(Optional.of(report));
+        when(s3.getObject(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        byte[] bytes = render(service.exportToExcel(reportId, null));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            Sheet summary = workbook.getSheet("Report");
+            assertEquals(reportId.toString(), summary.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("totalIncidents", summary.getRow(2).getCell(0).getStringCellValue());
+
+            Sheet incidents = workbook.getSheet("incidents");
+            assertNotNull(incidents);
+            assertEquals("id", incidents.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(3, incidents.getLastRowNum());
+            assertEquals("Hall <2>", incidents.getRow(3).getCell(2).getStringCellValue());
+
+            assertNotNull(workbook.getSheet("complaints"));
+        }
+    }
+
+    @Test
+    void exportToPdf_ShouldStreamValidPdf() throws Exception {
+        when(reportRepository.findById(reportId)).thenReturn(Optional.of(report));
+        when(s3.getObject(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        ResponseEntity<StreamingResponseBody> response = service.exportToPdf(reportId, null);
+        byte[] bytes = render(response);
+
+        assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(bytes)))) {
+            assertTrue(pdf.getNumberOfPages() >= 1);
+        }
+    }
+
+    @Test
+    void exportToPdf_ShouldRenderOnceAndServeRepeatsFromMemory() throws Exception {
+        when(reportRepository.findById(reportId)).thenReturn(Optional.of(report));
+        when(s3.getObject(any(GetObjectRequest.class))).thenThrow(NoSuchKeyException.builder().build());
+
+        ResponseEntity<StreamingResponseBody> first = service.exportToPdf(reportId, null);
+        byte[] firstBytes = render(first);
+        byte[] secondBytes = render(service.exportToPdf(reportId, null));
+
+        assertArrayEquals(firstBytes, secondBytes);
+        assertNotNull(first.getHeaders().getETag());
+        // Промах проверяет S3 до и после блокировки рендера; повтор отдаётся из памяти
+        verify(s3, times(2)).getObject(any(GetObjectRequest.class));
+        verify(s3, times(1)).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @Test
+    void exportToExcel_ShouldReturnNotModifiedWhenEtagMatches() {
+        when(reportRepository.findById(reportId)).thenReturn(Optional.of(report));
+        String etag = service.exportToExcel(reportId, null).getHeaders().getETag();
+
+        ResponseEntity<StreamingResponseBody> response = service.exportToExcel(reportId, "W/\"other\", " + etag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verifyNoInteractions(s3);
+    }
+
+    @Test
+    void cacheKey_ShouldDependOnFormatAndUpdatedAt() {
+        String pdfKey = ExportService.cacheKey(report, "pdf");
+
+        assertEquals(pdfKey, ExportService.cacheKey(report, "pdf"));
+        assertNotEquals(pdfKey, ExportService.cacheKey(report, "xlsx"));
+        report.setUpdatedAt(report.getUpdatedAt().plusSeconds(1));
+        assertNotEquals(pdfKey, ExportService.cacheKey(report, "pdf"));
+    }
+
+    @Test
+    void exportToPdf_ShouldThrowWhenReportNotGenerated() {
+        report.setReportData(null);
+        report.setStatus(ReportStatus.QUEUED);
+        when(reportRepository.findById(reportId)).thenReturn(Optional.of(report));
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> service.exportToPdf(reportId, null));
+
+        assertTrue(exception.getMessage().contains("not generated"));
+    }
+
+    @Test
+    void exportToExcel_ShouldThrowWhenReportNotFound() {
+        when(reportRepository.findById(reportId)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> service.exportToExcel(reportId, null));
+
+        assertTrue(exception.getMessage().contains("Report not found"));
+    }
+
+    private byte[] render(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+}
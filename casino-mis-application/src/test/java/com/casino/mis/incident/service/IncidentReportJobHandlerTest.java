@@ -0,0 +1,89 @@
+package com.casino.mis.incident.service;
+
+import com.casino.mis.incident.domain.IncidentType;
+import com.casino.mis.incident.domain.ReportStatus;
+import com.casino.mis.incident.dto.IncidentReportRequest;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.service.ReportJobProgress;
+import com.casino.mis.jobs.service.ReportJobQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IncidentReportJobHandlerTest {
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private ReportJobQueue reportJobQueue;
+
+    @InjectMocks
+    private IncidentReportJobHandler handler;
+
+    private ReportJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReportJob();
+        job.setId(UUID.randomUUID());
+        job.setResultId(UUID.randomUUID());
+    }
+
+    @Test
+    void getTypes_ShouldHandleAllIncidentModuleReports() {
+        assertEquals(EnumSet.of(ReportJobType.INCIDENT_REPORT, ReportJobType.MANAGEMENT_REPORT,
+                ReportJobType.REGULATORY_REPORT), handler.getTypes());
+    }
+
+    @Test
+    void markRunning_ShouldSetReportRunning() {
+        handler.markRunning(job);
+
+        verify(reportService).updateStatus(job.getResultId(), ReportStatus.RUNNING);
+    }
+
+    @Test
+    void execute_ShouldPassIncidentTypesFromStoredRequest() {
+        job.setType(ReportJobType.INCIDENT_REPORT);
+        IncidentReportRequest request = new IncidentReportRequest();
+        request.setIncidentTypes(List.of(IncidentType.THEFT, IncidentType.CHEATING));
+        when(reportJobQueue.readPayload(job, IncidentReportRequest.class)).thenReturn(request);
+        ReportJobProgress progress = percent -> { };
+
+        handler.execute(job, progress);
+
+        verify(reportService).completeQueuedReport(job.getResultId(), request.getIncidentTypes(), progress);
+    }
+
+    @Test
+    void execute_ShouldNotReadPayloadForManagementReport() {
+        job.setType(ReportJobType.MANAGEMENT_REPORT);
+
+        handler.execute(job, ReportJobProgress.NONE);
+
+        verify(reportService).completeQueuedReport(eq(job.getResultId()), isNull(), any());
+        verifyNoInteractions(reportJobQueue);
+    }
+
+    @Test
+    void markFailed_ShouldSetReportFailed() {
+        handler.markFailed(job);
+
+        verify(reportService).updateStatus(job.getResultId(), ReportStatus.FAILED);
+    }
+}
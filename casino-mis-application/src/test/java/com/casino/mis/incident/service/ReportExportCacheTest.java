@@ -0,0 +1,46 @@
+package com.casino.mis.incident.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportExportCacheTest {
+
+    @Test
+    void memoryTier_ShouldEvictLeastRecentlyUsedBySize() {
+        ReportExportCache.MemoryTier tier = new ReportExportCache.MemoryTier(100);
+        tier.put("a", new byte[40]);
+        tier.put("b", new byte[40]);
+        tier.get("a");
+
+        tier.put("c", new byte[40]);
+
+        assertTrue(tier.contains("a"));
+        assertFalse(tier.contains("b"));
+        assertTrue(tier.contains("c"));
+        assertEquals(80, tier.bytes());
+    }
+
+    @Test
+    void memoryTier_ShouldSkipEntriesLargerThanLimit() {
+        ReportExportCache.MemoryTier tier = new ReportExportCache.MemoryTier(100);
+        tier.put("a", new byte[40]);
+
+        tier.put("huge", new byte[101]);
+
+        assertFalse(tier.contains("huge"));
+        assertTrue(tier.contains("a"));
+        assertEquals(40, tier.bytes());
+    }
+
+    @Test
+    void memoryTier_ShouldReplaceExistingEntry() {
+        ReportExportCache.MemoryTier tier = new ReportExportCache.MemoryTier(100);
+        tier.put("a", new byte[40]);
+
+        tier.put("a", new byte[10]);
+
+        assertEquals(10, tier.bytes());
+        assertEquals(10, tier.get("a").length);
+    }
+}
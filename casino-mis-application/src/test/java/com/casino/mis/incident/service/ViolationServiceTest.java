@@ -4,6 +4,10 @@ import com.casino.mis.incident.domain.DisciplinaryViolation;
 import com.casino.mis.incident.domain.ViolationStatus;
 import com.casino.mis.incident.domain.ViolationType;
 import com.casino.mis.incident.dto.CreateViolationRequest;
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
 import com.casino.mis.incident.repository.DisciplinaryViolationRepository;
 import com.casino.mis.security.HtmlSanitizer;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +23,7 @@ import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -119,5 +124,76 @@ class ViolationServiceTest {
         assertEquals(employeeId, result.get(0).getEmployeeId());
         verify(repository, times(1)).findByEmployeeId(employeeId);
     }
-}
 
+    @Test
+    void testCountByEmployees() {
+        OffsetDateTime lastOccurredAt = OffsetDateTime.now();
+        DisciplinaryViolationRepository.EmployeeViolationCount row = mock(DisciplinaryViolationRepository.EmployeeViolationCount.class);
+        when(row.getEmployeeId()).thenReturn(employeeId);
+        when(row.getTotal()).thenReturn(3L);
+        when(row.getLastOccurredAt()).thenReturn(lastOccurredAt);
+        when(repository.countByEmployeeIds(List.of(employeeId))).thenReturn(List.of(row));
+
+        List<ViolationCountResponse> result = service.countByEmployees(List.of(employeeId), null, null);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.get(0).getCount());
+        assertEquals(lastOccurredAt, result.get(0).getLastOccurredAt());
+        assertTrue(service.countByEmployees(List.of(), null, null).isEmpty());
+        verify(repository, never()).countByEmployeeIdsAndPeriod(any(), any(), any());
+    }
+
+    @Test
+    void testCountByEmployeesWithPeriod() {
+        OffsetDateTime from = OffsetDateTime.now().minusMonths(1);
+        when(repository.countByEmployeeIdsAndPeriod(eq(List.of(employeeId)), eq(from), any(OffsetDateTime.class)))
+                .thenReturn(List.of());
+
+        assertTrue(service.countByEmployees(List.of(employeeId), from, null).isEmpty());
+        verify(repository).countByEmployeeIdsAndPeriod(eq(List.of(employeeId)), eq(from), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void testPageReturnsNextCursorAndContinuesAfterIt() {
+        DisciplinaryViolation second = new DisciplinaryViolation();
+        second.setId(UUID.randomUUID());
+        second.setEmployeeId(employeeId);
+        second.setType(ViolationType.LATE);
+        second.setOccurredAt(violation.getOccurredAt().plusMinutes(1));
+        ViolationFilter filter = new ViolationFilter(List.of(employeeId), ViolationType.LATE, null, null);
+        when(repository.findPage(filter, null, null, 2)).thenReturn(List.of(violation, second));
+
+        ViolationPageResponse page = service.page(filter, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+        DisciplinaryViolation position = ViolationService.decodeCursor(page.getNextCursor());
+        assertEquals(violation.getId(), position.getId());
+        assertEquals(violation.getOccurredAt(), position.getOccurredAt());
+
+        when(repository.findPage(filter, violation.getOccurredAt(), violation.getId(), 2)).thenReturn(List.of(second));
+        ViolationPageResponse next = service.page(filter, page.getNextCursor(), 1);
+        assertEquals(second.getId(), next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+
+        assertTrue(service.page(new ViolationFilter(List.of(), null, null, null), null, 10).getItems().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.page(filter, "not-a-cursor", 1));
+    }
+
+    @Test
+    void testSummarizeMergesGroupedRows() {
+        UUID otherEmployee = UUID.randomUUID();
+        ViolationFilter filter = new ViolationFilter(null, null, null, null);
+        when(repository.countByEmployeeAndType(filter)).thenReturn(List.of(
+                new Object[]{employeeId, ViolationType.LATE, 2L},
+                new Object[]{employeeId, ViolationType.CONFLICT, 1L},
+                new Object[]{otherEmployee, ViolationType.LATE, 4L}));
+
+        ViolationSummaryResponse summary = service.summarize(filter);
+
+        assertEquals(7L, summary.getTotal());
+        assertEquals(Map.of("LATE", 6L, "CONFLICT", 1L), summary.getByType());
+        assertEquals(Map.of(employeeId, 3L, otherEmployee, 4L), summary.getByEmployee());
+        assertEquals(0L, service.summarize(new ViolationFilter(List.of(), null, null, null)).getTotal());
+    }
+}
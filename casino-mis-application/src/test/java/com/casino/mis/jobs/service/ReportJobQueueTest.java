@@ -0,0 +1,126 @@
+package com.casino.mis.jobs.service;
+
+import com.casino.mis.finance.dto.GameAnalysisRequest;
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.repository.ReportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobQueueTest {
+
+    @Mock
+    private ReportJobRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReportJobQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new ReportJobQueue(repository, new ObjectMapper(), eventPublisher);
+    }
+
+    @Test
+    void submit_ShouldPersistSerializedRequestAndPublishEvent() {
+        UUID resultId = UUID.randomUUID();
+        UUID jobId = UUID.randomUUID();
+        when(repository.save(any(ReportJob.class))).thenAnswer(invocation -> {
+            ReportJob job = invocation.getArgument(0);
+            job.setId(jobId);
+            return job;
+        });
+
+        ReportJob job = queue.submit(ReportJobType.MANAGEMENT_REPORT, resultId, Map.of("limit", 10));
+
+        assertEquals(ReportJobType.MANAGEMENT_REPORT, job.getType());
+        assertEquals(ReportJobStatus.QUEUED, job.getStatus());
+        assertEquals(resultId, job.getResultId());
+        assertEquals("{\"limit\":10}", job.getPayload());
+        ArgumentCaptor<ReportJobSubmittedEvent> event = ArgumentCaptor.forClass(ReportJobSubmittedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(jobId, event.getValue().getJobId());
+    }
+
+    @Test
+    void submit_ShouldFailWhenRequestCannotBeSerialized() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> queue.submit(ReportJobType.FINANCIAL_REPORT, UUID.randomUUID(), new Object()));
+
+        assertTrue(exception.getMessage().contains("Failed to serialize report job request"));
+        verify(repository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void readPayload_ShouldDeserializeStoredRequest() {
+        ReportJob job = new ReportJob();
+        job.setPayload("{\"gameTableId\":\"table-7\"}");
+
+        GameAnalysisRequest request = queue.readPayload(job, GameAnalysisRequest.class);
+
+        assertEquals("table-7", request.getGameTableId());
+    }
+
+    @Test
+    void readPayload_ShouldFailOnMalformedPayload() {
+        ReportJob job = new ReportJob();
+        job.setId(UUID.randomUUID());
+        job.setPayload("{not json");
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> queue.readPayload(job, GameAnalysisRequest.class));
+
+        assertTrue(exception.getMessage().contains(job.getId().toString()));
+    }
+
+    @Test
+    void findById_ShouldThrowWhenJobNotFound() {
+        UUID id = UUID.randomUUID();
+        when(repository.findById(id)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> queue.findById(id));
+
+        assertTrue(exception.getMessage().contains("Report job not found"));
+    }
+
+    @Test
+    void findRecent_ShouldApplyLimitWithStatusFilter() {
+        ReportJob job = new ReportJob();
+        when(repository.findByStatusOrderByCreatedAtDesc(ReportJobStatus.FAILED, PageRequest.of(0, 20)))
+                .thenReturn(List.of(job));
+
+        List<ReportJob> result = queue.findRecent(ReportJobStatus.FAILED, 20);
+
+        assertEquals(List.of(job), result);
+        verify(repository, never()).findAllByOrderByCreatedAtDesc(any());
+    }
+
+    @Test
+    void findRecent_ShouldApplyLimitWithoutStatusFilter() {
+        when(repository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 5))).thenReturn(List.of());
+
+        List<ReportJob> result = queue.findRecent(null, 5);
+
+        assertTrue(result.isEmpty());
+        verify(repository, never()).findByStatusOrderByCreatedAtDesc(any(), any());
+    }
+}
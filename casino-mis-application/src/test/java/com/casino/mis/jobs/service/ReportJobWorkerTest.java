@@ -0,0 +1,196 @@
+package com.casino.mis.jobs.service;
+
+import com.casino.mis.jobs.domain.ReportJob;
+import com.casino.mis.jobs.domain.ReportJobStatus;
+import com.casino.mis.jobs.domain.ReportJobType;
+import com.casino.mis.jobs.repository.ReportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobWorkerTest {
+
+    @Mock
+    private ReportJobRepository repository;
+
+    @Mock
+    private ReportJobHandler handler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportJobWorker worker;
+    private ReportJob job;
+    private UUID jobId;
+
+    @BeforeEach
+    void setUp() {
+        when(handler.getTypes()).thenReturn(EnumSet.of(ReportJobType.INCIDENT_REPORT));
+        worker = new ReportJobWorker(repository, List.of(handler), transactionManager, 1, 60_000);
+
+        jobId = UUID.randomUUID();
+        job = new ReportJob();
+        job.setId(jobId);
+        job.setType(ReportJobType.INCIDENT_REPORT);
+        job.setResultId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void dispatch_ShouldRunClaimedJobAndMarkCompleted() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        when(repository.isCancelRequested(jobId)).thenReturn(false);
+        doAnswer(invocation -> {
+            invocation.<ReportJobProgress>getArgument(1).checkpoint(50);
+            return null;
+        }).when(handler).execute(eq(job), any());
+
+        worker.dispatch();
+
+        verify(repository, timeout(2000)).finish(eq(jobId), eq(ReportJobStatus.COMPLETED), isNull(), any());
+        verify(handler).markRunning(job);
+        verify(repository).updateProgress(jobId, 50);
+        verify(handler, never()).markFailed(any());
+    }
+
+    @Test
+    void checkpoint_ShouldWriteProgressInSeparateTransaction() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        when(repository.isCancelRequested(jobId)).thenReturn(false);
+        doAnswer(invocation -> {
+            invocation.<ReportJobProgress>getArgument(1).checkpoint(30);
+            return null;
+        }).when(handler).execute(eq(job), any());
+
+        worker.dispatch();
+
+        verify(repository, timeout(2000)).finish(eq(jobId), eq(ReportJobStatus.COMPLETED), isNull(), any());
+        // Проверка отмены и запись прогресса - две короткие транзакции REQUIRES_NEW
+        verify(transactionManager, times(2)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void dispatch_ShouldSkipJobClaimedByAnotherWorker() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(0);
+
+        worker.dispatch();
+
+        verify(repository, never()).findById(any());
+        verifyNoMoreInteractions(handler);
+    }
+
+    @Test
+    void dispatch_ShouldMarkFailedWhenHandlerThrows() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        doThrow(new RuntimeException("boom")).when(handler).execute(eq(job), any());
+
+        worker.dispatch();
+
+        verify(repository, timeout(2000)).finish(eq(jobId), eq(ReportJobStatus.FAILED), eq("boom"), any());
+        verify(handler).markFailed(job);
+    }
+
+    @Test
+    void dispatch_ShouldStopAtCheckpointWhenCancelRequested() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        when(repository.isCancelRequested(jobId)).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<ReportJobProgress>getArgument(1).checkpoint(10);
+            return null;
+        }).when(handler).execute(eq(job), any());
+
+        worker.dispatch();
+
+        verify(repository, timeout(2000)).finish(eq(jobId), eq(ReportJobStatus.CANCELLED), any(), any());
+        verify(handler).markFailed(job);
+        verify(repository, never()).updateProgress(any(), anyInt());
+    }
+
+    @Test
+    void recover_ShouldRequeueOnlyJobsWithExpiredLease() {
+        OffsetDateTime before = OffsetDateTime.now().minusSeconds(60);
+
+        worker.recover();
+
+        verify(repository).requeueExpired(argThat(cutoff -> !cutoff.isBefore(before)
+                && cutoff.isBefore(OffsetDateTime.now().minusSeconds(59))));
+    }
+
+    @Test
+    void heartbeat_ShouldExtendLeaseOfRunningJobs() {
+        when(repository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any())).thenReturn(List.of(jobId));
+        when(repository.claim(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(2, TimeUnit.SECONDS);
+            return null;
+        }).when(handler).execute(eq(job), any());
+
+        worker.dispatch();
+        verify(handler, timeout(2000)).execute(eq(job), any());
+        worker.heartbeat();
+        release.countDown();
+
+        verify(repository).heartbeat(eq(Set.of(jobId)), any(OffsetDateTime.class));
+        verify(repository).requeueExpired(any(OffsetDateTime.class));
+    }
+
+    @Test
+    void cancel_ShouldMarkQueuedJobFailedImmediately() {
+        when(repository.findById(jobId)).thenReturn(Optional.of(job));
+        when(repository.cancelQueued(eq(jobId), any(OffsetDateTime.class))).thenReturn(1);
+
+        worker.cancel(jobId);
+
+        verify(handler).markFailed(job);
+        verify(repository, never()).requestCancel(any());
+    }
+
+    @Test
+    void cancel_ShouldThrowWhenJobNotFound() {
+        when(repository.findById(jobId)).thenReturn(Optional.empty());
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> worker.cancel(jobId));
+
+        assertTrue(exception.getMessage().contains("Report job not found"));
+    }
+}
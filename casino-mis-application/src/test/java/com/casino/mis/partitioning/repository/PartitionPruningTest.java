@@ -0,0 +1,133 @@
+package com.casino.mis.partitioning.repository;
+
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Секционирование из changelog 020 на настоящем PostgreSQL: запросы по периоду читают только
+ * секции своего месяца, PartitionCatalog создаёт, отсоединяет, выгружает и удаляет секции.
+ * Нужен Docker; без него тест пропускается.
+ */
+@EnabledIf("dockerAvailable")
+class PartitionPruningTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2026, 3);
+
+    private static PostgreSQLContainer<?> postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static PartitionCatalog catalog;
+    private static TransactionTemplate transactionTemplate;
+
+    static boolean dockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:14");
+        postgres.start();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        catalog = new PartitionCatalog(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        for (PartitionedTable table : PartitionedTable.values()) {
+            for (int i = -1; i <= 1; i++) {
+                catalog.createPartition(table, MONTH.plusMonths(i));
+            }
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void rangeQueriesShouldReadOnlyPartitionsOfTheirMonth() throws Exception {
+        assertEquals(Set.of("cash_operations_p2026_03"), scannedRelations(
+                "SELECT * FROM cash_operations WHERE operated_at >= '2026-03-05T00:00Z' AND operated_at < '2026-03-06T00:00Z'"));
+        assertEquals(Set.of("cash_operations_p2026_02", "cash_operations_p2026_03"), scannedRelations(
+                "SELECT count(*) FROM cash_operations WHERE cash_desk_id = gen_random_uuid() " +
+                "AND operated_at BETWEEN '2026-02-20T00:00Z' AND '2026-03-10T00:00Z'"));
+        assertEquals(Set.of("contact_events_p2026_04"), scannedRelations(
+                "SELECT person_id1, person_id2 FROM contact_events WHERE contact_start_time > '2026-04-30T23:50Z' " +
+                "AND contact_start_time < '2026-05-01T00:00Z'"));
+    }
+
+    @Test
+    void catalogShouldDetachExportAndDropPartition() {
+        PartitionedTable table = PartitionedTable.CONTACT_EVENTS;
+        YearMonth month = YearMonth.of(2020, 1);
+        catalog.createPartition(table, month);
+        jdbcTemplate.update("INSERT INTO contact_events (id, person_id1, person_id2, contact_start_time, status) " +
+                "SELECT gen_random_uuid(), 'PERSON_' || i, 'PERSON_0', ?, 'ENDED' FROM generate_series(1, 5) i",
+                month.atDay(10).atStartOfDay().atOffset(ZoneOffset.UTC));
+
+        assertTrue(catalog.findPartitions(table).contains(
+                new PartitionCatalog.PartitionInfo("contact_events_p2020_01", true)));
+        catalog.detachPartition(table, "contact_events_p2020_01");
+        assertTrue(catalog.findPartitions(table).contains(
+                new PartitionCatalog.PartitionInfo("contact_events_p2020_01", false)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM contact_events " +
+                "WHERE contact_start_time < '2020-02-01T00:00Z'", Long.class));
+
+        Long rows = transactionTemplate.execute(status -> catalog.exportRows(table, "contact_events_p2020_01",
+                rs -> {
+                    long count = 0;
+                    while (rs.next()) {
+                        count++;
+                    }
+                    return count;
+                }));
+        assertEquals(5L, rows);
+
+        catalog.dropPartition("contact_events_p2020_01");
+        assertTrue(catalog.findPartitions(table).stream().noneMatch(p -> p.getName().equals("contact_events_p2020_01")));
+    }
+
+    private static Set<String> scannedRelations(String sql) throws Exception {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        Set<String> relations = new TreeSet<>();
+        collectRelations(new ObjectMapper().readTree(json).get(0).get("Plan"), relations);
+        return relations;
+    }
+
+    private static void collectRelations(JsonNode node, Set<String> relations) {
+        if (node.has("Relation Name")) {
+            relations.add(node.get("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectRelations(child, relations);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.casino.mis.partitioning.service;
+
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import com.casino.mis.partitioning.repository.PartitionCatalog;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionArchiverTest {
+
+    @Mock
+    private PartitionCatalog catalog;
+
+    @Mock
+    private S3Client s3;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archive_ShouldUploadGzippedCsvWithHeader() throws Exception {
+        PartitionArchiver archiver = new PartitionArchiver(catalog, s3, "reports", "archive/");
+        SimpleResultSet rows = new SimpleResultSet();
+        rows.addColumn("person_id1", Types.VARCHAR, 255, 0);
+        rows.addColumn("location", Types.VARCHAR, 500, 0);
+        rows.addRow("PERSON_1", "Зал 1, стол \"7\"");
+        rows.addRow("PERSON_2", null);
+        when(catalog.exportRows(eq(PartitionedTable.CONTACT_EVENTS), eq("contact_events_p2025_01"), any()))
+                .thenAnswer(invocation -> ((ResultSetExtractor<Long>) invocation.getArgument(2)).extractData(rows));
+        AtomicReference<String> uploaded = new AtomicReference<>();
+        when(s3.putObject(any(PutObjectRequest.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            // Временный файл удаляется после загрузки, поэтому тело читается здесь
+            RequestBody body = invocation.getArgument(1);
+            try (InputStream in = new GZIPInputStream(body.contentStreamProvider().newStream())) {
+                uploaded.set(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return PutObjectResponse.builder().build();
+        });
+
+        String key = archiver.archive(PartitionedTable.CONTACT_EVENTS, "contact_events_p2025_01");
+
+        assertEquals("archive/contact_events/contact_events_p2025_01.csv.gz", key);
+        assertEquals("person_id1,location\nPERSON_1,\"Зал 1, стол \"\"7\"\"\"\nPERSON_2,\n", uploaded.get());
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3).putObject(request.capture(), any(RequestBody.class));
+        assertEquals("reports", request.getValue().bucket());
+        assertEquals("gzip", request.getValue().contentEncoding());
+    }
+
+    @Test
+    void csvValue_ShouldDistinguishNullFromEmptyString() {
+        assertEquals("", PartitionArchiver.csvValue(null));
+        assertEquals("\"\"", PartitionArchiver.csvValue(""));
+        assertEquals("\"a\nb\"", PartitionArchiver.csvValue("a\nb"));
+        assertEquals("plain", PartitionArchiver.csvValue("plain"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.casino.mis.partitioning.service;
+
+import com.casino.mis.finance.repository.CashOperationIdempotencyKeyRepository;
+import com.casino.mis.partitioning.domain.PartitionedTable;
+import com.casino.mis.partitioning.repository.PartitionCatalog;
+import com.casino.mis.partitioning.repository.PartitionCatalog.PartitionInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    private static final YearMonth CURRENT = YearMonth.of(2026, 10);
+
+    @Mock
+    private PartitionCatalog catalog;
+
+    @Mock
+    private PartitionArchiver archiver;
+
+    @Mock
+    private CashOperationIdempotencyKeyRepository idempotencyKeys;
+
+    private PartitionMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PartitionMaintenanceService(catalog, archiver, idempotencyKeys, 2, 24, 12);
+    }
+
+    @Test
+    void ensureFuturePartitions_ShouldCreateOnlyMissingMonths() {
+        when(catalog.findPartitions(PartitionedTable.CASH_OPERATIONS)).thenReturn(List.of(
+                new PartitionInfo("cash_operations_p2026_10", true),
+                new PartitionInfo("cash_operations_p2026_11", true)));
+        when(catalog.findPartitions(PartitionedTable.CONTACT_EVENTS)).thenReturn(List.of());
+        doThrow(new IllegalStateException("default partition contains rows"))
+                .when(catalog).createPartition(PartitionedTable.CONTACT_EVENTS, CURRENT);
+
+        service.ensureFuturePartitions(CURRENT);
+
+        verify(catalog).createPartition(PartitionedTable.CASH_OPERATIONS, YearMonth.of(2026, 12));
+        verify(catalog, never()).createPartition(PartitionedTable.CASH_OPERATIONS, CURRENT);
+        // Сбой одной секции не мешает создать следующие
+        verify(catalog).createPartition(PartitionedTable.CONTACT_EVENTS, YearMonth.of(2026, 11));
+        verify(catalog).createPartition(PartitionedTable.CONTACT_EVENTS, YearMonth.of(2026, 12));
+    }
+
+    @Test
+    void archiveExpiredPartitions_ShouldDetachExportAndDropOnlyExpiredMonths() throws IOException {
+        when(catalog.findPartitions(PartitionedTable.CASH_OPERATIONS)).thenReturn(List.of(
+                new PartitionInfo("cash_operations_p2024_09", true),
+                new PartitionInfo("cash_operations_p2024_10", true)));
+        when(catalog.findPartitions(PartitionedTable.CONTACT_EVENTS)).thenReturn(List.of(
+                new PartitionInfo("contact_events_p2025_08", false)));
+
+        service.archiveExpiredPartitions(CURRENT);
+
+        InOrder order = inOrder(catalog, archiver, idempotencyKeys);
+        order.verify(catalog).detachPartition(PartitionedTable.CASH_OPERATIONS, "cash_operations_p2024_09");
+        order.verify(archiver).archive(PartitionedTable.CASH_OPERATIONS, "cash_operations_p2024_09");
+        order.verify(catalog).dropPartition("cash_operations_p2024_09");
+        order.verify(idempotencyKeys).deleteOperatedBefore(OffsetDateTime.of(2024, 10, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        // Отсоединённая прошлым запуском секция только выгружается и удаляется
+        verify(catalog, never()).detachPartition(PartitionedTable.CONTACT_EVENTS, "contact_events_p2025_08");
+        verify(archiver).archive(PartitionedTable.CONTACT_EVENTS, "contact_events_p2025_08");
+        verify(catalog).dropPartition("contact_events_p2025_08");
+        verify(archiver, never()).archive(PartitionedTable.CASH_OPERATIONS, "cash_operations_p2024_10");
+        verifyNoMoreInteractions(idempotencyKeys);
+    }
+
+    @Test
+    void archiveExpiredPartitions_ShouldKeepDetachedPartitionWhenExportFails() throws IOException {
+        when(catalog.findPartitions(PartitionedTable.CASH_OPERATIONS)).thenReturn(List.of(
+                new PartitionInfo("cash_operations_p2020_01", true),
+                new PartitionInfo("cash_operations_p2020_02", true)));
+        when(catalog.findPartitions(PartitionedTable.CONTACT_EVENTS)).thenReturn(List.of());
+        when(archiver.archive(PartitionedTable.CASH_OPERATIONS, "cash_operations_p2020_01"))
+                .thenThrow(new IOException("S3 unavailable"));
+
+        service.archiveExpiredPartitions(CURRENT);
+
+        verify(catalog).detachPartition(PartitionedTable.CASH_OPERATIONS, "cash_operations_p2020_01");
+        verify(catalog, never()).dropPartition("cash_operations_p2020_01");
+        verify(catalog).dropPartition("cash_operations_p2020_02");
+        verify(idempotencyKeys, times(1)).deleteOperatedBefore(any(OffsetDateTime.class));
+    }
+
+    @Test
+    void maintain_ShouldRunUnderLockAndReleaseIt() {
+        PartitionCatalog.MaintenanceLock lock = mock(PartitionCatalog.MaintenanceLock.class);
+        when(catalog.tryLockMaintenance()).thenReturn(lock);
+        when(catalog.findPartitions(any(PartitionedTable.class))).thenReturn(List.of());
+
+        service.maintain();
+
+        InOrder order = inOrder(catalog, lock);
+        order.verify(catalog).tryLockMaintenance();
+        order.verify(catalog, atLeastOnce()).createPartition(any(PartitionedTable.class), any(YearMonth.class));
+        order.verify(lock).close();
+    }
+
+    @Test
+    void maintain_ShouldSkipRunWhenAnotherInstanceHoldsLock() {
+        when(catalog.tryLockMaintenance()).thenReturn(null);
+
+        service.maintain();
+
+        verify(catalog).tryLockMaintenance();
+        verifyNoMoreInteractions(catalog);
+        verifyNoInteractions(archiver, idempotencyKeys);
+    }
+
+    @Test
+    void partitionedTable_ShouldRoundTripPartitionNames() {
+        assertEquals("contact_events_p2026_01", PartitionedTable.CONTACT_EVENTS.partitionName(YearMonth.of(2026, 1)));
+        assertEquals(Optional.of(YearMonth.of(2026, 1)), PartitionedTable.CONTACT_EVENTS.monthOf("contact_events_p2026_01"));
+        assertEquals(Optional.empty(), PartitionedTable.CONTACT_EVENTS.monthOf("contact_events_default"));
+        assertEquals(Optional.empty(), PartitionedTable.CASH_OPERATIONS.monthOf("contact_events_p2026_01"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.casino.mis.security.controller;
+
+import com.casino.mis.security.service.NotificationService;
+import com.casino.mis.security.service.NotificationSubscriptionGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPushControllerTest {
+
+    @Mock
+    private NotificationService service;
+
+    private NotificationPushController controller;
+    private UUID notificationId;
+    private UUID recipientId;
+
+    @BeforeEach
+    void setUp() {
+        controller = new NotificationPushController(service, new NotificationSubscriptionGuard());
+        notificationId = UUID.randomUUID();
+        recipientId = UUID.randomUUID();
+    }
+
+    @Test
+    void delivered_ShouldAcceptAckFromRecipient() {
+        when(service.findRecipientId(notificationId)).thenReturn(Optional.of(recipientId));
+
+        controller.delivered(notificationId, user(recipientId.toString()));
+        controller.read(notificationId, user(recipientId.toString()));
+
+        verify(service).markDelivered(notificationId);
+        verify(service).markAsRead(notificationId);
+    }
+
+    @Test
+    void delivered_ShouldRejectAckFromAnotherConsole() {
+        when(service.findRecipientId(notificationId)).thenReturn(Optional.of(recipientId));
+        Principal other = user(UUID.randomUUID().toString());
+
+        assertThrows(AccessDeniedException.class, () -> controller.delivered(notificationId, other));
+        assertThrows(AccessDeniedException.class, () -> controller.read(notificationId, other));
+        assertThrows(AccessDeniedException.class, () -> controller.read(notificationId, null));
+
+        verify(service, never()).markDelivered(any());
+        verify(service, never()).markAsRead(any());
+    }
+
+    @Test
+    void read_ShouldIgnoreUnknownNotification() {
+        when(service.findRecipientId(notificationId)).thenReturn(Optional.empty());
+
+        controller.read(notificationId, user(recipientId.toString()));
+
+        verify(service, never()).markAsRead(any());
+    }
+
+    private static Principal user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of());
+    }
+}
@@ -0,0 +1,97 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.repository.ContactEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContactFrequencyWindowTest {
+
+    @Mock
+    private ContactEventRepository repository;
+
+    private ContactFrequencyWindow window;
+
+    @BeforeEach
+    void setUp() {
+        window = new ContactFrequencyWindow(repository, 10, 10);
+    }
+
+    @Test
+    void count_ShouldTreatPairAsUnorderedAndIgnoreContactsOutsideWindow() {
+        OffsetDateTime now = OffsetDateTime.now();
+        window.record("PERSON_1", "PERSON_2", now.minusMinutes(1));
+        window.record("PERSON_2", "PERSON_1", now.minusMinutes(9));
+        window.record("PERSON_1", "PERSON_2", now.minusMinutes(30));
+        window.record("PERSON_1", "PERSON_3", now);
+
+        assertEquals(2, window.count("PERSON_2", "PERSON_1"));
+        assertEquals(1, window.count("PERSON_3", "PERSON_1"));
+        assertEquals(0, window.count("PERSON_2", "PERSON_3"));
+        assertNotEquals(ContactFrequencyWindow.pairKey("AB", "C"), ContactFrequencyWindow.pairKey("A", "BC"));
+    }
+
+    @Test
+    void pairWindow_ShouldExpireBucketsAsTimeAdvances() {
+        ContactFrequencyWindow.PairWindow pair = new ContactFrequencyWindow.PairWindow(60, 1000);
+        pair.add(1000, 950, 1);
+        pair.add(1000, 990, 1);
+        pair.add(1000, 1000, 1);
+
+        assertEquals(3, pair.total(1000));
+        assertEquals(2, pair.total(1010));
+        assertEquals(1, pair.total(1050));
+        assertEquals(0, pair.total(1060));
+        assertEquals(0, pair.total(5000));
+    }
+
+    @Test
+    void record_ShouldBeUndoneWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            window.record("PERSON_1", "PERSON_2", OffsetDateTime.now());
+            assertEquals(1, window.count("PERSON_1", "PERSON_2"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, window.count("PERSON_1", "PERSON_2"));
+    }
+
+    @Test
+    void rebuildAndSweep_ShouldKeepOnlyPairsActiveInWindow() {
+        OffsetDateTime now = OffsetDateTime.now();
+        ContactEventRepository.ContactWindowRow first = row("PERSON_1", "PERSON_2", now.minusMinutes(2));
+        ContactEventRepository.ContactWindowRow second = row("PERSON_2", "PERSON_1", now.minusMinutes(1));
+        when(repository.streamWindowRows(any(OffsetDateTime.class))).thenReturn(Stream.of(first, second));
+
+        window.rebuild();
+        window.record("PERSON_3", "PERSON_4", now.minusMinutes(20));
+        window.sweep();
+
+        assertEquals(2, window.count("PERSON_1", "PERSON_2"));
+        assertEquals(1, window.pairs());
+    }
+
+    private static ContactEventRepository.ContactWindowRow row(String personId1, String personId2, OffsetDateTime start) {
+        ContactEventRepository.ContactWindowRow row = mock(ContactEventRepository.ContactWindowRow.class);
+        when(row.getPersonId1()).thenReturn(personId1);
+        when(row.getPersonId2()).thenReturn(personId2);
+        when(row.getContactStartTime()).thenReturn(start);
+        return row;
+    }
+}
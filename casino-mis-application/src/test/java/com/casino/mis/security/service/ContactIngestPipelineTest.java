@@ -0,0 +1,230 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.client.SuspiciousActivityGateway;
+import com.casino.mis.security.domain.ContactEvent;
+import com.casino.mis.security.dto.ContactBatchResponse;
+import com.casino.mis.security.dto.ContactBatchResult;
+import com.casino.mis.security.dto.ContactEventRequest;
+import com.casino.mis.security.repository.ContactEventRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ContactIngestPipelineTest {
+
+    @Mock
+    private ContactEventRepository repository;
+
+    @Mock
+    private SuspiciousActivityGateway suspiciousActivityGateway;
+
+    private ContactIngestPipeline pipeline;
+    private final OffsetDateTime start = OffsetDateTime.now().minusMinutes(30);
+
+    @BeforeEach
+    void setUp() {
+        ContactFrequencyWindow window = new ContactFrequencyWindow(repository, 10, 10);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ContactMonitoringService monitoringService = new ContactMonitoringService(repository,
+                mock(FraudCheckService.class), mock(NotificationService.class), suspiciousActivityGateway, window,
+                transactionManager);
+        // Воркеры не запускаются: пачки забираются из теста через drain
+        pipeline = new ContactIngestPipeline(repository, monitoringService, window,
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, 2, 1, 100, 1, 10);
+        when(repository.findByStartTimesAndPersons(anyCollection(), anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void ingest_ShouldRejectInvalidAndThrottleWhenQueueIsFull() {
+        ContactBatchResponse response = pipeline.ingest(List.of(
+                request("PERSON_1", "PERSON_2", null),
+                new ContactEventRequest("PERSON_1", null, start, null, null),
+                request("PERSON_3", "PERSON_4", null),
+                request("PERSON_5", "PERSON_6", null)));
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getThrottled());
+        assertEquals(ContactBatchResult.Status.REJECTED, response.getResults().get(0).getStatus());
+        assertEquals(1, response.getResults().get(0).getIndex());
+        assertEquals(3, response.getResults().get(1).getIndex());
+        assertEquals(2, pipeline.stats().getQueueDepth());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_ShouldCoalesceStartAndEndIntoOneInsertAndRaiseAlertAsync() throws InterruptedException {
+        UUID activityId = UUID.randomUUID();
+        when(suspiciousActivityGateway.createSuspiciousActivity(anyString(), anyString(), anyList(), eq("HIGH")))
+                .thenReturn(activityId);
+        ContactEvent current = new ContactEvent();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ContactEvent> events = invocation.getArgument(0);
+            events.forEach(event -> event.setId(UUID.randomUUID()));
+            return events;
+        });
+        when(repository.lockById(any())).thenReturn(Optional.of(current));
+        when(repository.linkSuspiciousActivity(any(), eq(activityId))).thenReturn(1);
+        pipeline.offer(request("PERSON_1", "PERSON_2", null));
+        pipeline.offer(request("PERSON_2", "PERSON_1", start.plusMinutes(25)));
+
+        assertEquals(2, pipeline.drain(0, 0));
+
+        ArgumentCaptor<List<ContactEvent>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        ContactEvent event = saved.getValue().get(0);
+        assertEquals(ContactEvent.ContactStatus.SUSPICIOUS, event.getStatus());
+        assertEquals(25 * 60, event.getDurationSeconds());
+        verify(suspiciousActivityGateway, timeout(2000)).createSuspiciousActivity(anyString(), anyString(), anyList(), eq("HIGH"));
+        // Ссылка на активность - точечный UPDATE, снимок события не сохраняется повторно
+        verify(repository, timeout(2000)).linkSuspiciousActivity(event.getId(), activityId);
+        verify(repository, never()).save(any());
+        assertEquals(1, pipeline.stats().getCoalesced());
+        assertEquals(1, pipeline.stats().getSuspicious());
+    }
+
+    @Test
+    void createSuspiciousActivity_ShouldSkipContactAlreadyLinkedToActivity() {
+        ContactMonitoringService monitoringService = new ContactMonitoringService(repository,
+                mock(FraudCheckService.class), mock(NotificationService.class), suspiciousActivityGateway,
+                new ContactFrequencyWindow(repository, 10, 10), mock(PlatformTransactionManager.class));
+        ContactEvent snapshot = new ContactEvent();
+        snapshot.setId(UUID.randomUUID());
+        ContactEvent current = new ContactEvent();
+        current.setSuspiciousActivityId(UUID.randomUUID());
+        when(repository.lockById(snapshot.getId())).thenReturn(Optional.of(current));
+
+        monitoringService.createSuspiciousActivity(snapshot, "Частые взаимодействия");
+
+        verifyNoInteractions(suspiciousActivityGateway);
+        verify(repository, never()).linkSuspiciousActivity(any(), any());
+        assertNull(snapshot.getSuspiciousActivityId());
+    }
+
+    @Test
+    void registerContact_ShouldCommitContactWhenGatewayFails() {
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        ContactMonitoringService monitoringService = new ContactMonitoringService(repository,
+                mock(FraudCheckService.class), mock(NotificationService.class), suspiciousActivityGateway,
+                new ContactFrequencyWindow(repository, 10, 10), transactionManager);
+        ContactEvent stored = new ContactEvent();
+        when(repository.save(any(ContactEvent.class))).thenAnswer(invocation -> {
+            ContactEvent event = invocation.getArgument(0);
+            event.setId(UUID.randomUUID());
+            return event;
+        });
+        when(repository.lockById(any())).thenReturn(Optional.of(stored));
+        when(suspiciousActivityGateway.createSuspiciousActivity(anyString(), anyString(), anyList(), eq("HIGH")))
+                .thenThrow(new IllegalStateException("incident service unavailable"));
+
+        // Транзакция вызывающего, как у @Transactional registerContact
+        ContactEvent saved = new TransactionTemplate(transactionManager)
+                .execute(status -> monitoringService.registerContact(request("PERSON_1", "PERSON_2", start.plusMinutes(25))));
+
+        assertTrue(saved.getSuspicious());
+        assertNull(saved.getSuspiciousActivityId());
+        verify(repository).save(saved);
+        // Событие контакта зафиксировано; откатилась только отдельная транзакция создания активности
+        assertEquals(1, transactionManager.committed);
+        assertEquals(1, transactionManager.rolledBack);
+        verify(repository, never()).linkSuspiciousActivity(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void drain_ShouldUpdateStoredActiveContactInsteadOfInserting() throws InterruptedException {
+        ContactEvent stored = new ContactEvent();
+        stored.setId(UUID.randomUUID());
+        stored.setPersonId1("PERSON_1");
+        stored.setPersonId2("PERSON_2");
+        stored.setContactStartTime(start);
+        when(repository.findByStartTimesAndPersons(anyCollection(), anyCollection())).thenReturn(List.of(stored));
+        pipeline.offer(request("PERSON_1", "PERSON_2", start.plusMinutes(3)));
+
+        pipeline.drain(0, 0);
+
+        assertEquals(ContactEvent.ContactStatus.ENDED, stored.getStatus());
+        assertEquals(180, stored.getDurationSeconds());
+        ArgumentCaptor<List<ContactEvent>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertTrue(saved.getValue().isEmpty());
+        assertEquals(1, pipeline.stats().getUpdated());
+    }
+
+    @Test
+    void drain_ShouldRetryFailedBatchOneByOne() throws InterruptedException {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ContactEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> "BROKEN".equals(event.getPersonId1()))) {
+                throw new IllegalStateException("value too long");
+            }
+            return events;
+        });
+        pipeline.offer(request("BROKEN", "PERSON_2", null));
+        pipeline.offer(request("PERSON_1", "PERSON_2", null));
+
+        pipeline.drain(0, 0);
+
+        assertEquals(1, pipeline.stats().getInserted());
+        assertEquals(1, pipeline.stats().getFailed());
+    }
+
+    // Каждая транзакция новая: REQUIRES_NEW и внешняя транзакция считаются по отдельности
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        int committed;
+        int rolledBack;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            committed++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rolledBack++;
+        }
+    }
+
+    private ContactEventRequest request(String personId1, String personId2, OffsetDateTime end) {
+        return new ContactEventRequest(personId1, personId2, start, end, "Игровой зал, стол 1");
+    }
+}
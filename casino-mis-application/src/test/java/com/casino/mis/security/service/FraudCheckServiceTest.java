@@ -0,0 +1,103 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.FraudCheckResult;
+import com.casino.mis.security.domain.FraudDatabase;
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.FraudBatchCheckResponse;
+import com.casino.mis.security.dto.FraudCheckRequest;
+import com.casino.mis.security.dto.FraudCheckResponse;
+import com.casino.mis.security.repository.FraudCheckResultRepository;
+import com.casino.mis.security.repository.FraudDatabaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudCheckServiceTest {
+
+    @Mock
+    private FraudDatabaseRepository fraudRepository;
+
+    @Mock
+    private FraudCheckResultRepository checkResultRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private FraudMatchCounters matchCounters;
+
+    private FraudCheckService service;
+    private FraudDatabase petrov;
+    private FraudDatabase volkov;
+
+    @BeforeEach
+    void setUp() {
+        FraudMatchIndex index = new FraudMatchIndex(fraudRepository, null, 10);
+        petrov = record("P-1", "Ivan Petrov");
+        volkov = record("P-2", "Sergey Volkov");
+        index.addAll(List.of(petrov, volkov));
+        service = new FraudCheckService(checkResultRepository, notificationService, index, matchCounters);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void performBatchCheck_ShouldBatchWritesAndNotifyOncePerRecord() {
+        List<FraudCheckRequest> requests = List.of(
+                new FraudCheckRequest("P-1", null, null),
+                new FraudCheckRequest("Иван Петров", null, null),
+                new FraudCheckRequest("VISITOR-42", null, null),
+                new FraudCheckRequest("Sergei Volkov", null, null));
+
+        FraudBatchCheckResponse response = service.performBatchCheck(requests);
+
+        assertEquals(4, response.getChecked());
+        assertEquals(3, response.getMatched());
+        assertFalse(response.getResults().get(2).getMatchFound());
+        assertEquals(FraudCheckResult.MatchConfidence.VERY_HIGH,
+                response.getResults().get(0).getMatches().get(0).getConfidence());
+        assertEquals(petrov.getId(), response.getResults().get(1).getMatches().get(0).getFraudRecordId());
+
+        ArgumentCaptor<List<FraudCheckResult>> results = ArgumentCaptor.forClass(List.class);
+        verify(checkResultRepository, times(1)).saveAll(results.capture());
+        assertEquals(3, results.getValue().size());
+
+        ArgumentCaptor<List<Notification>> notifications = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(1)).createNotifications(notifications.capture());
+        assertEquals(2, notifications.getValue().size());
+        assertTrue(notifications.getValue().get(0).getMessage().contains("P-1, Иван Петров"));
+
+        verify(matchCounters).increment(petrov.getId(), 2);
+        verify(matchCounters).increment(volkov.getId(), 1);
+        verifyNoInteractions(fraudRepository);
+    }
+
+    @Test
+    void performCheck_ShouldSkipWritesWithoutMatches() {
+        FraudCheckResponse response = service.performCheck(new FraudCheckRequest("12345", null, null));
+
+        assertFalse(response.getMatchFound());
+        assertTrue(response.getMatches().isEmpty());
+        verifyNoInteractions(checkResultRepository, notificationService, matchCounters);
+    }
+
+    private static FraudDatabase record(String personId, String fullName) {
+        FraudDatabase record = new FraudDatabase();
+        record.setId(UUID.randomUUID());
+        record.setPersonId(personId);
+        record.setFullName(fullName);
+        record.setFraudType(FraudDatabase.FraudType.CHEATING);
+        record.setDescription("test");
+        record.setStatus(FraudDatabase.FraudStatus.ACTIVE);
+        return record;
+    }
+}
@@ -22,6 +22,9 @@ class FraudDatabaseServiceTest {
     @Mock
     private FraudDatabaseRepository repository;
 
+    @Mock
+    private FraudMatchIndex matchIndex;
+
     @InjectMocks
     private FraudDatabaseService service;
 
@@ -63,6 +66,7 @@ class FraudDatabaseServiceTest {
         assertEquals("PERSON_001", result.getPersonId());
         assertEquals(FraudDatabase.FraudStatus.ACTIVE, result.getStatus());
         verify(repository, times(1)).save(any(FraudDatabase.class));
+        verify(matchIndex).onSaved(fraudRecord);
     }
 
     @Test
@@ -141,6 +145,7 @@ class FraudDatabaseServiceTest {
         assertNotNull(result);
         verify(repository, times(1)).findById(recordId);
         verify(repository, times(1)).save(any(FraudDatabase.class));
+        verify(matchIndex).onSaved(fraudRecord);
     }
 
     @Test
@@ -150,6 +155,7 @@ class FraudDatabaseServiceTest {
         service.delete(recordId);
 
         verify(repository, times(1)).deleteById(recordId);
+        verify(matchIndex).onDeleted(recordId);
     }
 }
 
@@ -0,0 +1,146 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.FraudDatabase;
+import com.casino.mis.security.dto.FraudCheckRequest;
+import com.casino.mis.security.repository.FraudCheckResultRepository;
+import com.casino.mis.security.repository.FraudDatabaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class FraudMatchCountersTest {
+
+    private FraudDatabaseRepository repository;
+    private FraudMatchCounters counters;
+    // Содержимое match_count "в БД" после сбросов
+    private final Map<UUID, Long> stored = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(FraudDatabaseRepository.class, withSettings().stubOnly());
+        when(repository.addMatchCounts(anyMap(), any(OffsetDateTime.class))).thenAnswer(invocation -> {
+            Map<UUID, Long> deltas = invocation.getArgument(0);
+            deltas.forEach((id, delta) -> stored.merge(id, delta, Long::sum));
+            return deltas.size();
+        });
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        counters = new FraudMatchCounters(repository, transactionTemplate);
+    }
+
+    @Test
+    void flush_ShouldKeepExactCountsUnder64ConcurrentCheckers() throws Exception {
+        FraudMatchIndex index = new FraudMatchIndex(repository, null, 10);
+        List<FraudDatabase> records = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            FraudDatabase record = new FraudDatabase();
+            record.setId(UUID.randomUUID());
+            record.setPersonId("P-" + i);
+            record.setFullName("Fraudster" + i);
+            record.setFraudType(FraudDatabase.FraudType.CHEATING);
+            record.setStatus(FraudDatabase.FraudStatus.ACTIVE);
+            records.add(record);
+        }
+        index.addAll(records);
+        FraudCheckService service = new FraudCheckService(
+                mock(FraudCheckResultRepository.class, withSettings().stubOnly()),
+                mock(NotificationService.class, withSettings().stubOnly()),
+                index, counters);
+
+        int checkers = 64;
+        int checksPerChecker = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(checkers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            // Сброс идёт параллельно с проверками, как по расписанию
+            Future<?> flusher = pool.submit(() -> {
+                while (running.get()) {
+                    counters.flush();
+                }
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < checkers; t++) {
+                int checker = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < checksPerChecker; i++) {
+                        service.performCheck(new FraudCheckRequest("P-" + ((checker + i) % records.size()), null, null));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            running.set(false);
+            flusher.get(1, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+        counters.flush();
+
+        long expectedPerRecord = (long) checkers * checksPerChecker / records.size();
+        for (FraudDatabase record : records) {
+            assertEquals(expectedPerRecord, stored.get(record.getId()));
+            assertEquals(0, counters.pending(record.getId()));
+        }
+    }
+
+    @Test
+    void flush_ShouldDropFlushedCountersFromMap() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        counters.increment(first, 2);
+        counters.increment(second, 1);
+        assertEquals(2, counters.tracked());
+
+        counters.flush();
+
+        assertEquals(0, counters.tracked());
+        assertEquals(2, stored.get(first));
+        assertEquals(1, stored.get(second));
+        counters.increment(first, 4);
+        counters.flush();
+        assertEquals(6, stored.get(first));
+        assertEquals(0, counters.tracked());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldFallBackToPerRecordUpdatesAndKeepFailedDelta() {
+        UUID ok = UUID.randomUUID();
+        UUID broken = UUID.randomUUID();
+        // Пакет падает из-за одной записи; остальные сбрасываются по одной
+        when(repository.addMatchCounts(anyMap(), any(OffsetDateTime.class))).thenAnswer(invocation -> {
+            Map<UUID, Long> deltas = invocation.getArgument(0);
+            if (deltas.containsKey(broken)) {
+                throw new QueryTimeoutException("timeout");
+            }
+            deltas.forEach((id, delta) -> stored.merge(id, delta, Long::sum));
+            return deltas.size();
+        });
+
+        counters.increment(ok, 3);
+        counters.increment(broken, 5);
+        counters.flush();
+
+        assertEquals(3, stored.get(ok));
+        assertEquals(0, counters.pending(ok));
+        assertEquals(5, counters.pending(broken));
+        assertEquals(1, counters.tracked());
+    }
+}
@@ -0,0 +1,193 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.FraudDatabase;
+import com.casino.mis.security.repository.FraudDatabaseRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FraudMatchIndexTest {
+
+    @Mock
+    private FraudDatabaseRepository repository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private FraudMatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FraudMatchIndex(repository, entityManager, 3);
+    }
+
+    @Test
+    void search_ShouldMatchCyrillicQueryAgainstLatinName() {
+        FraudDatabase petrov = record("P-1", "Ivan Petrov");
+        index.addAll(List.of(petrov, record("P-2", "Maria Sidorova")));
+
+        List<FraudMatchIndex.Match> matches = index.search("Иван Петров", 70.0);
+
+        assertEquals(1, matches.size());
+        assertEquals(petrov.getId(), matches.get(0).getId());
+        assertEquals(100.0, matches.get(0).getScore());
+    }
+
+    @Test
+    void search_ShouldTolerateTyposTransliterationAndWordOrder() {
+        FraudDatabase yuri = record("P-1", "Юрий Щербаков");
+        index.addAll(List.of(yuri, record("P-2", "Olga Kuznetsova")));
+
+        assertEquals(yuri.getId(), index.search("Shcherbakov Yuri", 70.0).get(0).getId());
+        assertEquals(yuri.getId(), index.search("Iurii Scherbakov", 70.0).get(0).getId());
+        assertEquals(yuri.getId(), index.search("Yuriy Sherbakof", 70.0).get(0).getId());
+        assertTrue(index.search("Olga Petrova", 90.0).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnTopKOrderedByScore() {
+        index.addAll(List.of(
+                record("P-1", "Ivan Petrov"),
+                record("P-2", "Ivan Petrova"),
+                record("P-3", "Ivan Petrovsky"),
+                record("P-4", "Ivana Petrovich"),
+                record("P-5", "Ivan Petrov")));
+
+        List<FraudMatchIndex.Match> matches = index.search("Ivan Petrov", 70.0);
+
+        assertEquals(3, matches.size());
+        assertEquals(100.0, matches.get(0).getScore());
+        assertTrue(matches.get(1).getScore() >= matches.get(2).getScore());
+    }
+
+    @Test
+    void onSaved_ShouldDropArchivedRecordAndReindexRenamed() {
+        FraudDatabase record = record("P-1", "Ivan Petrov");
+        index.onSaved(record);
+        assertTrue(index.findByPersonId("P-1").isPresent());
+
+        record.setFullName("Sergey Volkov");
+        index.onSaved(record);
+        assertTrue(index.search("Ivan Petrov", 70.0).isEmpty());
+        assertEquals(1, index.search("Sergei Volkov", 70.0).size());
+
+        record.setStatus(FraudDatabase.FraudStatus.ARCHIVED);
+        index.onSaved(record);
+        assertEquals(0, index.size());
+        assertTrue(index.findByPersonId("P-1").isEmpty());
+        assertTrue(index.search("Sergey Volkov", 70.0).isEmpty());
+    }
+
+    @Test
+    void onDeleted_ShouldCompactAfterManyRemovals() {
+        List<FraudDatabase> records = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            records.add(record("P-" + i, "Person" + i + " Surname"));
+        }
+        index.addAll(records);
+
+        for (int i = 0; i < 2000; i++) {
+            index.onDeleted(records.get(i).getId());
+        }
+
+        assertEquals(1000, index.size());
+        assertTrue(index.findByPersonId("P-10").isEmpty());
+        assertEquals(records.get(2500).getId(), index.findByPersonId("P-2500").orElseThrow().getId());
+        assertEquals(records.get(2500).getId(), index.search("Person2500 Surname", 70.0).get(0).getId());
+    }
+
+    @Test
+    void rebuild_ShouldLoadActiveRecordsAndDetachThem() {
+        FraudDatabase record = record("P-1", "Ivan Petrov");
+        index.addAll(List.of(record("P-OLD", "Stale Entry")));
+        when(repository.streamByStatus(FraudDatabase.FraudStatus.ACTIVE)).thenReturn(Stream.of(record));
+
+        index.rebuild();
+
+        assertEquals(1, index.size());
+        assertTrue(index.findByPersonId("P-OLD").isEmpty());
+        assertEquals("Ivan Petrov", index.findByPersonId("P-1").orElseThrow().getFullName());
+        verify(entityManager).detach(record);
+    }
+
+    @Test
+    void rebuild_ShouldKeepLocalChangesCommittedWhileLoading() {
+        FraudDatabase loaded = record("P-1", "Ivan Petrov");
+        FraudDatabase addedDuringLoad = record("P-2", "Sergey Volkov");
+        FraudDatabase deletedDuringLoad = record("P-3", "Olga Kuznetsova");
+        // Снимок БД прочитан до локальных коммитов: новой записи в нём нет, удалённая ещё есть
+        when(repository.streamByStatus(FraudDatabase.FraudStatus.ACTIVE))
+                .thenReturn(Stream.of(loaded, deletedDuringLoad).peek(record -> {
+                    if (record == loaded) {
+                        index.onSaved(addedDuringLoad);
+                        index.onDeleted(deletedDuringLoad.getId());
+                    }
+                }));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertTrue(index.findByPersonId("P-2").isPresent());
+        assertTrue(index.findByPersonId("P-3").isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnEmptyForBlankQuery() {
+        index.addAll(List.of(record("P-1", "Ivan Petrov")));
+
+        assertTrue(index.search(" -- ", 70.0).isEmpty());
+    }
+
+    // Задержка поиска на 1M записей: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void search_ShouldAnswerUnderOneMillisecondOnMillionRecords() {
+        String[] first = {"Ivan", "Petr", "Sergey", "Alexey", "Dmitry", "Mikhail", "Andrey", "Nikolay", "Oleg", "Pavel"};
+        String[] last = {"Ivanov", "Petrov", "Sidorov", "Smirnov", "Kuznetsov", "Popov", "Volkov", "Sokolov", "Lebedev", "Kozlov"};
+        Random random = new Random(42);
+        List<FraudDatabase> records = new ArrayList<>(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            String name = first[random.nextInt(first.length)] + " " + last[random.nextInt(last.length)]
+                    + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26)) + random.nextInt(1000);
+            records.add(record("P-" + i, name));
+        }
+        index.addAll(records);
+
+        String[] queries = new String[1000];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = records.get(random.nextInt(records.size())).getFullName();
+        }
+        for (String query : queries) {
+            index.search(query, 70.0);
+        }
+        long started = System.nanoTime();
+        for (String query : queries) {
+            assertFalse(index.search(query, 70.0).isEmpty());
+        }
+        double averageMillis = (System.nanoTime() - started) / 1_000_000.0 / queries.length;
+
+        assertTrue(averageMillis < 1.0, "Average search took " + averageMillis + " ms");
+    }
+
+    private static FraudDatabase record(String personId, String fullName) {
+        FraudDatabase record = new FraudDatabase();
+        record.setId(UUID.randomUUID());
+        record.setPersonId(personId);
+        record.setFullName(fullName);
+        record.setFraudType(FraudDatabase.FraudType.CHEATING);
+        record.setDescription("test");
+        record.setStatus(FraudDatabase.FraudStatus.ACTIVE);
+        return record;
+    }
+}
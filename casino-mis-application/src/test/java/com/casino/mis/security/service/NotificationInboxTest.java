@@ -0,0 +1,114 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationInboxTest {
+
+    @Mock
+    private NotificationRepository repository;
+
+    private NotificationInbox inbox;
+    private UUID recipientId;
+
+    @BeforeEach
+    void setUp() {
+        inbox = new NotificationInbox(repository, 2, 60_000);
+        recipientId = UUID.randomUUID();
+    }
+
+    @Test
+    void unreadCount_ShouldLoadOnceAndApplyChangesIdempotently() {
+        Notification first = notification(UUID.randomUUID());
+        Notification second = notification(UUID.randomUUID());
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of(first.getId()));
+
+        assertEquals(1, inbox.unreadCount(recipientId));
+        // Уже попавшее в снимок не считается повторно
+        inbox.onSent(List.of(first, second));
+        assertEquals(2, inbox.unreadCount(recipientId));
+        inbox.onRemoved(List.of(first));
+        inbox.onRemoved(List.of(first));
+        assertEquals(1, inbox.unreadCount(recipientId));
+
+        verify(repository, times(1)).findIdsByRecipientIdAndStatusIn(any(), anyList());
+    }
+
+    @Test
+    void unreadCount_ShouldReplayChangesCommittedDuringLoad() {
+        Notification read = notification(UUID.randomUUID());
+        // Снимок прочитан до коммита прочтения, событие пришло до окончания загрузки
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenAnswer(invocation -> {
+                    inbox.onRemoved(List.of(read));
+                    return List.of(read.getId(), UUID.randomUUID());
+                });
+
+        assertEquals(1, inbox.unreadCount(recipientId));
+    }
+
+    @Test
+    void invalidate_ShouldReloadAndEvictionShouldBoundRecipients() {
+        when(repository.findIdsByRecipientIdAndStatusIn(any(), anyList())).thenReturn(List.of());
+
+        inbox.unreadCount(recipientId);
+        inbox.invalidate(recipientId);
+        inbox.unreadCount(recipientId);
+        inbox.unreadCount(UUID.randomUUID());
+        inbox.unreadCount(UUID.randomUUID());
+
+        assertEquals(2, inbox.size());
+        verify(repository, times(4)).findIdsByRecipientIdAndStatusIn(any(), anyList());
+    }
+
+    @Test
+    void unreadCount_ShouldReloadSnapshotAfterTtl() {
+        NotificationInbox shortLived = new NotificationInbox(repository, 2, 0);
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of(), List.of(UUID.randomUUID()));
+
+        assertEquals(0, shortLived.unreadCount(recipientId));
+        // Уведомление, отправленное другим экземпляром, видно после истечения снимка
+        assertEquals(1, shortLived.unreadCount(recipientId));
+    }
+
+    @Test
+    void eviction_ShouldDropLeastRecentlyUsedRecipient() {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(repository.findIdsByRecipientIdAndStatusIn(any(), anyList())).thenReturn(List.of());
+
+        inbox.unreadCount(recipientId);
+        inbox.unreadCount(second);
+        inbox.unreadCount(recipientId);
+        inbox.unreadCount(third);
+        inbox.unreadCount(recipientId);
+
+        assertEquals(2, inbox.size());
+        // recipientId запрашивался последним и не вытеснялся: загружен один раз
+        verify(repository, times(1)).findIdsByRecipientIdAndStatusIn(eq(recipientId), anyList());
+    }
+
+    private Notification notification(UUID id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setRecipientId(recipientId);
+        return notification;
+    }
+}
@@ -0,0 +1,184 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationPipelineStats;
+import com.casino.mis.security.dto.NotificationResponse;
+import com.casino.mis.security.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPipelineTest {
+
+    @Mock
+    private NotificationRepository repository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        // Диспетчер не запускается: пачки забираются из теста через dispatchBatch
+        pipeline = new NotificationPipeline(repository, new NotificationPushGateway(messagingTemplate),
+                new NotificationInbox(repository, 100, 60_000), transactionManager, 3, 200, 5000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchBatch_ShouldSendCriticalFirstAndMarkBatchSentOnce() throws InterruptedException {
+        Notification low = notification(Notification.NotificationPriority.LOW);
+        Notification critical = notification(Notification.NotificationPriority.CRITICAL);
+        pipeline.offer(low);
+        pipeline.offer(critical);
+        claimAll();
+
+        assertEquals(2, pipeline.dispatchBatch(0));
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(1)).markSent(ids.capture(), any(OffsetDateTime.class));
+        assertEquals(List.of(critical.getId(), low.getId()), List.copyOf(ids.getValue()));
+        ArgumentCaptor<NotificationResponse> payloads = ArgumentCaptor.forClass(NotificationResponse.class);
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), payloads.capture());
+        assertEquals(critical.getId(), payloads.getAllValues().get(0).getId());
+        assertEquals(Notification.NotificationStatus.SENT, payloads.getAllValues().get(0).getStatus());
+        verify(repository, never()).markFailed(any());
+        assertEquals(0, pipeline.depth());
+        assertEquals(2, pipeline.stats().getDispatched());
+    }
+
+    @Test
+    void dispatchBatch_ShouldPushOnlyRowsClaimedByThisInstance() throws InterruptedException {
+        Notification mine = notification(Notification.NotificationPriority.HIGH);
+        Notification taken = notification(Notification.NotificationPriority.HIGH);
+        pipeline.offer(mine);
+        pipeline.offer(taken);
+        // Вторую строку уже захватил или отправил другой экземпляр
+        when(repository.lockPending(any())).thenReturn(List.of(mine.getId()));
+
+        assertEquals(2, pipeline.dispatchBatch(0));
+
+        ArgumentCaptor<NotificationResponse> payloads = ArgumentCaptor.forClass(NotificationResponse.class);
+        verify(messagingTemplate, times(1)).convertAndSend(anyString(), payloads.capture());
+        assertEquals(mine.getId(), payloads.getValue().getId());
+        verify(repository).markSent(eq(List.of(mine.getId())), any(OffsetDateTime.class));
+        assertEquals(1, pipeline.stats().getDispatched());
+        assertEquals(Notification.NotificationStatus.PENDING, taken.getStatus());
+    }
+
+    @Test
+    void dispatchBatch_ShouldSkipPushWhenNothingClaimed() throws InterruptedException {
+        pipeline.offer(notification(Notification.NotificationPriority.NORMAL));
+        when(repository.lockPending(any())).thenReturn(List.of());
+
+        assertEquals(1, pipeline.dispatchBatch(0));
+
+        verifyNoInteractions(messagingTemplate);
+        verify(repository, never()).markSent(any(), any());
+        assertEquals(0, pipeline.stats().getDispatched());
+    }
+
+    @Test
+    void offer_ShouldEvictLowerPriorityOrDeferWhenFull() {
+        Notification low = notification(Notification.NotificationPriority.LOW);
+        pipeline.offer(low);
+        pipeline.offer(notification(Notification.NotificationPriority.NORMAL));
+        pipeline.offer(notification(Notification.NotificationPriority.HIGH));
+
+        assertTrue(pipeline.offer(notification(Notification.NotificationPriority.CRITICAL)));
+        assertFalse(pipeline.offer(notification(Notification.NotificationPriority.LOW)));
+
+        NotificationPipelineStats stats = pipeline.stats();
+        assertEquals(3, stats.getQueueDepth());
+        assertEquals(0, stats.getDepthByPriority().get(Notification.NotificationPriority.LOW));
+        assertEquals(1, stats.getDepthByPriority().get(Notification.NotificationPriority.CRITICAL));
+        assertEquals(2, stats.getDeferred());
+        // Вытесненное уведомление можно поставить снова, когда освободится место
+        assertFalse(pipeline.offer(low));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchBatch_ShouldMarkFailedWhenBrokerRejectsPush() throws InterruptedException {
+        Notification notification = notification(Notification.NotificationPriority.HIGH);
+        pipeline.offer(notification);
+        claimAll();
+        doThrow(new MessageDeliveryException("broker stopped"))
+                .when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        pipeline.dispatchBatch(0);
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).markFailed(ids.capture());
+        assertEquals(List.of(notification.getId()), List.copyOf(ids.getValue()));
+        assertEquals(1, pipeline.stats().getFailed());
+        // FAILED фиксируется собственной транзакцией, а не транзакцией вызывающего
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void recoverPending_ShouldRequeueOldPendingRowsWithinFreeCapacity() throws InterruptedException {
+        Notification queued = notification(Notification.NotificationPriority.NORMAL);
+        pipeline.offer(queued);
+        Notification lost = notification(Notification.NotificationPriority.CRITICAL);
+        when(repository.findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+                eq(Notification.NotificationStatus.PENDING), any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(queued, lost));
+
+        pipeline.recoverPending();
+
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(repository).findByStatusAndCreatedAtBeforeOrderByCreatedAt(
+                eq(Notification.NotificationStatus.PENDING), any(OffsetDateTime.class), page.capture());
+        assertEquals(2, page.getValue().getPageSize());
+        assertEquals(1, pipeline.stats().getRecovered());
+        assertEquals(2, pipeline.depth());
+        assertEquals(2, pipeline.dispatchBatch(0));
+    }
+
+    @Test
+    void dispatchBatch_ShouldReturnZeroWhenQueueIsEmpty() throws InterruptedException {
+        assertEquals(0, pipeline.dispatchBatch(0));
+        verifyNoInteractions(repository, messagingTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void claimAll() {
+        when(repository.lockPending(any())).thenAnswer(invocation ->
+                List.copyOf(invocation.<Collection<UUID>>getArgument(0)));
+    }
+
+    private static Notification notification(Notification.NotificationPriority priority) {
+        Notification notification = new Notification();
+        notification.setId(UUID.randomUUID());
+        notification.setRecipientId(UUID.randomUUID());
+        notification.setType(Notification.NotificationType.FRAUD_MATCH);
+        notification.setPriority(priority);
+        notification.setStatus(Notification.NotificationStatus.PENDING);
+        return notification;
+    }
+}
@@ -0,0 +1,146 @@
+package com.casino.mis.security.service;
+
+import com.casino.mis.security.domain.Notification;
+import com.casino.mis.security.dto.NotificationResponse;
+import com.casino.mis.security.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceTest {
+
+    @Mock
+    private NotificationRepository repository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private NotificationPipeline pipeline;
+
+    private NotificationService service;
+    private UUID recipientId;
+
+    @BeforeEach
+    void setUp() {
+        service = new NotificationService(repository, new NotificationPushGateway(messagingTemplate), pipeline,
+                new NotificationInbox(repository, 100, 60_000));
+        recipientId = UUID.randomUUID();
+    }
+
+    @Test
+    void createNotification_ShouldWritePendingRowAndHandOverToPipeline() {
+        UUID id = UUID.randomUUID();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> notifications = invocation.getArgument(0);
+            notifications.forEach(notification -> notification.setId(id));
+            return notifications;
+        });
+
+        Notification result = create();
+
+        assertEquals(Notification.NotificationStatus.PENDING, result.getStatus());
+        assertNull(result.getSentAt());
+        verify(pipeline).offerAll(List.of(result));
+        verify(repository, times(1)).saveAll(anyList());
+        verify(repository, never()).save(any());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void markAsRead_ShouldPushUpdatedStatusToOtherConsoles() {
+        UUID id = UUID.randomUUID();
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setRecipientId(recipientId);
+        notification.setStatus(Notification.NotificationStatus.DELIVERED);
+        when(repository.findById(id)).thenReturn(Optional.of(notification));
+        when(repository.save(notification)).thenReturn(notification);
+
+        Notification result = service.markAsRead(id);
+
+        assertEquals(Notification.NotificationStatus.READ, result.getStatus());
+        assertNotNull(result.getReadAt());
+        verify(messagingTemplate).convertAndSend(eq("/topic/notifications/" + recipientId), any(NotificationResponse.class));
+    }
+
+    @Test
+    void markDelivered_ShouldReportWhetherStatusChanged() {
+        UUID id = UUID.randomUUID();
+        when(repository.markDelivered(id)).thenReturn(1, 0);
+
+        assertTrue(service.markDelivered(id));
+        assertFalse(service.markDelivered(id));
+    }
+
+    @Test
+    void unreadQueries_ShouldIncludeDeliveredNotifications() {
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+
+        assertEquals(3L, service.getUnreadCount(recipientId));
+        assertTrue(NotificationService.UNREAD_STATUSES.contains(Notification.NotificationStatus.DELIVERED));
+    }
+
+    @Test
+    void findUnread_ShouldReadDatabaseEvenWhenCachedCountIsZero() {
+        Notification createdElsewhere = new Notification();
+        createdElsewhere.setId(UUID.randomUUID());
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of());
+        // Уведомление отправлено другим экземпляром: локальный кэш о нём не знает
+        when(repository.findByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of(createdElsewhere));
+        when(repository.findInboxPage(eq(recipientId), eq(NotificationService.UNREAD_STATUSES), any()))
+                .thenReturn(List.of(createdElsewhere));
+
+        assertEquals(0L, service.getUnreadCount(recipientId));
+        assertEquals(List.of(createdElsewhere), service.findUnread(recipientId));
+        assertEquals(List.of(createdElsewhere), service.page(recipientId, true, null, 10));
+    }
+
+    @Test
+    void markAllAsRead_ShouldUpdateOnceAndReloadCount() {
+        when(repository.findIdsByRecipientIdAndStatusIn(recipientId, NotificationService.UNREAD_STATUSES))
+                .thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()), List.of());
+        when(repository.markAllRead(eq(recipientId), eq(NotificationService.UNREAD_STATUSES), any())).thenReturn(2);
+
+        assertEquals(2L, service.getUnreadCount(recipientId));
+        assertEquals(2, service.markAllAsRead(recipientId));
+        assertEquals(0L, service.getUnreadCount(recipientId));
+    }
+
+    @Test
+    void page_ShouldContinueFromCursor() {
+        Notification last = new Notification();
+        last.setId(UUID.randomUUID());
+        last.setCreatedAt(OffsetDateTime.parse("2024-05-01T10:15:30+03:00"));
+
+        service.page(recipientId, false, NotificationService.encodeCursor(last), 20);
+
+        verify(repository).findInboxPageBefore(eq(recipientId), eq(NotificationService.ALL_STATUSES),
+                eq(last.getCreatedAt()), eq(last.getId()), eq(PageRequest.of(0, 21)));
+        assertThrows(IllegalArgumentException.class, () -> service.page(recipientId, false, "garbage", 20));
+    }
+
+    private Notification create() {
+        return service.createNotification(recipientId, Notification.NotificationType.FRAUD_MATCH, "title", "message",
+                Notification.NotificationPriority.CRITICAL, "FRAUD_CHECK", UUID.randomUUID());
+    }
+}
@@ -0,0 +1,78 @@
+package com.casino.mis.security.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class NotificationSubscriptionGuardTest {
+
+    private final NotificationSubscriptionGuard guard = new NotificationSubscriptionGuard();
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final UUID recipientId = UUID.randomUUID();
+
+    @Test
+    void preSend_ShouldAllowSubscriptionToOwnTopic() {
+        Message<byte[]> message = subscribe(NotificationPushGateway.topic(recipientId), user(recipientId.toString()));
+
+        assertSame(message, guard.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_ShouldRejectSubscriptionToAnotherRecipient() {
+        Message<byte[]> message = subscribe(NotificationPushGateway.topic(recipientId), user(UUID.randomUUID().toString()));
+
+        assertThrows(AccessDeniedException.class, () -> guard.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_ShouldAllowSupervisorToSubscribeToAnyRecipient() {
+        Principal supervisor = new UsernamePasswordAuthenticationToken("admin", null,
+                List.of(new SimpleGrantedAuthority(NotificationSubscriptionGuard.SUPERVISOR_AUTHORITY)));
+        Message<byte[]> message = subscribe(NotificationPushGateway.topic(recipientId), supervisor);
+
+        assertSame(message, guard.preSend(message, channel));
+    }
+
+    @Test
+    void preSend_ShouldRejectPatternAndAnonymousSubscriptions() {
+        Message<byte[]> pattern = subscribe("/topic/notifications/**", user(recipientId.toString()));
+        Message<byte[]> anonymous = subscribe(NotificationPushGateway.topic(recipientId), null);
+
+        assertThrows(AccessDeniedException.class, () -> guard.preSend(pattern, channel));
+        assertThrows(AccessDeniedException.class, () -> guard.preSend(anonymous, channel));
+    }
+
+    @Test
+    void preSend_ShouldPassOtherCommands() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination("/app/notifications/" + UUID.randomUUID() + "/read");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertSame(message, guard.preSend(message, channel));
+    }
+
+    private static Message<byte[]> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(user);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal user(String name) {
+        return new UsernamePasswordAuthenticationToken(name, null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
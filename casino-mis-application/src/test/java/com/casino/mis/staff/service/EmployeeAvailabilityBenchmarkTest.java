@@ -0,0 +1,128 @@
+package com.casino.mis.staff.service;
+
+import com.casino.mis.incident.domain.DisciplinaryViolation;
+import com.casino.mis.incident.domain.ViolationType;
+import com.casino.mis.incident.repository.DisciplinaryViolationRepository;
+import com.casino.mis.staff.client.FeignViolationGateway;
+import com.casino.mis.staff.client.IncidentServiceClient;
+import com.casino.mis.staff.client.LocalViolationGateway;
+import com.casino.mis.staff.domain.Employee;
+import com.casino.mis.staff.repository.EmployeeRepository;
+import com.casino.mis.staff.repository.ShiftScheduleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UC23: getEmployeeAvailability с нарушениями через Feign (HTTP + Basic auth на тот же процесс)
+ * и через вызов модуля инцидентов внутри процесса.
+ * Запуск: mvn test -Pbenchmark [-Dbenchmark.employees=50]
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
+        properties = {"server.port=18089", "feign.client.incident.url=http://localhost:18089"})
+@ActiveProfiles("test")
+class EmployeeAvailabilityBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeAvailabilityBenchmarkTest.class);
+
+    private static final int ROUNDS = 3;
+
+    @MockitoBean
+    private S3Client s3Client;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShiftScheduleRepository shiftScheduleRepository;
+
+    @Autowired
+    private DisciplinaryViolationRepository violationRepository;
+
+    @Autowired
+    private LocalViolationGateway localViolationGateway;
+
+    @Autowired
+    private IncidentServiceClient incidentServiceClient;
+
+    private final LocalDate start = LocalDate.now();
+    private final LocalDate end = start.plusDays(7);
+
+    @BeforeEach
+    void setUp() {
+        int employees = Integer.getInteger("benchmark.employees", 50);
+        List<Employee> saved = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName("Employee");
+            employee.setLastName(String.valueOf(i));
+            employee.setDepartment("Hall " + (i % 5));
+            saved.add(employee);
+        }
+        saved = employeeRepository.saveAll(saved);
+
+        List<DisciplinaryViolation> violations = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            for (int j = 0; j < i % 4; j++) {
+                DisciplinaryViolation violation = new DisciplinaryViolation();
+                violation.setEmployeeId(saved.get(i).getId());
+                violation.setType(ViolationType.LATE);
+                violation.setDescription("Опоздание " + j);
+                violations.add(violation);
+            }
+        }
+        violationRepository.saveAll(violations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        violationRepository.deleteAll();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void localGatewayMatchesFeignAndIsFaster() {
+        FeignViolationGateway feignGateway = new FeignViolationGateway(incidentServiceClient, 500, 4);
+        ShiftScheduleService feign = new ShiftScheduleService(shiftScheduleRepository, employeeRepository, feignGateway);
+        ShiftScheduleService local = new ShiftScheduleService(shiftScheduleRepository, employeeRepository,
+                localViolationGateway);
+
+        // Прогрев: пул соединений, HTTP-клиент, JIT
+        Map<String, Object> remoteResult = feign.getEmployeeAvailability(start, end);
+        Map<String, Object> localResult = local.getEmployeeAvailability(start, end);
+        assertEquals(remoteResult, localResult);
+
+        long feignNanos = measure(feign);
+        long localNanos = measure(local);
+
+        log.info("getEmployeeAvailability, {} employees: feign {} ms, local {} ms (avg of {})",
+                employeeRepository.count(), feignNanos / 1_000_000, localNanos / 1_000_000, ROUNDS);
+        assertTrue(localNanos < feignNanos,
+                () -> "local " + localNanos / 1_000_000 + " ms is not faster than feign " + feignNanos / 1_000_000 + " ms");
+        feignGateway.stop();
+    }
+
+    private long measure(ShiftScheduleService service) {
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            service.getEmployeeAvailability(start, end);
+        }
+        return (System.nanoTime() - started) / ROUNDS;
+    }
+}
@@ -0,0 +1,98 @@
+package com.casino.mis.staff.service;
+
+import com.casino.mis.incident.dto.ViolationCountResponse;
+import com.casino.mis.staff.client.ViolationGateway;
+import com.casino.mis.staff.domain.Employee;
+import com.casino.mis.staff.repository.EmployeeRepository;
+import com.casino.mis.staff.repository.ShiftScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShiftScheduleServiceTest {
+
+    @Mock
+    private ShiftScheduleRepository repository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private ViolationGateway violationGateway;
+
+    @InjectMocks
+    private ShiftScheduleService service;
+
+    private final LocalDate start = LocalDate.now();
+    private final LocalDate end = start.plusDays(7);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getEmployeeAvailability_ShouldUseOneGroupedCallForAllEmployees() {
+        Employee first = employee("Иван");
+        Employee second = employee("Пётр");
+        ShiftScheduleRepository.EmployeeShiftCount shifts = mock(ShiftScheduleRepository.EmployeeShiftCount.class);
+        when(shifts.getEmployeeId()).thenReturn(first.getId());
+        when(shifts.getShifts()).thenReturn(2L);
+        when(employeeRepository.findByStatus(Employee.EmployeeStatus.ACTIVE)).thenReturn(List.of(first, second));
+        when(employeeRepository.count()).thenReturn(3L);
+        when(repository.countShiftsByEmployeeIds(anyCollection(), eq(start), eq(end))).thenReturn(List.of(shifts));
+        when(violationGateway.countByEmployees(anyCollection(), isNull(), isNull())).thenReturn(List.of(
+                new ViolationCountResponse(second.getId(), 4, OffsetDateTime.now().minusDays(2))));
+
+        Map<String, Object> availability = service.getEmployeeAvailability(start, end);
+
+        List<Map<String, Object>> employees = (List<Map<String, Object>>) availability.get("employees");
+        assertEquals(3L, availability.get("totalEmployees"));
+        assertEquals(2L, employees.get(0).get("scheduledShifts"));
+        assertEquals(0, employees.get(0).get("violationsCount"));
+        assertEquals(false, employees.get(0).get("hasRecentViolations"));
+        assertEquals(0L, employees.get(1).get("scheduledShifts"));
+        assertEquals(4, employees.get(1).get("violationsCount"));
+        assertEquals(true, employees.get(1).get("hasRecentViolations"));
+        verify(violationGateway, times(1)).countByEmployees(anyCollection(), isNull(), isNull());
+        verify(violationGateway, never()).getViolationsByEmployee(any());
+    }
+
+    @Test
+    void getEmployeeAvailability_ShouldPageByDepartmentAndClampPageSize() {
+        Employee employee = employee("Иван");
+        when(employeeRepository.findByStatusAndDepartment(eq(Employee.EmployeeStatus.ACTIVE), eq("Зал 1"), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(employee), invocation.getArgument(2), 201));
+        when(repository.countShiftsByEmployeeIds(eq(List.of(employee.getId())), eq(start), eq(end))).thenReturn(List.of());
+        when(violationGateway.countByEmployees(eq(List.of(employee.getId())), isNull(), isNull())).thenReturn(List.of());
+
+        Map<String, Object> availability = service.getEmployeeAvailability(start, end, "Зал 1", 1, 1000);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(employeeRepository).findByStatusAndDepartment(eq(Employee.EmployeeStatus.ACTIVE), eq("Зал 1"), pageable.capture());
+        assertEquals(PageRequest.of(1, ShiftScheduleService.MAX_PAGE_SIZE).getPageSize(), pageable.getValue().getPageSize());
+        assertEquals(201L, availability.get("totalEmployees"));
+        assertEquals(2, availability.get("totalPages"));
+        assertEquals(1, availability.get("page"));
+    }
+
+    private static Employee employee(String firstName) {
+        Employee employee = new Employee();
+        employee.setId(UUID.randomUUID());
+        employee.setFirstName(firstName);
+        employee.setLastName("Петров");
+        employee.setDepartment("Зал 1");
+        return employee;
+    }
+}
@@ -0,0 +1,101 @@
+package com.casino.mis.staff.service;
+
+import com.casino.mis.incident.domain.ViolationStatus;
+import com.casino.mis.incident.domain.ViolationType;
+import com.casino.mis.incident.dto.ViolationFilter;
+import com.casino.mis.incident.dto.ViolationPageResponse;
+import com.casino.mis.incident.dto.ViolationResponse;
+import com.casino.mis.incident.dto.ViolationSummaryResponse;
+import com.casino.mis.staff.client.ViolationGateway;
+import com.casino.mis.staff.domain.Employee;
+import com.casino.mis.staff.dto.ViolationHistoryRequest;
+import com.casino.mis.staff.dto.ViolationHistoryResponse;
+import com.casino.mis.staff.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViolationHistoryServiceTest {
+
+    @Mock
+    private ViolationGateway violationGateway;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @InjectMocks
+    private ViolationHistoryService service;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getViolationHistory_ShouldReturnPageWithServerSideSummaryAndLoadEmployeesOnce() {
+        Employee first = employee("Зал 1");
+        Employee second = employee("Зал 1");
+        UUID unknown = UUID.randomUUID();
+        when(employeeRepository.findByDepartment("Зал 1")).thenReturn(List.of(first, second));
+        when(violationGateway.searchViolations(any(ViolationFilter.class), eq("cursor"), eq(ViolationHistoryService.MAX_PAGE_SIZE)))
+                .thenReturn(new ViolationPageResponse(List.of(violation(first.getId()), violation(unknown)), "next"));
+        when(violationGateway.summarizeViolations(any(ViolationFilter.class))).thenReturn(new ViolationSummaryResponse(
+                7, Map.of("LATE", 7L), Map.of(first.getId(), 4L, second.getId(), 2L, unknown, 1L)));
+        when(employeeRepository.findAllById(anyCollection())).thenReturn(List.of());
+
+        ViolationHistoryRequest request = new ViolationHistoryRequest(null, "Зал 1", null, null, "LATE", "cursor", 5000);
+        ViolationHistoryResponse response = service.getViolationHistory(request);
+
+        ArgumentCaptor<ViolationFilter> filter = ArgumentCaptor.forClass(ViolationFilter.class);
+        verify(violationGateway).summarizeViolations(filter.capture());
+        assertEquals(Set.of(first.getId(), second.getId()), new HashSet<>(filter.getValue().getEmployeeIds()));
+        assertEquals(ViolationType.LATE, filter.getValue().getType());
+        assertNull(filter.getValue().getFrom());
+
+        assertEquals(2, response.getViolations().size());
+        assertEquals("next", response.getNextCursor());
+        assertEquals("Unknown", response.getViolations().get(1).getEmployeeName());
+        assertEquals(7L, response.getSummary().getTotalViolations());
+        assertEquals(Map.of("LATE", 7L), response.getSummary().getByType());
+        assertEquals(3L, response.getSummary().getEmployeesWithViolations());
+        assertEquals(Map.of("Зал 1", 2L), response.getSummary().getByDepartment());
+        // Сотрудники подразделения уже в кэше, из БД догружается только неизвестный - один раз
+        ArgumentCaptor<Collection<UUID>> loaded = ArgumentCaptor.forClass(Collection.class);
+        verify(employeeRepository, times(1)).findAllById(loaded.capture());
+        assertEquals(Set.of(unknown), new HashSet<>(loaded.getValue()));
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    @Test
+    void getViolationHistory_ShouldSkipQueryWhenFilterCannotMatch() {
+        ViolationHistoryRequest request = new ViolationHistoryRequest(UUID.randomUUID(), null,
+                OffsetDateTime.now().minusDays(1), null, "UNKNOWN_TYPE", null, null);
+
+        ViolationHistoryResponse response = service.getViolationHistory(request);
+
+        assertTrue(response.getViolations().isEmpty());
+        assertEquals(0L, response.getSummary().getTotalViolations());
+        verifyNoInteractions(violationGateway);
+    }
+
+    private static Employee employee(String department) {
+        Employee employee = new Employee();
+        employee.setId(UUID.randomUUID());
+        employee.setFirstName("Иван");
+        employee.setLastName("Петров");
+        employee.setDepartment(department);
+        return employee;
+    }
+
+    private static ViolationResponse violation(UUID employeeId) {
+        return new ViolationResponse(UUID.randomUUID(), employeeId, ViolationType.LATE, "Опоздание",
+                OffsetDateTime.now(), ViolationStatus.OPEN, List.of());
+    }
+}